@@ -66,6 +66,11 @@ export const authAPI = {
   isAuthenticated: () => {
     return !!localStorage.getItem('authToken');
   },
+
+  deleteAccount: async () => {
+    const response = await api.delete('/api/auth/me');
+    return response.data;
+  },
 };
 
 // Glucose API
@@ -78,6 +83,21 @@ export const glucoseAPI = {
     return response.data;
   },
 
+  // Downsampled chart series: { from, t: [seconds since from], v: [mg/dL] }
+  getSeries: async (fromDate, toDate, points = 500) => {
+    const params = { points };
+    if (fromDate) params.from = fromDate;
+    if (toDate) params.to = toDate;
+    const response = await api.get('/api/glucose/series', { params });
+    return response.data;
+  },
+
+  // 30/60-minute forecast with a predicted-low flag
+  getForecast: async () => {
+    const response = await api.get('/api/glucose/forecast');
+    return response.data;
+  },
+
   createReading: async (reading) => {
     const response = await api.post('/api/glucose', reading);
     return response.data;
@@ -88,9 +108,70 @@ export const glucoseAPI = {
     return response.data;
   },
 
+  // Sends only the changed fields; with a version, fails with 412 if someone else edited it first
+  patchReading: async (id, changes, version) => {
+    const headers = { 'Content-Type': 'application/merge-patch+json' };
+    if (version != null) headers['If-Match'] = `"${version}"`;
+    const response = await api.patch(`/api/glucose/${id}`, changes, { headers });
+    return response.data;
+  },
+
   deleteReading: async (id) => {
     await api.delete(`/api/glucose/${id}`);
   },
+
+  deleteRange: async (fromDate, toDate) => {
+    const response = await api.delete('/api/glucose', { params: { from: fromDate, to: toDate } });
+    return response.data;
+  },
+};
+
+// Timeline API
+export const timelineAPI = {
+  getTimeline: async (before, limit = 50) => {
+    const params = { limit };
+    if (before) params.before = before;
+    const response = await api.get('/api/timeline', { params });
+    return response.data;
+  },
+};
+
+// Sync API
+export const syncAPI = {
+  getChanges: async (since, limit = 500) => {
+    const params = { limit };
+    if (since) params.since = since;
+    const response = await api.get('/api/sync', { params });
+    return response.data;
+  },
+
+  upload: async (mutations) => {
+    const response = await api.post('/api/sync', { mutations });
+    return response.data;
+  },
+};
+
+// Jobs API
+export const jobsAPI = {
+  getJobs: async (limit = 20) => {
+    const response = await api.get('/api/jobs', { params: { limit } });
+    return response.data;
+  },
+
+  getJob: async (id) => {
+    const response = await api.get(`/api/jobs/${id}`);
+    return response.data;
+  },
+};
+
+// Search API
+export const searchAPI = {
+  search: async (query, cursor, limit = 20) => {
+    const params = { q: query, limit };
+    if (cursor) params.cursor = cursor;
+    const response = await api.get('/api/search', { params });
+    return response.data;
+  },
 };
 
 // Meals API
@@ -113,9 +194,27 @@ export const mealsAPI = {
     return response.data;
   },
 
+  // Sends only the changed fields; with a version, fails with 412 if someone else edited it first
+  patchMeal: async (id, changes, version) => {
+    const headers = { 'Content-Type': 'application/merge-patch+json' };
+    if (version != null) headers['If-Match'] = `"${version}"`;
+    const response = await api.patch(`/api/meals/${id}`, changes, { headers });
+    return response.data;
+  },
+
   deleteMeal: async (id) => {
     await api.delete(`/api/meals/${id}`);
   },
+
+  deleteRange: async (fromDate, toDate) => {
+    const response = await api.delete('/api/meals', { params: { from: fromDate, to: toDate } });
+    return response.data;
+  },
+
+  getSuggestions: async (query, limit = 10) => {
+    const response = await api.get('/api/meals/suggestions', { params: { q: query, limit } });
+    return response.data;
+  },
 };
 
 // Medications API
@@ -138,10 +237,28 @@ export const medicationsAPI = {
     return response.data;
   },
 
+  // Sends only the changed fields; with a version, fails with 412 if someone else edited it first
+  patchMedication: async (id, changes, version) => {
+    const headers = { 'Content-Type': 'application/merge-patch+json' };
+    if (version != null) headers['If-Match'] = `"${version}"`;
+    const response = await api.patch(`/api/medications/${id}`, changes, { headers });
+    return response.data;
+  },
+
   deleteMedication: async (id) => {
     await api.delete(`/api/medications/${id}`);
   },
 
+  deleteRange: async (fromDate, toDate) => {
+    const response = await api.delete('/api/medications', { params: { from: fromDate, to: toDate } });
+    return response.data;
+  },
+
+  getSuggestions: async (query, limit = 10) => {
+    const response = await api.get('/api/medications/suggestions', { params: { q: query, limit } });
+    return response.data;
+  },
+
   getMedicationNames: async () => {
     const response = await api.get('/api/medications/names');
     return response.data;
@@ -243,4 +360,17 @@ export const exportAPI = {
   },
 };
 
-export default api;
\ No newline at end of file
+export default api;
+// Live updates (Server-Sent Events) - replaces polling for new readings, meals, medications and alerts
+export const streamAPI = {
+  connect: (handlers = {}) => {
+    const token = localStorage.getItem('authToken');
+    const source = new EventSource(`${API_BASE_URL}/api/stream?access_token=${encodeURIComponent(token)}`);
+    ['reading', 'meal', 'medication', 'alert'].forEach((name) => {
+      if (handlers[name]) {
+        source.addEventListener(name, (event) => handlers[name](JSON.parse(event.data)));
+      }
+    });
+    return source;
+  },
+};
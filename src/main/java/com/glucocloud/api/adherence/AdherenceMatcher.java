@@ -0,0 +1,87 @@
+package com.glucocloud.api.adherence;
+
+import java.util.Arrays;
+
+/**
+ * Pairs logged doses with expected schedule slots. A dose may fill a slot if it falls
+ * in [slot - tolerance, slot + late]; among the slots it may fill it goes to the
+ * nearest, and a slot keeps the closest of the doses offered to it. Doses within the
+ * tolerance are on time, later ones are late; leftover doses are extra and unfilled
+ * slots missed. Both inputs are sorted, so matching is a single merge-like pass.
+ */
+public final class AdherenceMatcher {
+
+    public enum SlotStatus {
+        TAKEN,
+        LATE,
+        MISSED
+    }
+
+    private AdherenceMatcher() {
+    }
+
+    /**
+     * @param slots            expected dose times in epoch seconds, sorted ascending
+     * @param doses            logged dose times in epoch seconds, sorted ascending
+     * @param toleranceMinutes on-time window on either side of a slot
+     * @param lateMinutes      how long after a slot a dose still counts (late)
+     */
+    public static Result match(long[] slots, long[] doses, int toleranceMinutes, int lateMinutes) {
+        long before = toleranceMinutes * 60L;
+        long after = Math.max(toleranceMinutes, lateMinutes) * 60L;
+
+        int[] slotDose = new int[slots.length];
+        Arrays.fill(slotDose, -1);
+        int[] doseSlot = new int[doses.length];
+        Arrays.fill(doseSlot, -1);
+
+        int first = 0;
+        for (int d = 0; d < doses.length; d++) {
+            long dose = doses[d];
+            // Slots whose window ended before this dose can't take later doses either
+            while (first < slots.length && slots[first] + after < dose) {
+                first++;
+            }
+
+            int best = -1;
+            long bestDistance = Long.MAX_VALUE;
+            for (int s = first; s < slots.length && slots[s] - before <= dose; s++) {
+                long distance = Math.abs(dose - slots[s]);
+                if (distance < bestDistance) {
+                    best = s;
+                    bestDistance = distance;
+                }
+            }
+            if (best < 0) {
+                continue;
+            }
+
+            int current = slotDose[best];
+            if (current < 0 || bestDistance < Math.abs(doses[current] - slots[best])) {
+                if (current >= 0) {
+                    doseSlot[current] = -1;
+                }
+                slotDose[best] = d;
+                doseSlot[d] = best;
+            }
+        }
+
+        SlotStatus[] status = new SlotStatus[slots.length];
+        for (int s = 0; s < slots.length; s++) {
+            int d = slotDose[s];
+            if (d < 0) {
+                status[s] = SlotStatus.MISSED;
+            } else {
+                status[s] = doses[d] - slots[s] <= before ? SlotStatus.TAKEN : SlotStatus.LATE;
+            }
+        }
+        return new Result(status, doseSlot);
+    }
+
+    /**
+     * @param slotStatus status of each slot; MISSED means no dose was matched
+     * @param doseSlot   matched slot of each dose, or -1 for an extra dose
+     */
+    public record Result(SlotStatus[] slotStatus, int[] doseSlot) {
+    }
+}
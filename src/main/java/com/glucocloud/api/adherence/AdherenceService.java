@@ -0,0 +1,300 @@
+package com.glucocloud.api.adherence;
+
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.dto.AdherenceResponse;
+import com.glucocloud.api.dto.MedicationResponse;
+import com.glucocloud.api.entity.AdherenceDay;
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.entity.MedicationRegimen;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.outbox.OutboxConsumer;
+import com.glucocloud.api.repository.AdherenceDayRepository;
+import com.glucocloud.api.repository.MedicationRegimenRepository;
+import com.glucocloud.api.repository.MedicationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Keeps per-day adherence rows in step with logged doses and answers adherence queries
+ * from them. Rows are rewritten from the outbox, in the transaction that advances this
+ * consumer's offset, for the dose's day and its neighbours (a dose just after midnight
+ * can fill a late-evening slot). Ranges are then a grouped sum over closed days plus a
+ * live match of the one or two days whose slots are still open.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class AdherenceService implements OutboxConsumer {
+
+    /** How long after a slot a dose still counts, as late. */
+    public static final int LATE_MINUTES = 240;
+    public static final int MAX_BACKFILL_DAYS = 366;
+
+    private static final int TAKEN = 0;
+    private static final int LATE = 1;
+    private static final int MISSED = 2;
+    private static final int PENDING = 3;
+    private static final int EXTRA = 4;
+    private static final int EXPECTED = 5;
+
+    private final MedicationRegimenRepository regimenRepository;
+    private final AdherenceDayRepository adherenceDayRepository;
+    private final MedicationRepository medicationRepository;
+
+    @Override
+    public String name() {
+        return "adherence";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handle(long after, List<EntityChangedEvent<?>> events) {
+        for (EntityChangedEvent<?> event : events) {
+            if (event.getEntityType() == EntityChangedEvent.EntityType.MEDICATION) {
+                onMedicationChanged((EntityChangedEvent<MedicationResponse>) event);
+            }
+        }
+    }
+
+    private void onMedicationChanged(EntityChangedEvent<MedicationResponse> event) {
+        List<MedicationRegimen> regimens = regimenRepository.findByUserId(event.getUserId());
+        if (regimens.isEmpty()) {
+            return;
+        }
+
+        for (MedicationRegimen regimen : regimens) {
+            String name = normalize(regimen.getName());
+            LocalDate first = null;
+            LocalDate last = null;
+            for (MedicationResponse version : Arrays.asList(event.getBefore(), event.getAfter())) {
+                if (version == null || !name.equals(normalize(version.getName()))) {
+                    continue;
+                }
+                LocalDate day = version.getTakenAt().toLocalDate();
+                first = first == null || day.isBefore(first) ? day : first;
+                last = last == null || day.isAfter(last) ? day : last;
+            }
+            if (first != null) {
+                recompute(regimen, first.minusDays(1), last.plusDays(1));
+            }
+        }
+    }
+
+    /** Rebuilds the rows of a new or changed regimen over its (bounded) history. */
+    public void rebuild(MedicationRegimen regimen) {
+        adherenceDayRepository.deleteByRegimen(regimen);
+        LocalDate today = LocalDate.now();
+        LocalDate from = regimen.getStartDate().isBefore(today.minusDays(MAX_BACKFILL_DAYS - 1))
+                ? today.minusDays(MAX_BACKFILL_DAYS - 1) : regimen.getStartDate();
+        LocalDate to = regimen.getEndDate() != null && regimen.getEndDate().isBefore(today) ? regimen.getEndDate() : today;
+        if (!from.isAfter(to)) {
+            recompute(regimen, from, to);
+        }
+    }
+
+    public void deleteRows(MedicationRegimen regimen) {
+        adherenceDayRepository.deleteByRegimen(regimen);
+    }
+
+    /** Recomputes and stores the rows of [fromDay, toDay]. */
+    public void recompute(MedicationRegimen regimen, LocalDate fromDay, LocalDate toDay) {
+        Map<LocalDate, int[]> tally = tally(regimen, fromDay, toDay, null);
+
+        Map<LocalDate, AdherenceDay> existing = new HashMap<>();
+        for (AdherenceDay row : adherenceDayRepository.findByRegimenAndDayBetween(regimen, fromDay, toDay)) {
+            existing.put(row.getDay(), row);
+        }
+
+        List<AdherenceDay> changed = new ArrayList<>();
+        for (LocalDate day = fromDay; !day.isAfter(toDay); day = day.plusDays(1)) {
+            int[] counts = tally.get(day);
+            AdherenceDay row = existing.get(day);
+            if (counts == null || counts[TAKEN] + counts[LATE] + counts[EXTRA] == 0) {
+                if (row != null) {
+                    adherenceDayRepository.delete(row);
+                }
+                continue;
+            }
+            if (row == null) {
+                row = AdherenceDay.builder()
+                        .user(regimen.getUser())
+                        .regimen(regimen)
+                        .day(day)
+                        .build();
+            } else if (row.getTaken() == counts[TAKEN] && row.getLate() == counts[LATE] && row.getExtra() == counts[EXTRA]) {
+                continue;
+            }
+            row.setTaken(counts[TAKEN]);
+            row.setLate(counts[LATE]);
+            row.setExtra(counts[EXTRA]);
+            changed.add(row);
+        }
+        adherenceDayRepository.saveAll(changed);
+    }
+
+    @Transactional(readOnly = true)
+    public AdherenceResponse getAdherence(User user, LocalDate fromDay, LocalDate toDay) {
+        // Default to the last 30 days
+        if (fromDay == null || toDay == null) {
+            toDay = LocalDate.now();
+            fromDay = toDay.minusDays(29);
+        }
+        if (toDay.isBefore(fromDay)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        // Every slot of a closed day is past its late window
+        LocalDate lastClosedDay = now.minusMinutes(LATE_MINUTES).toLocalDate().minusDays(1);
+        LocalDate closedTo = toDay.isBefore(lastClosedDay) ? toDay : lastClosedDay;
+        LocalDate openFrom = fromDay.isAfter(lastClosedDay) ? fromDay : lastClosedDay.plusDays(1);
+        LocalDate openTo = toDay.isBefore(today) ? toDay : today;
+
+        Map<UUID, long[]> sums = new HashMap<>();
+        if (!closedTo.isBefore(fromDay)) {
+            for (Object[] row : adherenceDayRepository.sumByRegimen(user, fromDay, closedTo)) {
+                sums.put((UUID) row[0], new long[]{((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), ((Number) row[3]).longValue()});
+            }
+        }
+
+        int[] overall = new int[6];
+        List<AdherenceResponse.RegimenAdherence> regimens = new ArrayList<>();
+        for (MedicationRegimen regimen : regimenRepository.findByUserOrderByNameAsc(user)) {
+            int[] counts = new int[6];
+
+            if (!closedTo.isBefore(fromDay)) {
+                long[] sum = sums.getOrDefault(regimen.getId(), new long[3]);
+                counts[EXPECTED] = countSlots(regimen, fromDay, closedTo);
+                counts[TAKEN] = (int) sum[0];
+                counts[LATE] = (int) sum[1];
+                counts[EXTRA] = (int) sum[2];
+                counts[MISSED] = Math.max(0, counts[EXPECTED] - counts[TAKEN] - counts[LATE]);
+            }
+
+            if (!openFrom.isAfter(openTo)) {
+                for (int[] day : tally(regimen, openFrom, openTo, now).values()) {
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] += day[i];
+                    }
+                }
+            }
+
+            for (int i = 0; i < counts.length; i++) {
+                overall[i] += counts[i];
+            }
+            regimens.add(AdherenceResponse.RegimenAdherence.builder()
+                    .regimenId(regimen.getId())
+                    .name(regimen.getName())
+                    .counts(toCounts(counts))
+                    .build());
+        }
+
+        return AdherenceResponse.builder()
+                .fromDate(fromDay)
+                .toDate(toDay)
+                .overall(toCounts(overall))
+                .regimens(regimens)
+                .build();
+    }
+
+    /**
+     * Matches the regimen's doses against its slots and tallies the days of
+     * [fromDay, toDay]. Neighbouring days take part in the match so doses near midnight
+     * land on the right slot. With {@code now} set, unfilled slots still inside their
+     * late window count as pending instead of missed.
+     */
+    private Map<LocalDate, int[]> tally(MedicationRegimen regimen, LocalDate fromDay, LocalDate toDay, LocalDateTime now) {
+        List<LocalTime> times = regimen.scheduleTimes();
+        Set<DayOfWeek> days = regimen.scheduleDays();
+
+        List<LocalDateTime> slotTimes = new ArrayList<>();
+        for (LocalDate day = fromDay.minusDays(1); !day.isAfter(toDay.plusDays(1)); day = day.plusDays(1)) {
+            if (regimen.isActiveOn(day) && days.contains(day.getDayOfWeek())) {
+                for (LocalTime time : times) {
+                    slotTimes.add(day.atTime(time));
+                }
+            }
+        }
+
+        int tolerance = regimen.getToleranceMinutes();
+        List<Medication> doses = medicationRepository.findDosesByNameAndDateRange(regimen.getUser(),
+                normalize(regimen.getName()),
+                fromDay.minusDays(1).atStartOfDay().minusMinutes(Math.max(tolerance, LATE_MINUTES)),
+                toDay.plusDays(2).atStartOfDay().plusMinutes(tolerance));
+
+        long[] slots = slotTimes.stream().mapToLong(GlucoseSeries::toEpochSecond).toArray();
+        long[] doseTimes = doses.stream().mapToLong(dose -> GlucoseSeries.toEpochSecond(dose.getTakenAt())).toArray();
+        AdherenceMatcher.Result result = AdherenceMatcher.match(slots, doseTimes, tolerance, LATE_MINUTES);
+
+        Map<LocalDate, int[]> tally = new TreeMap<>();
+        for (int s = 0; s < slots.length; s++) {
+            LocalDateTime slot = slotTimes.get(s);
+            LocalDate day = slot.toLocalDate();
+            if (day.isBefore(fromDay) || day.isAfter(toDay)) {
+                continue;
+            }
+            int[] counts = tally.computeIfAbsent(day, d -> new int[6]);
+            counts[EXPECTED]++;
+            switch (result.slotStatus()[s]) {
+                case TAKEN -> counts[TAKEN]++;
+                case LATE -> counts[LATE]++;
+                case MISSED -> counts[now != null && slot.plusMinutes(LATE_MINUTES).isAfter(now) ? PENDING : MISSED]++;
+            }
+        }
+        for (int d = 0; d < doseTimes.length; d++) {
+            LocalDate day = doses.get(d).getTakenAt().toLocalDate();
+            if (result.doseSlot()[d] < 0 && !day.isBefore(fromDay) && !day.isAfter(toDay) && regimen.isActiveOn(day)) {
+                tally.computeIfAbsent(day, k -> new int[6])[EXTRA]++;
+            }
+        }
+        return tally;
+    }
+
+    private int countSlots(MedicationRegimen regimen, LocalDate fromDay, LocalDate toDay) {
+        LocalDate from = fromDay.isBefore(regimen.getStartDate()) ? regimen.getStartDate() : fromDay;
+        LocalDate to = regimen.getEndDate() != null && regimen.getEndDate().isBefore(toDay) ? regimen.getEndDate() : toDay;
+        if (from.isAfter(to)) {
+            return 0;
+        }
+
+        // Whole weeks contribute every scheduled weekday; walk only the remainder
+        Set<DayOfWeek> days = regimen.scheduleDays();
+        long totalDays = ChronoUnit.DAYS.between(from, to) + 1;
+        long scheduledDays = (totalDays / 7) * days.size();
+        for (LocalDate day = from.plusDays(totalDays / 7 * 7); !day.isAfter(to); day = day.plusDays(1)) {
+            if (days.contains(day.getDayOfWeek())) {
+                scheduledDays++;
+            }
+        }
+        return (int) (scheduledDays * regimen.scheduleTimes().size());
+    }
+
+    private AdherenceResponse.Counts toCounts(int[] counts) {
+        int due = counts[EXPECTED] - counts[PENDING];
+        return AdherenceResponse.Counts.builder()
+                .expected(counts[EXPECTED])
+                .taken(counts[TAKEN])
+                .late(counts[LATE])
+                .missed(counts[MISSED])
+                .pending(counts[PENDING])
+                .extra(counts[EXTRA])
+                .adherencePercentage(due > 0 ? Math.round((counts[TAKEN] + counts[LATE]) * 10000.0 / due) / 100.0 : null)
+                .onTimePercentage(due > 0 ? Math.round(counts[TAKEN] * 10000.0 / due) / 100.0 : null)
+                .build();
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase();
+    }
+}
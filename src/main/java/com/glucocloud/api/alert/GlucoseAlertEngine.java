@@ -0,0 +1,391 @@
+package com.glucocloud.api.alert;
+
+import com.glucocloud.api.dto.GlucoseAlertResponse;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.GlucoseSummaryResponse;
+import com.glucocloud.api.entity.GlucoseAlert;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.AccountErasedEvent;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.outbox.OutboxConsumer;
+import com.glucocloud.api.repository.GlucoseAlertRepository;
+import com.glucocloud.api.repository.GlucoseDailyAggregate;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.stream.LiveEventBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates glucose alert rules as readings are written. Rules run from the outbox, so
+ * alerts are stored in the transaction that advances this consumer's offset and a crash
+ * after the reading commits cannot lose them; the trend state they need is kept per user
+ * for as long as batches arrive back to back on this instance. Only readings newer than the
+ * last one evaluated and written soon after they were taken raise alerts, so imports and
+ * backfills cannot flood a user with historical alerts. The flags endpoint reads
+ * day counters that are seeded once from a per-day aggregate and then kept up to date
+ * from committed reading events, instead of re-aggregating.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GlucoseAlertEngine implements OutboxConsumer {
+
+    private static final double CRITICAL_LOW = 54;
+    private static final double CRITICAL_HIGH = 250;
+    private static final double LOW = 70;
+    private static final double HIGH = 180;
+    private static final double RAPID_CHANGE_PER_MINUTE = 2.0;
+    private static final long RATE_MAX_GAP_MINUTES = 20;
+    private static final long EXCURSION_MAX_GAP_MINUTES = 30;
+    private static final long SUSTAINED_LOW_MINUTES = 15;
+    private static final long SUSTAINED_HIGH_MINUTES = 120;
+    // Readings written longer than this after they were taken are history and raise no alerts
+    private static final long LIVE_WINDOW_MINUTES = 60;
+
+    private static final Map<GlucoseAlert.AlertType, Long> COOLDOWN_MINUTES = Map.of(
+            GlucoseAlert.AlertType.CRITICAL_LOW, 30L,
+            GlucoseAlert.AlertType.CRITICAL_HIGH, 60L,
+            GlucoseAlert.AlertType.RAPID_FALL, 30L,
+            GlucoseAlert.AlertType.RAPID_RISE, 60L,
+            GlucoseAlert.AlertType.SUSTAINED_LOW, 60L,
+            GlucoseAlert.AlertType.SUSTAINED_HIGH, 180L);
+
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final GlucoseAlertRepository glucoseAlertRepository;
+    private final UserRepository userRepository;
+    private final LiveEventBus liveEventBus;
+
+    private final Map<UUID, UserGlucoseState> states = new ConcurrentHashMap<>();
+
+    // Trend state for rule evaluation, only valid while batches follow on from expectedAfter
+    private final Map<UUID, UserGlucoseState> evaluations = new HashMap<>();
+    private long expectedAfter = -1;
+
+    @Override
+    public String name() {
+        return "glucose-alerts";
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public synchronized void handle(long after, List<EntityChangedEvent<?>> events) {
+        // Another instance handled the batches in between, or the last one rolled back
+        if (after != expectedAfter) {
+            evaluations.clear();
+        }
+        expectedAfter = -1;
+
+        List<GlucoseAlert> saved = new ArrayList<>();
+        for (EntityChangedEvent<?> event : events) {
+            if (event.getEntityType() == EntityChangedEvent.EntityType.GLUCOSE_READING
+                    && event.getChangeType() == EntityChangedEvent.ChangeType.CREATED) {
+                onReadingCreated((EntityChangedEvent<GlucoseReadingResponse>) event, saved);
+            }
+        }
+
+        if (!saved.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (GlucoseAlert alert : saved) {
+                        liveEventBus.publish(alert.getUser().getId(), "alert", GlucoseAlertResponse.fromEntity(alert));
+                    }
+                }
+            });
+        }
+        expectedAfter = after + events.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onReadingChanged(EntityChangedEvent<GlucoseReadingResponse> event) {
+        boolean[] seeded = {false};
+        UserGlucoseState state = states.computeIfAbsent(event.getUserId(), id -> {
+            seeded[0] = true;
+            return loadState(id);
+        });
+
+        // A freshly seeded state already contains the committed change
+        if (seeded[0]) {
+            return;
+        }
+        synchronized (state) {
+            if (event.getBefore() != null) {
+                state.remove(event.getBefore().getTakenAt().toLocalDate(), event.getBefore().getReadingValue().doubleValue());
+            }
+            if (event.getAfter() != null) {
+                state.add(event.getAfter().getTakenAt().toLocalDate(), event.getAfter().getReadingValue().doubleValue());
+            }
+        }
+    }
+
+    @EventListener
+    public void onAccountErased(AccountErasedEvent event) {
+        states.remove(event.userId());
+        synchronized (this) {
+            evaluations.remove(event.userId());
+        }
+    }
+
+    /**
+     * Summary of the last {@code days} calendar days read from the incremental state.
+     * Ranges longer than the state window return null so callers can fall back to the
+     * aggregate queries.
+     */
+    @Transactional(readOnly = true)
+    public GlucoseSummaryResponse summarize(User user, int days) {
+        if (days < 1 || days > UserGlucoseState.DAYS) {
+            return null;
+        }
+
+        UserGlucoseState state = states.computeIfAbsent(user.getId(), this::loadState);
+        double[] totals;
+        double[] recent;
+        double[] previous;
+        synchronized (state) {
+            totals = state.totals(days);
+            recent = state.totals(7);
+            previous = state.totals(7, 7);
+        }
+
+        LocalDateTime endDate = LocalDateTime.now();
+        GlucoseSummaryResponse.GlucoseSummaryResponseBuilder builder = GlucoseSummaryResponse.builder()
+                .fromDate(LocalDate.now().minusDays(days - 1L).atStartOfDay())
+                .toDate(endDate)
+                .trend("STABLE")
+                .trendChange(BigDecimal.ZERO);
+
+        long total = (long) totals[0];
+        builder.totalReadings((int) total);
+        if (total > 0) {
+            builder.averageReading(BigDecimal.valueOf(totals[1] / total).setScale(2, RoundingMode.HALF_UP))
+                    .readingsInRange((int) totals[2])
+                    .readingsHigh((int) totals[3])
+                    .readingsLow((int) totals[4])
+                    .criticallyHighReadings((int) totals[5])
+                    .criticallyLowReadings((int) totals[6])
+                    .timeInRangePercentage(percentage(totals[2], total))
+                    .timeHighPercentage(percentage(totals[3], total))
+                    .timeLowPercentage(percentage(totals[4], total));
+        }
+
+        if (recent[0] > 0 && previous[0] > 0) {
+            BigDecimal trendChange = BigDecimal.valueOf(recent[1] / recent[0] - previous[1] / previous[0])
+                    .setScale(2, RoundingMode.HALF_UP);
+            builder.trendChange(trendChange);
+            if (trendChange.compareTo(BigDecimal.valueOf(10)) > 0) {
+                builder.trend("WORSENING");
+            } else if (trendChange.compareTo(BigDecimal.valueOf(-10)) < 0) {
+                builder.trend("IMPROVING");
+            }
+        }
+
+        return builder.build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<GlucoseAlertResponse> getRecentAlerts(User user, int limit) {
+        return glucoseAlertRepository.findByUserOrderByTriggeredAtDesc(user, PageRequest.of(0, limit)).stream()
+                .map(GlucoseAlertResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<GlucoseAlertResponse> getAlertsSince(User user, LocalDateTime since) {
+        return glucoseAlertRepository.findByUserAndTriggeredAtAfterOrderByTriggeredAtDesc(user, since).stream()
+                .map(GlucoseAlertResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public GlucoseAlertResponse acknowledgeAlert(User user, UUID alertId) {
+        GlucoseAlert alert = glucoseAlertRepository.findByIdAndUser(alertId, user)
+                .orElseThrow(() -> new RuntimeException("Alert not found"));
+        alert.setAcknowledged(true);
+        return GlucoseAlertResponse.fromEntity(glucoseAlertRepository.save(alert));
+    }
+
+    // Drops the cached state so it is re-seeded on next use
+    public void invalidate(UUID userId) {
+        states.remove(userId);
+        synchronized (this) {
+            evaluations.remove(userId);
+        }
+    }
+
+    private void onReadingCreated(EntityChangedEvent<GlucoseReadingResponse> event, List<GlucoseAlert> saved) {
+        UUID userId = event.getUserId();
+        GlucoseReadingResponse reading = event.getAfter();
+        // The account may have been erased since the reading was written
+        if (!userRepository.existsById(userId)) {
+            evaluations.remove(userId);
+            return;
+        }
+
+        UserGlucoseState state = evaluations.computeIfAbsent(userId, id -> loadTrend(id, reading, event.getOccurredAt()));
+        List<GlucoseAlert> fired = new ArrayList<>();
+        evaluate(state, reading, event.getOccurredAt(), fired);
+
+        User user = userRepository.getReferenceById(userId);
+        for (GlucoseAlert alert : fired) {
+            // A batch is delivered again after a rollback or crash
+            if (glucoseAlertRepository.existsByUserIdAndAlertTypeAndReadingId(userId, alert.getAlertType(), alert.getReadingId())) {
+                continue;
+            }
+            alert.setUser(user);
+            saved.add(glucoseAlertRepository.save(alert));
+        }
+    }
+
+    private void evaluate(UserGlucoseState state, GlucoseReadingResponse reading, LocalDateTime occurredAt,
+                          List<GlucoseAlert> fired) {
+        LocalDateTime takenAt = reading.getTakenAt();
+        double value = reading.getReadingValue().doubleValue();
+
+        // Rules only apply to the newest reading, not to backfill
+        LocalDateTime lastTakenAt = state.getLastTakenAt();
+        if (lastTakenAt != null && !takenAt.isAfter(lastTakenAt)) {
+            return;
+        }
+        // Imported or replayed history still moves the trend state on
+        boolean live = !takenAt.isBefore(occurredAt.minusMinutes(LIVE_WINDOW_MINUTES));
+
+        if (live && value < CRITICAL_LOW) {
+            fire(state, fired, reading, GlucoseAlert.AlertType.CRITICAL_LOW, GlucoseAlert.Severity.CRITICAL,
+                    String.format("Critically low reading of %.0f mg/dL (<54 mg/dL)", value));
+        } else if (live && value > CRITICAL_HIGH) {
+            fire(state, fired, reading, GlucoseAlert.AlertType.CRITICAL_HIGH, GlucoseAlert.Severity.CRITICAL,
+                    String.format("Critically high reading of %.0f mg/dL (>250 mg/dL)", value));
+        }
+
+        if (live && lastTakenAt != null) {
+            long gapMinutes = ChronoUnit.MINUTES.between(lastTakenAt, takenAt);
+            if (gapMinutes > 0 && gapMinutes <= RATE_MAX_GAP_MINUTES) {
+                double ratePerMinute = (value - state.getLastValue()) / gapMinutes;
+                if (ratePerMinute <= -RAPID_CHANGE_PER_MINUTE) {
+                    fire(state, fired, reading, GlucoseAlert.AlertType.RAPID_FALL, GlucoseAlert.Severity.WARNING,
+                            String.format("Glucose falling %.1f mg/dL per minute (now %.0f mg/dL)", -ratePerMinute, value));
+                } else if (ratePerMinute >= RAPID_CHANGE_PER_MINUTE) {
+                    fire(state, fired, reading, GlucoseAlert.AlertType.RAPID_RISE, GlucoseAlert.Severity.WARNING,
+                            String.format("Glucose rising %.1f mg/dL per minute (now %.0f mg/dL)", ratePerMinute, value));
+                }
+            }
+        }
+
+        updateExcursions(state, takenAt, value, lastTakenAt);
+        state.setLast(takenAt, value);
+
+        if (live && state.getLowExcursionStart() != null
+                && ChronoUnit.MINUTES.between(state.getLowExcursionStart(), takenAt) >= SUSTAINED_LOW_MINUTES) {
+            fire(state, fired, reading, GlucoseAlert.AlertType.SUSTAINED_LOW, GlucoseAlert.Severity.CRITICAL,
+                    String.format("Glucose has been below 70 mg/dL since %s", state.getLowExcursionStart().toLocalTime()));
+        }
+        if (live && state.getHighExcursionStart() != null
+                && ChronoUnit.MINUTES.between(state.getHighExcursionStart(), takenAt) >= SUSTAINED_HIGH_MINUTES) {
+            fire(state, fired, reading, GlucoseAlert.AlertType.SUSTAINED_HIGH, GlucoseAlert.Severity.WARNING,
+                    String.format("Glucose has been above 180 mg/dL since %s", state.getHighExcursionStart().toLocalTime()));
+        }
+    }
+
+    private void updateExcursions(UserGlucoseState state, LocalDateTime takenAt, double value, LocalDateTime lastTakenAt) {
+        // A long gap breaks the continuity of an excursion
+        boolean continuous = lastTakenAt != null
+                && ChronoUnit.MINUTES.between(lastTakenAt, takenAt) <= EXCURSION_MAX_GAP_MINUTES;
+
+        if (value > HIGH) {
+            if (state.getHighExcursionStart() == null || !continuous) {
+                state.setHighExcursionStart(takenAt);
+            }
+        } else {
+            state.setHighExcursionStart(null);
+        }
+
+        if (value < LOW) {
+            if (state.getLowExcursionStart() == null || !continuous) {
+                state.setLowExcursionStart(takenAt);
+            }
+        } else {
+            state.setLowExcursionStart(null);
+        }
+    }
+
+    private void fire(UserGlucoseState state, List<GlucoseAlert> fired, GlucoseReadingResponse reading,
+                      GlucoseAlert.AlertType type, GlucoseAlert.Severity severity, String message) {
+        LocalDateTime takenAt = reading.getTakenAt();
+        LocalDateTime lastFired = state.getLastFired(type);
+        if (lastFired != null && Math.abs(ChronoUnit.MINUTES.between(lastFired, takenAt)) < COOLDOWN_MINUTES.get(type)) {
+            return;
+        }
+
+        state.setLastFired(type, takenAt);
+        fired.add(GlucoseAlert.builder()
+                .alertType(type)
+                .severity(severity)
+                .message(message)
+                .readingId(reading.getId())
+                .readingValue(reading.getReadingValue())
+                .triggeredAt(takenAt)
+                .build());
+    }
+
+    private UserGlucoseState loadState(UUID userId) {
+        UserGlucoseState state = new UserGlucoseState();
+        LocalDateTime end = LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime start = LocalDate.now().minusDays(UserGlucoseState.DAYS - 1L).atStartOfDay();
+
+        for (GlucoseDailyAggregate day : glucoseReadingRepository.findDailyAggregatesByUserIdAndDateRange(userId, start, end)) {
+            state.seedDay(day.getDay(), day.getReadingCount(), day.getSumValue().doubleValue(), day.getInRangeCount(),
+                    day.getHighCount(), day.getLowCount(), day.getCriticallyHighCount(), day.getCriticallyLowCount());
+        }
+
+        log.debug("Seeded glucose summary state for user {}", userId);
+        return state;
+    }
+
+    // Seeds the trend state from the readings stored before the change being handled was made
+    private UserGlucoseState loadTrend(UUID userId, GlucoseReadingResponse pending, LocalDateTime occurredAt) {
+        UserGlucoseState state = new UserGlucoseState();
+
+        List<GlucoseReading> latest = glucoseReadingRepository.findTop2ByUserIdAndCreatedAtBeforeOrderByTakenAtDesc(userId, occurredAt);
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            GlucoseReading reading = latest.get(i);
+            if (reading.getId().equals(pending.getId())) {
+                continue;
+            }
+            double value = reading.getReadingValue().doubleValue();
+            updateExcursions(state, reading.getTakenAt(), value, state.getLastTakenAt());
+            state.setLast(reading.getTakenAt(), value);
+        }
+
+        for (Object[] row : glucoseAlertRepository.findLastTriggeredByType(userId)) {
+            state.setLastFired((GlucoseAlert.AlertType) row[0], (LocalDateTime) row[1]);
+        }
+
+        log.debug("Seeded glucose alert state for user {}", userId);
+        return state;
+    }
+
+    private double percentage(double part, long total) {
+        return Math.round(part / total * 100.0 * 100.0) / 100.0;
+    }
+}
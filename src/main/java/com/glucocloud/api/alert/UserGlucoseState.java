@@ -0,0 +1,175 @@
+package com.glucocloud.api.alert;
+
+import com.glucocloud.api.entity.GlucoseAlert;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compact incremental glucose state for one user: a ring of daily counters covering
+ * the last {@link #DAYS} days, the latest readings for rate-of-change, the start of the
+ * current high/low excursion and the last firing time per alert type. Every update is
+ * O(1); range summaries are sums over at most DAYS buckets. Callers synchronize on the
+ * instance.
+ */
+class UserGlucoseState {
+
+    static final int DAYS = 90;
+
+    private final long[] bucketDay = new long[DAYS];
+    private final long[] count = new long[DAYS];
+    private final double[] sum = new double[DAYS];
+    private final long[] inRange = new long[DAYS];
+    private final long[] high = new long[DAYS];
+    private final long[] low = new long[DAYS];
+    private final long[] criticallyHigh = new long[DAYS];
+    private final long[] criticallyLow = new long[DAYS];
+
+    private LocalDateTime lastTakenAt;
+    private double lastValue;
+    private LocalDateTime highExcursionStart;
+    private LocalDateTime lowExcursionStart;
+
+    private final Map<GlucoseAlert.AlertType, LocalDateTime> lastFired = new EnumMap<>(GlucoseAlert.AlertType.class);
+
+    UserGlucoseState() {
+        Arrays.fill(bucketDay, Long.MIN_VALUE);
+    }
+
+    void add(LocalDate day, double value) {
+        apply(day, value, 1);
+    }
+
+    void remove(LocalDate day, double value) {
+        apply(day, value, -1);
+    }
+
+    void seedDay(LocalDate day, long readings, double valueSum, long inRangeCount, long highCount, long lowCount,
+                 long criticallyHighCount, long criticallyLowCount) {
+        int i = bucket(day, true);
+        if (i < 0) {
+            return;
+        }
+        count[i] += readings;
+        sum[i] += valueSum;
+        inRange[i] += inRangeCount;
+        high[i] += highCount;
+        low[i] += lowCount;
+        criticallyHigh[i] += criticallyHighCount;
+        criticallyLow[i] += criticallyLowCount;
+    }
+
+    private void apply(LocalDate day, double value, int sign) {
+        int i = bucket(day, sign > 0);
+        if (i < 0) {
+            return;
+        }
+        count[i] += sign;
+        sum[i] += sign * value;
+        if (value >= 70 && value <= 180) {
+            inRange[i] += sign;
+        } else if (value > 180) {
+            high[i] += sign;
+        } else {
+            low[i] += sign;
+        }
+        if (value > 250) {
+            criticallyHigh[i] += sign;
+        }
+        if (value < 54) {
+            criticallyLow[i] += sign;
+        }
+    }
+
+    // Returns the ring slot for the day, or -1 when it is outside the window
+    private int bucket(LocalDate day, boolean create) {
+        long epochDay = day.toEpochDay();
+        long today = LocalDate.now().toEpochDay();
+        if (epochDay > today || epochDay <= today - DAYS) {
+            return -1;
+        }
+        int i = (int) Math.floorMod(epochDay, (long) DAYS);
+        if (bucketDay[i] != epochDay) {
+            if (!create) {
+                return -1;
+            }
+            bucketDay[i] = epochDay;
+            count[i] = 0;
+            sum[i] = 0;
+            inRange[i] = 0;
+            high[i] = 0;
+            low[i] = 0;
+            criticallyHigh[i] = 0;
+            criticallyLow[i] = 0;
+        }
+        return i;
+    }
+
+    /**
+     * Sums the buckets of the last {@code days} calendar days (today included) into
+     * {count, sum, inRange, high, low, criticallyHigh, criticallyLow}.
+     */
+    double[] totals(int days) {
+        return totals(0, days);
+    }
+
+    // Same as totals(days) for the window ending daysAgo days before today
+    double[] totals(int daysAgo, int days) {
+        double[] totals = new double[7];
+        long today = LocalDate.now().toEpochDay();
+        for (long d = today - daysAgo; d > today - daysAgo - days && d > today - DAYS; d--) {
+            int i = (int) Math.floorMod(d, (long) DAYS);
+            if (bucketDay[i] != d) {
+                continue;
+            }
+            totals[0] += count[i];
+            totals[1] += sum[i];
+            totals[2] += inRange[i];
+            totals[3] += high[i];
+            totals[4] += low[i];
+            totals[5] += criticallyHigh[i];
+            totals[6] += criticallyLow[i];
+        }
+        return totals;
+    }
+
+    LocalDateTime getLastTakenAt() {
+        return lastTakenAt;
+    }
+
+    double getLastValue() {
+        return lastValue;
+    }
+
+    void setLast(LocalDateTime takenAt, double value) {
+        this.lastTakenAt = takenAt;
+        this.lastValue = value;
+    }
+
+    LocalDateTime getHighExcursionStart() {
+        return highExcursionStart;
+    }
+
+    void setHighExcursionStart(LocalDateTime highExcursionStart) {
+        this.highExcursionStart = highExcursionStart;
+    }
+
+    LocalDateTime getLowExcursionStart() {
+        return lowExcursionStart;
+    }
+
+    void setLowExcursionStart(LocalDateTime lowExcursionStart) {
+        this.lowExcursionStart = lowExcursionStart;
+    }
+
+    LocalDateTime getLastFired(GlucoseAlert.AlertType type) {
+        return lastFired.get(type);
+    }
+
+    void setLastFired(GlucoseAlert.AlertType type, LocalDateTime at) {
+        lastFired.merge(type, at, (a, b) -> a.isAfter(b) ? a : b);
+    }
+}
@@ -0,0 +1,110 @@
+package com.glucocloud.api.analytics;
+
+import com.glucocloud.api.entity.Meal;
+import com.glucocloud.api.entity.Medication;
+
+/**
+ * Fraction of a dose still "on board" as a function of minutes since it was taken,
+ * precomputed into a per-minute lookup table. Insulin uses the exponential
+ * peak/duration model common to open-source dosing tools, long-acting insulin a
+ * peakless linear decay, and carbohydrates a triangular absorption rate over the
+ * absorption time.
+ */
+public enum ActivityCurve {
+
+    INSULIN_RAPID(Shape.EXPONENTIAL, 360, 75),
+    INSULIN_SHORT(Shape.EXPONENTIAL, 480, 150),
+    INSULIN_INTERMEDIATE(Shape.EXPONENTIAL, 960, 360),
+    INSULIN_LONG(Shape.LINEAR, 1440, 0),
+    CARBS_FAST(Shape.TRIANGULAR, 120, 60),
+    CARBS_MEDIUM(Shape.TRIANGULAR, 180, 90),
+    CARBS_SLOW(Shape.TRIANGULAR, 240, 120);
+
+    /** Longest duration of any curve; history older than this never contributes. */
+    public static final int MAX_DURATION_MINUTES = 1440;
+
+    private enum Shape {
+        EXPONENTIAL,
+        LINEAR,
+        TRIANGULAR
+    }
+
+    private final int durationMinutes;
+    private final float[] remaining;
+
+    ActivityCurve(Shape shape, int durationMinutes, int peakMinutes) {
+        this.durationMinutes = durationMinutes;
+        this.remaining = new float[durationMinutes + 1];
+        for (int t = 0; t <= durationMinutes; t++) {
+            remaining[t] = (float) remainingAt(shape, t, durationMinutes, peakMinutes);
+        }
+        remaining[durationMinutes] = 0f;
+    }
+
+    public int durationMinutes() {
+        return durationMinutes;
+    }
+
+    public long durationSeconds() {
+        return durationMinutes * 60L;
+    }
+
+    /** Fraction of the dose still on board, linearly interpolated between table minutes. */
+    public double remaining(double minutes) {
+        if (minutes <= 0) {
+            return 1.0;
+        }
+        if (minutes >= durationMinutes) {
+            return 0.0;
+        }
+        int i = (int) minutes;
+        double frac = minutes - i;
+        return remaining[i] + (remaining[i + 1] - remaining[i]) * frac;
+    }
+
+    /** Fraction of the dose that has acted (been absorbed) by the given time. */
+    public double acted(double minutes) {
+        return 1.0 - remaining(minutes);
+    }
+
+    /** Curve for an insulin medication type, or null for anything else. */
+    public static ActivityCurve forMedication(Medication.MedicationType type) {
+        if (type == null) {
+            return null;
+        }
+        return switch (type) {
+            case INSULIN_RAPID -> INSULIN_RAPID;
+            case INSULIN_SHORT -> INSULIN_SHORT;
+            case INSULIN_INTERMEDIATE -> INSULIN_INTERMEDIATE;
+            case INSULIN_LONG -> INSULIN_LONG;
+            default -> null;
+        };
+    }
+
+    /** Absorption curve for a meal; fat slows absorption, snacks are assumed quick. */
+    public static ActivityCurve forMeal(Meal.MealType type, Integer fatGrams) {
+        if (fatGrams != null && fatGrams >= 30) {
+            return CARBS_SLOW;
+        }
+        return type == Meal.MealType.SNACK ? CARBS_FAST : CARBS_MEDIUM;
+    }
+
+    private static double remainingAt(Shape shape, double t, double duration, double peak) {
+        switch (shape) {
+            case LINEAR:
+                return 1 - t / duration;
+            case TRIANGULAR: {
+                // Absorption rate rises linearly to the midpoint and falls back to zero
+                double x = t / duration;
+                return x < 0.5 ? 1 - 2 * x * x : 2 * (1 - x) * (1 - x);
+            }
+            default: {
+                double tau = peak * (1 - peak / duration) / (1 - 2 * peak / duration);
+                double a = 2 * tau / duration;
+                double s = 1 / (1 - a + (1 + a) * Math.exp(-duration / tau));
+                double iob = 1 - s * (1 - a) * ((t * t / (tau * duration * (1 - a)) - t / tau - 1) * Math.exp(-t / tau) + 1);
+                return Math.max(0, Math.min(1, iob));
+            }
+        }
+    }
+}
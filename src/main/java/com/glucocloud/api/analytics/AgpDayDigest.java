@@ -0,0 +1,94 @@
+package com.glucocloud.api.analytics;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Sparse, immutable AGP histogram for a single day. A CGM day touches at most a few
+ * hundred (slot, bin) cells, so the digest stores sorted cell indexes with their counts
+ * instead of a dense SLOTS * BINS array. Digests merge into an {@link AgpHistogram}.
+ */
+public final class AgpDayDigest {
+
+    public static final AgpDayDigest EMPTY = new AgpDayDigest(new int[0], new int[0]);
+
+    private final int[] cells;
+    private final int[] counts;
+
+    private AgpDayDigest(int[] cells, int[] counts) {
+        this.cells = cells;
+        this.counts = counts;
+    }
+
+    public int[] getCells() {
+        return cells;
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    public int readingCount() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int[] cells = new int[64];
+        private int size;
+
+        public Builder add(LocalTime time, double value) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = AgpHistogram.cellOf(time, value);
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public AgpDayDigest build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+
+            int[] sorted = Arrays.copyOf(cells, size);
+            Arrays.sort(sorted);
+
+            // Run-length encode the sorted cell indexes
+            int distinct = 1;
+            for (int i = 1; i < sorted.length; i++) {
+                if (sorted[i] != sorted[i - 1]) {
+                    distinct++;
+                }
+            }
+
+            int[] outCells = new int[distinct];
+            int[] outCounts = new int[distinct];
+            int out = 0;
+            outCells[0] = sorted[0];
+            outCounts[0] = 1;
+            for (int i = 1; i < sorted.length; i++) {
+                if (sorted[i] == sorted[i - 1]) {
+                    outCounts[out]++;
+                } else {
+                    out++;
+                    outCells[out] = sorted[i];
+                    outCounts[out] = 1;
+                }
+            }
+
+            return new AgpDayDigest(outCells, outCounts);
+        }
+    }
+}
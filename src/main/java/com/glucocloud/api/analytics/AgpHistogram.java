@@ -0,0 +1,115 @@
+package com.glucocloud.api.analytics;
+
+import java.time.LocalTime;
+
+/**
+ * Fixed-bin glucose histograms for the 288 five-minute time-of-day slots of an
+ * Ambulatory Glucose Profile. Memory is bounded by SLOTS * BINS counters no matter
+ * how many readings are added, and histograms combine by adding counts, so per-day
+ * digests can be cached and merged for any range.
+ */
+public class AgpHistogram {
+
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS = 24 * 60 / SLOT_MINUTES;
+
+    // Glucose readings are validated to 20-999.99 mg/dL
+    public static final int MIN_VALUE = 20;
+    public static final int MAX_VALUE = 999;
+    public static final int BIN_WIDTH = 2;
+    public static final int BINS = (MAX_VALUE + 1 - MIN_VALUE) / BIN_WIDTH;
+
+    // Slots are allocated on first use so sparse profiles stay small
+    private final int[][] counts = new int[SLOTS][];
+    private final int[] slotTotals = new int[SLOTS];
+    private long totalCount;
+
+    public static int slotOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    public static int binOf(double value) {
+        int bin = (int) ((value - MIN_VALUE) / BIN_WIDTH);
+        return Math.max(0, Math.min(BINS - 1, bin));
+    }
+
+    public static int cellOf(LocalTime time, double value) {
+        return slotOf(time) * BINS + binOf(value);
+    }
+
+    public static double binMidpoint(int bin) {
+        return MIN_VALUE + bin * BIN_WIDTH + BIN_WIDTH / 2.0;
+    }
+
+    public void add(LocalTime time, double value) {
+        addCell(cellOf(time, value), 1);
+    }
+
+    public void addCell(int cell, int count) {
+        int slot = cell / BINS;
+        int[] slotCounts = counts[slot];
+        if (slotCounts == null) {
+            slotCounts = new int[BINS];
+            counts[slot] = slotCounts;
+        }
+        slotCounts[cell % BINS] += count;
+        slotTotals[slot] += count;
+        totalCount += count;
+    }
+
+    public void merge(AgpHistogram other) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int[] otherCounts = other.counts[slot];
+            if (otherCounts == null) {
+                continue;
+            }
+            for (int bin = 0; bin < BINS; bin++) {
+                if (otherCounts[bin] != 0) {
+                    addCell(slot * BINS + bin, otherCounts[bin]);
+                }
+            }
+        }
+    }
+
+    public void merge(AgpDayDigest digest) {
+        int[] cells = digest.getCells();
+        int[] cellCounts = digest.getCounts();
+        for (int i = 0; i < cells.length; i++) {
+            addCell(cells[i], cellCounts[i]);
+        }
+    }
+
+    public int slotCount(int slot) {
+        return slotTotals[slot];
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Nearest-rank percentiles for one slot, read off the cumulative bin counts in a
+     * single pass. Quantiles must be ascending values in (0, 1]. Returns null when the
+     * slot has no readings.
+     */
+    public double[] percentiles(int slot, double... quantiles) {
+        int n = slotTotals[slot];
+        if (n == 0) {
+            return null;
+        }
+
+        int[] slotCounts = counts[slot];
+        double[] result = new double[quantiles.length];
+        int q = 0;
+        long cumulative = 0;
+
+        for (int bin = 0; bin < BINS && q < quantiles.length; bin++) {
+            cumulative += slotCounts[bin];
+            while (q < quantiles.length && cumulative >= Math.max(1, (long) Math.ceil(quantiles[q] * n))) {
+                result[q++] = binMidpoint(bin);
+            }
+        }
+
+        return result;
+    }
+}
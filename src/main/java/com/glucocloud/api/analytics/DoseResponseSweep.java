@@ -0,0 +1,140 @@
+package com.glucocloud.api.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Glucose trajectory after each dose, computed in a single sweep. Doses are sorted by
+ * time and readings are fed in ascending order; every reading updates only the doses
+ * whose observation window contains it, so a year of readings and doses is one linear
+ * pass with no per-dose rescans.
+ */
+public final class DoseResponseSweep {
+
+    /** A reading this long before the dose still serves as its baseline (fingerstick users test before dosing). */
+    public static final int BASELINE_BEFORE_MINUTES = 60;
+    /** Otherwise the first reading this soon after the dose is used. */
+    public static final int BASELINE_AFTER_MINUTES = 15;
+    public static final double HYPO_THRESHOLD = 70;
+
+    private final long[] start;
+    private final long[] end;
+
+    private final double[] baseline;
+    private final double[] nadir;
+    private final long[] nadirAt;
+    private final double[] lastValue;
+    private final int[] readings;
+    private final int[] hypoEvents;
+    private final boolean[] inHypo;
+
+    private final int[] active;
+    private int activeCount;
+    private int next;
+
+    private long previousAt = Long.MIN_VALUE;
+    private double previousValue;
+
+    /**
+     * @param doseEpochSeconds dose times, sorted ascending
+     * @param windowMinutes    observation window of each dose
+     */
+    public DoseResponseSweep(long[] doseEpochSeconds, int[] windowMinutes) {
+        int n = doseEpochSeconds.length;
+        this.start = doseEpochSeconds;
+        this.end = new long[n];
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && doseEpochSeconds[i] < doseEpochSeconds[i - 1]) {
+                throw new IllegalArgumentException("Doses must be sorted by time");
+            }
+            end[i] = doseEpochSeconds[i] + windowMinutes[i] * 60L;
+        }
+        this.baseline = new double[n];
+        this.nadir = new double[n];
+        this.nadirAt = new long[n];
+        this.lastValue = new double[n];
+        this.readings = new int[n];
+        this.hypoEvents = new int[n];
+        this.inHypo = new boolean[n];
+        this.active = new int[n];
+        Arrays.fill(baseline, Double.NaN);
+        Arrays.fill(nadir, Double.POSITIVE_INFINITY);
+    }
+
+    /** Feeds the next reading; readings must arrive in ascending time order. */
+    public void accept(long epochSecond, double value) {
+        // Doses that started since the previous reading enter the window
+        while (next < start.length && start[next] <= epochSecond) {
+            int dose = next++;
+            if (previousAt != Long.MIN_VALUE && previousAt >= start[dose] - BASELINE_BEFORE_MINUTES * 60L) {
+                baseline[dose] = previousValue;
+            }
+            active[activeCount++] = dose;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < activeCount; i++) {
+            int dose = active[i];
+            if (end[dose] < epochSecond) {
+                continue;
+            }
+            active[kept++] = dose;
+
+            if (Double.isNaN(baseline[dose])) {
+                if (epochSecond - start[dose] > BASELINE_AFTER_MINUTES * 60L) {
+                    // No usable baseline; leave the dose without data
+                    kept--;
+                    continue;
+                }
+                baseline[dose] = value;
+            }
+
+            readings[dose]++;
+            lastValue[dose] = value;
+            if (value < nadir[dose]) {
+                nadir[dose] = value;
+                nadirAt[dose] = epochSecond;
+            }
+            if (value < HYPO_THRESHOLD) {
+                if (!inHypo[dose]) {
+                    hypoEvents[dose]++;
+                    inHypo[dose] = true;
+                }
+            } else {
+                inHypo[dose] = false;
+            }
+        }
+        activeCount = kept;
+
+        previousAt = epochSecond;
+        previousValue = value;
+    }
+
+    public int size() {
+        return start.length;
+    }
+
+    /** Outcome of the i-th dose, or null when there was no baseline or no reading in its window. */
+    public Outcome outcome(int dose) {
+        if (Double.isNaN(baseline[dose]) || readings[dose] == 0) {
+            return null;
+        }
+        return new Outcome(baseline[dose], nadir[dose], (int) ((nadirAt[dose] - start[dose]) / 60),
+                lastValue[dose], readings[dose], hypoEvents[dose]);
+    }
+
+    /**
+     * @param baseline        glucose at the time of the dose
+     * @param nadir           lowest reading in the window
+     * @param minutesToNadir  minutes from the dose to the nadir
+     * @param endValue        last reading in the window
+     * @param readings        readings in the window
+     * @param hypoEvents      separate excursions below 70 mg/dL
+     */
+    public record Outcome(double baseline, double nadir, int minutesToNadir, double endValue, int readings,
+                          int hypoEvents) {
+
+        public double drop() {
+            return baseline - nadir;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.glucocloud.api.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Growable primitive time series (seconds, mg/dL) for analytics kernels. Timestamps
+ * are the wall-clock {@link LocalDateTime} values of the readings encoded as seconds on
+ * a UTC timeline, so they sort and subtract like the stored values do.
+ */
+public class GlucoseSeries {
+
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    public GlucoseSeries() {
+        this(256);
+    }
+
+    public GlucoseSeries(int initialCapacity) {
+        timestamps = new long[Math.max(initialCapacity, 16)];
+        values = new double[timestamps.length];
+    }
+
+    public static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public void add(LocalDateTime time, double value) {
+        add(toEpochSecond(time), value);
+    }
+
+    public void add(long epochSecond, double value) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = epochSecond;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    public double valueAt(int index) {
+        return values[index];
+    }
+
+    // Backing arrays; only the first size() entries are meaningful
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    public double[] values() {
+        return values;
+    }
+}
@@ -0,0 +1,189 @@
+package com.glucocloud.api.analytics;
+
+/**
+ * Exponentially weighted linear regression of glucose over time, updated in O(1) per
+ * reading. The weighted sums are kept relative to the latest reading so they stay
+ * well conditioned however long the model runs; older readings lose half their weight
+ * every {@code halfLifeMinutes}. Predictions extrapolate the fitted level and a damped
+ * slope, and each horizon keeps an exponentially weighted mean squared error of its own
+ * past forecasts so intervals are calibrated against what actually happened.
+ */
+public final class GlucoseTrendModel {
+
+    /** Readings further apart than this restart the fit. */
+    public static final double MAX_GAP_MINUTES = 30;
+
+    private static final double MIN_VALUE = 40;
+    private static final double MAX_VALUE = 400;
+    private static final double ERROR_ALPHA = 0.05;
+    private static final double MATCH_TOLERANCE_MINUTES = 2.5;
+
+    private final double decayPerMinute;
+    private final double dampingMinutes;
+    private final int[] horizons;
+
+    private double s0;
+    private double st;
+    private double sv;
+    private double stt;
+    private double stv;
+    private int fitted;
+
+    private long lastEpochSecond = Long.MIN_VALUE;
+    private double lastValue;
+
+    // Pending forecasts per horizon as a ring of (target epoch second, value)
+    private final long[][] pendingAt;
+    private final double[][] pendingValue;
+    private final int[] pendingHead;
+    private final int[] pendingSize;
+    private final double[] meanSquaredError;
+
+    public GlucoseTrendModel(double halfLifeMinutes, double dampingMinutes, int... horizonMinutes) {
+        this.decayPerMinute = Math.log(2) / halfLifeMinutes;
+        this.dampingMinutes = dampingMinutes;
+        this.horizons = horizonMinutes.clone();
+        this.pendingAt = new long[horizons.length][];
+        this.pendingValue = new double[horizons.length][];
+        this.pendingHead = new int[horizons.length];
+        this.pendingSize = new int[horizons.length];
+        this.meanSquaredError = new double[horizons.length];
+        for (int h = 0; h < horizons.length; h++) {
+            // One slot per 5-minute reading until the target time, with some slack
+            int capacity = horizons[h] / 5 + 4;
+            pendingAt[h] = new long[capacity];
+            pendingValue[h] = new double[capacity];
+            double prior = 10.0 * horizons[h] / 30.0;
+            meanSquaredError[h] = prior * prior;
+        }
+    }
+
+    /**
+     * Adds a reading. Readings at or before the latest one are ignored; callers rebuild
+     * the model when history changes out of order.
+     */
+    public void observe(long epochSecond, double value) {
+        if (lastEpochSecond != Long.MIN_VALUE && epochSecond <= lastEpochSecond) {
+            return;
+        }
+
+        scorePending(epochSecond, value);
+
+        double dt = lastEpochSecond == Long.MIN_VALUE ? 0 : (epochSecond - lastEpochSecond) / 60.0;
+        if (dt > MAX_GAP_MINUTES) {
+            s0 = st = sv = stt = stv = 0;
+            fitted = 0;
+        } else if (dt > 0) {
+            // Age the sums and move the time origin to the new reading
+            double w = Math.exp(-decayPerMinute * dt);
+            s0 *= w;
+            st *= w;
+            sv *= w;
+            stt *= w;
+            stv *= w;
+            stt = stt - 2 * dt * st + dt * dt * s0;
+            st = st - dt * s0;
+            stv = stv - dt * sv;
+        }
+
+        s0 += 1;
+        sv += value;
+        fitted++;
+        lastEpochSecond = epochSecond;
+        lastValue = value;
+
+        for (int h = 0; h < horizons.length; h++) {
+            enqueue(h, epochSecond + horizons[h] * 60L, predict(horizons[h]));
+        }
+    }
+
+    /** Fitted slope in mg/dL per minute; zero until two readings are available. */
+    public double slope() {
+        if (fitted < 2) {
+            return 0;
+        }
+        double denominator = s0 * stt - st * st;
+        if (Math.abs(denominator) < 1e-9) {
+            return 0;
+        }
+        return (s0 * stv - st * sv) / denominator;
+    }
+
+    /** Fitted level at the latest reading time. */
+    public double level() {
+        if (fitted == 0) {
+            return Double.NaN;
+        }
+        return (sv - slope() * st) / s0;
+    }
+
+    /** Minutes of slope to extrapolate for a horizon; saturates at the damping time. */
+    public double dampedMinutes(double horizonMinutes) {
+        return dampingMinutes * (1 - Math.exp(-horizonMinutes / dampingMinutes));
+    }
+
+    /** Predicted value {@code horizonMinutes} after the latest reading, clamped to 40..400. */
+    public double predict(double horizonMinutes) {
+        if (fitted == 0) {
+            return Double.NaN;
+        }
+        return clamp(level() + slope() * dampedMinutes(horizonMinutes));
+    }
+
+    /** Root mean squared error observed for the i-th configured horizon. */
+    public double rootMeanSquaredError(int horizonIndex) {
+        return Math.sqrt(meanSquaredError[horizonIndex]);
+    }
+
+    public int[] horizons() {
+        return horizons.clone();
+    }
+
+    public long lastEpochSecond() {
+        return lastEpochSecond;
+    }
+
+    public double lastValue() {
+        return lastValue;
+    }
+
+    public boolean isEmpty() {
+        return fitted == 0;
+    }
+
+    public static double clamp(double value) {
+        return Math.max(MIN_VALUE, Math.min(MAX_VALUE, value));
+    }
+
+    private void scorePending(long epochSecond, double value) {
+        long tolerance = (long) (MATCH_TOLERANCE_MINUTES * 60);
+        for (int h = 0; h < horizons.length; h++) {
+            while (pendingSize[h] > 0) {
+                int i = pendingHead[h];
+                long target = pendingAt[h][i];
+                if (target > epochSecond + tolerance) {
+                    break;
+                }
+                if (target >= epochSecond - tolerance) {
+                    double error = value - pendingValue[h][i];
+                    meanSquaredError[h] += ERROR_ALPHA * (error * error - meanSquaredError[h]);
+                }
+                pendingHead[h] = (i + 1) % pendingAt[h].length;
+                pendingSize[h]--;
+            }
+        }
+    }
+
+    private void enqueue(int h, long targetEpochSecond, double value) {
+        int capacity = pendingAt[h].length;
+        if (pendingSize[h] == capacity) {
+            // Readings faster than every 5 minutes; drop the oldest pending forecast
+            pendingHead[h] = (pendingHead[h] + 1) % capacity;
+            pendingSize[h]--;
+        }
+        int tail = (pendingHead[h] + pendingSize[h]) % capacity;
+        pendingAt[h][tail] = targetEpochSecond;
+        pendingValue[h][tail] = value;
+        pendingSize[h]++;
+    }
+}
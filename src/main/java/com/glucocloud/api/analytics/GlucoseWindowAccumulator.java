@@ -0,0 +1,116 @@
+package com.glucocloud.api.analytics;
+
+import com.glucocloud.api.dto.GlucoseSummaryResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Running glucose summary statistics for one window. Uses the same range thresholds as
+ * the aggregate queries behind {@code GlucoseReadingService.getGlucoseSummary}.
+ */
+public class GlucoseWindowAccumulator {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final boolean endExclusive;
+
+    private long count;
+    private double sum;
+    private double min = Double.MAX_VALUE;
+    private double max = -Double.MAX_VALUE;
+    private long inRange;
+    private long high;
+    private long low;
+    private long criticallyHigh;
+    private long criticallyLow;
+
+    public GlucoseWindowAccumulator(LocalDateTime from, LocalDateTime to) {
+        this(from, to, false);
+    }
+
+    public GlucoseWindowAccumulator(LocalDateTime from, LocalDateTime to, boolean endExclusive) {
+        this.from = from;
+        this.to = to;
+        this.endExclusive = endExclusive;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /** Whether a reading at the epoch second is not past the window's end. */
+    public boolean includesEnd(long epochSecond) {
+        long end = GlucoseSeries.toEpochSecond(to);
+        return endExclusive ? epochSecond < end : epochSecond <= end;
+    }
+
+    public void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        if (value >= 70 && value <= 180) {
+            inRange++;
+        } else if (value > 180) {
+            high++;
+        } else {
+            low++;
+        }
+        if (value > 250) {
+            criticallyHigh++;
+        }
+        if (value < 54) {
+            criticallyLow++;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Double getAverage() {
+        return count > 0 ? sum / count : null;
+    }
+
+    public GlucoseSummaryResponse toSummary() {
+        if (count == 0) {
+            return GlucoseSummaryResponse.builder()
+                    .totalReadings(0)
+                    .fromDate(from)
+                    .toDate(to)
+                    .build();
+        }
+
+        return GlucoseSummaryResponse.builder()
+                .totalReadings((int) count)
+                .averageReading(scale(sum / count))
+                .minReading(scale(min))
+                .maxReading(scale(max))
+                .readingsInRange((int) inRange)
+                .readingsHigh((int) high)
+                .readingsLow((int) low)
+                .timeInRangePercentage(percentage(inRange))
+                .timeHighPercentage(percentage(high))
+                .timeLowPercentage(percentage(low))
+                .criticallyHighReadings((int) criticallyHigh)
+                .criticallyLowReadings((int) criticallyLow)
+                .fromDate(from)
+                .toDate(to)
+                .build();
+    }
+
+    private double percentage(long part) {
+        return Math.round((double) part / count * 100 * 100.0) / 100.0;
+    }
+
+    private static BigDecimal scale(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
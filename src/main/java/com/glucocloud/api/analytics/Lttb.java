@@ -0,0 +1,74 @@
+package com.glucocloud.api.analytics;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013). Keeps the first and
+ * last points and, for every bucket in between, the point forming the largest triangle
+ * with the previously selected point and the average of the next bucket. Visually
+ * significant peaks and lows survive while the point count drops to the threshold.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Returns the indexes of the selected points in ascending order. Timestamps must be
+     * sorted ascending. When the series already fits the threshold every index is kept.
+     */
+    public static int[] downsample(long[] timestamps, double[] values, int length, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("Downsampling threshold must be at least 3");
+        }
+        if (threshold >= length) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int out = 0;
+        selected[out++] = 0;
+
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int a = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket is the third triangle vertex
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+            double avgT = 0;
+            double avgV = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgT += timestamps[i];
+                avgV += values[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgT /= nextCount;
+            avgV /= nextCount;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double pointAT = timestamps[a];
+            double pointAV = values[a];
+
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((pointAT - avgT) * (values[i] - pointAV)
+                        - (pointAT - timestamps[i]) * (avgV - pointAV));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            selected[out++] = maxIndex;
+            a = maxIndex;
+        }
+
+        selected[out] = length - 1;
+        return selected;
+    }
+}
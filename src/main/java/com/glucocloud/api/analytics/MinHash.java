@@ -0,0 +1,107 @@
+package com.glucocloud.api.analytics;
+
+import java.util.*;
+
+/**
+ * MinHash signatures over word shingles with banded locality-sensitive hashing.
+ * Two token sets with Jaccard similarity J agree on each signature position with
+ * probability J, so with b bands of r rows they share at least one band key with
+ * probability 1 - (1 - J^r)^b. Bucketing by band key finds likely-similar
+ * descriptions without comparing every pair.
+ */
+public final class MinHash {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "the", "of", "with", "w", "in", "on", "some", "my", "to", "for", "or", "plus");
+
+    private final int rowsPerBand;
+    private final long[] seeds;
+
+    public MinHash(int bands, int rowsPerBand, long seed) {
+        this.rowsPerBand = rowsPerBand;
+        this.seeds = new long[bands * rowsPerBand];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Lower-cased word tokens with punctuation, digits, stop words and a trailing plural
+     * "s" removed, e.g. "2 Slices of Pepperoni Pizza!" gives {slice, pepperoni, pizza}.
+     */
+    public static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+            if (word.length() < 2 || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+                word = word.substring(0, word.length() - 1);
+            }
+            tokens.add(word);
+        }
+        return tokens;
+    }
+
+    public int[] signature(Set<String> tokens) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String token : tokens) {
+            long base = fnv1a(token);
+            for (int i = 0; i < seeds.length; i++) {
+                int h = (int) (mix(base ^ seeds[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /** One key per band; equal keys for a band make two signatures candidates. */
+    public long[] bandKeys(int[] signature) {
+        int bands = seeds.length / rowsPerBand;
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long h = band * 0x9E3779B97F4A7C15L;
+            for (int row = 0; row < rowsPerBand; row++) {
+                h = mix(h ^ signature[band * rowsPerBand + row]);
+            }
+            keys[band] = h;
+        }
+        return keys;
+    }
+
+    public static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 0;
+        }
+        int intersection = 0;
+        for (String token : a) {
+            if (b.contains(token)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    private static long fnv1a(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
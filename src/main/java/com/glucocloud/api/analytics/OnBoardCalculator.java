@@ -0,0 +1,120 @@
+package com.glucocloud.api.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates how much of a set of doses (insulin units or carb grams) is still on board.
+ * Doses are grouped per {@link ActivityCurve} and sorted by time, so within a group a
+ * dose enters and leaves the active window in order. Evaluating ascending instants is
+ * then one pass that slides a [leave, enter) window over every group, touching only
+ * the doses active at each instant.
+ */
+public final class OnBoardCalculator {
+
+    private static final ActivityCurve[] CURVES = ActivityCurve.values();
+
+    private final long[][] times;
+    private final double[][] amounts;
+
+    private OnBoardCalculator(long[][] times, double[][] amounts) {
+        this.times = times;
+        this.amounts = amounts;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        for (long[] group : times) {
+            if (group.length > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Amount on board at each instant; instants must be sorted ascending. */
+    public double[] onBoard(long[] epochSeconds) {
+        double[] result = new double[epochSeconds.length];
+        for (int c = 0; c < CURVES.length; c++) {
+            ActivityCurve curve = CURVES[c];
+            long[] t = times[c];
+            double[] amount = amounts[c];
+            int enter = 0;
+            int leave = 0;
+            for (int q = 0; q < epochSeconds.length; q++) {
+                long at = epochSeconds[q];
+                while (enter < t.length && t[enter] <= at) {
+                    enter++;
+                }
+                while (leave < enter && t[leave] + curve.durationSeconds() <= at) {
+                    leave++;
+                }
+                double sum = 0;
+                for (int i = leave; i < enter; i++) {
+                    sum += amount[i] * curve.remaining((at - t[i]) / 60.0);
+                }
+                result[q] += sum;
+            }
+        }
+        return result;
+    }
+
+    /** Amount on board at {@code steps} instants starting at {@code from}, {@code stepSeconds} apart. */
+    public double[] onBoard(long from, int stepSeconds, int steps) {
+        long[] instants = new long[steps];
+        for (int i = 0; i < steps; i++) {
+            instants[i] = from + (long) i * stepSeconds;
+        }
+        return onBoard(instants);
+    }
+
+    public double onBoard(long epochSecond) {
+        return onBoard(new long[]{epochSecond})[0];
+    }
+
+    public static final class Builder {
+
+        private final long[][] times = new long[CURVES.length][8];
+        private final double[][] amounts = new double[CURVES.length][8];
+        private final int[] sizes = new int[CURVES.length];
+
+        private Builder() {
+        }
+
+        public Builder add(long epochSecond, double amount, ActivityCurve curve) {
+            int c = curve.ordinal();
+            if (sizes[c] == times[c].length) {
+                times[c] = Arrays.copyOf(times[c], sizes[c] * 2);
+                amounts[c] = Arrays.copyOf(amounts[c], sizes[c] * 2);
+            }
+            times[c][sizes[c]] = epochSecond;
+            amounts[c][sizes[c]] = amount;
+            sizes[c]++;
+            return this;
+        }
+
+        public OnBoardCalculator build() {
+            long[][] sortedTimes = new long[CURVES.length][];
+            double[][] sortedAmounts = new double[CURVES.length][];
+            for (int c = 0; c < CURVES.length; c++) {
+                int n = sizes[c];
+                Integer[] order = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    order[i] = i;
+                }
+                long[] t = times[c];
+                Arrays.sort(order, (a, b) -> Long.compare(t[a], t[b]));
+
+                sortedTimes[c] = new long[n];
+                sortedAmounts[c] = new double[n];
+                for (int i = 0; i < n; i++) {
+                    sortedTimes[c][i] = t[order[i]];
+                    sortedAmounts[c][i] = amounts[c][order[i]];
+                }
+            }
+            return new OnBoardCalculator(sortedTimes, sortedAmounts);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.glucocloud.api.autocomplete;
+
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.dto.MealSuggestionResponse;
+import com.glucocloud.api.dto.MedicationResponse;
+import com.glucocloud.api.dto.MedicationSuggestionResponse;
+import com.glucocloud.api.entity.Meal;
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.AccountErasedEvent;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.MealRepository;
+import com.glucocloud.api.repository.MealUsage;
+import com.glucocloud.api.repository.MedicationRepository;
+import com.glucocloud.api.repository.MedicationUsage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Meal and medication autocomplete served from per-user prefix indexes. An index is
+ * loaded from the user's history on first use, extended as entries are created, and
+ * dropped on edits and deletes (rebuilt on next use) or after sitting idle.
+ */
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+
+    @Value("${glucocloud.autocomplete.half-life-days:30}")
+    private double halfLifeDays;
+
+    @Value("${glucocloud.autocomplete.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<UUID, CachedIndex<MealDetails>> mealIndexes = new ConcurrentHashMap<>();
+    private final Map<UUID, CachedIndex<MedicationDetails>> medicationIndexes = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public List<MealSuggestionResponse> suggestMeals(User user, String prefix, int limit) {
+        CachedIndex<MealDetails> cached = mealIndexes.computeIfAbsent(user.getId(), this::loadMeals);
+        List<PrefixIndex.Entry<MealDetails>> entries;
+        synchronized (cached) {
+            entries = cached.touch().suggest(prefix, clampLimit(limit));
+        }
+        return entries.stream()
+                .map(entry -> MealSuggestionResponse.builder()
+                        .description(entry.text())
+                        .uses(entry.uses())
+                        .lastUsedAt(GlucoseSeries.fromEpochSecond(entry.lastUsed()))
+                        .carbsGrams(entry.details().carbsGrams())
+                        .calories(entry.details().calories())
+                        .proteinGrams(entry.details().proteinGrams())
+                        .fatGrams(entry.details().fatGrams())
+                        .mealType(entry.details().mealType())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<MedicationSuggestionResponse> suggestMedications(User user, String prefix, int limit) {
+        CachedIndex<MedicationDetails> cached = medicationIndexes.computeIfAbsent(user.getId(), this::loadMedications);
+        List<PrefixIndex.Entry<MedicationDetails>> entries;
+        synchronized (cached) {
+            entries = cached.touch().suggest(prefix, clampLimit(limit));
+        }
+        return entries.stream()
+                .map(entry -> MedicationSuggestionResponse.builder()
+                        .name(entry.text())
+                        .uses(entry.uses())
+                        .lastUsedAt(GlucoseSeries.fromEpochSecond(entry.lastUsed()))
+                        .dosage(entry.details().dosage())
+                        .medicationType(entry.details().medicationType())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /** Distinct medication names in alphabetical order. */
+    @Transactional(readOnly = true)
+    public List<String> getMedicationNames(User user) {
+        CachedIndex<MedicationDetails> cached = medicationIndexes.computeIfAbsent(user.getId(), this::loadMedications);
+        synchronized (cached) {
+            return cached.touch().texts();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMealChanged(EntityChangedEvent<MealResponse> event) {
+        if (event.getChangeType() != EntityChangedEvent.ChangeType.CREATED) {
+            mealIndexes.remove(event.getUserId());
+            return;
+        }
+        MealResponse meal = event.getAfter();
+        // computeIfPresent waits for a concurrent load so the new meal is not lost
+        mealIndexes.computeIfPresent(event.getUserId(), (userId, cached) -> {
+            synchronized (cached) {
+                cached.index.add(meal.getDescription(), GlucoseSeries.toEpochSecond(meal.getConsumedAt()),
+                        new MealDetails(meal.getCarbsGrams(), meal.getCalories(), meal.getProteinGrams(),
+                                meal.getFatGrams(), meal.getMealType()));
+            }
+            return cached;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMedicationChanged(EntityChangedEvent<MedicationResponse> event) {
+        if (event.getChangeType() != EntityChangedEvent.ChangeType.CREATED) {
+            medicationIndexes.remove(event.getUserId());
+            return;
+        }
+        MedicationResponse medication = event.getAfter();
+        medicationIndexes.computeIfPresent(event.getUserId(), (userId, cached) -> {
+            synchronized (cached) {
+                cached.index.add(medication.getName(), GlucoseSeries.toEpochSecond(medication.getTakenAt()),
+                        new MedicationDetails(medication.getDosage(), medication.getMedicationType()));
+            }
+            return cached;
+        });
+    }
+
+    @EventListener
+    public void onAccountErased(AccountErasedEvent event) {
+        mealIndexes.remove(event.userId());
+        medicationIndexes.remove(event.userId());
+    }
+
+    @Scheduled(fixedDelayString = "${glucocloud.autocomplete.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - idleMinutes * 60_000_000_000L;
+        mealIndexes.values().removeIf(cached -> cached.lastAccess - cutoff < 0);
+        medicationIndexes.values().removeIf(cached -> cached.lastAccess - cutoff < 0);
+    }
+
+    private CachedIndex<MealDetails> loadMeals(UUID userId) {
+        PrefixIndex<MealDetails> index = new PrefixIndex<>(halfLifeSeconds());
+        for (MealUsage meal : mealRepository.findUsagesByUserId(userId)) {
+            index.add(meal.getDescription(), GlucoseSeries.toEpochSecond(meal.getConsumedAt()),
+                    new MealDetails(meal.getCarbsGrams(), meal.getCalories(), meal.getProteinGrams(),
+                            meal.getFatGrams(), meal.getMealType()));
+        }
+        return new CachedIndex<>(index);
+    }
+
+    private CachedIndex<MedicationDetails> loadMedications(UUID userId) {
+        PrefixIndex<MedicationDetails> index = new PrefixIndex<>(halfLifeSeconds());
+        for (MedicationUsage medication : medicationRepository.findUsagesByUserId(userId)) {
+            index.add(medication.getName(), GlucoseSeries.toEpochSecond(medication.getTakenAt()),
+                    new MedicationDetails(medication.getDosage(), medication.getMedicationType()));
+        }
+        return new CachedIndex<>(index);
+    }
+
+    private double halfLifeSeconds() {
+        return halfLifeDays * 86_400;
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    private record MealDetails(Integer carbsGrams, Integer calories, Integer proteinGrams, Integer fatGrams,
+                               Meal.MealType mealType) {
+    }
+
+    private record MedicationDetails(String dosage, Medication.MedicationType medicationType) {
+    }
+
+    private static final class CachedIndex<T> {
+        private final PrefixIndex<T> index;
+        private volatile long lastAccess = System.nanoTime();
+
+        private CachedIndex(PrefixIndex<T> index) {
+            this.index = index;
+        }
+
+        private PrefixIndex<T> touch() {
+            lastAccess = System.nanoTime();
+            return index;
+        }
+    }
+}
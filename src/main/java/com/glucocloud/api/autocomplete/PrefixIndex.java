@@ -0,0 +1,185 @@
+package com.glucocloud.api.autocomplete;
+
+import java.util.*;
+
+/**
+ * Prefix index over one user's distinct meal descriptions or medication names. Every
+ * word start of an entry is a term ("pepperoni pizza", "pizza") kept in one sorted
+ * array, so a prefix lookup is a binary search plus a scan of the matching run. New
+ * terms are appended unsorted and merged in once before the next lookup, so loading a
+ * user's history sorts its terms once rather than shifting the array per insert.
+ * Entries rank by frecency: a use at t contributes 2^(t / halfLife), summed in the log
+ * domain, so a use counts twice as much as one a half-life older and the ranking does
+ * not depend on the order uses are added. Callers synchronize.
+ */
+class PrefixIndex<T> {
+
+    static final class Entry<T> {
+        private String text;
+        private int uses;
+        private long lastUsed;
+        private T details;
+        private double score = Double.NEGATIVE_INFINITY;
+
+        String text() {
+            return text;
+        }
+
+        int uses() {
+            return uses;
+        }
+
+        long lastUsed() {
+            return lastUsed;
+        }
+
+        T details() {
+            return details;
+        }
+
+        double score() {
+            return score;
+        }
+    }
+
+    private static final double LN2 = Math.log(2);
+
+    private final double halfLifeSeconds;
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+
+    private String[] terms = new String[16];
+    private Entry<T>[] owners = newOwners(16);
+    private int termCount;
+    private int sortedCount;
+
+    PrefixIndex(double halfLifeSeconds) {
+        this.halfLifeSeconds = halfLifeSeconds;
+    }
+
+    /** Records one use of the text; the details of the latest use are kept. */
+    void add(String text, long epochSecond, T details) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>();
+            entries.put(key, entry);
+            insertTerms(key, entry);
+        }
+
+        entry.uses++;
+        if (entry.uses == 1 || epochSecond >= entry.lastUsed) {
+            entry.text = text.trim();
+            entry.lastUsed = epochSecond;
+            entry.details = details;
+        }
+        double use = epochSecond / halfLifeSeconds;
+        double high = Math.max(entry.score, use);
+        double low = Math.min(entry.score, use);
+        entry.score = high + Math.log1p(Math.pow(2, low - high)) / LN2;
+    }
+
+    /** Best ranked entries with a word starting with the prefix; all entries for a blank prefix. */
+    List<Entry<T>> suggest(String prefix, int limit) {
+        String key = normalize(prefix == null ? "" : prefix);
+        mergeNewTerms();
+        Collection<Entry<T>> matches;
+        if (key.isEmpty()) {
+            matches = entries.values();
+        } else {
+            matches = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = lowerBound(key); i < termCount && terms[i].startsWith(key); i++) {
+                matches.add(owners[i]);
+            }
+        }
+
+        List<Entry<T>> ranked = new ArrayList<>(matches);
+        ranked.sort(Comparator.<Entry<T>>comparingDouble(Entry::score).reversed()
+                .thenComparing(Entry::text));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    List<String> texts() {
+        List<String> texts = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries.values()) {
+            texts.add(entry.text);
+        }
+        Collections.sort(texts);
+        return texts;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private void insertTerms(String key, Entry<T> entry) {
+        for (int start = 0; start < key.length(); start++) {
+            if (start == 0 || key.charAt(start - 1) == ' ') {
+                insertTerm(key.substring(start), entry);
+            }
+        }
+    }
+
+    private void insertTerm(String term, Entry<T> entry) {
+        if (termCount == terms.length) {
+            terms = Arrays.copyOf(terms, termCount * 2);
+            owners = Arrays.copyOf(owners, termCount * 2);
+        }
+        terms[termCount] = term;
+        owners[termCount] = entry;
+        termCount++;
+    }
+
+    // Sorts the terms appended since the last lookup and merges them into the sorted run
+    private void mergeNewTerms() {
+        if (sortedCount == termCount) {
+            return;
+        }
+        Integer[] added = new Integer[termCount - sortedCount];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = sortedCount + i;
+        }
+        Arrays.sort(added, Comparator.comparing(i -> terms[i]));
+
+        String[] mergedTerms = new String[terms.length];
+        Entry<T>[] mergedOwners = newOwners(terms.length);
+        int old = 0;
+        int next = 0;
+        for (int out = 0; out < termCount; out++) {
+            boolean takeOld = next == added.length
+                    || old < sortedCount && terms[old].compareTo(terms[added[next]]) <= 0;
+            int from = takeOld ? old++ : added[next++];
+            mergedTerms[out] = terms[from];
+            mergedOwners[out] = owners[from];
+        }
+        terms = mergedTerms;
+        owners = mergedOwners;
+        sortedCount = termCount;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Entry<T>[] newOwners(int length) {
+        return (Entry<T>[]) new Entry[length];
+    }
+}
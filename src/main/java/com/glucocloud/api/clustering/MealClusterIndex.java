@@ -0,0 +1,95 @@
+package com.glucocloud.api.clustering;
+
+import com.glucocloud.api.analytics.MinHash;
+
+import java.util.*;
+
+/**
+ * Clusters of similar meal descriptions for one user. Each meal is added once: its
+ * MinHash band keys find candidate meals in the LSH buckets, candidates whose exact
+ * token Jaccard similarity clears the threshold are merged with union-find, and the
+ * meal joins the buckets. Identical token sets short-circuit to the first meal with
+ * that set, so repeated meals never grow the buckets. Callers synchronize.
+ */
+class MealClusterIndex {
+
+    private final MinHash minHash;
+    private final double threshold;
+
+    private final Map<UUID, Integer> indexOf = new HashMap<>();
+    private final List<UUID> mealIds = new ArrayList<>();
+    private final List<Set<String>> tokenSets = new ArrayList<>();
+    private int[] parent = new int[64];
+
+    private final Map<Set<String>, Integer> exact = new HashMap<>();
+    private final Map<Long, List<Integer>> buckets = new HashMap<>();
+
+    MealClusterIndex(MinHash minHash, double threshold) {
+        this.minHash = minHash;
+        this.threshold = threshold;
+    }
+
+    void add(UUID mealId, String description) {
+        if (indexOf.containsKey(mealId)) {
+            return;
+        }
+
+        int i = mealIds.size();
+        Set<String> tokens = MinHash.tokens(description);
+        mealIds.add(mealId);
+        tokenSets.add(tokens);
+        indexOf.put(mealId, i);
+        if (i == parent.length) {
+            parent = Arrays.copyOf(parent, i * 2);
+        }
+        parent[i] = i;
+
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Integer same = exact.putIfAbsent(tokens, i);
+        if (same != null) {
+            union(same, i);
+            return;
+        }
+
+        Set<Integer> checked = new HashSet<>();
+        for (long key : minHash.bandKeys(minHash.signature(tokens))) {
+            List<Integer> bucket = buckets.computeIfAbsent(key, k -> new ArrayList<>(2));
+            for (int candidate : bucket) {
+                if (checked.add(candidate) && find(candidate) != find(i)
+                        && MinHash.jaccard(tokens, tokenSets.get(candidate)) >= threshold) {
+                    union(candidate, i);
+                }
+            }
+            bucket.add(i);
+        }
+    }
+
+    /** Representative meal of the cluster containing the meal, or null if unknown. */
+    UUID clusterOf(UUID mealId) {
+        Integer i = indexOf.get(mealId);
+        return i == null ? null : mealIds.get(find(i));
+    }
+
+    int size() {
+        return mealIds.size();
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            // Keep the older meal as representative
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
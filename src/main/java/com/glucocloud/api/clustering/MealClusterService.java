@@ -0,0 +1,94 @@
+package com.glucocloud.api.clustering;
+
+import com.glucocloud.api.analytics.MinHash;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.event.AccountErasedEvent;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.MealDescription;
+import com.glucocloud.api.repository.MealRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Per-user meal clusters, built lazily from all of a user's meal descriptions and
+ * extended as meals are created. Edits and deletes drop the user's index so it is
+ * rebuilt on next use.
+ */
+@Service
+@RequiredArgsConstructor
+public class MealClusterService {
+
+    // 16 bands x 2 rows: pairs at Jaccard 0.5 become candidates with ~99% probability
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 2;
+    private static final long SEED = 0x6D65616CL;
+    private static final double SIMILARITY_THRESHOLD = 0.5;
+    private static final int MAX_CACHED_USERS = 1_000;
+
+    private final MinHash minHash = new MinHash(BANDS, ROWS_PER_BAND, SEED);
+
+    private final MealRepository mealRepository;
+
+    private final Map<UUID, MealClusterIndex> indexes = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, MealClusterIndex> eldest) {
+                    return size() > MAX_CACHED_USERS;
+                }
+            });
+
+    /** Cluster representative (a meal id) for each of the given meals. */
+    @Transactional(readOnly = true)
+    public Map<UUID, UUID> clustersOf(UUID userId, Collection<UUID> mealIds) {
+        MealClusterIndex index = indexes.get(userId);
+        if (index == null) {
+            // Load outside the map lock; a concurrent load of the same user just loses
+            MealClusterIndex loaded = loadIndex(userId);
+            index = indexes.putIfAbsent(userId, loaded);
+            if (index == null) {
+                index = loaded;
+            }
+        }
+        Map<UUID, UUID> clusters = new HashMap<>();
+        synchronized (index) {
+            for (UUID mealId : mealIds) {
+                UUID cluster = index.clusterOf(mealId);
+                clusters.put(mealId, cluster != null ? cluster : mealId);
+            }
+        }
+        return clusters;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMealChanged(EntityChangedEvent<MealResponse> event) {
+        MealClusterIndex index = indexes.get(event.getUserId());
+        if (index == null) {
+            return;
+        }
+        if (event.getChangeType() != EntityChangedEvent.ChangeType.CREATED) {
+            indexes.remove(event.getUserId());
+            return;
+        }
+        synchronized (index) {
+            index.add(event.getEntityId(), event.getAfter().getDescription());
+        }
+    }
+
+    @EventListener
+    public void onAccountErased(AccountErasedEvent event) {
+        indexes.remove(event.userId());
+    }
+
+    private MealClusterIndex loadIndex(UUID userId) {
+        MealClusterIndex index = new MealClusterIndex(minHash, SIMILARITY_THRESHOLD);
+        for (MealDescription meal : mealRepository.findDescriptionsByUserId(userId)) {
+            index.add(meal.getId(), meal.getDescription());
+        }
+        return index;
+    }
+}
@@ -1,22 +1,28 @@
 package com.glucocloud.api.controller;
 
+import com.glucocloud.api.alert.GlucoseAlertEngine;
 import com.glucocloud.api.dto.*;
 import com.glucocloud.api.entity.User;
 import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.AgpService;
 import com.glucocloud.api.service.AnalyticsService;
 import com.glucocloud.api.service.DashboardService;
 import com.glucocloud.api.service.GlucoseReadingService;
+import com.glucocloud.api.service.OnBoardService;
 import com.glucocloud.api.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/analytics")
@@ -26,6 +32,9 @@ public class AnalyticsController {
     private final GlucoseReadingService glucoseReadingService;
     private final AnalyticsService analyticsService;
     private final DashboardService dashboardService;
+    private final AgpService agpService;
+    private final GlucoseAlertEngine glucoseAlertEngine;
+    private final OnBoardService onBoardService;
     private final UserService userService;
     private final JwtUtils jwtUtils;
 
@@ -44,6 +53,36 @@ public class AnalyticsController {
         }
     }
 
+    @PostMapping("/glucose/summaries")
+    public ResponseEntity<?> getGlucoseSummaries(
+            @Valid @RequestBody GlucoseSummaryBatchRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            List<GlucoseSummaryResponse> summaries = glucoseReadingService.getGlucoseSummaries(user, request);
+            return ResponseEntity.ok(summaries);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve glucose summaries: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/glucose/patterns")
+    public ResponseEntity<?> getGlucosePatterns(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "false") boolean byReadingType,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            GlucosePatternResponse patterns = analyticsService.analyzeGlucosePatterns(user, from, to, byReadingType);
+            return ResponseEntity.ok(patterns);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve glucose patterns: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/glucose/flags")
     public ResponseEntity<?> getGlucoseFlags(
             @RequestParam(required = false, defaultValue = "14") int days,
@@ -54,7 +93,11 @@ public class AnalyticsController {
             LocalDateTime endDate = LocalDateTime.now();
             LocalDateTime startDate = endDate.minusDays(days);
 
-            GlucoseSummaryResponse summary = glucoseReadingService.getGlucoseSummary(user, startDate, endDate);
+            // Read the incrementally maintained counters; fall back to aggregating long ranges
+            GlucoseSummaryResponse summary = glucoseAlertEngine.summarize(user, days);
+            if (summary == null) {
+                summary = glucoseReadingService.getGlucoseSummary(user, startDate, endDate);
+            }
 
             Map<String, Object> flags = new HashMap<>();
             flags.put("period", days + " days");
@@ -110,6 +153,7 @@ public class AnalyticsController {
 
             flags.put("alerts", alerts);
             flags.put("alertCount", alerts.size());
+            flags.put("recentAlerts", glucoseAlertEngine.getAlertsSince(user, startDate));
 
             // Recommendations
             Map<String, String> recommendations = new HashMap<>();
@@ -134,6 +178,37 @@ public class AnalyticsController {
         }
     }
 
+    @GetMapping("/glucose/alerts")
+    public ResponseEntity<?> getGlucoseAlerts(
+            @RequestParam(required = false, defaultValue = "50") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            List<GlucoseAlertResponse> alerts = glucoseAlertEngine.getRecentAlerts(user, Math.max(1, Math.min(limit, 500)));
+            return ResponseEntity.ok(alerts);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve glucose alerts: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PutMapping("/glucose/alerts/{id}/acknowledge")
+    public ResponseEntity<?> acknowledgeGlucoseAlert(
+            @PathVariable UUID id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            GlucoseAlertResponse alert = glucoseAlertEngine.acknowledgeAlert(user, id);
+            return ResponseEntity.ok(alert);
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("not found")) {
+                return createErrorResponse(e.getMessage(), HttpStatus.NOT_FOUND);
+            }
+            return createErrorResponse("Failed to acknowledge alert: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/meal-glucose-correlations")
     public ResponseEntity<?> getMealGlucoseCorrelations(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
@@ -179,6 +254,83 @@ public class AnalyticsController {
         }
     }
 
+    @GetMapping("/meal-impact-profiles")
+    public ResponseEntity<?> getMealImpactProfiles(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "2") int minMeals,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            MealImpactProfileResponse profiles = analyticsService.generateMealImpactProfiles(user, from, to, minMeals);
+            return ResponseEntity.ok(profiles);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to generate meal impact profiles: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/medication-glucose-response")
+    public ResponseEntity<?> getMedicationGlucoseResponse(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "false") boolean includeDoses,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            MedicationGlucoseResponse response = analyticsService.analyzeMedicationGlucoseResponse(user, from, to, includeDoses);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to analyze medication glucose response: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/agp")
+    public ResponseEntity<?> getAmbulatoryGlucoseProfile(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            AgpResponse agp = agpService.getAmbulatoryGlucoseProfile(user, from, to);
+            return ResponseEntity.ok(agp);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to generate ambulatory glucose profile: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/on-board")
+    public ResponseEntity<?> getOnBoard(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            OnBoardResponse onBoard = onBoardService.getOnBoard(user, at);
+            return ResponseEntity.ok(onBoard);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to calculate insulin and carbs on board: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/on-board/series")
+    public ResponseEntity<?> getOnBoardSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "5") int step,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            OnBoardSeriesResponse series = onBoardService.getOnBoardSeries(user, from, to, step);
+            return ResponseEntity.ok(series);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to calculate insulin and carbs on board: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/dashboard")
     public ResponseEntity<?> getComprehensiveDashboard(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
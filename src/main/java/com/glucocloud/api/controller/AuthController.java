@@ -1,9 +1,11 @@
 package com.glucocloud.api.controller;
 
 import com.glucocloud.api.dto.AuthResponse;
+import com.glucocloud.api.dto.JobResponse;
 import com.glucocloud.api.dto.LoginRequest;
 import com.glucocloud.api.dto.RegisterRequest;
 import com.glucocloud.api.entity.User;
+import com.glucocloud.api.job.JobService;
 import com.glucocloud.api.security.JwtUtils;
 import com.glucocloud.api.service.UserService;
 import jakarta.validation.Valid;
@@ -22,6 +24,7 @@ import java.util.Optional;
 public class AuthController {
 
     private final UserService userService;
+    private final JobService jobService;
     private final JwtUtils jwtUtils;
 
     @PostMapping("/register")
@@ -64,7 +67,8 @@ public class AuthController {
 
         User user = userOptional.get();
 
-        if (!userService.validatePassword(loginRequest.getPassword(), user.getPasswordHash())) {
+        if (!userService.validatePassword(loginRequest.getPassword(), user.getPasswordHash())
+                || Boolean.FALSE.equals(user.getIsActive())) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Invalid email or password");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
@@ -111,4 +115,22 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
     }
-}
\ No newline at end of file
+
+    // Deactivates the account at once and erases it in the background
+    @DeleteMapping("/me")
+    public ResponseEntity<?> deleteAccount(@RequestHeader("Authorization") String authHeader) {
+        try {
+            String token = authHeader.substring(7); // Remove "Bearer " prefix
+            String email = jwtUtils.getEmailFromJwtToken(token);
+            User user = userService.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            JobResponse job = jobService.eraseAccount(user);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to delete account: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+}
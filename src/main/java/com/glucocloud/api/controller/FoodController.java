@@ -0,0 +1,48 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.dto.FoodResponse;
+import com.glucocloud.api.food.FoodDatabase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/foods")
+@RequiredArgsConstructor
+public class FoodController {
+
+    private final FoodDatabase foodDatabase;
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchFoods(
+            @RequestParam String q,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+
+        if (!foodDatabase.isAvailable()) {
+            return createErrorResponse("Food database is not available", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        List<FoodResponse> foods = foodDatabase.search(q, limit);
+        return ResponseEntity.ok(foods);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getFood(@PathVariable int id) {
+        if (!foodDatabase.isAvailable()) {
+            return createErrorResponse("Food database is not available", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return foodDatabase.findFood(id)
+                .map(food -> ResponseEntity.ok(food))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> createErrorResponse(String message, HttpStatus status) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -1,13 +1,27 @@
 package com.glucocloud.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.glucocloud.api.dto.GlucoseBatchResponse;
+import com.glucocloud.api.dto.GlucoseForecastResponse;
+import com.glucocloud.api.dto.GlucoseReadingBatchRequest;
 import com.glucocloud.api.dto.GlucoseReadingRequest;
 import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.GlucoseSeriesResponse;
+import com.glucocloud.api.dto.JobResponse;
+import com.glucocloud.api.dto.RetentionPolicyRequest;
+import com.glucocloud.api.dto.RetentionPolicyResponse;
 import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.forecast.GlucoseForecaster;
+import com.glucocloud.api.ingest.GlucoseIngest;
+import com.glucocloud.api.job.JobService;
+import com.glucocloud.api.retention.GlucoseArchiveService;
 import com.glucocloud.api.security.JwtUtils;
 import com.glucocloud.api.service.GlucoseReadingService;
 import com.glucocloud.api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +39,10 @@ import java.util.UUID;
 public class GlucoseController {
 
     private final GlucoseReadingService glucoseReadingService;
+    private final JobService jobService;
+    private final GlucoseForecaster glucoseForecaster;
+    private final GlucoseArchiveService glucoseArchiveService;
+    private final GlucoseIngest glucoseIngest;
     private final UserService userService;
     private final JwtUtils jwtUtils;
 
@@ -42,6 +60,24 @@ public class GlucoseController {
         }
     }
 
+    // 201 once saved, or 202 when queued for the background flush (glucocloud.ingest.mode=wal)
+    @PostMapping("/batch")
+    public ResponseEntity<?> createReadings(
+            @Valid @RequestBody GlucoseReadingBatchRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        if (!glucoseIngest.isAccepting()) {
+            return createErrorResponse("Glucose uploads are backed up; try again shortly", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            User user = getCurrentUser(authHeader);
+            GlucoseBatchResponse response = glucoseIngest.ingest(user, request.getReadings());
+            return ResponseEntity.status(response.isQueued() ? HttpStatus.ACCEPTED : HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to create glucose readings: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping
     public ResponseEntity<?> getReadings(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
@@ -57,6 +93,57 @@ public class GlucoseController {
         }
     }
 
+    @GetMapping("/series")
+    public ResponseEntity<?> getReadingSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "500") int points,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            GlucoseSeriesResponse series = glucoseReadingService.getReadingSeries(user, from, to, points);
+            return ResponseEntity.ok(series);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve glucose series: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/forecast")
+    public ResponseEntity<?> getForecast(@RequestHeader("Authorization") String authHeader) {
+        try {
+            User user = getCurrentUser(authHeader);
+            GlucoseForecastResponse forecast = glucoseForecaster.getForecast(user);
+            return ResponseEntity.ok(forecast);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to forecast glucose: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/retention")
+    public ResponseEntity<?> getRetentionPolicy(@RequestHeader("Authorization") String authHeader) {
+        try {
+            User user = getCurrentUser(authHeader);
+            return ResponseEntity.ok(glucoseArchiveService.getPolicy(user));
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve retention policy: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PutMapping("/retention")
+    public ResponseEntity<?> updateRetentionPolicy(
+            @Valid @RequestBody RetentionPolicyRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            RetentionPolicyResponse response = glucoseArchiveService.updatePolicy(user, request);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to update retention policy: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getReading(
             @PathVariable UUID id,
@@ -65,7 +152,7 @@ public class GlucoseController {
         try {
             User user = getCurrentUser(authHeader);
             return glucoseReadingService.getReadingById(user, id)
-                    .map(reading -> ResponseEntity.ok(reading))
+                    .map(reading -> ResponseEntity.ok().eTag(EntityTags.of(reading.getVersion())).body(reading))
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return createErrorResponse("Failed to retrieve glucose reading: " + e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -92,6 +179,43 @@ public class GlucoseController {
         }
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchReading(
+            @PathVariable UUID id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            GlucoseReadingResponse response = glucoseReadingService.patchReading(user, id, patch, EntityTags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(response.getVersion())).body(response);
+        } catch (OptimisticLockingFailureException e) {
+            return createErrorResponse("Glucose reading has been modified since it was read", HttpStatus.PRECONDITION_FAILED);
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return createErrorResponse("Failed to update glucose reading: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Deletes in the background; the returned job reports progress under /jobs/{id}
+    @DeleteMapping
+    public ResponseEntity<?> deleteReadingsInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            JobResponse job = jobService.deleteRange(user, EntityChangedEvent.EntityType.GLUCOSE_READING, from, to);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to delete glucose readings: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteReading(
             @PathVariable UUID id,
@@ -0,0 +1,69 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.dto.JobResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.importer.GlucoseImportService;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/import")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final GlucoseImportService glucoseImportService;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    @GetMapping("/profiles")
+    public ResponseEntity<?> getProfiles(@RequestHeader("Authorization") String authHeader) {
+        try {
+            getCurrentUser(authHeader);
+            return ResponseEntity.ok(glucoseImportService.getProfiles());
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve import profiles: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /** Takes the raw CSV as the request body and answers with the job importing it. */
+    @PostMapping("/glucose")
+    public ResponseEntity<?> importGlucose(
+            @RequestParam String profile,
+            @RequestHeader("Authorization") String authHeader,
+            InputStream body) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            JobResponse job = glucoseImportService.importGlucose(user, profile, body);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IOException e) {
+            return createErrorResponse("Failed to store the upload: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to import readings: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private User getCurrentUser(String authHeader) {
+        String token = authHeader.substring(7); // Remove "Bearer " prefix
+        String email = jwtUtils.getEmailFromJwtToken(token);
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private ResponseEntity<?> createErrorResponse(String message, HttpStatus status) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,68 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.dto.JobResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.job.JobService;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    @GetMapping
+    public ResponseEntity<?> getJobs(
+            @RequestParam(required = false, defaultValue = "20") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            List<JobResponse> jobs = jobService.getJobs(user, limit);
+            return ResponseEntity.ok(jobs);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve jobs: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getJob(
+            @PathVariable UUID id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            return jobService.getJob(user, id)
+                    .map(job -> ResponseEntity.ok(job))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve job: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private User getCurrentUser(String authHeader) {
+        String token = authHeader.substring(7); // Remove "Bearer " prefix
+        String email = jwtUtils.getEmailFromJwtToken(token);
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private ResponseEntity<?> createErrorResponse(String message, HttpStatus status) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -1,13 +1,20 @@
 package com.glucocloud.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.glucocloud.api.autocomplete.AutocompleteService;
+import com.glucocloud.api.dto.JobResponse;
 import com.glucocloud.api.dto.MealRequest;
 import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.dto.MealSuggestionResponse;
 import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.job.JobService;
 import com.glucocloud.api.security.JwtUtils;
 import com.glucocloud.api.service.MealService;
 import com.glucocloud.api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +32,8 @@ import java.util.UUID;
 public class MealController {
 
     private final MealService mealService;
+    private final JobService jobService;
+    private final AutocompleteService autocompleteService;
     private final UserService userService;
     private final JwtUtils jwtUtils;
 
@@ -57,6 +66,21 @@ public class MealController {
         }
     }
 
+    @GetMapping("/suggestions")
+    public ResponseEntity<?> getMealSuggestions(
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            List<MealSuggestionResponse> suggestions = autocompleteService.suggestMeals(user, q, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve meal suggestions: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getMeal(
             @PathVariable UUID id,
@@ -65,7 +89,7 @@ public class MealController {
         try {
             User user = getCurrentUser(authHeader);
             return mealService.getMealById(user, id)
-                    .map(meal -> ResponseEntity.ok(meal))
+                    .map(meal -> ResponseEntity.ok().eTag(EntityTags.of(meal.getVersion())).body(meal))
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return createErrorResponse("Failed to retrieve meal: " + e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -92,6 +116,43 @@ public class MealController {
         }
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchMeal(
+            @PathVariable UUID id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            MealResponse response = mealService.patchMeal(user, id, patch, EntityTags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(response.getVersion())).body(response);
+        } catch (OptimisticLockingFailureException e) {
+            return createErrorResponse("Meal has been modified since it was read", HttpStatus.PRECONDITION_FAILED);
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return createErrorResponse("Failed to update meal: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Deletes in the background; the returned job reports progress under /jobs/{id}
+    @DeleteMapping
+    public ResponseEntity<?> deleteMealsInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            JobResponse job = jobService.deleteRange(user, EntityChangedEvent.EntityType.MEAL, from, to);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to delete meals: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteMeal(
             @PathVariable UUID id,
@@ -1,13 +1,20 @@
 package com.glucocloud.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.glucocloud.api.autocomplete.AutocompleteService;
+import com.glucocloud.api.dto.JobResponse;
 import com.glucocloud.api.dto.MedicationRequest;
 import com.glucocloud.api.dto.MedicationResponse;
+import com.glucocloud.api.dto.MedicationSuggestionResponse;
 import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.job.JobService;
 import com.glucocloud.api.security.JwtUtils;
 import com.glucocloud.api.service.MedicationService;
 import com.glucocloud.api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +32,8 @@ import java.util.UUID;
 public class MedicationController {
 
     private final MedicationService medicationService;
+    private final JobService jobService;
+    private final AutocompleteService autocompleteService;
     private final UserService userService;
     private final JwtUtils jwtUtils;
 
@@ -65,7 +74,7 @@ public class MedicationController {
         try {
             User user = getCurrentUser(authHeader);
             return medicationService.getMedicationById(user, id)
-                    .map(medication -> ResponseEntity.ok(medication))
+                    .map(medication -> ResponseEntity.ok().eTag(EntityTags.of(medication.getVersion())).body(medication))
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return createErrorResponse("Failed to retrieve medication: " + e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -92,6 +101,43 @@ public class MedicationController {
         }
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchMedication(
+            @PathVariable UUID id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            MedicationResponse response = medicationService.patchMedication(user, id, patch, EntityTags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(response.getVersion())).body(response);
+        } catch (OptimisticLockingFailureException e) {
+            return createErrorResponse("Medication has been modified since it was read", HttpStatus.PRECONDITION_FAILED);
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return createErrorResponse("Failed to update medication: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Deletes in the background; the returned job reports progress under /jobs/{id}
+    @DeleteMapping
+    public ResponseEntity<?> deleteMedicationsInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            JobResponse job = jobService.deleteRange(user, EntityChangedEvent.EntityType.MEDICATION, from, to);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to delete medications: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteMedication(
             @PathVariable UUID id,
@@ -111,11 +157,26 @@ public class MedicationController {
         }
     }
 
+    @GetMapping("/suggestions")
+    public ResponseEntity<?> getMedicationSuggestions(
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            List<MedicationSuggestionResponse> suggestions = autocompleteService.suggestMedications(user, q, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve medication suggestions: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/names")
     public ResponseEntity<?> getMedicationNames(@RequestHeader("Authorization") String authHeader) {
         try {
             User user = getCurrentUser(authHeader);
-            List<String> medicationNames = medicationService.getUserMedicationNames(user);
+            List<String> medicationNames = autocompleteService.getMedicationNames(user);
             return ResponseEntity.ok(medicationNames);
         } catch (Exception e) {
             return createErrorResponse("Failed to retrieve medication names: " + e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -0,0 +1,136 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.adherence.AdherenceService;
+import com.glucocloud.api.dto.AdherenceResponse;
+import com.glucocloud.api.dto.RegimenRequest;
+import com.glucocloud.api.dto.RegimenResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.MedicationRegimenService;
+import com.glucocloud.api.service.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/regimens")
+@RequiredArgsConstructor
+public class RegimenController {
+
+    private final MedicationRegimenService regimenService;
+    private final AdherenceService adherenceService;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    @PostMapping
+    public ResponseEntity<?> createRegimen(
+            @Valid @RequestBody RegimenRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            RegimenResponse response = regimenService.createRegimen(user, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to create regimen: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getRegimens(@RequestHeader("Authorization") String authHeader) {
+        try {
+            User user = getCurrentUser(authHeader);
+            List<RegimenResponse> regimens = regimenService.getUserRegimens(user);
+            return ResponseEntity.ok(regimens);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve regimens: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/adherence")
+    public ResponseEntity<?> getAdherence(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            AdherenceResponse adherence = adherenceService.getAdherence(user, from, to);
+            return ResponseEntity.ok(adherence);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve adherence: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getRegimen(
+            @PathVariable UUID id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            return regimenService.getRegimenById(user, id)
+                    .map(regimen -> ResponseEntity.ok(regimen))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve regimen: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateRegimen(
+            @PathVariable UUID id,
+            @Valid @RequestBody RegimenRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            RegimenResponse response = regimenService.updateRegimen(user, id, request);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return createErrorResponse("Failed to update regimen: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteRegimen(
+            @PathVariable UUID id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            regimenService.deleteRegimen(user, id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return createErrorResponse("Failed to delete regimen: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private User getCurrentUser(String authHeader) {
+        String token = authHeader.substring(7); // Remove "Bearer " prefix
+        String email = jwtUtils.getEmailFromJwtToken(token);
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private ResponseEntity<?> createErrorResponse(String message, HttpStatus status) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,53 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.dto.SearchResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.search.SearchService;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            SearchResponse response = searchService.search(user, q, cursor, limit);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Search failed: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private User getCurrentUser(String authHeader) {
+        String token = authHeader.substring(7); // Remove "Bearer " prefix
+        String email = jwtUtils.getEmailFromJwtToken(token);
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private ResponseEntity<?> createErrorResponse(String message, HttpStatus status) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,50 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.UserService;
+import com.glucocloud.api.stream.LiveEventBus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/stream")
+@RequiredArgsConstructor
+public class StreamController {
+
+    // Clients (EventSource) reconnect automatically after the timeout
+    private static final long STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final LiveEventBus liveEventBus;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    /**
+     * Server-Sent Events stream of the user's new readings, meals, medications and
+     * alerts. EventSource cannot set headers, so the token may also be passed as the
+     * access_token query parameter.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(value = "access_token", required = false) String accessToken) throws IOException {
+
+        User user = getCurrentUser(authHeader != null ? authHeader.substring(7) : accessToken);
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        liveEventBus.subscribe(user.getId(), emitter);
+        emitter.send(SseEmitter.event().name("connected").data(Map.of("userId", user.getId())));
+        return emitter;
+    }
+
+    private User getCurrentUser(String token) {
+        String email = jwtUtils.getEmailFromJwtToken(token);
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
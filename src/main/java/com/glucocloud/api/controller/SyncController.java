@@ -0,0 +1,69 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.dto.SyncResponse;
+import com.glucocloud.api.dto.SyncUploadRequest;
+import com.glucocloud.api.dto.SyncUploadResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.UserService;
+import com.glucocloud.api.sync.SyncService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    @GetMapping
+    public ResponseEntity<?> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false, defaultValue = "500") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            SyncResponse response = syncService.getChanges(user, since, limit);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve changes: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> uploadChanges(
+            @Valid @RequestBody SyncUploadRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            SyncUploadResponse response = syncService.upload(user, request);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to upload changes: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private User getCurrentUser(String authHeader) {
+        String token = authHeader.substring(7); // Remove "Bearer " prefix
+        String email = jwtUtils.getEmailFromJwtToken(token);
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private ResponseEntity<?> createErrorResponse(String message, HttpStatus status) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
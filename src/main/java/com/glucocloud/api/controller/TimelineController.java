@@ -0,0 +1,52 @@
+package com.glucocloud.api.controller;
+
+import com.glucocloud.api.dto.TimelineResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.UserService;
+import com.glucocloud.api.timeline.TimelineService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/timeline")
+@RequiredArgsConstructor
+public class TimelineController {
+
+    private final TimelineService timelineService;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    @GetMapping
+    public ResponseEntity<?> getTimeline(
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false, defaultValue = "50") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            User user = getCurrentUser(authHeader);
+            TimelineResponse response = timelineService.getTimeline(user, before, limit);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve timeline: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private User getCurrentUser(String authHeader) {
+        String token = authHeader.substring(7); // Remove "Bearer " prefix
+        String email = jwtUtils.getEmailFromJwtToken(token);
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private ResponseEntity<?> createErrorResponse(String message, HttpStatus status) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
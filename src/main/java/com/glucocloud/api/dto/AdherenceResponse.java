@@ -0,0 +1,47 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdherenceResponse {
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Counts overall;
+    private List<RegimenAdherence> regimens;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RegimenAdherence {
+        private UUID regimenId;
+        private String name;
+        private Counts counts;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Counts {
+        private int expected;
+        private int taken;   // within the tolerance of the slot
+        private int late;
+        private int missed;
+        private int pending; // slot still open
+        private int extra;   // doses that matched no slot
+        private Double adherencePercentage; // (taken + late) / due
+        private Double onTimePercentage;    // taken / due
+    }
+}
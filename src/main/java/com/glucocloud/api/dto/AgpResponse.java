@@ -0,0 +1,42 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgpResponse {
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private int days;
+    private int daysWithData;
+    private long totalReadings;
+
+    // Clinical AGP reports expect at least 14 days of data
+    private boolean sufficientData;
+
+    private int slotMinutes;
+    private List<Slot> profile;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Slot {
+        private String time; // "HH:mm" start of the slot
+        private int readings;
+        private Double p5;
+        private Double p25;
+        private Double p50;
+        private Double p75;
+        private Double p95;
+    }
+}
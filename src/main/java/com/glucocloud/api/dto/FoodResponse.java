@@ -0,0 +1,36 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.food.FoodIndex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A food from the local composition database; nutrients are per 100 g and null when
+ * the source does not list them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodResponse {
+
+    private int id;
+    private String name;
+    private Float carbsGrams;
+    private Float calories;
+    private Float proteinGrams;
+    private Float fatGrams;
+
+    public static FoodResponse fromFood(FoodIndex.Food food) {
+        return FoodResponse.builder()
+                .id(food.id())
+                .name(food.name())
+                .carbsGrams(food.carbs())
+                .calories(food.calories())
+                .proteinGrams(food.protein())
+                .fatGrams(food.fat())
+                .build();
+    }
+}
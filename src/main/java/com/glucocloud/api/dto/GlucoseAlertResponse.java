@@ -0,0 +1,40 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.GlucoseAlert;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseAlertResponse {
+
+    private UUID id;
+    private GlucoseAlert.AlertType alertType;
+    private GlucoseAlert.Severity severity;
+    private String message;
+    private UUID readingId;
+    private BigDecimal readingValue;
+    private LocalDateTime triggeredAt;
+    private boolean acknowledged;
+
+    public static GlucoseAlertResponse fromEntity(GlucoseAlert alert) {
+        return GlucoseAlertResponse.builder()
+                .id(alert.getId())
+                .alertType(alert.getAlertType())
+                .severity(alert.getSeverity())
+                .message(alert.getMessage())
+                .readingId(alert.getReadingId())
+                .readingValue(alert.getReadingValue())
+                .triggeredAt(alert.getTriggeredAt())
+                .acknowledged(Boolean.TRUE.equals(alert.getAcknowledged()))
+                .build();
+    }
+}
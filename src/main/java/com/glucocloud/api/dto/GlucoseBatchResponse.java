@@ -0,0 +1,26 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseBatchResponse {
+
+    private int accepted;
+
+    // Readings left out because one with the same source and takenAt is already stored or earlier in the batch
+    private int duplicates;
+
+    // True when the readings were logged for a background flush rather than saved directly
+    private boolean queued;
+
+    // In request order; ids are final even while queued
+    private List<GlucoseReadingResponse> readings;
+}
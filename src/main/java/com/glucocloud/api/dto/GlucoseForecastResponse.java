@@ -0,0 +1,43 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseForecastResponse {
+
+    private LocalDateTime basedOnReadingAt;
+    private Double currentValue;
+    private Double trendPerMinute; // mg/dL per minute
+
+    // Latest reading is too old for the forecast to be trusted
+    private boolean stale;
+
+    private boolean predictedLow;
+    private Integer minutesToLow;
+
+    private Double activeCarbsGrams;
+    private Double activeInsulinUnits;
+
+    private List<Point> forecasts;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private int horizonMinutes;
+        private LocalDateTime predictedAt;
+        private double value;
+        private double lower; // 80% interval from the observed forecast error
+        private double upper;
+    }
+}
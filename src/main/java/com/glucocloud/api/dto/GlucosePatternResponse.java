@@ -0,0 +1,48 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.GlucoseReading;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucosePatternResponse {
+
+    private LocalDateTime fromDate;
+    private LocalDateTime toDate;
+    private boolean splitByReadingType;
+    private long totalReadings;
+
+    // Only cells with readings are returned
+    private List<Cell> cells;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cell {
+        private DayOfWeek dayOfWeek;
+        private int hour;
+        private GlucoseReading.ReadingType readingType;
+
+        private long readings;
+        private BigDecimal averageReading;
+
+        // Bands: <54, 54-69, 70-180, 181-250, >250 mg/dL
+        private long veryLow;
+        private long low;
+        private long inRange;
+        private long high;
+        private long veryHigh;
+        private double timeInRangePercentage;
+    }
+}
@@ -0,0 +1,17 @@
+package com.glucocloud.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GlucoseReadingBatchRequest {
+
+    @Valid
+    @NotEmpty(message = "At least one reading is required")
+    @Size(max = 5000, message = "At most 5000 readings can be uploaded at once")
+    private List<GlucoseReadingRequest> readings;
+}
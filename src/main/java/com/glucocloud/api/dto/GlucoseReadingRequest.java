@@ -22,4 +22,19 @@ public class GlucoseReadingRequest {
 
     @Size(max = 500, message = "Note cannot exceed 500 characters")
     private String note;
+
+    // Device or uploader id; readings with the same source and takenAt are stored once
+    @Size(max = 100, message = "Source cannot exceed 100 characters")
+    private String source;
+
+    /** The stored reading as a request, the base of a full update. */
+    public static GlucoseReadingRequest fromEntity(GlucoseReading reading) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setReadingValue(reading.getReadingValue());
+        request.setTakenAt(reading.getTakenAt());
+        request.setReadingType(reading.getReadingType());
+        request.setNote(reading.getNote());
+        request.setSource(reading.getSource());
+        return request;
+    }
 }
\ No newline at end of file
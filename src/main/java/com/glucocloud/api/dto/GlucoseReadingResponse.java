@@ -21,7 +21,9 @@ public class GlucoseReadingResponse {
     private LocalDateTime takenAt;
     private GlucoseReading.ReadingType readingType;
     private String note;
+    private String source;
     private LocalDateTime createdAt;
+    private Long version;
 
     // Analytics fields
     private String status; // "NORMAL", "HIGH", "LOW", "CRITICALLY_HIGH", "CRITICALLY_LOW"
@@ -45,7 +47,9 @@ public class GlucoseReadingResponse {
                 .takenAt(reading.getTakenAt())
                 .readingType(reading.getReadingType())
                 .note(reading.getNote())
+                .source(reading.getSource())
                 .createdAt(reading.getCreatedAt())
+                .version(reading.getVersion())
                 .status(status)
                 .inRange(reading.isInNormalRange())
                 .build();
@@ -0,0 +1,29 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columnar chart series: t[i] is the offset in seconds from {@code from} and v[i] the
+ * glucose value in mg/dL of the i-th point.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseSeriesResponse {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    private int sourcePoints;
+    private int points;
+    private boolean downsampled;
+
+    private long[] t;
+    private double[] v;
+}
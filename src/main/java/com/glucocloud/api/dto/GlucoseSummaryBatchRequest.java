@@ -0,0 +1,39 @@
+package com.glucocloud.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class GlucoseSummaryBatchRequest {
+
+    // Either explicit windows...
+    @Valid
+    @Size(max = 366, message = "At most 366 windows can be requested at once")
+    private List<Window> windows;
+
+    // ...or a periodic spec such as "12 weeks", "30 days" or "6 months" ending at 'end' (default now)
+    @Pattern(regexp = "(?i)\\s*\\d{1,3}\\s+(day|week|month)s?\\s*", message = "Period must look like '12 weeks'")
+    private String period;
+
+    private LocalDateTime end;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Window {
+
+        @NotNull(message = "Window start is required")
+        private LocalDateTime from;
+
+        @NotNull(message = "Window end is required")
+        private LocalDateTime to;
+    }
+}
@@ -0,0 +1,43 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.BackgroundJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobResponse {
+
+    private UUID id;
+    private BackgroundJob.JobType type;
+    private BackgroundJob.Status status;
+    private String phase;
+    private long processed;
+    private long skipped;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static JobResponse fromEntity(BackgroundJob job) {
+        return JobResponse.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .phase(job.getPhase())
+                .processed(job.getProcessed())
+                .skipped(job.getSkipped())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -30,4 +30,7 @@ public class MealGlucoseCorrelation {
     private String impact; // "HIGH_IMPACT", "MODERATE_IMPACT", "LOW_IMPACT", "NO_DATA"
     private double carbToGlucoseRatio; // mg/dL per gram of carbs
     private int minutesToPeak;
+
+    // Rapid/short acting insulin units active when the meal was eaten
+    private double insulinOnBoard;
 }
\ No newline at end of file
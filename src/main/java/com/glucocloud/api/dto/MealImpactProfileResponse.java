@@ -0,0 +1,40 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealImpactProfileResponse {
+
+    private LocalDateTime fromDate;
+    private LocalDateTime toDate;
+    private int totalMeals;
+    private List<Cluster> clusters;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cluster {
+        private UUID clusterId;
+        private String label; // most frequent description in the cluster
+        private List<String> descriptions;
+        private int meals;
+        private int mealsWithData;
+        private Double averageCarbs;
+        private Double averageRise;
+        private Double maxRise;
+        private Double averageMinutesToPeak;
+        private Double averageCarbToGlucoseRatio;
+        private String impact; // "HIGH_IMPACT", "MODERATE_IMPACT", "LOW_IMPACT", "INSUFFICIENT_DATA"
+    }
+}
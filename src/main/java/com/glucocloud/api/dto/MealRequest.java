@@ -29,6 +29,13 @@ public class MealRequest {
     @Max(value = 500, message = "Fat cannot exceed 500g")
     private Integer fatGrams;
 
+    // Optional food from the local food database; its macros fill any left blank above
+    private Integer foodId;
+
+    @Min(value = 1, message = "Portion must be at least 1g")
+    @Max(value = 2000, message = "Portion cannot exceed 2000g")
+    private Integer portionGrams;
+
     private Meal.MealType mealType;
 
     @NotNull(message = "Meal timestamp is required")
@@ -27,6 +27,7 @@ public class MealResponse {
     private String notes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Analytics fields
     private boolean highCarb;
@@ -47,6 +48,7 @@ public class MealResponse {
                 .notes(meal.getNotes())
                 .createdAt(meal.getCreatedAt())
                 .updatedAt(meal.getUpdatedAt())
+                .version(meal.getVersion())
                 .highCarb(meal.isHighCarb())
                 .lowCarb(meal.isLowCarb())
                 .carbRatio(Math.round(meal.getCarbRatio() * 100.0) / 100.0)
@@ -0,0 +1,27 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.Meal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealSuggestionResponse {
+
+    private String description;
+    private int uses;
+    private LocalDateTime lastUsedAt;
+
+    // Macros of the most recent meal with this description
+    private Integer carbsGrams;
+    private Integer calories;
+    private Integer proteinGrams;
+    private Integer fatGrams;
+    private Meal.MealType mealType;
+}
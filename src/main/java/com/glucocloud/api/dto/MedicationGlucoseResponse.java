@@ -0,0 +1,69 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.Medication;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicationGlucoseResponse {
+
+    private LocalDateTime fromDate;
+    private LocalDateTime toDate;
+    private int totalDoses;
+    private int dosesWithGlucoseData;
+    private int totalHypoEvents;
+
+    private List<MedicationEffect> medications;
+
+    // Only included when requested
+    private List<DoseOutcome> doses;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MedicationEffect {
+        private String name;
+        private Medication.MedicationType medicationType;
+        private int windowMinutes;
+        private int doses;
+        private int dosesWithData;
+        private Double averageBaseline;
+        private Double averageNadir;
+        private Double averageDrop;
+        private Double averageMinutesToNadir;
+        private Double dropPerUnit; // insulin only: mg/dL per unit, when dosages carry a number
+        private int hypoEvents;
+        private int dosesFollowedByHypo;
+        private double hypoRatePercentage;
+        private Double averageEffectivenessRating;
+        private String effectiveness; // "STRONG", "MODERATE", "MINIMAL", "INSUFFICIENT_DATA"
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DoseOutcome {
+        private UUID medicationId;
+        private String name;
+        private Medication.MedicationType medicationType;
+        private LocalDateTime takenAt;
+        private double baseline;
+        private double nadir;
+        private double drop;
+        private int minutesToNadir;
+        private double endValue;
+        private int readings;
+        private int hypoEvents;
+    }
+}
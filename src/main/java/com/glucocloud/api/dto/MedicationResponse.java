@@ -25,6 +25,7 @@ public class MedicationResponse {
     private String sideEffects;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Analytics fields
     private boolean isInsulin;
@@ -43,6 +44,7 @@ public class MedicationResponse {
                 .sideEffects(medication.getSideEffects())
                 .createdAt(medication.getCreatedAt())
                 .updatedAt(medication.getUpdatedAt())
+                .version(medication.getVersion())
                 .isInsulin(medication.isInsulin())
                 .isOralMedication(medication.isOralMedication())
                 .isInjectable(medication.isInjectable())
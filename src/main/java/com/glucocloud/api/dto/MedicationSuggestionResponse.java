@@ -0,0 +1,24 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.Medication;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicationSuggestionResponse {
+
+    private String name;
+    private int uses;
+    private LocalDateTime lastUsedAt;
+
+    // Dosage and type of the most recent dose
+    private String dosage;
+    private Medication.MedicationType medicationType;
+}
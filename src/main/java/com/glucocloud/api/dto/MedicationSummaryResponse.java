@@ -24,8 +24,9 @@ public class MedicationSummaryResponse {
     private int medicationsWithSideEffects;
     private double sideEffectsPercentage;
 
-    // Medication adherence (estimated based on frequency)
+    // Medication adherence: measured against regimens when the user has any, else estimated from frequency
     private String adherenceEstimate; // "EXCELLENT", "GOOD", "POOR", "INSUFFICIENT_DATA"
+    private Double adherencePercentage;
     private double medicationsPerDay;
 
     // Medication types
@@ -0,0 +1,23 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OnBoardResponse {
+
+    private LocalDateTime at;
+
+    // Rapid and short acting insulin, the figure used when dosing
+    private double bolusInsulinOnBoard;
+    // Intermediate and long acting insulin
+    private double basalInsulinOnBoard;
+    private double carbsOnBoard;
+}
@@ -0,0 +1,29 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columnar insulin/carbs-on-board series: t[i] is the offset in seconds from
+ * {@code from}; the other arrays hold units or grams on board at that instant.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OnBoardSeriesResponse {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int stepMinutes;
+    private int points;
+
+    private long[] t;
+    private double[] bolusInsulin;
+    private double[] basalInsulin;
+    private double[] carbs;
+}
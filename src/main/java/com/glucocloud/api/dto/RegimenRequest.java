@@ -0,0 +1,43 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.Medication;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class RegimenRequest {
+
+    @NotBlank(message = "Medication name is required")
+    @Size(max = 200, message = "Medication name cannot exceed 200 characters")
+    private String name;
+
+    @Size(max = 100, message = "Dosage cannot exceed 100 characters")
+    private String dosage;
+
+    private Medication.MedicationType medicationType;
+
+    @NotEmpty(message = "At least one time of day is required")
+    @Size(max = 12, message = "A regimen cannot have more than 12 doses per day")
+    private List<LocalTime> timesOfDay;
+
+    // Empty or missing means every day
+    private List<DayOfWeek> daysOfWeek;
+
+    // Defaults to today
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Min(value = 5, message = "Tolerance must be between 5 and 180 minutes")
+    @Max(value = 180, message = "Tolerance must be between 5 and 180 minutes")
+    private Integer toleranceMinutes;
+}
@@ -0,0 +1,51 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.entity.MedicationRegimen;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegimenResponse {
+
+    private UUID id;
+    private String name;
+    private String dosage;
+    private Medication.MedicationType medicationType;
+    private List<LocalTime> timesOfDay;
+    private List<DayOfWeek> daysOfWeek;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int toleranceMinutes;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static RegimenResponse fromEntity(MedicationRegimen regimen) {
+        return RegimenResponse.builder()
+                .id(regimen.getId())
+                .name(regimen.getName())
+                .dosage(regimen.getDosage())
+                .medicationType(regimen.getMedicationType())
+                .timesOfDay(regimen.scheduleTimes())
+                .daysOfWeek(new ArrayList<>(regimen.scheduleDays()))
+                .startDate(regimen.getStartDate())
+                .endDate(regimen.getEndDate())
+                .toleranceMinutes(regimen.getToleranceMinutes())
+                .createdAt(regimen.getCreatedAt())
+                .updatedAt(regimen.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.glucocloud.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class RetentionPolicyRequest {
+
+    // Null returns the account to the global policy
+    @Min(value = 90, message = "Raw readings must be kept for at least 90 days")
+    @Max(value = 36500, message = "Retention cannot exceed 100 years")
+    private Integer rawRetentionDays;
+}
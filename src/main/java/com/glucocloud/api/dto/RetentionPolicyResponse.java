@@ -0,0 +1,22 @@
+package com.glucocloud.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionPolicyResponse {
+
+    private Integer rawRetentionDays;
+    private int effectiveRetentionDays;
+    // Raw readings before this instant are moved to the archive
+    private LocalDateTime archiveBefore;
+    private long archivedMonths;
+    private long archivedReadings;
+}
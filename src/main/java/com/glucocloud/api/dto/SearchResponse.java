@@ -0,0 +1,38 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.event.EntityChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResponse {
+
+    private String query;
+    private List<Hit> hits;
+
+    // Pass back as 'cursor' to fetch the next page; null on the last page
+    private String nextCursor;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private EntityChangedEvent.EntityType type;
+        private UUID id;
+        private LocalDateTime occurredAt;
+        private String title;   // meal description, medication name or reading value
+        private String field;   // field the snippet was taken from
+        private String snippet; // HTML-escaped text with matches wrapped in <mark></mark>
+        private double score;
+    }
+}
@@ -0,0 +1,44 @@
+package com.glucocloud.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.glucocloud.api.event.EntityChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+
+    private List<Change> changes;
+
+    // Pass back as 'since'; still valid after the last page, for the next sync
+    private String nextToken;
+
+    private boolean hasMore;
+
+    // The token predates pruned tombstones or is unknown: drop local data and sync again from scratch
+    private boolean resetRequired;
+
+    /** The current state of one record; deleted records carry no payload. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Change {
+        private long seq;
+        private EntityChangedEvent.EntityType type;
+        private UUID id;
+        private boolean deleted;
+        private GlucoseReadingResponse reading;
+        private MealResponse meal;
+        private MedicationResponse medication;
+    }
+}
@@ -0,0 +1,42 @@
+package com.glucocloud.api.dto;
+
+import com.glucocloud.api.event.EntityChangedEvent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class SyncUploadRequest {
+
+    @NotEmpty(message = "At least one mutation is required")
+    @Size(max = 500, message = "Cannot upload more than 500 mutations at once")
+    private List<Mutation> mutations;
+
+    public enum Operation {
+        UPSERT, DELETE
+    }
+
+    /** One offline edit; only the payload matching its type is read. */
+    @Data
+    public static class Mutation {
+        // Echoed back so the client can map records it created offline to their new ids
+        private String clientRef;
+
+        private EntityChangedEvent.EntityType type;
+
+        // Null to create a record
+        private UUID id;
+
+        private Operation op;
+
+        // The change sequence the client last saw for this record; null overwrites unconditionally
+        private Long baseSeq;
+
+        private GlucoseReadingRequest reading;
+        private MealRequest meal;
+        private MedicationRequest medication;
+    }
+}
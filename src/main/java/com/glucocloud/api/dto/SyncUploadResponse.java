@@ -0,0 +1,45 @@
+package com.glucocloud.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.glucocloud.api.event.EntityChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncUploadResponse {
+
+    // One result per mutation, in request order
+    private List<Result> results;
+
+    public enum Status {
+        APPLIED, CONFLICT, NOT_FOUND, INVALID
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private String clientRef;
+        private EntityChangedEvent.EntityType type;
+        private UUID id;
+        private Status status;
+
+        // The record's sequence after the mutation was applied
+        private Long seq;
+
+        private String message;
+
+        // The server's current version when the mutation conflicted
+        private SyncResponse.Change server;
+    }
+}
@@ -0,0 +1,87 @@
+package com.glucocloud.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.Meal;
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.event.EntityChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineResponse {
+
+    private List<Event> events;
+
+    // Pass back as 'before' to fetch the next (older) page; null on the last page
+    private String nextCursor;
+
+    /** One reading, meal or medication; only the fields of its type are present. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Event {
+        private EntityChangedEvent.EntityType type;
+        private UUID id;
+        private LocalDateTime occurredAt;
+
+        private BigDecimal readingValue;
+        private GlucoseReading.ReadingType readingType;
+        private String status;
+        private String note;
+
+        private String description;
+        private Integer carbsGrams;
+        private Meal.MealType mealType;
+
+        private String name;
+        private String dosage;
+        private Medication.MedicationType medicationType;
+
+        public static Event fromReading(GlucoseReading reading) {
+            return Event.builder()
+                    .type(EntityChangedEvent.EntityType.GLUCOSE_READING)
+                    .id(reading.getId())
+                    .occurredAt(reading.getTakenAt())
+                    .readingValue(reading.getReadingValue())
+                    .readingType(reading.getReadingType())
+                    .status(GlucoseReadingResponse.fromEntity(reading).getStatus())
+                    .note(reading.getNote())
+                    .build();
+        }
+
+        public static Event fromMeal(Meal meal) {
+            return Event.builder()
+                    .type(EntityChangedEvent.EntityType.MEAL)
+                    .id(meal.getId())
+                    .occurredAt(meal.getConsumedAt())
+                    .description(meal.getDescription())
+                    .carbsGrams(meal.getCarbsGrams())
+                    .mealType(meal.getMealType())
+                    .build();
+        }
+
+        public static Event fromMedication(Medication medication) {
+            return Event.builder()
+                    .type(EntityChangedEvent.EntityType.MEDICATION)
+                    .id(medication.getId())
+                    .occurredAt(medication.getTakenAt())
+                    .name(medication.getName())
+                    .dosage(medication.getDosage())
+                    .medicationType(medication.getMedicationType())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Matched doses of one regimen on one day, maintained as doses are logged or edited.
+ * Expected doses come from the regimen schedule, so missed = expected - taken - late
+ * and a day without any logged dose needs no row.
+ */
+@Entity
+@Table(name = "adherence_days",
+        uniqueConstraints = @UniqueConstraint(name = "uk_adherence_days_regimen_date",
+                columnNames = {"regimen_id", "adherence_date"}),
+        indexes = @Index(name = "idx_adherence_days_user_date", columnList = "user_id, adherence_date"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdherenceDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "regimen_id", nullable = false)
+    private MedicationRegimen regimen;
+
+    @Column(name = "adherence_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "taken", nullable = false)
+    private int taken;
+
+    @Column(name = "late", nullable = false)
+    private int late;
+
+    // Doses of the regimen's medication that matched no slot
+    @Column(name = "extra", nullable = false)
+    private int extra;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,96 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Long-running work done in short chunks by the job runner. Progress is written in
+ * the same transaction as each chunk, so a job picked up again after a restart carries
+ * on from its last committed chunk. The user is a plain column because an account
+ * erasure outlives the user row.
+ */
+@Entity
+@Table(name = "background_jobs",
+        indexes = {
+                @Index(name = "idx_background_jobs_status", columnList = "status, created_at"),
+                @Index(name = "idx_background_jobs_user", columnList = "user_id, created_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackgroundJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 30)
+    private JobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    // Job-specific parameters as JSON
+    @Column(name = "params", length = 2000)
+    private String params;
+
+    // Where a multi-step job has got to
+    @Column(name = "phase", length = 50)
+    private String phase;
+
+    @Column(name = "processed", nullable = false)
+    private long processed;
+
+    // Input left out, e.g. import rows that were invalid or already stored
+    @Column(name = "skipped", nullable = false, columnDefinition = "bigint default 0")
+    private long skipped;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    // Instance that alone may run the job because its input is on that instance's disk; null for any
+    @Column(name = "pinned_to", length = 100)
+    private String pinnedTo;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum JobType {
+        RANGE_DELETE,
+        ACCOUNT_ERASURE,
+        GLUCOSE_ARCHIVE,
+        GLUCOSE_CHUNK_BUILD,
+        GLUCOSE_IMPORT,
+        SYNC_BACKFILL
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,75 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "glucose_alerts",
+        uniqueConstraints = @UniqueConstraint(name = "uk_glucose_alerts_user_type_reading",
+                columnNames = {"user_id", "alert_type", "reading_id"}),
+        indexes = @Index(name = "idx_glucose_alerts_user_triggered_at", columnList = "user_id, triggered_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_type", nullable = false, length = 30)
+    private AlertType alertType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false, length = 20)
+    private Severity severity;
+
+    @Column(name = "message", nullable = false, length = 500)
+    private String message;
+
+    // Reading that triggered the alert
+    @Column(name = "reading_id")
+    private UUID readingId;
+
+    @Column(name = "reading_value", precision = 5, scale = 2)
+    private BigDecimal readingValue;
+
+    @Column(name = "triggered_at", nullable = false)
+    private LocalDateTime triggeredAt;
+
+    @Builder.Default
+    @Column(name = "acknowledged")
+    private Boolean acknowledged = false;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum AlertType {
+        CRITICAL_LOW,       // Single reading < 54 mg/dL
+        CRITICAL_HIGH,      // Single reading > 250 mg/dL
+        RAPID_FALL,         // Dropping faster than 2 mg/dL per minute
+        RAPID_RISE,         // Rising faster than 2 mg/dL per minute
+        SUSTAINED_LOW,      // Below 70 mg/dL for 15+ minutes
+        SUSTAINED_HIGH      // Above 180 mg/dL for 2+ hours
+    }
+
+    public enum Severity {
+        CRITICAL,
+        WARNING
+    }
+}
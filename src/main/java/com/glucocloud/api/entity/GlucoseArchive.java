@@ -0,0 +1,55 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One user's raw readings for one calendar month, moved out of glucose_readings once
+ * they fall outside the retention window. The readings are compressed into data; the
+ * time bounds let reads skip segments outside the queried range.
+ */
+@Entity
+@Table(name = "glucose_archives",
+        uniqueConstraints = @UniqueConstraint(name = "uk_glucose_archives_user_month",
+                columnNames = {"user_id", "month_start"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // A plain column like sync_changes.user_id; account erasure removes the rows
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "first_taken_at", nullable = false)
+    private LocalDateTime firstTakenAt;
+
+    @Column(name = "last_taken_at", nullable = false)
+    private LocalDateTime lastTakenAt;
+
+    @Column(name = "reading_count", nullable = false)
+    private int readingCount;
+
+    @Column(name = "data", nullable = false, length = 16_777_216)
+    private byte[] data;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,48 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One user-day of glucose readings encoded by {@code GlucoseChunkCodec}: timestamps and
+ * values only, for analytics that scan long ranges. Rebuilt whenever a reading of the day
+ * changes, hot or archived; days without readings have no row.
+ */
+@Entity
+@Table(name = "glucose_chunks",
+        uniqueConstraints = @UniqueConstraint(name = "uk_glucose_chunks_user_day",
+                columnNames = {"user_id", "chunk_date"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "chunk_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "reading_count", nullable = false)
+    private int readingCount;
+
+    @Column(name = "data", nullable = false, length = 1_048_576)
+    private byte[] data;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,63 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Aggregates of one archived day, kept in the hot database so summaries over archived
+ * ranges need not decompress the raw segments. Bands match the summary queries.
+ */
+@Entity
+@Table(name = "glucose_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_glucose_daily_rollups_user_day",
+                columnNames = {"user_id", "rollup_date"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlucoseDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "reading_count", nullable = false)
+    private int readingCount;
+
+    @Column(name = "sum_value", nullable = false, precision = 12, scale = 2)
+    private BigDecimal sumValue;
+
+    @Column(name = "min_value", nullable = false, precision = 5, scale = 2)
+    private BigDecimal minValue;
+
+    @Column(name = "max_value", nullable = false, precision = 5, scale = 2)
+    private BigDecimal maxValue;
+
+    @Column(name = "in_range_count", nullable = false)
+    private int inRangeCount;
+
+    @Column(name = "high_count", nullable = false)
+    private int highCount;
+
+    @Column(name = "low_count", nullable = false)
+    private int lowCount;
+
+    @Column(name = "critically_high_count", nullable = false)
+    private int criticallyHighCount;
+
+    @Column(name = "critically_low_count", nullable = false)
+    private int criticallyLowCount;
+}
@@ -7,13 +7,20 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "glucose_readings")
+@Table(name = "glucose_readings", indexes = {
+        @Index(name = "idx_glucose_readings_user_taken_at", columnList = "user_id, taken_at")
+}, uniqueConstraints = {
+        // A device never reports two readings at the same instant; readings without a source are not keyed
+        @UniqueConstraint(name = "uk_glucose_readings_user_source_taken_at", columnNames = {"user_id", "source", "taken_at"})
+})
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -46,10 +53,20 @@ public class GlucoseReading {
     @Size(max = 500, message = "Note cannot exceed 500 characters")
     private String note;
 
+    // The uploading device or app, e.g. a CGM serial; together with takenAt it identifies a reading on retries
+    @Column(name = "source", length = 100)
+    @Size(max = 100, message = "Source cannot exceed 100 characters")
+    private String source;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Bumped on every update; clients send it back in If-Match to avoid overwriting newer edits
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public enum ReadingType {
         FASTING,
         BEFORE_MEAL,
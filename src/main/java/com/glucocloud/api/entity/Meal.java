@@ -7,13 +7,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "meals")
+@Table(name = "meals", indexes = {
+        @Index(name = "idx_meals_user_consumed_at", columnList = "user_id, consumed_at")
+})
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -77,6 +81,11 @@ public class Meal {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped on every update; clients send it back in If-Match to avoid overwriting newer edits
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public enum MealType {
         BREAKFAST,
         LUNCH,
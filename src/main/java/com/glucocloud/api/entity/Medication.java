@@ -7,13 +7,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "medications")
+@Table(name = "medications", indexes = {
+        @Index(name = "idx_medications_user_taken_at", columnList = "user_id, taken_at")
+})
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -66,6 +70,11 @@ public class Medication {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped on every update; clients send it back in If-Match to avoid overwriting newer edits
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public enum MedicationType {
         INSULIN_RAPID,      // Rapid-acting insulin
         INSULIN_SHORT,      // Short-acting insulin
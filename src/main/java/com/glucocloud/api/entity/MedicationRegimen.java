@@ -0,0 +1,108 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+@Entity
+@Table(name = "medication_regimens",
+        indexes = @Index(name = "idx_medication_regimens_user", columnList = "user_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicationRegimen {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Matched case-insensitively against the name of logged medications
+    @Column(name = "name", nullable = false, length = 200)
+    @NotBlank(message = "Medication name is required")
+    @Size(max = 200, message = "Medication name cannot exceed 200 characters")
+    private String name;
+
+    @Column(name = "dosage", length = 100)
+    @Size(max = 100, message = "Dosage cannot exceed 100 characters")
+    private String dosage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "medication_type")
+    private Medication.MedicationType medicationType;
+
+    // Comma separated "HH:mm" times, e.g. "08:00,20:00"
+    @Column(name = "times_of_day", nullable = false, length = 200)
+    @NotBlank(message = "At least one time of day is required")
+    private String timesOfDay;
+
+    // Comma separated DayOfWeek names; null means every day
+    @Column(name = "days_of_week", length = 100)
+    private String daysOfWeek;
+
+    @Column(name = "start_date", nullable = false)
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // A dose within this many minutes of a slot counts as taken on time
+    @Column(name = "tolerance_minutes", nullable = false)
+    @Builder.Default
+    private Integer toleranceMinutes = 60;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Helper methods for adherence
+    public List<LocalTime> scheduleTimes() {
+        List<LocalTime> times = new ArrayList<>();
+        for (String time : timesOfDay.split(",")) {
+            if (!time.isBlank()) {
+                times.add(LocalTime.parse(time.trim()));
+            }
+        }
+        Collections.sort(times);
+        return times;
+    }
+
+    public Set<DayOfWeek> scheduleDays() {
+        if (daysOfWeek == null || daysOfWeek.isBlank()) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : daysOfWeek.split(",")) {
+            if (!day.isBlank()) {
+                days.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
+            }
+        }
+        return days;
+    }
+
+    public boolean isActiveOn(LocalDate day) {
+        return !day.isBefore(startDate) && (endDate == null || !day.isAfter(endDate));
+    }
+}
@@ -0,0 +1,60 @@
+package com.glucocloud.api.entity;
+
+import com.glucocloud.api.event.EntityChangedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An entity change recorded in the transaction that made it. Ids follow insert order,
+ * not commit order, so consumers read by position instead: positions are handed out
+ * to committed rows only, one batch at a time, and never leave a gap behind an offset.
+ */
+@Entity
+@Table(name = "outbox_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_events_position", columnNames = "position"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    // Assigned by the database as OutboxWriter batch-inserts the rows of a transaction
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "position")
+    private Long position;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityChangedEvent.EntityType entityType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private EntityChangedEvent.ChangeType changeType;
+
+    @Column(name = "entity_id")
+    private UUID entityId;
+
+    @Column(name = "payload_type", nullable = false)
+    private String payloadType;
+
+    @Column(name = "before_json", length = 8000)
+    private String beforeJson;
+
+    @Column(name = "after_json", length = 8000)
+    private String afterJson;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
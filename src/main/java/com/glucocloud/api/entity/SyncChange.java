@@ -0,0 +1,47 @@
+package com.glucocloud.api.entity;
+
+import com.glucocloud.api.event.EntityChangedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The latest change to one reading, meal or medication. The row is keyed by the
+ * entity's id and rewritten with a new sequence number on every change, so the feed
+ * holds one row per entity however often it was edited; deletes leave a tombstone.
+ */
+@Entity
+@Table(name = "sync_changes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sync_changes_user_seq", columnNames = {"user_id", "seq"}),
+        indexes = @Index(name = "idx_sync_changes_deleted_at", columnList = "deleted, changed_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncChange {
+
+    @Id
+    @Column(name = "entity_id")
+    private UUID entityId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityChangedEvent.EntityType entityType;
+
+    @Column(name = "seq", nullable = false)
+    private long seq;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,33 @@
+package com.glucocloud.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One user's change sequence. Writers take this row's lock to draw the next number, so
+ * sequence order is commit order. Tombstones at or below prunedSeq have been removed;
+ * a client that last synced before that has to start over.
+ */
+@Entity
+@Table(name = "sync_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    @Column(name = "pruned_seq", nullable = false)
+    private long prunedSeq;
+}
@@ -44,6 +44,10 @@ public class User {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // Days of raw readings kept hot before archiving; null follows glucocloud.retention.raw-days
+    @Column(name = "raw_retention_days")
+    private Integer rawRetentionDays;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -0,0 +1,10 @@
+package com.glucocloud.api.event;
+
+import java.util.UUID;
+
+/**
+ * Published once a user and all their data have been deleted, so in-memory state kept
+ * per user can be dropped.
+ */
+public record AccountErasedEvent(UUID userId) {
+}
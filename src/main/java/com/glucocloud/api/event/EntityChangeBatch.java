@@ -0,0 +1,13 @@
+package com.glucocloud.api.event;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published once for records of one user created in bulk, e.g. by an import, ahead of the
+ * records' own {@link EntityChangedEvent}s, which are marked as batched. Listeners that
+ * write a row per change (the sync feed, the outbox) write the whole batch at once and
+ * skip the marked events; in-memory listeners keep following the single events.
+ */
+public record EntityChangeBatch(UUID userId, List<EntityChangedEvent<?>> changes) {
+}
@@ -0,0 +1,90 @@
+package com.glucocloud.api.event;
+
+import lombok.Getter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published by the CRUD services whenever a reading, meal or medication changes.
+ * The payloads are the response DTOs of the entity before and after the change
+ * (before is null for creates, after is null for deletes). Listeners can declare the
+ * payload type, e.g. {@code EntityChangedEvent<GlucoseReadingResponse>}.
+ */
+@Getter
+public class EntityChangedEvent<T> implements ResolvableTypeProvider {
+
+    public enum EntityType {
+        GLUCOSE_READING,
+        MEAL,
+        MEDICATION
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final UUID userId;
+    private final EntityType entityType;
+    private final ChangeType changeType;
+    private final UUID entityId;
+    private final Class<T> payloadType;
+    private final T before;
+    private final T after;
+    private final LocalDateTime occurredAt;
+    // Also carried by an EntityChangeBatch
+    private final boolean batched;
+
+    public EntityChangedEvent(UUID userId, EntityType entityType, ChangeType changeType, UUID entityId,
+                              Class<T> payloadType, T before, T after) {
+        this(userId, entityType, changeType, entityId, payloadType, before, after, LocalDateTime.now());
+    }
+
+    // Rebuilds an event recorded earlier, e.g. from the outbox
+    public EntityChangedEvent(UUID userId, EntityType entityType, ChangeType changeType, UUID entityId,
+                              Class<T> payloadType, T before, T after, LocalDateTime occurredAt) {
+        this(userId, entityType, changeType, entityId, payloadType, before, after, occurredAt, false);
+    }
+
+    private EntityChangedEvent(UUID userId, EntityType entityType, ChangeType changeType, UUID entityId,
+                               Class<T> payloadType, T before, T after, LocalDateTime occurredAt, boolean batched) {
+        this.userId = userId;
+        this.entityType = entityType;
+        this.changeType = changeType;
+        this.entityId = entityId;
+        this.payloadType = payloadType;
+        this.before = before;
+        this.after = after;
+        this.occurredAt = occurredAt;
+        this.batched = batched;
+    }
+
+    /** This change marked as one of an {@link EntityChangeBatch}. */
+    public EntityChangedEvent<T> inBatch() {
+        return new EntityChangedEvent<>(userId, entityType, changeType, entityId, payloadType, before, after, occurredAt, true);
+    }
+
+    public static <T> EntityChangedEvent<T> created(UUID userId, EntityType entityType, UUID entityId,
+                                                    Class<T> payloadType, T after) {
+        return new EntityChangedEvent<>(userId, entityType, ChangeType.CREATED, entityId, payloadType, null, after);
+    }
+
+    public static <T> EntityChangedEvent<T> updated(UUID userId, EntityType entityType, UUID entityId,
+                                                    Class<T> payloadType, T before, T after) {
+        return new EntityChangedEvent<>(userId, entityType, ChangeType.UPDATED, entityId, payloadType, before, after);
+    }
+
+    public static <T> EntityChangedEvent<T> deleted(UUID userId, EntityType entityType, UUID entityId,
+                                                    Class<T> payloadType, T before) {
+        return new EntityChangedEvent<>(userId, entityType, ChangeType.DELETED, entityId, payloadType, before, null);
+    }
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), payloadType);
+    }
+}
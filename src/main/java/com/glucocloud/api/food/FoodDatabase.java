@@ -0,0 +1,82 @@
+package com.glucocloud.api.food;
+
+import com.glucocloud.api.dto.FoodResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Local food-composition database. At startup the source CSV is converted into the
+ * binary index when the index is missing or older than the source; the index is then
+ * memory-mapped, so a restart with an up-to-date index only maps the file. Without a
+ * configured source or index the database is simply unavailable.
+ */
+@Slf4j
+@Service
+public class FoodDatabase {
+
+    private static final int MAX_RESULTS = 50;
+
+    @Value("${glucocloud.food.source:}")
+    private String source;
+
+    @Value("${glucocloud.food.index:data/foods.idx}")
+    private String indexPath;
+
+    private volatile FoodIndex index;
+
+    @PostConstruct
+    void open() {
+        Path indexFile = Path.of(indexPath);
+        try {
+            if (!source.isBlank()) {
+                Path sourceFile = Path.of(source);
+                if (!Files.exists(sourceFile)) {
+                    log.warn("Food source {} does not exist", sourceFile);
+                } else if (!Files.exists(indexFile)
+                        || Files.getLastModifiedTime(indexFile).compareTo(Files.getLastModifiedTime(sourceFile)) < 0) {
+                    long started = System.nanoTime();
+                    int foods = FoodIndexWriter.convert(sourceFile, indexFile);
+                    log.info("Built food index {} with {} foods in {} ms", indexFile, foods,
+                            (System.nanoTime() - started) / 1_000_000);
+                }
+            }
+            if (Files.exists(indexFile)) {
+                index = FoodIndex.open(indexFile);
+                log.info("Mapped food index {} ({} foods)", indexFile, index.size());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Food database unavailable: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return index != null;
+    }
+
+    public List<FoodResponse> search(String query, int limit) {
+        return requireIndex().search(query, Math.max(1, Math.min(limit, MAX_RESULTS))).stream()
+                .map(FoodResponse::fromFood)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<FoodResponse> findFood(int id) {
+        return Optional.ofNullable(requireIndex().find(id)).map(FoodResponse::fromFood);
+    }
+
+    private FoodIndex requireIndex() {
+        FoodIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Food database is not available");
+        }
+        return current;
+    }
+}
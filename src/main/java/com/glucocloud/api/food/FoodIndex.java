@@ -0,0 +1,250 @@
+package com.glucocloud.api.food;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Read-only food-composition index over a memory-mapped file written by
+ * {@link FoodIndexWriter}. Nothing is copied onto the heap: foods are fixed-size records
+ * sorted by id, and every word start of every normalized name is an 8-byte term
+ * reference, sorted by the bytes it points at. An id lookup is a binary search over the
+ * records; a search binary-searches the terms for its longest token and checks the
+ * other tokens against each candidate's words. Safe for concurrent readers.
+ *
+ * <pre>
+ * header  magic, food count, term count, section offsets, file length (64 bytes)
+ * foods   id, name offset, name length, key length, key offset, carbs, kcal, protein, fat per 100 g (32 bytes)
+ * terms   food index, byte offset of the word within the food's key (8 bytes)
+ * names   UTF-8 display names
+ * keys    UTF-8 normalized names: lower case, words separated by single spaces
+ * </pre>
+ */
+public final class FoodIndex {
+
+    static final long MAGIC = 0x4743464F4F443031L; // "GCFOOD01"
+    static final int HEADER_BYTES = 64;
+    static final int FOOD_BYTES = 32;
+    static final int TERM_BYTES = 8;
+
+    // Bounds the work of very short queries that match a large part of the terms
+    private static final int MAX_SCANNED_TERMS = 20_000;
+
+    public record Food(int id, String name, Float carbs, Float calories, Float protein, Float fat) {
+    }
+
+    private final ByteBuffer buffer;
+    private final int foodCount;
+    private final int termCount;
+    private final int foodsOffset;
+    private final int termsOffset;
+    private final int namesOffset;
+    private final int keysOffset;
+
+    private FoodIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getLong(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a food index file");
+        }
+        if (buffer.getLong(48) != buffer.capacity()) {
+            throw new IllegalArgumentException("Food index file is truncated");
+        }
+        foodCount = buffer.getInt(8);
+        termCount = buffer.getInt(12);
+        foodsOffset = (int) buffer.getLong(16);
+        termsOffset = (int) buffer.getLong(24);
+        namesOffset = (int) buffer.getLong(32);
+        keysOffset = (int) buffer.getLong(40);
+    }
+
+    public static FoodIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new FoodIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return foodCount;
+    }
+
+    public Food find(int id) {
+        int low = 0;
+        int high = foodCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = buffer.getInt(foodAt(mid));
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return food(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Foods whose words start with every token of the query. Names starting with the
+     * query come first, then shorter names.
+     */
+    public List<Food> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] tokens = normalized.split(" ");
+        byte[] driver = tokens[0].getBytes(StandardCharsets.UTF_8);
+        for (String token : tokens) {
+            byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > driver.length) {
+                driver = bytes;
+            }
+        }
+        byte[] phrase = normalized.getBytes(StandardCharsets.UTF_8);
+
+        Set<Integer> seen = new HashSet<>();
+        List<long[]> candidates = new ArrayList<>(); // rank, food
+        int end = Math.min(termCount, lowerBound(driver) + MAX_SCANNED_TERMS);
+        for (int t = lowerBound(driver); t < end && termStartsWith(t, driver); t++) {
+            int food = buffer.getInt(termAt(t));
+            if (!seen.add(food)) {
+                continue;
+            }
+            String key = key(food);
+            if (tokens.length > 1 && !matchesAllTokens(key, tokens)) {
+                continue;
+            }
+            int keyLength = buffer.getShort(foodAt(food) + 10);
+            boolean leading = keyStartsWith(food, phrase);
+            candidates.add(new long[]{(leading ? 0L : 1L << 32) | keyLength, food});
+        }
+
+        candidates.sort(Comparator.<long[]>comparingLong(c -> c[0]).thenComparingLong(c -> c[1]));
+        List<Food> foods = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int i = 0; i < candidates.size() && foods.size() < limit; i++) {
+            foods.add(food((int) candidates.get(i)[1]));
+        }
+        return foods;
+    }
+
+    static String normalize(String text) {
+        StringBuilder key = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && key.length() > 0) {
+                    key.append(' ');
+                }
+                key.append(Character.toLowerCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return key.toString();
+    }
+
+    private Food food(int index) {
+        int at = foodAt(index);
+        int nameOffset = buffer.getInt(at + 4);
+        int nameLength = buffer.getShort(at + 8);
+        return new Food(
+                buffer.getInt(at),
+                string(namesOffset + nameOffset, nameLength),
+                nutrient(buffer.getFloat(at + 16)),
+                nutrient(buffer.getFloat(at + 20)),
+                nutrient(buffer.getFloat(at + 24)),
+                nutrient(buffer.getFloat(at + 28)));
+    }
+
+    private String key(int food) {
+        int at = foodAt(food);
+        return string(keysOffset + buffer.getInt(at + 12), buffer.getShort(at + 10));
+    }
+
+    private static boolean matchesAllTokens(String key, String[] tokens) {
+        for (String token : tokens) {
+            if (!key.startsWith(token) && !key.contains(" " + token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lowerBound(byte[] prefix) {
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareTerm(mid, prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Compares the term's bytes with the prefix, treating a term that starts with it as equal
+    private int compareTerm(int term, byte[] prefix) {
+        int food = buffer.getInt(termAt(term));
+        int at = foodAt(food);
+        int keyStart = keysOffset + buffer.getInt(at + 12);
+        int keyLength = buffer.getShort(at + 10);
+        int start = buffer.getInt(termAt(term) + 4);
+        int length = keyLength - start;
+        for (int i = 0; i < prefix.length; i++) {
+            if (i == length) {
+                return -1;
+            }
+            int diff = Byte.toUnsignedInt(buffer.get(keyStart + start + i)) - Byte.toUnsignedInt(prefix[i]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private boolean termStartsWith(int term, byte[] prefix) {
+        return compareTerm(term, prefix) == 0;
+    }
+
+    private boolean keyStartsWith(int food, byte[] prefix) {
+        int at = foodAt(food);
+        int keyStart = keysOffset + buffer.getInt(at + 12);
+        if (buffer.getShort(at + 10) < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(keyStart + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int foodAt(int index) {
+        return foodsOffset + index * FOOD_BYTES;
+    }
+
+    private int termAt(int index) {
+        return termsOffset + index * TERM_BYTES;
+    }
+
+    private static Float nutrient(float value) {
+        return Float.isNaN(value) ? null : value;
+    }
+}
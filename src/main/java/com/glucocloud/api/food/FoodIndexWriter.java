@@ -0,0 +1,241 @@
+package com.glucocloud.api.food;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Converts a food-composition CSV into the binary file read by {@link FoodIndex}. The
+ * CSV needs a header with the columns id, name, carbs_g, energy_kcal, protein_g and
+ * fat_g (nutrients per 100 g; blank when unknown) and may quote fields containing
+ * commas. The index is written to a temporary file and moved into place, so a reader
+ * never maps a partial file.
+ */
+public final class FoodIndexWriter {
+
+    private static final String[] COLUMNS = {"id", "name", "carbs_g", "energy_kcal", "protein_g", "fat_g"};
+
+    private FoodIndexWriter() {
+    }
+
+    /** Returns the number of foods written. */
+    public static int convert(Path csv, Path index) throws IOException {
+        List<Food> foods = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("Food file is empty: " + csv);
+            }
+            int[] columns = columnIndexes(splitCsv(header.replace("\uFEFF", "")));
+
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                foods.add(parseFood(splitCsv(line), columns, lineNumber));
+            }
+        }
+        write(foods, index);
+        return foods.size();
+    }
+
+    static void write(List<Food> foods, Path index) throws IOException {
+        foods.sort(Comparator.comparingInt(Food::id));
+        for (int i = 1; i < foods.size(); i++) {
+            if (foods.get(i).id() == foods.get(i - 1).id()) {
+                throw new IllegalArgumentException("Duplicate food id " + foods.get(i).id());
+            }
+        }
+
+        int count = foods.size();
+        byte[][] names = new byte[count][];
+        byte[][] keys = new byte[count][];
+        long namesLength = 0;
+        long keysLength = 0;
+        int termCount = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = truncate(foods.get(i).name().trim().getBytes(StandardCharsets.UTF_8));
+            keys[i] = truncate(FoodIndex.normalize(foods.get(i).name()).getBytes(StandardCharsets.UTF_8));
+            namesLength += names[i].length;
+            keysLength += keys[i].length;
+            termCount += wordStarts(keys[i]).length;
+        }
+
+        // One term per word start of each normalized name, ordered by their bytes
+        long[] terms = new long[termCount];
+        int t = 0;
+        for (int i = 0; i < count; i++) {
+            for (int start : wordStarts(keys[i])) {
+                terms[t++] = ((long) i << 32) | start;
+            }
+        }
+        Long[] sorted = new Long[termCount];
+        for (int i = 0; i < termCount; i++) {
+            sorted[i] = terms[i];
+        }
+        Arrays.sort(sorted, (a, b) -> compareTerms(keys, a, b));
+
+        long foodsOffset = FoodIndex.HEADER_BYTES;
+        long termsOffset = foodsOffset + (long) count * FoodIndex.FOOD_BYTES;
+        long namesOffset = termsOffset + (long) termCount * FoodIndex.TERM_BYTES;
+        long keysOffset = namesOffset + namesLength;
+        long fileLength = keysOffset + keysLength;
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Food index would exceed 2 GB");
+        }
+
+        Path tmp = index.resolveSibling(index.getFileName() + ".tmp");
+        if (index.getParent() != null) {
+            Files.createDirectories(index.getParent());
+        }
+        try (OutputStream file = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeLong(FoodIndex.MAGIC);
+            out.writeInt(count);
+            out.writeInt(termCount);
+            out.writeLong(foodsOffset);
+            out.writeLong(termsOffset);
+            out.writeLong(namesOffset);
+            out.writeLong(keysOffset);
+            out.writeLong(fileLength);
+            out.write(new byte[FoodIndex.HEADER_BYTES - 56]);
+
+            int nameAt = 0;
+            int keyAt = 0;
+            for (int i = 0; i < count; i++) {
+                Food food = foods.get(i);
+                out.writeInt(food.id());
+                out.writeInt(nameAt);
+                out.writeShort(names[i].length);
+                out.writeShort(keys[i].length);
+                out.writeInt(keyAt);
+                out.writeFloat(food.carbs());
+                out.writeFloat(food.calories());
+                out.writeFloat(food.protein());
+                out.writeFloat(food.fat());
+                nameAt += names[i].length;
+                keyAt += keys[i].length;
+            }
+            for (Long term : sorted) {
+                out.writeInt((int) (term >>> 32));
+                out.writeInt((int) (long) term);
+            }
+            for (byte[] name : names) {
+                out.write(name);
+            }
+            for (byte[] key : keys) {
+                out.write(key);
+            }
+        }
+        Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    record Food(int id, String name, float carbs, float calories, float protein, float fat) {
+    }
+
+    private static Food parseFood(List<String> fields, int[] columns, int lineNumber) {
+        try {
+            return new Food(
+                    Integer.parseInt(field(fields, columns[0]).trim()),
+                    field(fields, columns[1]),
+                    nutrient(field(fields, columns[2])),
+                    nutrient(field(fields, columns[3])),
+                    nutrient(field(fields, columns[4])),
+                    nutrient(field(fields, columns[5])));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid food on line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int[] columnIndexes(List<String> header) {
+        int[] columns = new int[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            columns[c] = -1;
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).trim().equalsIgnoreCase(COLUMNS[c])) {
+                    columns[c] = i;
+                }
+            }
+            if (columns[c] < 0) {
+                throw new IllegalArgumentException("Food file is missing column '" + COLUMNS[c] + "'");
+            }
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < fields.size() ? fields.get(column) : "";
+    }
+
+    private static float nutrient(String value) {
+        return value.isBlank() ? Float.NaN : Float.parseFloat(value.trim());
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int[] wordStarts(byte[] key) {
+        int count = 0;
+        for (int i = 0; i < key.length; i++) {
+            if (i == 0 || key[i - 1] == ' ') {
+                count++;
+            }
+        }
+        int[] starts = new int[count];
+        int s = 0;
+        for (int i = 0; i < key.length; i++) {
+            if (i == 0 || key[i - 1] == ' ') {
+                starts[s++] = i;
+            }
+        }
+        return starts;
+    }
+
+    private static int compareTerms(byte[][] keys, long a, long b) {
+        byte[] keyA = keys[(int) (a >>> 32)];
+        byte[] keyB = keys[(int) (b >>> 32)];
+        int startA = (int) a;
+        int startB = (int) b;
+        return Arrays.compareUnsigned(keyA, startA, keyA.length, keyB, startB, keyB.length);
+    }
+
+    private static byte[] truncate(byte[] bytes) {
+        // Lengths are stored as shorts; names this long are not real food names anyway
+        return bytes.length > Short.MAX_VALUE ? Arrays.copyOf(bytes, Short.MAX_VALUE) : bytes;
+    }
+}
@@ -0,0 +1,287 @@
+package com.glucocloud.api.forecast;
+
+import com.glucocloud.api.analytics.ActivityCurve;
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.analytics.GlucoseTrendModel;
+import com.glucocloud.api.dto.GlucoseForecastResponse;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.dto.MedicationResponse;
+import com.glucocloud.api.entity.Meal;
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.AccountErasedEvent;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.GlucosePoint;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.MealRepository;
+import com.glucocloud.api.repository.MedicationRepository;
+import com.glucocloud.api.service.OnBoardService;
+import com.glucocloud.api.stream.LiveEventBus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Short-term glucose forecasts served from per-user in-memory state. The state is
+ * seeded once from the last few hours of readings, meals and medications, then kept
+ * current from committed change events: a new reading is one O(1) model update.
+ * Out-of-order or edited history simply drops the state so it is reseeded on demand.
+ */
+@Service
+@RequiredArgsConstructor
+public class GlucoseForecaster {
+
+    static final int[] HORIZONS = {30, 60};
+
+    private static final double LOW = 70;
+    private static final double INTERVAL_Z = 1.2816; // 80% two-sided
+    private static final int HISTORY_MINUTES = 180;
+    private static final int INPUT_HISTORY_MINUTES = ActivityCurve.INSULIN_SHORT.durationMinutes();
+    private static final int STALE_MINUTES = 15;
+    private static final int STEP_MINUTES = 5;
+
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+    private final LiveEventBus liveEventBus;
+
+    @Value("${glucocloud.forecast.half-life-minutes:5}")
+    private double halfLifeMinutes;
+
+    @Value("${glucocloud.forecast.damping-minutes:15}")
+    private double dampingMinutes;
+
+    @Value("${glucocloud.forecast.use-inputs:true}")
+    private boolean useInputs;
+
+    @Value("${glucocloud.forecast.carb-sensitivity:4}")
+    private double carbSensitivity; // mg/dL per gram
+
+    @Value("${glucocloud.forecast.insulin-sensitivity:40}")
+    private double insulinSensitivity; // mg/dL per unit
+
+    private final Map<UUID, UserForecastState> states = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public GlucoseForecastResponse getForecast(User user) {
+        UserForecastState state = states.computeIfAbsent(user.getId(), id -> loadState(user));
+        synchronized (state) {
+            return forecast(state);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReadingChanged(EntityChangedEvent<GlucoseReadingResponse> event) {
+        UserForecastState state = states.get(event.getUserId());
+        if (state == null) {
+            return;
+        }
+
+        GlucoseForecastResponse lowForecast = null;
+        synchronized (state) {
+            GlucoseReadingResponse reading = event.getAfter();
+            long epochSecond = reading != null ? GlucoseSeries.toEpochSecond(reading.getTakenAt()) : 0;
+            if (event.getChangeType() != EntityChangedEvent.ChangeType.CREATED
+                    || (!state.model.isEmpty() && epochSecond <= state.model.lastEpochSecond())) {
+                states.remove(event.getUserId());
+                return;
+            }
+
+            state.model.observe(epochSecond, reading.getReadingValue().doubleValue());
+            state.prune(epochSecond);
+
+            GlucoseForecastResponse forecast = forecast(state);
+            if (forecast.isPredictedLow() && !state.predictedLow) {
+                lowForecast = forecast;
+            }
+            state.predictedLow = forecast.isPredictedLow();
+        }
+
+        if (lowForecast != null) {
+            liveEventBus.publish(event.getUserId(), "forecast", lowForecast);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMealChanged(EntityChangedEvent<MealResponse> event) {
+        UserForecastState state = states.get(event.getUserId());
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (event.getChangeType() != EntityChangedEvent.ChangeType.CREATED) {
+                states.remove(event.getUserId());
+                return;
+            }
+            MealResponse meal = event.getAfter();
+            addMeal(state, meal.getCarbsGrams(), meal.getMealType(), meal.getFatGrams(), meal.getConsumedAt());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMedicationChanged(EntityChangedEvent<MedicationResponse> event) {
+        UserForecastState state = states.get(event.getUserId());
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (event.getChangeType() != EntityChangedEvent.ChangeType.CREATED) {
+                states.remove(event.getUserId());
+                return;
+            }
+            MedicationResponse medication = event.getAfter();
+            addInsulin(state, medication.getMedicationType(), medication.getDosage(), medication.getTakenAt());
+        }
+    }
+
+    @EventListener
+    public void onAccountErased(AccountErasedEvent event) {
+        states.remove(event.userId());
+    }
+
+    private GlucoseForecastResponse forecast(UserForecastState state) {
+        GlucoseTrendModel model = state.model;
+        if (model.isEmpty()) {
+            return GlucoseForecastResponse.builder()
+                    .stale(true)
+                    .forecasts(List.of())
+                    .build();
+        }
+
+        long anchor = model.lastEpochSecond();
+        LocalDateTime basedOn = GlucoseSeries.fromEpochSecond(anchor);
+
+        // Effects of carbs and insulin beyond what the current trend already reflects
+        double effectRate = (inputEffect(state, anchor) - inputEffect(state, anchor - STEP_MINUTES * 60L)) / STEP_MINUTES;
+
+        List<GlucoseForecastResponse.Point> points = new ArrayList<>(HORIZONS.length);
+        for (int h = 0; h < HORIZONS.length; h++) {
+            int horizon = HORIZONS[h];
+            double value = predict(state, anchor, effectRate, horizon);
+            double margin = INTERVAL_Z * model.rootMeanSquaredError(h);
+            points.add(GlucoseForecastResponse.Point.builder()
+                    .horizonMinutes(horizon)
+                    .predictedAt(basedOn.plusMinutes(horizon))
+                    .value(round(value))
+                    .lower(round(GlucoseTrendModel.clamp(value - margin)))
+                    .upper(round(GlucoseTrendModel.clamp(value + margin)))
+                    .build());
+        }
+
+        Integer minutesToLow = null;
+        for (int minutes = STEP_MINUTES; minutes <= HORIZONS[HORIZONS.length - 1]; minutes += STEP_MINUTES) {
+            if (predict(state, anchor, effectRate, minutes) < LOW) {
+                minutesToLow = minutes;
+                break;
+            }
+        }
+
+        double activeCarbs = 0;
+        for (UserForecastState.Dose dose : state.carbs) {
+            activeCarbs += dose.amount() * (1 - dose.actedFraction(anchor));
+        }
+        double activeInsulin = 0;
+        for (UserForecastState.Dose dose : state.insulin) {
+            activeInsulin += dose.amount() * (1 - dose.actedFraction(anchor));
+        }
+
+        long ageMinutes = (GlucoseSeries.toEpochSecond(LocalDateTime.now()) - anchor) / 60;
+        boolean stale = ageMinutes > STALE_MINUTES;
+        return GlucoseForecastResponse.builder()
+                .basedOnReadingAt(basedOn)
+                .currentValue(model.lastValue())
+                .trendPerMinute(Math.round(model.slope() * 100.0) / 100.0)
+                .stale(stale)
+                .predictedLow(!stale && minutesToLow != null)
+                .minutesToLow(minutesToLow)
+                .activeCarbsGrams(round(activeCarbs))
+                .activeInsulinUnits(Math.round(activeInsulin * 100.0) / 100.0)
+                .forecasts(points)
+                .build();
+    }
+
+    private double predict(UserForecastState state, long anchor, double effectRate, int horizon) {
+        double value = state.model.predict(horizon);
+        if (useInputs) {
+            long target = anchor + horizon * 60L;
+            value += inputEffect(state, target) - inputEffect(state, anchor)
+                    - effectRate * state.model.dampedMinutes(horizon);
+        }
+        return GlucoseTrendModel.clamp(value);
+    }
+
+    // Cumulative glucose effect in mg/dL of all tracked doses by the given time
+    private double inputEffect(UserForecastState state, long epochSecond) {
+        double effect = 0;
+        for (UserForecastState.Dose dose : state.carbs) {
+            effect += carbSensitivity * dose.amount() * dose.actedFraction(epochSecond);
+        }
+        for (UserForecastState.Dose dose : state.insulin) {
+            effect -= insulinSensitivity * dose.amount() * dose.actedFraction(epochSecond);
+        }
+        return effect;
+    }
+
+    private UserForecastState loadState(User user) {
+        UserForecastState state = new UserForecastState(new GlucoseTrendModel(halfLifeMinutes, dampingMinutes, HORIZONS));
+        LocalDateTime now = LocalDateTime.now();
+
+        try (Stream<GlucosePoint> points = glucoseReadingRepository.streamPointsByUserAndDateRange(
+                user, now.minusMinutes(HISTORY_MINUTES), now.plusMinutes(STEP_MINUTES))) {
+            points.forEach(point -> state.model.observe(
+                    GlucoseSeries.toEpochSecond(point.getTakenAt()), point.getReadingValue().doubleValue()));
+        }
+
+        LocalDateTime inputsFrom = now.minusMinutes(INPUT_HISTORY_MINUTES);
+        for (Meal meal : mealRepository.findByUserAndConsumedAtBetweenOrderByConsumedAtDesc(user, inputsFrom, now)) {
+            addMeal(state, meal.getCarbsGrams(), meal.getMealType(), meal.getFatGrams(), meal.getConsumedAt());
+        }
+        for (Medication medication : medicationRepository.findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, inputsFrom, now)) {
+            addInsulin(state, medication.getMedicationType(), medication.getDosage(), medication.getTakenAt());
+        }
+
+        if (!state.model.isEmpty()) {
+            state.prune(state.model.lastEpochSecond());
+        }
+        return state;
+    }
+
+    private void addMeal(UserForecastState state, Integer carbsGrams, Meal.MealType mealType, Integer fatGrams,
+                         LocalDateTime consumedAt) {
+        if (carbsGrams == null || carbsGrams <= 0) {
+            return;
+        }
+        state.carbs.add(new UserForecastState.Dose(GlucoseSeries.toEpochSecond(consumedAt), carbsGrams,
+                ActivityCurve.forMeal(mealType, fatGrams)));
+    }
+
+    private void addInsulin(UserForecastState state, Medication.MedicationType type, String dosage, LocalDateTime takenAt) {
+        // Basal insulin is assumed to balance hepatic output and is left out
+        ActivityCurve curve = ActivityCurve.forMedication(type);
+        if (curve != ActivityCurve.INSULIN_RAPID && curve != ActivityCurve.INSULIN_SHORT) {
+            return;
+        }
+
+        Double units = OnBoardService.parseUnits(dosage);
+        if (units == null || units <= 0) {
+            return;
+        }
+        state.insulin.add(new UserForecastState.Dose(GlucoseSeries.toEpochSecond(takenAt), units, curve));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+}
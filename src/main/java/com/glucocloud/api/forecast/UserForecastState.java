@@ -0,0 +1,41 @@
+package com.glucocloud.api.forecast;
+
+import com.glucocloud.api.analytics.ActivityCurve;
+import com.glucocloud.api.analytics.GlucoseTrendModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory forecasting state of one user: the trend model plus the recent carb and
+ * insulin doses still acting at the latest reading. Callers synchronize on the instance.
+ */
+class UserForecastState {
+
+    final GlucoseTrendModel model;
+    final List<Dose> carbs = new ArrayList<>();
+    final List<Dose> insulin = new ArrayList<>();
+    boolean predictedLow;
+
+    UserForecastState(GlucoseTrendModel model) {
+        this.model = model;
+    }
+
+    // Drops doses that finished acting before the given time
+    void prune(long epochSecond) {
+        carbs.removeIf(dose -> dose.endEpochSecond() < epochSecond);
+        insulin.removeIf(dose -> dose.endEpochSecond() < epochSecond);
+    }
+
+    record Dose(long epochSecond, double amount, ActivityCurve curve) {
+
+        long endEpochSecond() {
+            return epochSecond + curve.durationSeconds();
+        }
+
+        // Fraction of the dose that has acted by the given time
+        double actedFraction(long atEpochSecond) {
+            return curve.acted((atEpochSecond - epochSecond) / 60.0);
+        }
+    }
+}
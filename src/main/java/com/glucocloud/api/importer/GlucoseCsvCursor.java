@@ -0,0 +1,262 @@
+package com.glucocloud.api.importer;
+
+import com.glucocloud.api.entity.GlucoseReading;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Reads a spooled vendor CSV as readings, a bounded chunk at a time, without holding
+ * more than one record in memory beyond the chunk. A cursor can be reopened at the
+ * character position of the next unread record, which is what an import job records
+ * after every chunk. Rows are validated one by one: a row that does not pass the
+ * profile's filter is ignored, one with a bad timestamp or value is counted as
+ * invalid. Not thread-safe.
+ */
+@Slf4j
+public final class GlucoseCsvCursor implements Closeable {
+
+    private static final BigDecimal MIN_VALUE = new BigDecimal("20.0");
+    private static final BigDecimal MAX_VALUE = new BigDecimal("999.99");
+    private static final BigDecimal MG_DL_PER_MMOL_L = new BigDecimal("18.0182");
+    private static final int MAX_SOURCE = 100;
+    private static final int MAX_NOTE = 500;
+
+    /** Indexes of the mapped columns in the header, -1 where the profile maps none. */
+    public record Columns(int timestamp, int time, int[] values, int filter, int source, int note, int type) {
+    }
+
+    public record Chunk(List<GlucoseReading> readings, int invalid) {
+    }
+
+    private final GlucoseImportProperties.Profile profile;
+    private final String defaultSource;
+    private final DateTimeFormatter timestampFormat;
+    private final Set<String> filterValues;
+    private final CSVParser parser;
+    private final Iterator<CSVRecord> records;
+    private final Columns columns;
+    private CSVRecord next;
+
+    private GlucoseCsvCursor(GlucoseImportProperties.Profile profile, String profileName, Reader reader,
+                             long characterOffset, long recordNumber, Columns columns) throws IOException {
+        this.profile = profile;
+        this.defaultSource = profile.getSource() != null ? profile.getSource() : "import:" + profileName;
+        this.timestampFormat = profile.getTimestampFormat() == null || profile.getTimestampFormat().isBlank()
+                ? DateTimeFormatter.ISO_LOCAL_DATE_TIME : DateTimeFormatter.ofPattern(profile.getTimestampFormat(), Locale.ENGLISH);
+        this.filterValues = new HashSet<>(profile.getFilterValues());
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setDelimiter(profile.getDelimiter())
+                .setIgnoreEmptyLines(true)
+                .setTrim(true)
+                .build();
+        this.parser = new CSVParser(reader, format, characterOffset, recordNumber);
+        this.records = parser.iterator();
+        this.columns = columns != null ? columns : readHeader();
+        this.next = records.hasNext() ? records.next() : null;
+    }
+
+    /** Opens the file at its start and resolves the profile's columns from the header. */
+    public static GlucoseCsvCursor open(Path file, GlucoseImportProperties.Profile profile, String profileName) throws IOException {
+        Reader reader = reader(file);
+        reader.mark(1);
+        // A byte order mark is a character of its own
+        long offset = reader.read() == '\uFEFF' ? 1 : 0;
+        if (offset == 0) {
+            reader.reset();
+        }
+        return opened(reader, () -> new GlucoseCsvCursor(profile, profileName, reader, offset, 1, null));
+    }
+
+    /** Reopens the file at a position reported by {@link #position()}. */
+    public static GlucoseCsvCursor reopen(Path file, GlucoseImportProperties.Profile profile, String profileName,
+                                          Columns columns, long position, long recordNumber) throws IOException {
+        Reader reader = reader(file);
+        return opened(reader, () -> {
+            long skipped = 0;
+            while (skipped < position) {
+                long step = reader.skip(position - skipped);
+                if (step <= 0) {
+                    throw new IOException("Import file is shorter than its recorded position");
+                }
+                skipped += step;
+            }
+            return new GlucoseCsvCursor(profile, profileName, reader, position, recordNumber, columns);
+        });
+    }
+
+    public Columns columns() {
+        return columns;
+    }
+
+    public boolean isDone() {
+        return next == null;
+    }
+
+    /** Character position of the next unread record. */
+    public long position() {
+        return next == null ? -1 : next.getCharacterPosition();
+    }
+
+    public long recordNumber() {
+        return next == null ? -1 : next.getRecordNumber();
+    }
+
+    /** Up to maxRows rows from the next unread one; readings carry no id, user or creation time. */
+    public Chunk read(int maxRows) {
+        List<GlucoseReading> readings = new ArrayList<>();
+        int invalid = 0;
+        for (int rows = 0; rows < maxRows && next != null; rows++) {
+            CSVRecord record = next;
+            next = records.hasNext() ? records.next() : null;
+            if (!passesFilter(record)) {
+                continue;
+            }
+            try {
+                readings.add(toReading(record));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                invalid++;
+                log.debug("Skipping import row {}: {}", record.getRecordNumber(), e.getMessage());
+            }
+        }
+        return new Chunk(readings, invalid);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private Columns readHeader() {
+        for (int i = 0; i < profile.getSkipRecords() && records.hasNext(); i++) {
+            records.next();
+        }
+        if (!records.hasNext()) {
+            throw new IllegalArgumentException("The CSV has no header row");
+        }
+        Map<String, Integer> header = new HashMap<>();
+        CSVRecord names = records.next();
+        for (int i = 0; i < names.size(); i++) {
+            header.putIfAbsent(names.get(i).toLowerCase(Locale.ROOT), i);
+        }
+
+        int[] values = new int[profile.getValueColumns().size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = column(header, profile.getValueColumns().get(i), true);
+        }
+        if (values.length == 0) {
+            throw new IllegalArgumentException("The import profile maps no value column");
+        }
+        return new Columns(column(header, profile.getTimestampColumn(), true),
+                column(header, profile.getTimeColumn(), true), values,
+                column(header, profile.getFilterColumn(), true),
+                column(header, profile.getSourceColumn(), false),
+                column(header, profile.getNoteColumn(), false),
+                column(header, profile.getTypeColumn(), false));
+    }
+
+    private static int column(Map<String, Integer> header, String name, boolean required) {
+        if (name == null || name.isBlank()) {
+            return -1;
+        }
+        Integer index = header.get(name.toLowerCase(Locale.ROOT));
+        if (index == null && required) {
+            throw new IllegalArgumentException("Column '" + name + "' not found in the CSV header");
+        }
+        return index == null ? -1 : index;
+    }
+
+    private boolean passesFilter(CSVRecord record) {
+        return columns.filter() < 0 || filterValues.contains(field(record, columns.filter()));
+    }
+
+    private GlucoseReading toReading(CSVRecord record) {
+        String timestamp = field(record, columns.timestamp());
+        if (columns.time() >= 0) {
+            timestamp = timestamp + "T" + field(record, columns.time());
+        }
+        if (timestamp.isEmpty()) {
+            throw new IllegalArgumentException("no timestamp");
+        }
+        LocalDateTime takenAt = LocalDateTime.parse(timestamp, timestampFormat).truncatedTo(ChronoUnit.MICROS);
+
+        String text = "";
+        for (int index : columns.values()) {
+            text = field(record, index);
+            if (!text.isEmpty()) {
+                break;
+            }
+        }
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("no value");
+        }
+        // BigDecimal's NumberFormatException is an IllegalArgumentException
+        BigDecimal value = new BigDecimal(text);
+        if (profile.getUnit() == GlucoseImportProperties.Unit.MMOL_L) {
+            value = value.multiply(MG_DL_PER_MMOL_L);
+        }
+        value = value.setScale(2, RoundingMode.HALF_UP);
+        if (value.compareTo(MIN_VALUE) < 0 || value.compareTo(MAX_VALUE) > 0) {
+            throw new IllegalArgumentException("value " + text + " out of range");
+        }
+
+        String source = columns.source() >= 0 ? field(record, columns.source()) : "";
+        String note = columns.note() >= 0 ? field(record, columns.note()) : "";
+        return GlucoseReading.builder()
+                .takenAt(takenAt)
+                .readingValue(value)
+                .readingType(readingType(record))
+                .source(truncate(source.isEmpty() ? defaultSource : source, MAX_SOURCE))
+                .note(note.isEmpty() ? null : truncate(note, MAX_NOTE))
+                .build();
+    }
+
+    private GlucoseReading.ReadingType readingType(CSVRecord record) {
+        String type = columns.type() >= 0 ? field(record, columns.type()) : "";
+        for (GlucoseReading.ReadingType candidate : GlucoseReading.ReadingType.values()) {
+            if (candidate.name().equalsIgnoreCase(type)) {
+                return candidate;
+            }
+        }
+        return profile.getReadingType();
+    }
+
+    private static String field(CSVRecord record, int index) {
+        return index < record.size() ? record.get(index) : "";
+    }
+
+    private static String truncate(String text, int length) {
+        return text.length() <= length ? text : text.substring(0, length);
+    }
+
+    private static Reader reader(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    private interface Opener {
+        GlucoseCsvCursor open() throws IOException;
+    }
+
+    // Closes the reader if the cursor cannot be built over it
+    private static GlucoseCsvCursor opened(Reader reader, Opener opener) throws IOException {
+        try {
+            return opener.open();
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+}
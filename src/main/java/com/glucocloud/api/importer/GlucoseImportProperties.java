@@ -0,0 +1,70 @@
+package com.glucocloud.api.importer;
+
+import com.glucocloud.api.entity.GlucoseReading;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** glucocloud.import: where uploads are spooled and how each vendor's CSV maps to readings. */
+@Data
+@Component
+@ConfigurationProperties(prefix = "glucocloud.import")
+public class GlucoseImportProperties {
+
+    private String directory = "data/imports";
+
+    // Rows per job step, each step one transaction
+    private int batchSize = 5000;
+
+    private long maxBytes = 2L * 1024 * 1024 * 1024;
+
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    public enum Unit {
+        MG_DL, MMOL_L
+    }
+
+    @Data
+    public static class Profile {
+
+        // Records before the header row, such as the title line of a Libre export
+        private int skipRecords;
+
+        private char delimiter = ',';
+
+        private String timestampColumn;
+
+        // For exports with the time of day in a column of its own: parsed as "<date>T<time>"
+        private String timeColumn;
+
+        // DateTimeFormatter pattern (English month and AM/PM names); ISO-8601 when empty
+        private String timestampFormat;
+
+        // The first of these holding a value is the reading
+        private List<String> valueColumns = new ArrayList<>();
+
+        private Unit unit = Unit.MG_DL;
+
+        // Rows are imported only if this column holds one of filterValues
+        private String filterColumn;
+
+        private List<String> filterValues = new ArrayList<>();
+
+        // Device id column; rows without one get source, or "import:<profile>"
+        private String sourceColumn;
+
+        private String source;
+
+        private String noteColumn;
+
+        // Reading type names as this app exports them; rows with none or another get readingType
+        private String typeColumn;
+
+        private GlucoseReading.ReadingType readingType;
+    }
+}
@@ -0,0 +1,74 @@
+package com.glucocloud.api.importer;
+
+import com.glucocloud.api.dto.JobResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.job.JobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Accepts a vendor CSV upload: the body is streamed to a file in the import directory,
+ * its header is checked against the profile, and a background job imports it from
+ * there. Nothing is held in memory beyond a copy buffer, whatever the size of the export.
+ */
+@Service
+@RequiredArgsConstructor
+public class GlucoseImportService {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final GlucoseImportProperties properties;
+    private final JobService jobService;
+
+    public Set<String> getProfiles() {
+        return properties.getProfiles().keySet();
+    }
+
+    public JobResponse importGlucose(User user, String profileName, InputStream body) throws IOException {
+        GlucoseImportProperties.Profile profile = properties.getProfiles().get(profileName);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown import profile: " + profileName);
+        }
+        Path directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve(UUID.randomUUID() + ".csv");
+        try {
+            long bytes = spool(body, file);
+            if (bytes == 0) {
+                throw new IllegalArgumentException("The upload is empty");
+            }
+            GlucoseCsvCursor.Columns columns;
+            try (GlucoseCsvCursor cursor = GlucoseCsvCursor.open(file, profile, profileName)) {
+                columns = cursor.columns();
+            }
+            return jobService.importGlucose(user, profileName, file.getFileName().toString(), bytes, columns);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private long spool(InputStream body, Path file) throws IOException {
+        long bytes = 0;
+        byte[] buffer = new byte[BUFFER_BYTES];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = body.read(buffer)) > 0) {
+                bytes += read;
+                if (bytes > properties.getMaxBytes()) {
+                    throw new IllegalArgumentException("The upload exceeds " + properties.getMaxBytes() + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,34 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.GlucoseBatchResponse;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.service.GlucoseReadingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "glucocloud.ingest.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectGlucoseIngest implements GlucoseIngest {
+
+    private final GlucoseReadingService glucoseReadingService;
+    private final GlucoseReadingDeduplicator deduplicator;
+
+    @Override
+    public GlucoseBatchResponse ingest(User user, List<GlucoseReadingRequest> readings) {
+        List<GlucoseReadingRequest> fresh = deduplicator.dropDuplicates(user.getId(), readings,
+                GlucoseReadingRequest::getSource, GlucoseReadingRequest::getTakenAt);
+        List<GlucoseReadingResponse> saved = glucoseReadingService.createReadings(user, fresh);
+        return GlucoseBatchResponse.builder()
+                .accepted(saved.size())
+                .duplicates(readings.size() - fresh.size())
+                .queued(false)
+                .readings(saved)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.GlucoseBatchResponse;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.entity.User;
+
+import java.util.List;
+
+/**
+ * Accepts uploaded batches of glucose readings. The implementation is chosen with
+ * glucocloud.ingest.mode: direct (default) saves them in the request's transaction,
+ * wal logs them locally and saves them in the background.
+ */
+public interface GlucoseIngest {
+
+    GlucoseBatchResponse ingest(User user, List<GlucoseReadingRequest> readings);
+
+    // False while uploads should be refused because the backlog is too far behind
+    default boolean isAccepting() {
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangeBatch;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.postgresql.PGConnection;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts readings whose ids were assigned up front in bulk instead of one entity save
+ * each: through COPY when the database is PostgreSQL, as JDBC batches otherwise.
+ * Readings already stored (a batch replayed after a crash), duplicates of a stored
+ * reading's source and time, and readings of users that no longer exist are skipped.
+ * The inserted readings of each user are published as one {@link EntityChangeBatch}, which
+ * the sync feed and the outbox write in bulk, and then as their single created events,
+ * which the chunks and caches follow as if the readings were saved singly.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional
+public class GlucoseReadingBatchWriter {
+
+    private static final String INSERT = "INSERT INTO glucose_readings " +
+            "(id, user_id, reading_value, taken_at, reading_type, note, source, created_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String COPY = "COPY glucose_readings " +
+            "(id, user_id, reading_value, taken_at, reading_type, note, source, created_at, version) " +
+            "FROM STDIN WITH (FORMAT csv)";
+    private static final int BATCH_SIZE = 500;
+    private static final int LOOKUP_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final UserRepository userRepository;
+    private final GlucoseReadingDeduplicator deduplicator;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile Boolean copySupported;
+
+    /** Inserts the readings (each with its user set) that are new; returns the number inserted. */
+    public int insertNew(List<GlucoseReading> readings) {
+        Set<UUID> userIds = readings.stream().map(reading -> reading.getUser().getId()).collect(Collectors.toSet());
+        Set<UUID> liveUsers = userRepository.findAllById(userIds).stream().map(User::getId).collect(Collectors.toSet());
+        Set<UUID> existing = new HashSet<>();
+        List<UUID> ids = readings.stream().map(GlucoseReading::getId).toList();
+        for (int i = 0; i < ids.size(); i += LOOKUP_SIZE) {
+            existing.addAll(glucoseReadingRepository.findExistingIds(ids.subList(i, Math.min(ids.size(), i + LOOKUP_SIZE))));
+        }
+
+        Map<UUID, List<GlucoseReading>> byUser = new LinkedHashMap<>();
+        for (GlucoseReading reading : readings) {
+            if (liveUsers.contains(reading.getUser().getId()) && existing.add(reading.getId())) {
+                byUser.computeIfAbsent(reading.getUser().getId(), id -> new ArrayList<>()).add(reading);
+            }
+        }
+        List<GlucoseReading> fresh = new ArrayList<>();
+        byUser.forEach((userId, userReadings) -> fresh.addAll(deduplicator.dropDuplicates(userId, userReadings,
+                GlucoseReading::getSource, GlucoseReading::getTakenAt)));
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        if (isCopySupported()) {
+            copy(fresh);
+        } else {
+            jdbcTemplate.batchUpdate(INSERT, fresh, BATCH_SIZE, (statement, reading) -> {
+                statement.setObject(1, reading.getId());
+                statement.setObject(2, reading.getUser().getId());
+                statement.setBigDecimal(3, reading.getReadingValue());
+                statement.setTimestamp(4, Timestamp.valueOf(reading.getTakenAt()));
+                statement.setString(5, reading.getReadingType() == null ? null : reading.getReadingType().name());
+                statement.setString(6, reading.getNote());
+                statement.setString(7, reading.getSource());
+                statement.setTimestamp(8, Timestamp.valueOf(reading.getCreatedAt()));
+            });
+        }
+
+        // In user order, so the per-user change locks are always taken in the same order
+        Map<UUID, List<EntityChangedEvent<?>>> changes = new TreeMap<>();
+        for (GlucoseReading reading : fresh) {
+            changes.computeIfAbsent(reading.getUser().getId(), id -> new ArrayList<>())
+                    .add(EntityChangedEvent.created(reading.getUser().getId(),
+                            EntityChangedEvent.EntityType.GLUCOSE_READING, reading.getId(),
+                            GlucoseReadingResponse.class, GlucoseReadingResponse.fromEntity(reading)).inBatch());
+        }
+        changes.forEach((userId, userChanges) -> {
+            eventPublisher.publishEvent(new EntityChangeBatch(userId, userChanges));
+            userChanges.forEach(eventPublisher::publishEvent);
+        });
+        return fresh.size();
+    }
+
+    // Streams the rows as CSV on the transaction's connection; a failure aborts the whole COPY
+    private void copy(List<GlucoseReading> readings) {
+        StringWriter rows = new StringWriter(readings.size() * 96);
+        try (CSVPrinter printer = new CSVPrinter(rows, CSVFormat.POSTGRESQL_CSV)) {
+            for (GlucoseReading reading : readings) {
+                printer.printRecord(reading.getId(), reading.getUser().getId(), reading.getReadingValue().toPlainString(),
+                        reading.getTakenAt(), reading.getReadingType() == null ? null : reading.getReadingType().name(),
+                        reading.getNote(), reading.getSource(), reading.getCreatedAt(), 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY, new StringReader(rows.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private boolean isCopySupported() {
+        if (copySupported == null) {
+            copySupported = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isWrapperFor(PGConnection.class));
+        }
+        return copySupported;
+    }
+}
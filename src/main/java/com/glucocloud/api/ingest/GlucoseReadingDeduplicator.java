@@ -0,0 +1,187 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.GlucoseSourceKey;
+import com.glucocloud.api.retention.GlucoseArchiveService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Drops uploaded readings whose (source, takenAt) is already stored. Each user gets a
+ * {@link KeyFilter} of the keys of readings taken in the last window-days, loaded on
+ * first use and fed with every reading saved afterwards. A key the filter has never
+ * seen is new, so the bulk of an upload skips the database entirely; only keys it may
+ * have seen (retries and overlapping backfills) are checked, with one range query per
+ * run of nearby timestamps. The unique index on the key remains the last word for the
+ * rare reading that slips through, such as two uploads of it racing each other.
+ */
+@Service
+@Transactional(readOnly = true)
+public class GlucoseReadingDeduplicator {
+
+    private static final long RUN_GAP_HOURS = 24;
+
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final GlucoseArchiveService glucoseArchiveService;
+    private final int windowDays;
+    private final int expectedKeys;
+    private final double falsePositiveRate;
+    private final int maxUsers;
+    private final Map<UUID, UserFilter> filters = new LinkedHashMap<>(64, 0.75f, true);
+
+    public GlucoseReadingDeduplicator(GlucoseReadingRepository glucoseReadingRepository,
+                                      GlucoseArchiveService glucoseArchiveService,
+                                      @Value("${glucocloud.ingest.dedup.window-days:14}") int windowDays,
+                                      @Value("${glucocloud.ingest.dedup.expected-keys:8192}") int expectedKeys,
+                                      @Value("${glucocloud.ingest.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+                                      @Value("${glucocloud.ingest.dedup.max-users:2000}") int maxUsers) {
+        this.glucoseReadingRepository = glucoseReadingRepository;
+        this.glucoseArchiveService = glucoseArchiveService;
+        this.windowDays = windowDays;
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxUsers = maxUsers;
+    }
+
+    // Negatives are only trusted for readings taken since the filter was loaded from
+    private record UserFilter(KeyFilter keys, LocalDateTime coveredFrom) {
+    }
+
+    /**
+     * The items that are not stored yet, in order. Of several items with one key only the
+     * first is kept; items without a source are always kept.
+     */
+    public <T> List<T> dropDuplicates(UUID userId, List<T> items, Function<T, String> source,
+                                      Function<T, LocalDateTime> takenAt) {
+        UserFilter filter = filterFor(userId);
+        Set<String> seen = new HashSet<>();
+        boolean[] keep = new boolean[items.size()];
+        List<Integer> suspects = new ArrayList<>();
+        synchronized (filter) {
+            for (int i = 0; i < items.size(); i++) {
+                T item = items.get(i);
+                if (source.apply(item) == null) {
+                    keep[i] = true;
+                    continue;
+                }
+                String key = key(source.apply(item), takenAt.apply(item));
+                if (!seen.add(key)) {
+                    continue;
+                }
+                if (takenAt.apply(item).isBefore(filter.coveredFrom()) || filter.keys().mightContain(key)) {
+                    suspects.add(i);
+                } else {
+                    keep[i] = true;
+                }
+            }
+        }
+
+        if (!suspects.isEmpty()) {
+            Set<String> stored = storedKeys(userId, suspects.stream().map(items::get).toList(), source, takenAt);
+            for (int i : suspects) {
+                keep[i] = !stored.contains(key(source.apply(items.get(i)), takenAt.apply(items.get(i))));
+            }
+        }
+        List<T> kept = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (keep[i]) {
+                kept.add(items.get(i));
+            }
+        }
+        return kept;
+    }
+
+    @EventListener
+    public void onReadingChanged(EntityChangedEvent<GlucoseReadingResponse> event) {
+        GlucoseReadingResponse after = event.getAfter();
+        if (after == null || after.getSource() == null) {
+            return;
+        }
+        UserFilter filter;
+        synchronized (filters) {
+            filter = filters.get(event.getUserId());
+        }
+        if (filter == null) {
+            return;
+        }
+        synchronized (filter) {
+            filter.keys().add(key(after.getSource(), after.getTakenAt()));
+            if (filter.keys().isFull()) {
+                // Loaded afresh, over the current window, on next use
+                synchronized (filters) {
+                    filters.remove(event.getUserId(), filter);
+                }
+            }
+        }
+    }
+
+    private UserFilter filterFor(UUID userId) {
+        synchronized (filters) {
+            UserFilter filter = filters.get(userId);
+            if (filter != null) {
+                return filter;
+            }
+        }
+        LocalDateTime since = LocalDateTime.now().minusDays(windowDays);
+        List<GlucoseSourceKey> recent = glucoseReadingRepository.findSourceKeysSince(userId, since);
+        KeyFilter keys = new KeyFilter(Math.max(expectedKeys, recent.size() * 2), falsePositiveRate);
+        recent.forEach(key -> keys.add(key(key.getSource(), key.getTakenAt())));
+        UserFilter filter = new UserFilter(keys, since);
+        synchronized (filters) {
+            UserFilter raced = filters.putIfAbsent(userId, filter);
+            if (raced != null) {
+                return raced;
+            }
+            if (filters.size() > maxUsers) {
+                Iterator<UserFilter> eldest = filters.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            return filter;
+        }
+    }
+
+    // The keys among the suspects that are stored, hot or archived
+    private <T> Set<String> storedKeys(UUID userId, List<T> suspects, Function<T, String> source,
+                                       Function<T, LocalDateTime> takenAt) {
+        List<T> byTime = new ArrayList<>(suspects);
+        byTime.sort(Comparator.comparing(takenAt));
+        Set<String> stored = new HashSet<>();
+        int start = 0;
+        for (int i = 1; i <= byTime.size(); i++) {
+            if (i < byTime.size() && !takenAt.apply(byTime.get(i)).isAfter(takenAt.apply(byTime.get(i - 1)).plusHours(RUN_GAP_HOURS))) {
+                continue;
+            }
+            List<T> run = byTime.subList(start, i);
+            LocalDateTime from = takenAt.apply(run.get(0)).truncatedTo(ChronoUnit.MICROS);
+            LocalDateTime to = takenAt.apply(run.get(run.size() - 1)).truncatedTo(ChronoUnit.MICROS).plusNanos(999);
+            Set<String> sources = new HashSet<>();
+            run.forEach(item -> sources.add(source.apply(item)));
+            for (GlucoseSourceKey key : glucoseReadingRepository.findSourceKeysInRange(userId, sources, from, to)) {
+                stored.add(key(key.getSource(), key.getTakenAt()));
+            }
+            for (GlucoseReading archived : glucoseArchiveService.findArchived(userId, from, to)) {
+                if (archived.getSource() != null) {
+                    stored.add(key(archived.getSource(), archived.getTakenAt()));
+                }
+            }
+            start = i;
+        }
+        return stored;
+    }
+
+    // Timestamps are kept to the microsecond by the database
+    private static String key(String source, LocalDateTime takenAt) {
+        return source + '\n' + takenAt.truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,309 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.entity.GlucoseReading;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of accepted glucose uploads, one record per upload, in numbered
+ * segment files that are mapped read-write at their full size up front. A checkpoint
+ * file holds the position up to which records have reached the database; segments
+ * wholly before it are deleted. Opening the log finds the end of the last segment by
+ * walking its records until one is empty or fails its checksum (a write torn by a
+ * crash) and clears whatever follows, so new records never run into old bytes.
+ *
+ * <pre>
+ * record      payload length (4), CRC32 of payload (4), payload
+ * payload     user id (16), reading count (4), readings, sources (absent in records logged before sources)
+ * reading     id (16), taken at seconds (8) and nanos (4), value in hundredths (4), type ordinal (1, -1 = none),
+ *             note flag (1) and UTF note, created at seconds (8) and nanos (4)
+ * sources     per reading a flag (1) and UTF source
+ * checkpoint  segment (4), offset (8), CRC32 of both (8)
+ * </pre>
+ */
+public final class IngestWal implements Closeable {
+
+    static final String SUFFIX = ".wal";
+    static final String CHECKPOINT = "checkpoint";
+
+    private static final int HEADER_BYTES = 8;
+
+    public record Position(int segment, long offset) {
+    }
+
+    /** One logged upload and the position just after it. */
+    public record Upload(UUID userId, List<GlucoseReading> readings, Position next) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final TreeMap<Integer, MappedByteBuffer> segments = new TreeMap<>();
+    private Position checkpoint;
+    private Position end;
+
+    private IngestWal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static IngestWal open(Path directory, int segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        IngestWal wal = new IngestWal(directory, segmentBytes);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int number = Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+            wal.segments.put(number, wal.map(number));
+        }
+        wal.checkpoint = wal.readCheckpoint();
+        if (wal.segments.isEmpty()) {
+            int first = wal.checkpoint.segment();
+            wal.segments.put(first, wal.map(first));
+            wal.checkpoint = new Position(first, 0);
+        }
+        wal.recoverEnd();
+        return wal;
+    }
+
+    public synchronized Position checkpoint() {
+        return checkpoint;
+    }
+
+    public synchronized Position end() {
+        return end;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /** Appends one upload; with force it is on disk when this returns. */
+    public synchronized Position append(UUID userId, List<GlucoseReading> readings, boolean force) throws IOException {
+        byte[] payload = encode(userId, readings);
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes - HEADER_BYTES) {
+            throw new IllegalArgumentException("Upload is too large for the ingest log");
+        }
+        if (end.offset() + recordBytes + HEADER_BYTES > segmentBytes) {
+            int next = end.segment() + 1;
+            segments.put(next, map(next));
+            end = new Position(next, 0);
+        }
+        MappedByteBuffer buffer = segments.get(end.segment());
+        int offset = (int) end.offset();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(offset + HEADER_BYTES, payload);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        // The length goes last: a record is only found once it is complete
+        buffer.putInt(offset, payload.length);
+        if (force) {
+            buffer.force(offset, recordBytes);
+        }
+        end = new Position(end.segment(), offset + recordBytes);
+        return end;
+    }
+
+    /** Uploads from the position on, until at least maxReadings readings or the end of the log. */
+    public synchronized List<Upload> read(Position from, int maxReadings) throws IOException {
+        List<Upload> uploads = new ArrayList<>();
+        int readings = 0;
+        Position position = from;
+        while (readings < maxReadings && !position.equals(end)) {
+            MappedByteBuffer buffer = segments.get(position.segment());
+            int length = buffer == null || position.offset() + HEADER_BYTES > segmentBytes
+                    ? 0 : buffer.getInt((int) position.offset());
+            if (length == 0) {
+                // The rest of this segment is unused; records continue in the next one
+                Integer next = segments.higherKey(position.segment());
+                if (next == null) {
+                    break;
+                }
+                position = new Position(next, 0);
+                continue;
+            }
+            byte[] payload = new byte[length];
+            buffer.get((int) position.offset() + HEADER_BYTES, payload);
+            position = new Position(position.segment(), position.offset() + HEADER_BYTES + length);
+            Upload upload = decode(payload, position);
+            uploads.add(upload);
+            readings += upload.readings().size();
+        }
+        return uploads;
+    }
+
+    /** Records that everything before the position is in the database and drops the segments it passed. */
+    public synchronized void checkpoint(Position position) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(20).putInt(position.segment()).putLong(position.offset());
+        CRC32 crc = new CRC32();
+        crc.update(data.array(), 0, 12);
+        data.putLong(crc.getValue());
+
+        Path tmp = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(data.flip());
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+
+        while (segments.firstKey() < position.segment()) {
+            int number = segments.pollFirstEntry().getKey();
+            Files.deleteIfExists(segmentFile(number));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (MappedByteBuffer buffer : segments.values()) {
+            buffer.force();
+        }
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        int first = segments.isEmpty() ? 1 : segments.firstKey();
+        if (!Files.exists(file)) {
+            return new Position(first, 0);
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.capacity() != 20) {
+            throw new IOException("Ingest log checkpoint is damaged");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.array(), 0, 12);
+        if (crc.getValue() != data.getLong(12)) {
+            throw new IOException("Ingest log checkpoint is damaged");
+        }
+        Position position = new Position(data.getInt(0), data.getLong(4));
+        // Segments deleted after the checkpoint moved past them
+        return segments.isEmpty() || position.segment() >= first ? position : new Position(first, 0);
+    }
+
+    private void recoverEnd() {
+        int last = segments.lastKey();
+        MappedByteBuffer buffer = segments.get(last);
+        long offset = checkpoint.segment() == last ? checkpoint.offset() : 0;
+        while (offset + HEADER_BYTES <= segmentBytes) {
+            int length = buffer.getInt((int) offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice((int) offset + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt((int) offset + 4)) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        // Clear a torn record so the next append cannot be followed by its remains
+        if (offset + HEADER_BYTES <= segmentBytes && buffer.getInt((int) offset) != 0) {
+            buffer.put((int) offset, new byte[(int) (segmentBytes - offset)]);
+            buffer.force();
+        }
+        end = new Position(last, offset);
+    }
+
+    private MappedByteBuffer map(int number) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(number), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private Path segmentFile(int number) {
+        return directory.resolve(String.format("%08d%s", number, SUFFIX));
+    }
+
+    private static byte[] encode(UUID userId, List<GlucoseReading> readings) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + readings.size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeUuid(out, userId);
+        out.writeInt(readings.size());
+        for (GlucoseReading reading : readings) {
+            writeUuid(out, reading.getId());
+            writeTime(out, reading.getTakenAt());
+            out.writeInt(reading.getReadingValue().setScale(2, RoundingMode.HALF_UP).unscaledValue().intValueExact());
+            out.writeByte(reading.getReadingType() == null ? -1 : reading.getReadingType().ordinal());
+            out.writeBoolean(reading.getNote() != null);
+            if (reading.getNote() != null) {
+                out.writeUTF(reading.getNote());
+            }
+            writeTime(out, reading.getCreatedAt());
+        }
+        for (GlucoseReading reading : readings) {
+            out.writeBoolean(reading.getSource() != null);
+            if (reading.getSource() != null) {
+                out.writeUTF(reading.getSource());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Upload decode(byte[] payload, Position next) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        UUID userId = readUuid(in);
+        int count = in.readInt();
+        List<GlucoseReading> readings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID id = readUuid(in);
+            LocalDateTime takenAt = readTime(in);
+            BigDecimal value = BigDecimal.valueOf(in.readInt(), 2);
+            int type = in.readByte();
+            String note = in.readBoolean() ? in.readUTF() : null;
+            readings.add(GlucoseReading.builder()
+                    .id(id)
+                    .takenAt(takenAt)
+                    .readingValue(value)
+                    .readingType(type < 0 ? null : GlucoseReading.ReadingType.values()[type])
+                    .note(note)
+                    .createdAt(readTime(in))
+                    .version(0L)
+                    .build());
+        }
+        if (in.available() > 0) {
+            for (GlucoseReading reading : readings) {
+                reading.setSource(in.readBoolean() ? in.readUTF() : null);
+            }
+        }
+        return new Upload(userId, readings, next);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,71 @@
+package com.glucocloud.api.ingest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter over string keys: {@link #mightContain} never misses an added key and
+ * wrongly reports an absent one at about the rate it was sized for. Probe positions
+ * come from two 64-bit hashes of the key (Kirsch-Mitzenmacher double hashing). Not
+ * thread-safe.
+ */
+final class KeyFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashes;
+    private final int capacity;
+    private int size;
+
+    KeyFilter(int capacity, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        this.capacity = capacity;
+        this.bitCount = (int) Math.max(64, Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.hashes = (int) Math.max(1, Math.round((double) bitCount / capacity * ln2));
+        this.bits = new long[(bitCount + 63) / 64];
+    }
+
+    void add(String key) {
+        long hash = hash(key);
+        long step = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(hash + i * step, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        size++;
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        long step = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(hash + i * step, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Past capacity the false-positive rate climbs above the one it was sized for
+    boolean isFull() {
+        return size >= capacity;
+    }
+
+    // FNV-1a over the UTF-8 bytes
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // splitmix64 finalizer of the first hash, used as the probe stride
+    private static long mix(long hash) {
+        long z = hash + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
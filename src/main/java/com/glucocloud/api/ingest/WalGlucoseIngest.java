@@ -0,0 +1,179 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.GlucoseBatchResponse;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Acknowledges an upload once it is appended to the local {@link IngestWal}; a flusher
+ * then saves everything logged since the last checkpoint in one transaction of batched
+ * inserts and moves the checkpoint past it. Ids and creation times are assigned when
+ * the upload is accepted, so replaying records that reached the database just before a
+ * crash inserts nothing twice. Readings show up in queries once flushed, normally
+ * within flush-interval-ms. Duplicates of stored readings are left out on arrival;
+ * a retry that arrives while its original is still in the log is caught by the flush
+ * instead and is not counted in the response.
+ *
+ * <p>fsync: {@code always} syncs each upload before acknowledging it; {@code never}
+ * leaves it to the OS, which survives a process crash but not a power loss.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "glucocloud.ingest.mode", havingValue = "wal")
+public class WalGlucoseIngest implements GlucoseIngest {
+
+    private final GlucoseReadingBatchWriter batchWriter;
+    private final GlucoseReadingDeduplicator deduplicator;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final boolean fsync;
+    private final int segmentBytes;
+    private final int batchSize;
+    private final int maxSegments;
+    private IngestWal wal;
+
+    public WalGlucoseIngest(GlucoseReadingBatchWriter batchWriter,
+                            GlucoseReadingDeduplicator deduplicator,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${glucocloud.ingest.wal.directory:data/ingest}") String directory,
+                            @Value("${glucocloud.ingest.wal.fsync:always}") String fsync,
+                            @Value("${glucocloud.ingest.wal.segment-bytes:67108864}") int segmentBytes,
+                            @Value("${glucocloud.ingest.wal.batch-size:5000}") int batchSize,
+                            @Value("${glucocloud.ingest.wal.max-segments:16}") int maxSegments) {
+        this.batchWriter = batchWriter;
+        this.deduplicator = deduplicator;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = Path.of(directory);
+        this.fsync = !"never".equalsIgnoreCase(fsync);
+        this.segmentBytes = segmentBytes;
+        this.batchSize = batchSize;
+        this.maxSegments = maxSegments;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        wal = IngestWal.open(directory, segmentBytes);
+        if (!wal.checkpoint().equals(wal.end())) {
+            log.info("Ingest log has unflushed uploads from {} to {}; replaying", wal.checkpoint(), wal.end());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        flush();
+        wal.close();
+    }
+
+    @Override
+    public GlucoseBatchResponse ingest(User user, List<GlucoseReadingRequest> requests) {
+        List<GlucoseReadingRequest> fresh = deduplicator.dropDuplicates(user.getId(), requests,
+                GlucoseReadingRequest::getSource, GlucoseReadingRequest::getTakenAt);
+        LocalDateTime now = LocalDateTime.now();
+        List<GlucoseReading> readings = new ArrayList<>(fresh.size());
+        for (GlucoseReadingRequest request : fresh) {
+            readings.add(GlucoseReading.builder()
+                    .id(UUID.randomUUID())
+                    .readingValue(request.getReadingValue())
+                    .takenAt(request.getTakenAt())
+                    .readingType(request.getReadingType())
+                    .note(request.getNote())
+                    .source(request.getSource())
+                    .createdAt(now)
+                    .version(0L)
+                    .build());
+        }
+        if (!readings.isEmpty()) {
+            try {
+                wal.append(user.getId(), readings, fsync);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return GlucoseBatchResponse.builder()
+                .accepted(readings.size())
+                .duplicates(requests.size() - readings.size())
+                .queued(true)
+                .readings(readings.stream().map(GlucoseReadingResponse::fromEntity).toList())
+                .build();
+    }
+
+    @Override
+    public boolean isAccepting() {
+        return wal.segmentCount() <= maxSegments;
+    }
+
+    /** Saves everything logged so far; returns the number of readings inserted. */
+    @Scheduled(fixedDelayString = "${glucocloud.ingest.wal.flush-interval-ms:200}")
+    public synchronized int flush() {
+        int inserted = 0;
+        try {
+            List<IngestWal.Upload> uploads = wal.read(wal.checkpoint(), batchSize);
+            while (!uploads.isEmpty()) {
+                inserted += save(uploads);
+                wal.checkpoint(uploads.get(uploads.size() - 1).next());
+                uploads = wal.read(wal.checkpoint(), batchSize);
+            }
+        } catch (IOException e) {
+            log.error("Could not flush the ingest log: {}", e.getMessage());
+        }
+        return inserted;
+    }
+
+    private int save(List<IngestWal.Upload> uploads) {
+        try {
+            return insert(uploads);
+        } catch (DataIntegrityViolationException e) {
+            // Find the upload at fault so one bad record cannot hold back everything behind it
+            int inserted = 0;
+            for (IngestWal.Upload upload : uploads) {
+                inserted += saveAlone(upload);
+            }
+            return inserted;
+        }
+    }
+
+    // Tried twice: the usual conflict is a reading saved directly at the same moment, left out once committed
+    private int saveAlone(IngestWal.Upload upload) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return insert(List.of(upload));
+            } catch (DataIntegrityViolationException rejected) {
+                if (attempt == 2) {
+                    log.error("Dropping logged upload of {} readings for user {}: {}",
+                            upload.readings().size(), upload.userId(), rejected.getMostSpecificCause().getMessage());
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private int insert(List<IngestWal.Upload> uploads) {
+        List<GlucoseReading> readings = new ArrayList<>();
+        for (IngestWal.Upload upload : uploads) {
+            User user = User.builder().id(upload.userId()).build();
+            upload.readings().forEach(reading -> reading.setUser(user));
+            readings.addAll(upload.readings());
+        }
+        Integer inserted = transactionTemplate.execute(status -> batchWriter.insertNew(readings));
+        return inserted == null ? 0 : inserted;
+    }
+}
@@ -0,0 +1,148 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.event.AccountErasedEvent;
+import com.glucocloud.api.repository.*;
+import com.glucocloud.api.series.GlucoseSeriesStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deletes a deactivated user and everything they own, one table at a time and a chunk
+ * of ids per step. Children go before the rows they reference; the user row goes last,
+ * once a final pass finds nothing left that a request still in flight at deactivation
+ * might have added. No change events are published: the sync feed and outbox rows of
+ * the user are erased too, and in-memory state is dropped on {@link AccountErasedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountErasureJob implements JobHandler {
+
+    enum Phase {
+        GLUCOSE_READINGS,
+        GLUCOSE_ARCHIVES,
+        GLUCOSE_ROLLUPS,
+        GLUCOSE_CHUNKS,
+        MEALS,
+        MEDICATIONS,
+        GLUCOSE_ALERTS,
+        REGIMENS,
+        SYNC_CHANGES,
+        OUTBOX_EVENTS,
+        USER
+    }
+
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final GlucoseArchiveRepository glucoseArchiveRepository;
+    private final GlucoseDailyRollupRepository glucoseDailyRollupRepository;
+    private final GlucoseSeriesStore glucoseSeriesStore;
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+    private final GlucoseAlertRepository glucoseAlertRepository;
+    private final MedicationRegimenRepository regimenRepository;
+    private final AdherenceDayRepository adherenceDayRepository;
+    private final SyncChangeRepository syncChangeRepository;
+    private final SyncCounterRepository syncCounterRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${glucocloud.jobs.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public BackgroundJob.JobType type() {
+        return BackgroundJob.JobType.ACCOUNT_ERASURE;
+    }
+
+    @Override
+    public boolean step(BackgroundJob job) {
+        UUID userId = job.getUserId();
+        Phase phase = job.getPhase() == null ? Phase.values()[0] : Phase.valueOf(job.getPhase());
+
+        if (phase != Phase.USER) {
+            int deleted = deleteChunk(phase, userId, PageRequest.of(0, chunkSize));
+            job.setProcessed(job.getProcessed() + deleted);
+            if (deleted < chunkSize) {
+                job.setPhase(Phase.values()[phase.ordinal() + 1].name());
+            } else {
+                job.setPhase(phase.name());
+            }
+            return true;
+        }
+
+        for (Phase earlier : Phase.values()) {
+            if (earlier != Phase.USER && !ids(earlier, userId, PageRequest.of(0, 1)).isEmpty()) {
+                job.setPhase(earlier.name());
+                return true;
+            }
+        }
+        if (syncCounterRepository.existsById(userId)) {
+            syncCounterRepository.deleteById(userId);
+        }
+        if (userRepository.existsById(userId)) {
+            userRepository.deleteById(userId);
+            job.setProcessed(job.getProcessed() + 1);
+        }
+        return false;
+    }
+
+    @Override
+    public void completed(BackgroundJob job) {
+        eventPublisher.publishEvent(new AccountErasedEvent(job.getUserId()));
+    }
+
+    private int deleteChunk(Phase phase, UUID userId, Pageable chunk) {
+        return switch (phase) {
+            case GLUCOSE_READINGS -> deleteIds(glucoseReadingRepository, glucoseReadingRepository.findIdsByUserId(userId, chunk));
+            case GLUCOSE_ARCHIVES -> deleteIds(glucoseArchiveRepository, glucoseArchiveRepository.findIdsByUserId(userId, chunk));
+            case GLUCOSE_ROLLUPS -> deleteIds(glucoseDailyRollupRepository,
+                    glucoseDailyRollupRepository.findIdsByUserId(userId, chunk));
+            case GLUCOSE_CHUNKS -> glucoseSeriesStore.delete(userId, chunk.getPageSize());
+            case MEALS -> deleteIds(mealRepository, mealRepository.findIdsByUserId(userId, chunk));
+            case MEDICATIONS -> deleteIds(medicationRepository, medicationRepository.findIdsByUserId(userId, chunk));
+            case GLUCOSE_ALERTS -> deleteIds(glucoseAlertRepository, glucoseAlertRepository.findIdsByUserId(userId, chunk));
+            case REGIMENS -> {
+                List<UUID> ids = regimenRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    adherenceDayRepository.deleteByRegimenIds(ids);
+                }
+                yield deleteIds(regimenRepository, ids);
+            }
+            case SYNC_CHANGES -> deleteIds(syncChangeRepository, syncChangeRepository.findIdsByUserId(userId, chunk));
+            case OUTBOX_EVENTS -> deleteIds(outboxEventRepository, outboxEventRepository.findIdsByUserId(userId, chunk));
+            case USER -> 0;
+        };
+    }
+
+    private List<?> ids(Phase phase, UUID userId, Pageable chunk) {
+        return switch (phase) {
+            case GLUCOSE_READINGS -> glucoseReadingRepository.findIdsByUserId(userId, chunk);
+            case GLUCOSE_ARCHIVES -> glucoseArchiveRepository.findIdsByUserId(userId, chunk);
+            case GLUCOSE_ROLLUPS -> glucoseDailyRollupRepository.findIdsByUserId(userId, chunk);
+            case GLUCOSE_CHUNKS -> glucoseSeriesStore.isEmpty(userId) ? List.of() : List.of(userId);
+            case MEALS -> mealRepository.findIdsByUserId(userId, chunk);
+            case MEDICATIONS -> medicationRepository.findIdsByUserId(userId, chunk);
+            case GLUCOSE_ALERTS -> glucoseAlertRepository.findIdsByUserId(userId, chunk);
+            case REGIMENS -> regimenRepository.findIdsByUserId(userId, chunk);
+            case SYNC_CHANGES -> syncChangeRepository.findIdsByUserId(userId, chunk);
+            case OUTBOX_EVENTS -> outboxEventRepository.findIdsByUserId(userId, chunk);
+            case USER -> List.of();
+        };
+    }
+
+    private static <ID> int deleteIds(JpaRepository<?, ID> repository, List<ID> ids) {
+        if (!ids.isEmpty()) {
+            repository.deleteAllByIdInBatch(ids);
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,91 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.retention.GlucoseArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+/**
+ * Moves a user's raw readings past their retention window into the archive, one
+ * calendar month per step. A nightly sweep queues a job for every active user who has
+ * readings due; the runner then works through them with its usual pacing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GlucoseArchiveJob implements JobHandler {
+
+    private static final int SWEEP_PAGE = 500;
+
+    private final GlucoseArchiveService archiveService;
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final UserRepository userRepository;
+    private final BackgroundJobRepository jobRepository;
+
+    @Override
+    public BackgroundJob.JobType type() {
+        return BackgroundJob.JobType.GLUCOSE_ARCHIVE;
+    }
+
+    @Override
+    public boolean step(BackgroundJob job) {
+        User user = userRepository.findById(job.getUserId()).orElse(null);
+        LocalDateTime cutoff = user == null ? null : archiveService.archiveCutoff(user);
+        if (cutoff == null) {
+            return false;
+        }
+        int moved = archiveService.archiveOldestMonth(user.getId(), cutoff);
+        job.setProcessed(job.getProcessed() + moved);
+        return moved > 0;
+    }
+
+    @Scheduled(cron = "${glucocloud.retention.cron:0 15 3 * * *}")
+    public void queueDueUsers() {
+        int queued = 0;
+        Page<User> page = userRepository.findAll(PageRequest.of(0, SWEEP_PAGE, Sort.by("id")));
+        while (true) {
+            for (User user : page) {
+                if (queueIfDue(user)) {
+                    queued++;
+                }
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = userRepository.findAll(page.nextPageable());
+        }
+        if (queued > 0) {
+            log.info("Queued glucose archiving for {} users", queued);
+        }
+    }
+
+    boolean queueIfDue(User user) {
+        if (Boolean.FALSE.equals(user.getIsActive())) {
+            return false;
+        }
+        LocalDateTime cutoff = archiveService.archiveCutoff(user);
+        if (cutoff == null || !glucoseReadingRepository.existsByUserIdAndTakenAtBefore(user.getId(), cutoff)
+                || jobRepository.existsByUserIdAndTypeAndStatusIn(user.getId(), BackgroundJob.JobType.GLUCOSE_ARCHIVE,
+                EnumSet.of(BackgroundJob.Status.PENDING, BackgroundJob.Status.RUNNING))) {
+            return false;
+        }
+        jobRepository.save(BackgroundJob.builder()
+                .userId(user.getId())
+                .type(BackgroundJob.JobType.GLUCOSE_ARCHIVE)
+                .status(BackgroundJob.Status.PENDING)
+                .build());
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.series.GlucoseChunkService;
+import com.glucocloud.api.sync.SyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+
+/**
+ * Encodes the series chunks of readings stored before chunks existed, a month of days
+ * per step from the user's oldest reading forward. Each step holds the user's change
+ * lock so a reading saved meanwhile cannot be left out of the chunk built for its day.
+ * A nightly sweep queues users whose oldest day has no chunk.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GlucoseChunkBuildJob implements JobHandler {
+
+    private static final int DAYS_PER_STEP = 31;
+    private static final int SWEEP_PAGE = 500;
+
+    private final GlucoseChunkService chunkService;
+    private final SyncService syncService;
+    private final UserRepository userRepository;
+    private final BackgroundJobRepository jobRepository;
+
+    @Override
+    public BackgroundJob.JobType type() {
+        return BackgroundJob.JobType.GLUCOSE_CHUNK_BUILD;
+    }
+
+    @Override
+    public boolean step(BackgroundJob job) {
+        GlucoseChunkService.ReadingDays days = chunkService.readingDays(job.getUserId());
+        if (days == null) {
+            return false;
+        }
+        LocalDate from = job.getPhase() == null ? days.first() : LocalDate.parse(job.getPhase());
+        if (from.isAfter(days.last())) {
+            return false;
+        }
+        LocalDate to = from.plusDays(DAYS_PER_STEP - 1).isBefore(days.last()) ? from.plusDays(DAYS_PER_STEP - 1) : days.last();
+
+        syncService.lockUser(job.getUserId());
+        job.setProcessed(job.getProcessed() + chunkService.buildMissing(job.getUserId(), from, to));
+        job.setPhase(to.plusDays(1).toString());
+        return true;
+    }
+
+    @Scheduled(cron = "${glucocloud.series.backfill-cron:0 45 3 * * *}")
+    public void queueUnbuiltUsers() {
+        int queued = 0;
+        Page<User> page = userRepository.findAll(PageRequest.of(0, SWEEP_PAGE, Sort.by("id")));
+        while (true) {
+            for (User user : page) {
+                if (queueIfUnbuilt(user)) {
+                    queued++;
+                }
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = userRepository.findAll(page.nextPageable());
+        }
+        if (queued > 0) {
+            log.info("Queued glucose chunk builds for {} users", queued);
+        }
+    }
+
+    boolean queueIfUnbuilt(User user) {
+        if (Boolean.FALSE.equals(user.getIsActive())) {
+            return false;
+        }
+        GlucoseChunkService.ReadingDays days = chunkService.readingDays(user.getId());
+        if (days == null || chunkService.hasChunk(user.getId(), days.first())
+                || jobRepository.existsByUserIdAndTypeAndStatusIn(user.getId(), BackgroundJob.JobType.GLUCOSE_CHUNK_BUILD,
+                EnumSet.of(BackgroundJob.Status.PENDING, BackgroundJob.Status.RUNNING))) {
+            return false;
+        }
+        jobRepository.save(BackgroundJob.builder()
+                .userId(user.getId())
+                .type(BackgroundJob.JobType.GLUCOSE_CHUNK_BUILD)
+                .status(BackgroundJob.Status.PENDING)
+                .build());
+        return true;
+    }
+}
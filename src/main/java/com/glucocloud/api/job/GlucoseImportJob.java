@@ -0,0 +1,193 @@
+package com.glucocloud.api.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.importer.GlucoseCsvCursor;
+import com.glucocloud.api.importer.GlucoseImportProperties;
+import com.glucocloud.api.ingest.GlucoseReadingBatchWriter;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports a spooled vendor CSV, batch-size rows per step, through the bulk reading
+ * writer, so duplicates of stored readings are skipped and every imported reading
+ * reaches the sync feed, the outbox and the chunks. The file stays open between steps;
+ * the position of the next unread row is saved with each step, so a job picked up
+ * again after a restart reopens the file there. Rows that fail validation or were
+ * already stored are counted as skipped. Files whose job has finished are deleted.
+ * The file is on the disk of the instance that took the upload, so the job is pinned
+ * to that instance and only ever runs there.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GlucoseImportJob implements JobHandler {
+
+    // position and recordNumber locate the next unread row; 0 before the first step
+    record Params(String profile, String file, long bytes, GlucoseCsvCursor.Columns columns,
+                  long position, long recordNumber) {
+    }
+
+    private static final Duration ORPHAN_AGE = Duration.ofHours(1);
+
+    private final GlucoseImportProperties properties;
+    private final GlucoseReadingBatchWriter batchWriter;
+    private final BackgroundJobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final JobInstance instance;
+    private final Map<UUID, GlucoseCsvCursor> cursors = new ConcurrentHashMap<>();
+
+    @Override
+    public BackgroundJob.JobType type() {
+        return BackgroundJob.JobType.GLUCOSE_IMPORT;
+    }
+
+    @Override
+    public boolean step(BackgroundJob job) {
+        Params params = readParams(job);
+        GlucoseCsvCursor cursor = cursorFor(job.getId(), params);
+        GlucoseCsvCursor.Chunk chunk = cursor.read(properties.getBatchSize());
+
+        int inserted = 0;
+        if (!chunk.readings().isEmpty()) {
+            User user = User.builder().id(job.getUserId()).build();
+            LocalDateTime now = LocalDateTime.now();
+            for (GlucoseReading reading : chunk.readings()) {
+                reading.setId(UUID.randomUUID());
+                reading.setUser(user);
+                reading.setCreatedAt(now);
+                reading.setVersion(0L);
+            }
+            inserted = batchWriter.insertNew(chunk.readings());
+        }
+        job.setProcessed(job.getProcessed() + inserted);
+        job.setSkipped(job.getSkipped() + chunk.invalid() + chunk.readings().size() - inserted);
+
+        if (cursor.isDone()) {
+            job.setPhase("100%");
+            return false;
+        }
+        job.setParams(writeParams(new Params(params.profile(), params.file(), params.bytes(), params.columns(),
+                cursor.position(), cursor.recordNumber())));
+        // Characters read against bytes stored: exact for ASCII exports, close enough otherwise
+        job.setPhase(Math.min(99, cursor.position() * 100 / Math.max(1, params.bytes())) + "%");
+        return true;
+    }
+
+    @Override
+    public void completed(BackgroundJob job) {
+        release(job.getId(), readParams(job).file());
+    }
+
+    /** Deletes spooled files no pending or running import of this instance refers to any more, such as those of failed jobs. */
+    @Scheduled(fixedDelayString = "${glucocloud.import.cleanup-interval-ms:3600000}")
+    public void deleteOrphanedFiles() {
+        Path directory = Path.of(properties.getDirectory());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Map<String, UUID> active = jobRepository.findByTypeAndPinnedToAndStatusIn(BackgroundJob.JobType.GLUCOSE_IMPORT,
+                        instance.id(), EnumSet.of(BackgroundJob.Status.PENDING, BackgroundJob.Status.RUNNING)).stream()
+                .collect(Collectors.toMap(job -> readParams(job).file(), BackgroundJob::getId));
+        cursors.keySet().removeIf(id -> {
+            boolean finished = !active.containsValue(id);
+            if (finished) {
+                closeQuietly(cursors.get(id));
+            }
+            return finished;
+        });
+        Instant cutoff = Instant.now().minus(ORPHAN_AGE);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                // Uploads still being spooled are recent, so they are left alone
+                if (!active.containsKey(file.getFileName().toString())
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up import files: {}", e.getMessage());
+        }
+    }
+
+    String writeParams(Params params) {
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize job parameters", e);
+        }
+    }
+
+    private Params readParams(BackgroundJob job) {
+        try {
+            return objectMapper.readValue(job.getParams(), Params.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid parameters for job " + job.getId(), e);
+        }
+    }
+
+    // The open cursor if it stands where the job's last committed step left off, else the file reopened there
+    private GlucoseCsvCursor cursorFor(UUID jobId, Params params) {
+        GlucoseCsvCursor cursor = cursors.get(jobId);
+        if (cursor != null && params.position() > 0 && cursor.position() == params.position()) {
+            return cursor;
+        }
+        if (cursor != null) {
+            closeQuietly(cursor);
+            cursors.remove(jobId);
+        }
+        GlucoseImportProperties.Profile profile = properties.getProfiles().get(params.profile());
+        if (profile == null) {
+            throw new IllegalStateException("Import profile " + params.profile() + " is no longer configured");
+        }
+        Path file = Path.of(properties.getDirectory()).resolve(params.file());
+        try {
+            cursor = params.position() == 0
+                    ? GlucoseCsvCursor.open(file, profile, params.profile())
+                    : GlucoseCsvCursor.reopen(file, profile, params.profile(), params.columns(),
+                    params.position(), params.recordNumber());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cursors.put(jobId, cursor);
+        return cursor;
+    }
+
+    private void release(UUID jobId, String file) {
+        GlucoseCsvCursor cursor = cursors.remove(jobId);
+        if (cursor != null) {
+            closeQuietly(cursor);
+        }
+        try {
+            Files.deleteIfExists(Path.of(properties.getDirectory()).resolve(file));
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(GlucoseCsvCursor cursor) {
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            log.warn("Could not close import file: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.entity.BackgroundJob;
+
+/**
+ * Does the work of one job type for {@link JobRunner}, one bounded chunk per call.
+ */
+public interface JobHandler {
+
+    BackgroundJob.JobType type();
+
+    /**
+     * Does the next chunk inside the runner's short transaction, recording progress on the
+     * job so it commits with the chunk. Returns false once nothing is left.
+     */
+    boolean step(BackgroundJob job);
+
+    /** Called after the last chunk has committed. */
+    default void completed(BackgroundJob job) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.glucocloud.api.job;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Names this instance in the job table, so a job whose input only this instance holds
+ * (a spooled upload on its disk) is claimed nowhere else. Defaults to the host name;
+ * instances sharing a host need glucocloud.jobs.instance-id set apart.
+ */
+@Component
+public class JobInstance {
+
+    @Value("${glucocloud.jobs.instance-id:}")
+    private String id;
+
+    @PostConstruct
+    void resolve() {
+        if (id == null || id.isBlank()) {
+            try {
+                id = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException("Cannot resolve the host name; set glucocloud.jobs.instance-id", e);
+            }
+        }
+    }
+
+    public String id() {
+        return id;
+    }
+}
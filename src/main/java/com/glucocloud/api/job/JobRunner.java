@@ -0,0 +1,155 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs background jobs on a small worker pool. Each chunk is its own short transaction
+ * followed by a pause, so a large job never holds locks for long or starves normal
+ * writes. A job is claimed with a conditional update and kept alive by heartbeats; one
+ * whose runner died is claimed again once its heartbeat goes stale, and one interrupted
+ * by a shutdown is handed back straight away. Jobs pinned to another instance are
+ * left to it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobRunner {
+
+    private final BackgroundJobRepository jobRepository;
+    private final List<JobHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final JobInstance instance;
+
+    @Value("${glucocloud.jobs.threads:2}")
+    private int threads;
+
+    @Value("${glucocloud.jobs.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+
+    @Value("${glucocloud.jobs.stale-after-seconds:120}")
+    private long staleAfterSeconds;
+
+    private final Map<BackgroundJob.JobType, JobHandler> handlerByType = new EnumMap<>(BackgroundJob.JobType.class);
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+    private volatile boolean stopping;
+
+    @PostConstruct
+    void start() {
+        for (JobHandler handler : handlers) {
+            handlerByType.put(handler.type(), handler);
+        }
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "jobs-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${glucocloud.jobs.poll-interval-ms:2000}")
+    public void poll() {
+        int free = threads - running.size();
+        if (free <= 0 || stopping) {
+            return;
+        }
+        List<UUID> claimable = jobRepository.findClaimable(instance.id(), BackgroundJob.Status.PENDING,
+                BackgroundJob.Status.RUNNING, LocalDateTime.now().minusSeconds(staleAfterSeconds), PageRequest.of(0, free));
+        for (UUID id : claimable) {
+            if (running.contains(id) || !claim(id)) {
+                continue;
+            }
+            running.add(id);
+            executor.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    running.remove(id);
+                }
+            });
+        }
+    }
+
+    private boolean claim(UUID id) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(id, instance.id(),
+                BackgroundJob.Status.PENDING, BackgroundJob.Status.RUNNING, now, now.minusSeconds(staleAfterSeconds)));
+        return claimed != null && claimed == 1;
+    }
+
+    private void run(UUID id) {
+        BackgroundJob.JobType type = jobRepository.findById(id).map(BackgroundJob::getType).orElse(null);
+        JobHandler handler = handlerByType.get(type);
+        if (handler == null) {
+            finish(id, BackgroundJob.Status.FAILED, "No handler for job type " + type);
+            return;
+        }
+
+        try {
+            boolean more = true;
+            while (more) {
+                if (stopping) {
+                    finish(id, BackgroundJob.Status.PENDING, null);
+                    return;
+                }
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    BackgroundJob job = jobRepository.findById(id).orElseThrow();
+                    boolean hasMore = handler.step(job);
+                    job.setHeartbeatAt(LocalDateTime.now());
+                    if (!hasMore) {
+                        job.setStatus(BackgroundJob.Status.COMPLETED);
+                        job.setFinishedAt(LocalDateTime.now());
+                    }
+                    return hasMore;
+                }));
+                if (more && chunkPauseMs > 0) {
+                    Thread.sleep(chunkPauseMs);
+                }
+            }
+            BackgroundJob job = jobRepository.findById(id).orElseThrow();
+            handler.completed(job);
+            log.info("Job {} ({}) completed after {} rows", id, type, job.getProcessed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(id, BackgroundJob.Status.PENDING, null);
+        } catch (RuntimeException e) {
+            log.error("Job {} ({}) failed", id, type, e);
+            finish(id, BackgroundJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(UUID id, BackgroundJob.Status status, String error) {
+        transactionTemplate.executeWithoutResult(tx -> jobRepository.findById(id).ifPresent(job -> {
+            job.setStatus(status);
+            if (status == BackgroundJob.Status.FAILED) {
+                job.setError(error == null ? "Unknown error" : error.substring(0, Math.min(error.length(), 1000)));
+                job.setFinishedAt(LocalDateTime.now());
+            }
+        }));
+    }
+}
@@ -0,0 +1,95 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.dto.JobResponse;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.importer.GlucoseCsvCursor;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import com.glucocloud.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class JobService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final BackgroundJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final RangeDeleteJob rangeDeleteJob;
+    private final GlucoseImportJob glucoseImportJob;
+    private final JobInstance instance;
+
+    public JobResponse deleteRange(User user, EntityChangedEvent.EntityType entityType,
+                                   LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to are required");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        BackgroundJob job = jobRepository.saveAndFlush(BackgroundJob.builder()
+                .userId(user.getId())
+                .type(BackgroundJob.JobType.RANGE_DELETE)
+                .status(BackgroundJob.Status.PENDING)
+                .params(rangeDeleteJob.writeParams(new RangeDeleteJob.Params(entityType, from, to)))
+                .build());
+        return JobResponse.fromEntity(job);
+    }
+
+    /** Queues the import of a spooled CSV whose header has been checked against the profile. */
+    public JobResponse importGlucose(User user, String profile, String file, long bytes, GlucoseCsvCursor.Columns columns) {
+        BackgroundJob job = jobRepository.saveAndFlush(BackgroundJob.builder()
+                .userId(user.getId())
+                .type(BackgroundJob.JobType.GLUCOSE_IMPORT)
+                .status(BackgroundJob.Status.PENDING)
+                // The upload was spooled to this instance's disk
+                .pinnedTo(instance.id())
+                .params(glucoseImportJob.writeParams(new GlucoseImportJob.Params(profile, file, bytes, columns, 0, 0)))
+                .build());
+        return JobResponse.fromEntity(job);
+    }
+
+    /** Deactivates the account at once (its tokens stop working) and queues the erasure. */
+    public JobResponse eraseAccount(User user) {
+        if (jobRepository.existsByUserIdAndTypeAndStatusIn(user.getId(), BackgroundJob.JobType.ACCOUNT_ERASURE,
+                EnumSet.of(BackgroundJob.Status.PENDING, BackgroundJob.Status.RUNNING))) {
+            throw new RuntimeException("Account erasure is already in progress");
+        }
+        user.setIsActive(false);
+        userRepository.save(user);
+
+        BackgroundJob job = jobRepository.saveAndFlush(BackgroundJob.builder()
+                .userId(user.getId())
+                .type(BackgroundJob.JobType.ACCOUNT_ERASURE)
+                .status(BackgroundJob.Status.PENDING)
+                .build());
+        return JobResponse.fromEntity(job);
+    }
+
+    @Transactional(readOnly = true)
+    public List<JobResponse> getJobs(User user, int limit) {
+        return jobRepository.findByUserIdOrderByCreatedAtDesc(user.getId(),
+                        PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LIMIT)))).stream()
+                .map(JobResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<JobResponse> getJob(User user, UUID jobId) {
+        return jobRepository.findByIdAndUserId(jobId, user.getId())
+                .map(JobResponse::fromEntity);
+    }
+}
@@ -0,0 +1,141 @@
+package com.glucocloud.api.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.dto.MedicationResponse;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.Meal;
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.MealRepository;
+import com.glucocloud.api.repository.MedicationRepository;
+import com.glucocloud.api.retention.GlucoseArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Deletes one kind of record inside a time range, oldest first, a chunk per step. Rows
+ * are read through the per-user time index and removed with a single statement, and a
+ * delete event is published for each, so the sync feed, the outbox and the caches see
+ * exactly what single deletes would have shown them.
+ */
+@Component
+@RequiredArgsConstructor
+public class RangeDeleteJob implements JobHandler {
+
+    record Params(EntityChangedEvent.EntityType entityType, LocalDateTime from, LocalDateTime to) {
+    }
+
+    // Followed by the first archive month still to visit
+    private static final String ARCHIVE_PHASE = "GLUCOSE_ARCHIVE ";
+
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+    private final GlucoseArchiveService archiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${glucocloud.jobs.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public BackgroundJob.JobType type() {
+        return BackgroundJob.JobType.RANGE_DELETE;
+    }
+
+    @Override
+    public boolean step(BackgroundJob job) {
+        Params params = readParams(job);
+        UUID userId = job.getUserId();
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        if (job.getPhase() != null && job.getPhase().startsWith(ARCHIVE_PHASE)) {
+            return deleteArchived(job, params, LocalDate.parse(job.getPhase().substring(ARCHIVE_PHASE.length())));
+        }
+
+        int deleted = switch (params.entityType()) {
+            case GLUCOSE_READING -> deleteChunk(userId, params.entityType(), glucoseReadingRepository,
+                    glucoseReadingRepository.findChunkInRange(userId, params.from(), params.to(), chunk),
+                    GlucoseReadingResponse.class, GlucoseReadingResponse::fromEntity, GlucoseReading::getId);
+            case MEAL -> deleteChunk(userId, params.entityType(), mealRepository,
+                    mealRepository.findChunkInRange(userId, params.from(), params.to(), chunk),
+                    MealResponse.class, MealResponse::fromEntity, Meal::getId);
+            case MEDICATION -> deleteChunk(userId, params.entityType(), medicationRepository,
+                    medicationRepository.findChunkInRange(userId, params.from(), params.to(), chunk),
+                    MedicationResponse.class, MedicationResponse::fromEntity, Medication::getId);
+        };
+
+        job.setPhase(params.entityType().name());
+        job.setProcessed(job.getProcessed() + deleted);
+        if (deleted < chunkSize && params.entityType() == EntityChangedEvent.EntityType.GLUCOSE_READING) {
+            // Hot rows are done; archived months in the range come next, one segment per step
+            job.setPhase(ARCHIVE_PHASE + YearMonth.from(params.from()).atDay(1));
+            return true;
+        }
+        return deleted == chunkSize;
+    }
+
+    private boolean deleteArchived(BackgroundJob job, Params params, LocalDate month) {
+        GlucoseArchiveService.ArchivedRemoval removal = archiveService.deleteArchived(job.getUserId(), month,
+                params.from(), params.to());
+        if (removal == null) {
+            return false;
+        }
+        for (GlucoseReading reading : removal.removed()) {
+            eventPublisher.publishEvent(EntityChangedEvent.deleted(job.getUserId(),
+                    EntityChangedEvent.EntityType.GLUCOSE_READING, reading.getId(), GlucoseReadingResponse.class,
+                    GlucoseReadingResponse.fromEntity(reading)));
+        }
+        job.setPhase(ARCHIVE_PHASE + removal.nextMonth());
+        job.setProcessed(job.getProcessed() + removal.removed().size());
+        return true;
+    }
+
+    private <E, T> int deleteChunk(UUID userId, EntityChangedEvent.EntityType entityType,
+                                   JpaRepository<E, UUID> repository, List<E> rows, Class<T> payloadType,
+                                   Function<E, T> toPayload, Function<E, UUID> idOf) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<EntityChangedEvent<T>> events = new ArrayList<>(rows.size());
+        for (E row : rows) {
+            events.add(EntityChangedEvent.deleted(userId, entityType, idOf.apply(row), payloadType, toPayload.apply(row)));
+        }
+        repository.deleteAllInBatch(rows);
+        events.forEach(eventPublisher::publishEvent);
+        return rows.size();
+    }
+
+    String writeParams(Params params) {
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize job parameters", e);
+        }
+    }
+
+    private Params readParams(BackgroundJob job) {
+        try {
+            return objectMapper.readValue(job.getParams(), Params.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid parameters for job " + job.getId(), e);
+        }
+    }
+}
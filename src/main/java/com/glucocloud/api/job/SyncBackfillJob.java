@@ -0,0 +1,35 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.sync.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the records a user had before their change feed existed to it, chunk-size per
+ * step. Each step holds the user's change lock, so its sequence numbers interleave
+ * correctly with changes made meanwhile; a record changed before its turn already has
+ * its feed row and is left alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncBackfillJob implements JobHandler {
+
+    private final SyncService syncService;
+
+    @Value("${glucocloud.jobs.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public BackgroundJob.JobType type() {
+        return BackgroundJob.JobType.SYNC_BACKFILL;
+    }
+
+    @Override
+    public boolean step(BackgroundJob job) {
+        int added = syncService.backfill(job.getUserId(), chunkSize);
+        job.setProcessed(job.getProcessed() + added);
+        return added > 0;
+    }
+}
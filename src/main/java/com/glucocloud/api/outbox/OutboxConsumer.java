@@ -0,0 +1,25 @@
+package com.glucocloud.api.outbox;
+
+import com.glucocloud.api.event.EntityChangedEvent;
+
+import java.util.List;
+
+/**
+ * Maintains derived data from the outbox. Beans implementing this are picked up by
+ * {@link OutboxDispatcher}, which hands each one the changes past its offset in batches.
+ * A batch runs in the transaction that advances the offset, so database work done by
+ * the consumer commits together with its progress; anything else must tolerate seeing
+ * a batch again after a failure or crash.
+ */
+public interface OutboxConsumer {
+
+    /** Stable name the consumer's offset is stored under. */
+    String name();
+
+    /**
+     * Handles changes in commit order; they hold the positions after + 1 onwards, which
+     * lets a consumer that keeps state in memory tell whether it saw the preceding batch.
+     * Throwing rolls the batch back to be retried.
+     */
+    void handle(long after, List<EntityChangedEvent<?>> events);
+}
@@ -0,0 +1,201 @@
+package com.glucocloud.api.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glucocloud.api.entity.OutboxEvent;
+import com.glucocloud.api.entity.OutboxOffset;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.OutboxEventRepository;
+import com.glucocloud.api.repository.OutboxOffsetRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Moves outbox events to the registered {@link OutboxConsumer}s off the request path.
+ * Each poll first gives the newly committed events their positions, under the
+ * sequencer row's lock, then lets every consumer catch up from its own offset on a
+ * small worker pool. Offsets only move when a batch commits, so delivery is
+ * at-least-once and resumes where it stopped after a restart; several instances can
+ * poll at once because each step holds the lock of the row it advances.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+
+    static final String SEQUENCER = "outbox-sequencer";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final List<OutboxConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${glucocloud.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${glucocloud.outbox.consumer-threads:4}")
+    private int consumerThreads;
+
+    @Value("${glucocloud.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        Set<String> names = new HashSet<>();
+        names.add(SEQUENCER);
+        for (OutboxConsumer consumer : consumers) {
+            if (!names.add(consumer.name())) {
+                throw new IllegalStateException("Duplicate outbox consumer name '" + consumer.name() + "'");
+            }
+        }
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, Math.min(consumerThreads, consumers.size())), task -> {
+            Thread thread = new Thread(task, "outbox-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${glucocloud.outbox.poll-interval-ms:1000}")
+    public synchronized void dispatch() {
+        while (sequence() == batchSize) {
+            // keep going until every committed event has a position
+        }
+
+        List<Future<?>> running = new ArrayList<>(consumers.size());
+        for (OutboxConsumer consumer : consumers) {
+            running.add(executor.submit(() -> drain(consumer)));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Outbox delivery failed", e.getCause());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${glucocloud.outbox.prune-cron:0 45 3 * * *}")
+    public void prune() {
+        List<String> names = consumers.isEmpty()
+                ? List.of(SEQUENCER)
+                : consumers.stream().map(OutboxConsumer::name).collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<OutboxOffset> offsets = outboxOffsetRepository.findAllById(names);
+            if (offsets.size() < names.size()) {
+                return; // a consumer has not started yet and needs everything
+            }
+            long position = offsets.stream().mapToLong(OutboxOffset::getPosition).min().orElse(0);
+            int pruned = outboxEventRepository.deleteConsumed(position, LocalDateTime.now().minusDays(retentionDays));
+            if (pruned > 0) {
+                log.info("Pruned {} outbox events consumed more than {} days ago", pruned, retentionDays);
+            }
+        });
+    }
+
+    int sequence() {
+        return transactionTemplate.execute(status -> {
+            OutboxOffset head = lockOffset(SEQUENCER);
+            // Rows of transactions still in flight are invisible here and get later positions
+            List<OutboxEvent> events = outboxEventRepository.findUnsequenced(PageRequest.of(0, batchSize));
+            long position = head.getPosition();
+            for (OutboxEvent event : events) {
+                event.setPosition(++position);
+            }
+            head.setPosition(position);
+            return events.size();
+        });
+    }
+
+    private void drain(OutboxConsumer consumer) {
+        try {
+            while (deliver(consumer) == batchSize) {
+                // keep going until the consumer has caught up
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox consumer '{}' failed; its batch will be retried", consumer.name(), e);
+        }
+    }
+
+    private int deliver(OutboxConsumer consumer) {
+        return transactionTemplate.execute(status -> {
+            OutboxOffset offset = lockOffset(consumer.name());
+            List<OutboxEvent> batch = outboxEventRepository.findByPositionGreaterThanOrderByPositionAsc(
+                    offset.getPosition(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<EntityChangedEvent<?>> events = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                events.add(toEvent(event));
+            }
+            consumer.handle(offset.getPosition(), events);
+            offset.setPosition(batch.get(batch.size() - 1).getPosition());
+            return batch.size();
+        });
+    }
+
+    private OutboxOffset lockOffset(String name) {
+        return outboxOffsetRepository.findForUpdate(name).orElseGet(() -> createOffset(name));
+    }
+
+    // A new consumer finds no row to lock. The row is inserted in a transaction of its own, where a
+    // concurrent first delivery loses on the primary key, and then locked like any other.
+    private OutboxOffset createOffset(String name) {
+        TransactionTemplate separate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            separate.executeWithoutResult(status -> outboxOffsetRepository.insert(name));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Outbox offset '{}' was created concurrently", name);
+        }
+        return outboxOffsetRepository.findForUpdate(name).orElseThrow();
+    }
+
+    private EntityChangedEvent<?> toEvent(OutboxEvent event) {
+        try {
+            return toEvent(event, Class.forName(event.getPayloadType()));
+        } catch (ClassNotFoundException | IOException e) {
+            throw new IllegalStateException("Unreadable outbox event " + event.getId(), e);
+        }
+    }
+
+    private <T> EntityChangedEvent<T> toEvent(OutboxEvent event, Class<T> payloadType) throws IOException {
+        return new EntityChangedEvent<>(event.getUserId(), event.getEntityType(), event.getChangeType(),
+                event.getEntityId(), payloadType, fromJson(event.getBeforeJson(), payloadType),
+                fromJson(event.getAfterJson(), payloadType), event.getOccurredAt());
+    }
+
+    private <T> T fromJson(String json, Class<T> payloadType) throws IOException {
+        return json == null ? null : objectMapper.readValue(json, payloadType);
+    }
+}
@@ -0,0 +1,123 @@
+package com.glucocloud.api.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glucocloud.api.event.EntityChangeBatch;
+import com.glucocloud.api.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every entity change in the outbox. Runs inside the write transaction, so a
+ * change is in the outbox exactly when it is committed. The changes of a transaction
+ * are collected and inserted as one JDBC batch just before it commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private static final String INSERT = "INSERT INTO outbox_events " +
+            "(user_id, entity_type, change_type, entity_id, payload_type, before_json, after_json, occurred_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent<?> event) {
+        if (!event.isBatched()) {
+            record(List.of(event));
+        }
+    }
+
+    @EventListener
+    public void onEntityChangeBatch(EntityChangeBatch batch) {
+        record(batch.changes());
+    }
+
+    private void record(List<EntityChangedEvent<?>> events) {
+        Pending pending = pending();
+        if (pending == null || pending.written) {
+            insert(events);
+        } else {
+            pending.events.addAll(events);
+        }
+    }
+
+    private void insert(List<EntityChangedEvent<?>> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, BATCH_SIZE, (statement, event) -> {
+            statement.setObject(1, event.getUserId());
+            statement.setString(2, event.getEntityType().name());
+            statement.setString(3, event.getChangeType().name());
+            statement.setObject(4, event.getEntityId());
+            statement.setString(5, event.getPayloadType().getName());
+            statement.setString(6, toJson(event.getBefore()));
+            statement.setString(7, toJson(event.getAfter()));
+            statement.setTimestamp(8, Timestamp.valueOf(event.getOccurredAt()));
+        });
+    }
+
+    // The changes of the current transaction; null outside one
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending bound = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(OutboxWriter.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(OutboxWriter.this, pending);
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Changes made by later before-commit work are inserted as they come
+                pending.written = true;
+                if (!pending.events.isEmpty()) {
+                    insert(pending.events);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+            }
+        });
+        return pending;
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static class Pending {
+        private final List<EntityChangedEvent<?>> events = new ArrayList<>();
+        private boolean written;
+    }
+}
@@ -0,0 +1,35 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.AdherenceDay;
+import com.glucocloud.api.entity.MedicationRegimen;
+import com.glucocloud.api.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AdherenceDayRepository extends JpaRepository<AdherenceDay, UUID> {
+
+    List<AdherenceDay> findByRegimenAndDayBetween(MedicationRegimen regimen, LocalDate startDay, LocalDate endDay);
+
+    // Per regimen: {regimenId, taken, late, extra}
+    @Query("SELECT a.regimen.id, SUM(a.taken), SUM(a.late), SUM(a.extra) FROM AdherenceDay a " +
+           "WHERE a.user = :user AND a.day BETWEEN :startDay AND :endDay GROUP BY a.regimen.id")
+    List<Object[]> sumByRegimen(@Param("user") User user,
+                                @Param("startDay") LocalDate startDay,
+                                @Param("endDay") LocalDate endDay);
+
+    @Modifying
+    @Query("DELETE FROM AdherenceDay a WHERE a.regimen = :regimen")
+    void deleteByRegimen(@Param("regimen") MedicationRegimen regimen);
+
+    @Modifying
+    @Query("DELETE FROM AdherenceDay a WHERE a.regimen.id IN :regimenIds")
+    void deleteByRegimenIds(@Param("regimenIds") List<UUID> regimenIds);
+}
@@ -0,0 +1,51 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.BackgroundJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BackgroundJobRepository extends JpaRepository<BackgroundJob, UUID> {
+
+    List<BackgroundJob> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+
+    Optional<BackgroundJob> findByIdAndUserId(UUID id, UUID userId);
+
+    List<BackgroundJob> findByTypeAndPinnedToAndStatusIn(BackgroundJob.JobType type, String pinnedTo,
+                                                         Collection<BackgroundJob.Status> statuses);
+
+    boolean existsByUserIdAndTypeAndStatusIn(UUID userId, BackgroundJob.JobType type,
+                                             Collection<BackgroundJob.Status> statuses);
+
+    // Pending jobs, and running ones whose runner stopped sending heartbeats, that the instance may run
+    @Query("SELECT j.id FROM BackgroundJob j WHERE (j.pinnedTo IS NULL OR j.pinnedTo = :instance) " +
+           "AND (j.status = :pending OR (j.status = :running AND j.heartbeatAt < :staleBefore)) ORDER BY j.createdAt")
+    List<UUID> findClaimable(@Param("instance") String instance,
+                             @Param("pending") BackgroundJob.Status pending,
+                             @Param("running") BackgroundJob.Status running,
+                             @Param("staleBefore") LocalDateTime staleBefore,
+                             Pageable pageable);
+
+    // Only one runner wins the update, however many saw the job as claimable
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = :running, j.heartbeatAt = :now, " +
+           "j.startedAt = COALESCE(j.startedAt, :now) WHERE j.id = :id " +
+           "AND (j.pinnedTo IS NULL OR j.pinnedTo = :instance) " +
+           "AND (j.status = :pending OR (j.status = :running AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") UUID id,
+              @Param("instance") String instance,
+              @Param("pending") BackgroundJob.Status pending,
+              @Param("running") BackgroundJob.Status running,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+}
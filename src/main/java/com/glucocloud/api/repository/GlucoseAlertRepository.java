@@ -0,0 +1,33 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.GlucoseAlert;
+import com.glucocloud.api.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface GlucoseAlertRepository extends JpaRepository<GlucoseAlert, UUID> {
+
+    List<GlucoseAlert> findByUserOrderByTriggeredAtDesc(User user, Pageable pageable);
+
+    List<GlucoseAlert> findByUserAndTriggeredAtAfterOrderByTriggeredAtDesc(User user, LocalDateTime after);
+
+    Optional<GlucoseAlert> findByIdAndUser(UUID id, User user);
+
+    boolean existsByUserIdAndAlertTypeAndReadingId(UUID userId, GlucoseAlert.AlertType alertType, UUID readingId);
+
+    // Last firing time per alert type, used to restore cooldowns
+    @Query("SELECT a.alertType, MAX(a.triggeredAt) FROM GlucoseAlert a WHERE a.user.id = :userId GROUP BY a.alertType")
+    List<Object[]> findLastTriggeredByType(@Param("userId") UUID userId);
+
+    @Query("SELECT a.id FROM GlucoseAlert a WHERE a.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
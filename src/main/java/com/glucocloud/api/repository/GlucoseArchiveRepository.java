@@ -0,0 +1,46 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.GlucoseArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface GlucoseArchiveRepository extends JpaRepository<GlucoseArchive, UUID> {
+
+    Optional<GlucoseArchive> findByUserIdAndMonthStart(UUID userId, LocalDate monthStart);
+
+    @Query("SELECT a FROM GlucoseArchive a WHERE a.userId = :userId " +
+           "AND a.lastTakenAt >= :from AND a.firstTakenAt <= :to ORDER BY a.monthStart")
+    List<GlucoseArchive> findOverlapping(@Param("userId") UUID userId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    // Next segment at or after a month that overlaps the range; walks range deletes one segment at a time
+    @Query("SELECT a FROM GlucoseArchive a WHERE a.userId = :userId AND a.monthStart >= :month " +
+           "AND a.lastTakenAt >= :from AND a.firstTakenAt <= :to ORDER BY a.monthStart")
+    List<GlucoseArchive> findOverlappingFrom(@Param("userId") UUID userId,
+                                             @Param("month") LocalDate month,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             Pageable pageable);
+
+    // {segments, readings}
+    @Query("SELECT COUNT(a), COALESCE(SUM(a.readingCount), 0) FROM GlucoseArchive a WHERE a.userId = :userId")
+    List<Object[]> countByUserId(@Param("userId") UUID userId);
+
+    // {oldest, newest}
+    @Query("SELECT MIN(a.firstTakenAt), MAX(a.lastTakenAt) FROM GlucoseArchive a WHERE a.userId = :userId")
+    List<Object[]> findTakenAtBounds(@Param("userId") UUID userId);
+
+    @Query("SELECT a.id FROM GlucoseArchive a WHERE a.userId = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
@@ -0,0 +1,27 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.GlucoseChunk;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface GlucoseChunkRepository extends JpaRepository<GlucoseChunk, UUID> {
+
+    Optional<GlucoseChunk> findByUserIdAndDay(UUID userId, LocalDate day);
+
+    List<GlucoseChunk> findByUserIdAndDayBetweenOrderByDay(UUID userId, LocalDate from, LocalDate to);
+
+    @Query("SELECT c.day FROM GlucoseChunk c WHERE c.userId = :userId AND c.day BETWEEN :from AND :to")
+    List<LocalDate> findDays(@Param("userId") UUID userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT c.id FROM GlucoseChunk c WHERE c.userId = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
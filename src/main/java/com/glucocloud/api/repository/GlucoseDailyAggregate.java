@@ -0,0 +1,23 @@
+package com.glucocloud.api.repository;
+
+import java.time.LocalDate;
+
+// Per-day glucose counts used to seed incremental per-user state
+public interface GlucoseDailyAggregate {
+
+    LocalDate getDay();
+
+    Long getReadingCount();
+
+    Number getSumValue();
+
+    Long getInRangeCount();
+
+    Long getHighCount();
+
+    Long getLowCount();
+
+    Long getCriticallyHighCount();
+
+    Long getCriticallyLowCount();
+}
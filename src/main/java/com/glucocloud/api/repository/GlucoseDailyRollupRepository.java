@@ -0,0 +1,28 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.GlucoseDailyRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GlucoseDailyRollupRepository extends JpaRepository<GlucoseDailyRollup, UUID> {
+
+    List<GlucoseDailyRollup> findByUserIdAndDayBetween(UUID userId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM GlucoseDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :from AND :to")
+    int deleteByUserIdAndDayBetween(@Param("userId") UUID userId,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+
+    @Query("SELECT r.id FROM GlucoseDailyRollup r WHERE r.userId = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.glucocloud.api.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projection for indexing the notes of glucose readings
+public interface GlucoseNote {
+
+    UUID getId();
+
+    BigDecimal getReadingValue();
+
+    String getNote();
+
+    LocalDateTime getTakenAt();
+}
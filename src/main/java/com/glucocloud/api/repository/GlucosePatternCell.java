@@ -0,0 +1,31 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.GlucoseReading;
+
+import java.time.LocalDate;
+
+// One (weekday, hour[, reading type]) cell of the grouped pattern aggregate
+public interface GlucosePatternCell {
+
+    // A date in the cell; its weekday is the cell's, whatever numbering the database groups by
+    LocalDate getSampleDay();
+
+    Integer getHour();
+
+    // Null unless the aggregate is split by reading type
+    GlucoseReading.ReadingType getReadingType();
+
+    Long getReadingCount();
+
+    Double getAverage();
+
+    Long getVeryLowCount();
+
+    Long getLowCount();
+
+    Long getInRangeCount();
+
+    Long getHighCount();
+
+    Long getVeryHighCount();
+}
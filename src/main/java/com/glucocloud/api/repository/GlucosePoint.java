@@ -0,0 +1,12 @@
+package com.glucocloud.api.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Lightweight projection for analytics scans that only need the time series
+public interface GlucosePoint {
+
+    LocalDateTime getTakenAt();
+
+    BigDecimal getReadingValue();
+}
@@ -2,19 +2,32 @@ package com.glucocloud.api.repository;
 
 import com.glucocloud.api.entity.GlucoseReading;
 import com.glucocloud.api.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface GlucoseReadingRepository extends JpaRepository<GlucoseReading, UUID> {
 
+    String PATTERN_BANDS = "COUNT(g) AS readingCount, AVG(g.readingValue) AS average, " +
+            "SUM(CASE WHEN g.readingValue < 54 THEN 1 ELSE 0 END) AS veryLowCount, " +
+            "SUM(CASE WHEN g.readingValue >= 54 AND g.readingValue < 70 THEN 1 ELSE 0 END) AS lowCount, " +
+            "SUM(CASE WHEN g.readingValue BETWEEN 70 AND 180 THEN 1 ELSE 0 END) AS inRangeCount, " +
+            "SUM(CASE WHEN g.readingValue > 180 AND g.readingValue <= 250 THEN 1 ELSE 0 END) AS highCount, " +
+            "SUM(CASE WHEN g.readingValue > 250 THEN 1 ELSE 0 END) AS veryHighCount ";
+
     List<GlucoseReading> findByUserOrderByTakenAtDesc(User user);
 
     List<GlucoseReading> findByUserAndTakenAtBetweenOrderByTakenAtDesc(
@@ -66,4 +79,101 @@ public interface GlucoseReadingRepository extends JpaRepository<GlucoseReading,
     long countCriticallyLowByUserAndDateRange(@Param("user") User user,
                                              @Param("startDate") LocalDateTime startDate,
                                              @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+    @Query("SELECT g.takenAt AS takenAt, g.readingValue AS readingValue FROM GlucoseReading g " +
+           "WHERE g.user = :user AND g.takenAt BETWEEN :startDate AND :endDate ORDER BY g.takenAt")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<GlucosePoint> streamPointsByUserAndDateRange(@Param("user") User user,
+                                                       @Param("startDate") LocalDateTime startDate,
+                                                       @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT MIN(CAST(g.takenAt AS LocalDate)) AS sampleDay, EXTRACT(HOUR FROM g.takenAt) AS hour, " +
+           PATTERN_BANDS +
+           "FROM GlucoseReading g WHERE g.user = :user AND g.takenAt BETWEEN :startDate AND :endDate " +
+           "GROUP BY EXTRACT(DAY OF WEEK FROM g.takenAt), EXTRACT(HOUR FROM g.takenAt)")
+    List<GlucosePatternCell> findPatternCellsByUserAndDateRange(@Param("user") User user,
+                                                                @Param("startDate") LocalDateTime startDate,
+                                                                @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT MIN(CAST(g.takenAt AS LocalDate)) AS sampleDay, EXTRACT(HOUR FROM g.takenAt) AS hour, " +
+           "g.readingType AS readingType, " + PATTERN_BANDS +
+           "FROM GlucoseReading g WHERE g.user = :user AND g.takenAt BETWEEN :startDate AND :endDate " +
+           "GROUP BY EXTRACT(DAY OF WEEK FROM g.takenAt), EXTRACT(HOUR FROM g.takenAt), g.readingType")
+    List<GlucosePatternCell> findPatternCellsByReadingTypeAndUserAndDateRange(@Param("user") User user,
+                                                                              @Param("startDate") LocalDateTime startDate,
+                                                                              @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT CAST(g.takenAt AS LocalDate) AS day, COUNT(g) AS readingCount, SUM(g.readingValue) AS sumValue, " +
+           "SUM(CASE WHEN g.readingValue BETWEEN 70 AND 180 THEN 1 ELSE 0 END) AS inRangeCount, " +
+           "SUM(CASE WHEN g.readingValue > 180 THEN 1 ELSE 0 END) AS highCount, " +
+           "SUM(CASE WHEN g.readingValue < 70 THEN 1 ELSE 0 END) AS lowCount, " +
+           "SUM(CASE WHEN g.readingValue > 250 THEN 1 ELSE 0 END) AS criticallyHighCount, " +
+           "SUM(CASE WHEN g.readingValue < 54 THEN 1 ELSE 0 END) AS criticallyLowCount " +
+           "FROM GlucoseReading g WHERE g.user.id = :userId AND g.takenAt BETWEEN :startDate AND :endDate " +
+           "GROUP BY CAST(g.takenAt AS LocalDate)")
+    List<GlucoseDailyAggregate> findDailyAggregatesByUserIdAndDateRange(@Param("userId") UUID userId,
+                                                                       @Param("startDate") LocalDateTime startDate,
+                                                                       @Param("endDate") LocalDateTime endDate);
+
+    List<GlucoseReading> findTop2ByUserIdAndCreatedAtBeforeOrderByTakenAtDesc(UUID userId, LocalDateTime createdAt);
+
+    @Query("SELECT g.id AS id, g.readingValue AS readingValue, g.note AS note, g.takenAt AS takenAt " +
+           "FROM GlucoseReading g WHERE g.user.id = :userId AND g.note IS NOT NULL AND g.note <> ''")
+    List<GlucoseNote> findNotesByUserId(@Param("userId") UUID userId);
+
+    // Keyset page: readings strictly before (before, beforeId) in (takenAt, id) descending order
+    @Query("SELECT g FROM GlucoseReading g WHERE g.user.id = :userId AND " +
+           "(g.takenAt < :before OR (g.takenAt = :before AND g.id < :beforeId)) " +
+           "ORDER BY g.takenAt DESC, g.id DESC")
+    List<GlucoseReading> findPageBefore(@Param("userId") UUID userId,
+                                        @Param("before") LocalDateTime before,
+                                        @Param("beforeId") UUID beforeId,
+                                        Pageable pageable);
+
+    @Query("SELECT MIN(g.takenAt) FROM GlucoseReading g WHERE g.user.id = :userId AND g.takenAt < :before")
+    LocalDateTime findOldestTakenAtBefore(@Param("userId") UUID userId, @Param("before") LocalDateTime before);
+
+    boolean existsByUserIdAndTakenAtBefore(UUID userId, LocalDateTime before);
+
+    // Half-open [from, to): the readings of one archive month
+    @Query("SELECT g FROM GlucoseReading g WHERE g.user.id = :userId AND g.takenAt >= :from AND g.takenAt < :to")
+    List<GlucoseReading> findByUserIdInMonth(@Param("userId") UUID userId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    // Half-open [from, to), oldest first: the readings of one series chunk
+    @Query("SELECT g.takenAt AS takenAt, g.readingValue AS readingValue FROM GlucoseReading g " +
+           "WHERE g.user.id = :userId AND g.takenAt >= :from AND g.takenAt < :to ORDER BY g.takenAt")
+    List<GlucosePoint> findPointsByUserIdInRange(@Param("userId") UUID userId,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    // {oldest, newest}
+    @Query("SELECT MIN(g.takenAt), MAX(g.takenAt) FROM GlucoseReading g WHERE g.user.id = :userId")
+    List<Object[]> findTakenAtBounds(@Param("userId") UUID userId);
+
+    // Oldest first through the (user_id, taken_at) index; used by range deletes
+    @Query("SELECT g FROM GlucoseReading g WHERE g.user.id = :userId AND g.takenAt BETWEEN :from AND :to " +
+           "ORDER BY g.takenAt, g.id")
+    List<GlucoseReading> findChunkInRange(@Param("userId") UUID userId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          Pageable pageable);
+
+    @Query("SELECT g.id FROM GlucoseReading g WHERE g.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("SELECT g.source AS source, g.takenAt AS takenAt FROM GlucoseReading g " +
+           "WHERE g.user.id = :userId AND g.source IS NOT NULL AND g.takenAt >= :since")
+    List<GlucoseSourceKey> findSourceKeysSince(@Param("userId") UUID userId, @Param("since") LocalDateTime since);
+
+    @Query("SELECT g.source AS source, g.takenAt AS takenAt FROM GlucoseReading g " +
+           "WHERE g.user.id = :userId AND g.source IN :sources AND g.takenAt BETWEEN :from AND :to")
+    List<GlucoseSourceKey> findSourceKeysInRange(@Param("userId") UUID userId,
+                                                 @Param("sources") Collection<String> sources,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    @Query("SELECT g.id FROM GlucoseReading g WHERE g.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+}
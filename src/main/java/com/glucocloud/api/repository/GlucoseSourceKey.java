@@ -0,0 +1,11 @@
+package com.glucocloud.api.repository;
+
+import java.time.LocalDateTime;
+
+// The idempotency key of a device reading
+public interface GlucoseSourceKey {
+
+    String getSource();
+
+    LocalDateTime getTakenAt();
+}
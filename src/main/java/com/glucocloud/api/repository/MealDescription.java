@@ -0,0 +1,11 @@
+package com.glucocloud.api.repository;
+
+import java.util.UUID;
+
+// Projection for indexing meal descriptions without loading whole meals
+public interface MealDescription {
+
+    UUID getId();
+
+    String getDescription();
+}
@@ -2,6 +2,7 @@ package com.glucocloud.api.repository;
 
 import com.glucocloud.api.entity.Meal;
 import com.glucocloud.api.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -51,4 +52,36 @@ public interface MealRepository extends JpaRepository<Meal, UUID> {
     List<Meal> findMealsForCorrelationAnalysis(@Param("user") User user,
                                               @Param("startDate") LocalDateTime startDate,
                                               @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+    @Query("SELECT m.id AS id, m.description AS description FROM Meal m WHERE m.user.id = :userId ORDER BY m.consumedAt")
+    List<MealDescription> findDescriptionsByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT m.description AS description, m.carbsGrams AS carbsGrams, m.calories AS calories, " +
+           "m.proteinGrams AS proteinGrams, m.fatGrams AS fatGrams, m.mealType AS mealType, " +
+           "m.consumedAt AS consumedAt FROM Meal m WHERE m.user.id = :userId")
+    List<MealUsage> findUsagesByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT m.id AS id, m.description AS description, m.notes AS notes, m.consumedAt AS consumedAt " +
+           "FROM Meal m WHERE m.user.id = :userId")
+    List<MealText> findTextsByUserId(@Param("userId") UUID userId);
+
+    // Keyset page: meals strictly before (before, beforeId) in (consumedAt, id) descending order
+    @Query("SELECT m FROM Meal m WHERE m.user.id = :userId AND " +
+           "(m.consumedAt < :before OR (m.consumedAt = :before AND m.id < :beforeId)) " +
+           "ORDER BY m.consumedAt DESC, m.id DESC")
+    List<Meal> findPageBefore(@Param("userId") UUID userId,
+                              @Param("before") LocalDateTime before,
+                              @Param("beforeId") UUID beforeId,
+                              Pageable pageable);
+
+    // Oldest first through the (user_id, consumed_at) index; used by range deletes
+    @Query("SELECT m FROM Meal m WHERE m.user.id = :userId AND m.consumedAt BETWEEN :from AND :to " +
+           "ORDER BY m.consumedAt, m.id")
+    List<Meal> findChunkInRange(@Param("userId") UUID userId,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                Pageable pageable);
+
+    @Query("SELECT m.id FROM Meal m WHERE m.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package com.glucocloud.api.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projection for indexing the searchable text of meals
+public interface MealText {
+
+    UUID getId();
+
+    String getDescription();
+
+    String getNotes();
+
+    LocalDateTime getConsumedAt();
+}
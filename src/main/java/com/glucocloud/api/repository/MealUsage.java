@@ -0,0 +1,23 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.Meal;
+
+import java.time.LocalDateTime;
+
+// Projection for building autocomplete suggestions from meal history
+public interface MealUsage {
+
+    String getDescription();
+
+    Integer getCarbsGrams();
+
+    Integer getCalories();
+
+    Integer getProteinGrams();
+
+    Integer getFatGrams();
+
+    Meal.MealType getMealType();
+
+    LocalDateTime getConsumedAt();
+}
@@ -0,0 +1,26 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.MedicationRegimen;
+import com.glucocloud.api.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MedicationRegimenRepository extends JpaRepository<MedicationRegimen, UUID> {
+
+    List<MedicationRegimen> findByUserOrderByNameAsc(User user);
+
+    List<MedicationRegimen> findByUserId(UUID userId);
+
+    Optional<MedicationRegimen> findByIdAndUser(UUID id, User user);
+
+    @Query("SELECT r.id FROM MedicationRegimen r WHERE r.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
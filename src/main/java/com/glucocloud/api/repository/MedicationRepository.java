@@ -2,6 +2,7 @@ package com.glucocloud.api.repository;
 
 import com.glucocloud.api.entity.Medication;
 import com.glucocloud.api.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -53,6 +54,38 @@ public interface MedicationRepository extends JpaRepository<Medication, UUID> {
                                                           @Param("startDate") LocalDateTime startDate,
                                                           @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT DISTINCT m.name FROM Medication m WHERE m.user = :user ORDER BY m.name")
-    List<String> findDistinctMedicationNamesByUser(@Param("user") User user);
-}
\ No newline at end of file
+    @Query("SELECT m.name AS name, m.dosage AS dosage, m.medicationType AS medicationType, m.takenAt AS takenAt " +
+           "FROM Medication m WHERE m.user.id = :userId")
+    List<MedicationUsage> findUsagesByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT m.id AS id, m.name AS name, m.notes AS notes, m.sideEffects AS sideEffects, m.takenAt AS takenAt " +
+           "FROM Medication m WHERE m.user.id = :userId")
+    List<MedicationText> findTextsByUserId(@Param("userId") UUID userId);
+
+    // Keyset page: medications strictly before (before, beforeId) in (takenAt, id) descending order
+    @Query("SELECT m FROM Medication m WHERE m.user.id = :userId AND " +
+           "(m.takenAt < :before OR (m.takenAt = :before AND m.id < :beforeId)) " +
+           "ORDER BY m.takenAt DESC, m.id DESC")
+    List<Medication> findPageBefore(@Param("userId") UUID userId,
+                                    @Param("before") LocalDateTime before,
+                                    @Param("beforeId") UUID beforeId,
+                                    Pageable pageable);
+
+    @Query("SELECT m FROM Medication m WHERE m.user = :user AND LOWER(TRIM(m.name)) = :name " +
+           "AND m.takenAt BETWEEN :startDate AND :endDate ORDER BY m.takenAt")
+    List<Medication> findDosesByNameAndDateRange(@Param("user") User user,
+                                                 @Param("name") String normalizedName,
+                                                 @Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
+
+    // Oldest first through the (user_id, taken_at) index; used by range deletes
+    @Query("SELECT m FROM Medication m WHERE m.user.id = :userId AND m.takenAt BETWEEN :from AND :to " +
+           "ORDER BY m.takenAt, m.id")
+    List<Medication> findChunkInRange(@Param("userId") UUID userId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      Pageable pageable);
+
+    @Query("SELECT m.id FROM Medication m WHERE m.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.glucocloud.api.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projection for indexing the searchable text of medications
+public interface MedicationText {
+
+    UUID getId();
+
+    String getName();
+
+    String getNotes();
+
+    String getSideEffects();
+
+    LocalDateTime getTakenAt();
+}
@@ -0,0 +1,17 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.Medication;
+
+import java.time.LocalDateTime;
+
+// Projection for building autocomplete suggestions from medication history
+public interface MedicationUsage {
+
+    String getName();
+
+    String getDosage();
+
+    Medication.MedicationType getMedicationType();
+
+    LocalDateTime getTakenAt();
+}
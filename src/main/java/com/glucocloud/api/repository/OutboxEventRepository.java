@@ -0,0 +1,29 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnsequenced(Pageable pageable);
+
+    List<OutboxEvent> findByPositionGreaterThanOrderByPositionAsc(long position, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.position <= :position AND e.occurredAt < :cutoff")
+    int deleteConsumed(@Param("position") long position, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.OutboxOffset;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxOffset o WHERE o.consumer = :consumer")
+    Optional<OutboxOffset> findForUpdate(@Param("consumer") String consumer);
+
+    // A plain insert: saving the entity would merge into a row created concurrently
+    @Modifying
+    @Query(value = "INSERT INTO outbox_offsets (consumer, position, updated_at) VALUES (:consumer, 0, CURRENT_TIMESTAMP)",
+            nativeQuery = true)
+    int insert(@Param("consumer") String consumer);
+}
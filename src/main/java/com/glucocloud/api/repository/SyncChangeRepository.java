@@ -0,0 +1,57 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.SyncChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SyncChangeRepository extends JpaRepository<SyncChange, UUID> {
+
+    List<SyncChange> findByUserIdAndSeqGreaterThanOrderBySeqAsc(UUID userId, long seq, Pageable pageable);
+
+    // Per user: {userId, highest pruned seq}
+    @Query("SELECT c.userId, MAX(c.seq) FROM SyncChange c WHERE c.deleted = true AND c.changedAt < :cutoff " +
+           "GROUP BY c.userId")
+    List<Object[]> findPrunableTombstones(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM SyncChange c WHERE c.userId = :userId AND c.deleted = true AND c.seq <= :seq")
+    int deleteTombstones(@Param("userId") UUID userId, @Param("seq") long seq);
+
+    // History from before the feed, a chunk at a time: the next limit records without a feed row,
+    // in time order, numbered from offset + 1
+    @Modifying
+    @Query(value = "INSERT INTO sync_changes (entity_id, user_id, entity_type, seq, deleted, changed_at) " +
+                   "SELECT id, user_id, 'GLUCOSE_READING', :offset + ROW_NUMBER() OVER (ORDER BY taken_at, id), " +
+                   "false, CURRENT_TIMESTAMP FROM (SELECT r.id, r.user_id, r.taken_at FROM glucose_readings r " +
+                   "WHERE r.user_id = :userId AND NOT EXISTS (SELECT 1 FROM sync_changes c WHERE c.entity_id = r.id) " +
+                   "ORDER BY r.taken_at, r.id LIMIT :limit) pending", nativeQuery = true)
+    int backfillReadings(@Param("userId") UUID userId, @Param("offset") long offset, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO sync_changes (entity_id, user_id, entity_type, seq, deleted, changed_at) " +
+                   "SELECT id, user_id, 'MEAL', :offset + ROW_NUMBER() OVER (ORDER BY consumed_at, id), " +
+                   "false, CURRENT_TIMESTAMP FROM (SELECT r.id, r.user_id, r.consumed_at FROM meals r " +
+                   "WHERE r.user_id = :userId AND NOT EXISTS (SELECT 1 FROM sync_changes c WHERE c.entity_id = r.id) " +
+                   "ORDER BY r.consumed_at, r.id LIMIT :limit) pending", nativeQuery = true)
+    int backfillMeals(@Param("userId") UUID userId, @Param("offset") long offset, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO sync_changes (entity_id, user_id, entity_type, seq, deleted, changed_at) " +
+                   "SELECT id, user_id, 'MEDICATION', :offset + ROW_NUMBER() OVER (ORDER BY taken_at, id), " +
+                   "false, CURRENT_TIMESTAMP FROM (SELECT r.id, r.user_id, r.taken_at FROM medications r " +
+                   "WHERE r.user_id = :userId AND NOT EXISTS (SELECT 1 FROM sync_changes c WHERE c.entity_id = r.id) " +
+                   "ORDER BY r.taken_at, r.id LIMIT :limit) pending", nativeQuery = true)
+    int backfillMedications(@Param("userId") UUID userId, @Param("offset") long offset, @Param("limit") int limit);
+
+    @Query("SELECT c.entityId FROM SyncChange c WHERE c.userId = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
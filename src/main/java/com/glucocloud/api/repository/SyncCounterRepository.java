@@ -0,0 +1,30 @@
+package com.glucocloud.api.repository;
+
+import com.glucocloud.api.entity.SyncCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SyncCounterRepository extends JpaRepository<SyncCounter, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM SyncCounter c WHERE c.userId = :userId")
+    Optional<SyncCounter> findForUpdate(@Param("userId") UUID userId);
+
+    // A plain insert: saving the entity would merge into a row created concurrently
+    @Modifying
+    @Query(value = "INSERT INTO sync_counters (user_id, last_seq, pruned_seq) VALUES (:userId, 0, 0)", nativeQuery = true)
+    int insert(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("UPDATE SyncCounter c SET c.prunedSeq = :seq WHERE c.userId = :userId AND c.prunedSeq < :seq")
+    int advancePrunedSeq(@Param("userId") UUID userId, @Param("seq") long seq);
+}
@@ -0,0 +1,106 @@
+package com.glucocloud.api.retention;
+
+import com.glucocloud.api.entity.GlucoseReading;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary form of an archive segment: the readings in time order, timestamps as deltas
+ * from the previous reading and values as hundredths of mg/dL, gzipped. Regular CGM
+ * data compresses to a few bytes per reading beyond the id.
+ */
+final class GlucoseArchiveCodec {
+
+    // 2 added the reading's source
+    private static final int FORMAT = 2;
+
+    private GlucoseArchiveCodec() {
+    }
+
+    static byte[] encode(List<GlucoseReading> readings) {
+        List<GlucoseReading> sorted = new ArrayList<>(readings);
+        sorted.sort(Comparator.comparing(GlucoseReading::getTakenAt).thenComparing(GlucoseReading::getId));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(bytes)))) {
+            out.writeByte(FORMAT);
+            out.writeInt(sorted.size());
+            long previous = 0;
+            for (GlucoseReading reading : sorted) {
+                long takenAt = reading.getTakenAt().toEpochSecond(ZoneOffset.UTC);
+                LocalDateTime createdAt = reading.getCreatedAt() != null ? reading.getCreatedAt() : reading.getTakenAt();
+                out.writeLong(reading.getId().getMostSignificantBits());
+                out.writeLong(reading.getId().getLeastSignificantBits());
+                out.writeLong(takenAt - previous);
+                out.writeInt(reading.getTakenAt().getNano());
+                out.writeInt(reading.getReadingValue().movePointRight(2).intValueExact());
+                out.writeByte(reading.getReadingType() == null ? -1 : reading.getReadingType().ordinal());
+                out.writeBoolean(reading.getNote() != null);
+                if (reading.getNote() != null) {
+                    out.writeUTF(reading.getNote());
+                }
+                out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC) - takenAt);
+                out.writeInt(createdAt.getNano());
+                out.writeLong(reading.getVersion() == null ? 0 : reading.getVersion());
+                out.writeBoolean(reading.getSource() != null);
+                if (reading.getSource() != null) {
+                    out.writeUTF(reading.getSource());
+                }
+                previous = takenAt;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Detached readings in time order; they carry no user and are never persisted again. */
+    static List<GlucoseReading> decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new ByteArrayInputStream(data))))) {
+            int format = in.readByte();
+            if (format != 1 && format != FORMAT) {
+                throw new IllegalStateException("Unknown archive format " + format);
+            }
+            int count = in.readInt();
+            GlucoseReading.ReadingType[] types = GlucoseReading.ReadingType.values();
+            List<GlucoseReading> readings = new ArrayList<>(count);
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                long takenAt = previous + in.readLong();
+                int takenNanos = in.readInt();
+                BigDecimal value = BigDecimal.valueOf(in.readInt(), 2);
+                int type = in.readByte();
+                String note = in.readBoolean() ? in.readUTF() : null;
+                long createdAt = takenAt + in.readLong();
+                int createdNanos = in.readInt();
+                long version = in.readLong();
+                String source = format >= 2 && in.readBoolean() ? in.readUTF() : null;
+                readings.add(GlucoseReading.builder()
+                        .id(id)
+                        .takenAt(LocalDateTime.ofEpochSecond(takenAt, takenNanos, ZoneOffset.UTC))
+                        .readingValue(value)
+                        .readingType(type < 0 ? null : types[type])
+                        .note(note)
+                        .createdAt(LocalDateTime.ofEpochSecond(createdAt, createdNanos, ZoneOffset.UTC))
+                        .version(version)
+                        .source(source)
+                        .build());
+                previous = takenAt;
+            }
+            return readings;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
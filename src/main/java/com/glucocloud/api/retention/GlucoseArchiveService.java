@@ -0,0 +1,281 @@
+package com.glucocloud.api.retention;
+
+import com.glucocloud.api.dto.RetentionPolicyRequest;
+import com.glucocloud.api.dto.RetentionPolicyResponse;
+import com.glucocloud.api.entity.GlucoseArchive;
+import com.glucocloud.api.entity.GlucoseDailyRollup;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.GlucoseArchiveRepository;
+import com.glucocloud.api.repository.GlucoseDailyRollupRepository;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tiered retention for raw glucose readings. Whole calendar months that fall outside a
+ * user's retention window are moved from glucose_readings into one compressed segment
+ * per user-month, and a rollup row per day stays hot for summaries. Archived readings
+ * remain readable through the reading and export paths but are read-only.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class GlucoseArchiveService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final GlucoseArchiveRepository archiveRepository;
+    private final GlucoseDailyRollupRepository rollupRepository;
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final UserRepository userRepository;
+
+    // 0 keeps raw readings hot forever unless a user sets their own policy
+    @Value("${glucocloud.retention.raw-days:365}")
+    private int defaultRawDays;
+
+    /** Daily aggregates of archived readings over a time range. */
+    public record ArchivedStats(long count, BigDecimal sum, BigDecimal min, BigDecimal max, long inRange,
+                                long high, long low, long criticallyHigh, long criticallyLow) {
+
+        static final ArchivedStats EMPTY = new ArchivedStats(0, BigDecimal.ZERO, null, null, 0, 0, 0, 0, 0);
+
+        ArchivedStats plus(GlucoseDailyRollup day) {
+            return new ArchivedStats(count + day.getReadingCount(), sum.add(day.getSumValue()),
+                    min == null || day.getMinValue().compareTo(min) < 0 ? day.getMinValue() : min,
+                    max == null || day.getMaxValue().compareTo(max) > 0 ? day.getMaxValue() : max,
+                    inRange + day.getInRangeCount(), high + day.getHighCount(), low + day.getLowCount(),
+                    criticallyHigh + day.getCriticallyHighCount(), criticallyLow + day.getCriticallyLowCount());
+        }
+    }
+
+    public int effectiveRetentionDays(User user) {
+        return user.getRawRetentionDays() != null ? user.getRawRetentionDays() : defaultRawDays;
+    }
+
+    /** Readings before the returned instant belong in the archive; null when nothing is archived. */
+    public LocalDateTime archiveCutoff(User user) {
+        int days = effectiveRetentionDays(user);
+        if (days <= 0) {
+            return null;
+        }
+        return YearMonth.from(LocalDate.now().minusDays(days)).atDay(1).atStartOfDay();
+    }
+
+    @Transactional(readOnly = true)
+    public RetentionPolicyResponse getPolicy(User user) {
+        Object[] counts = archiveRepository.countByUserId(user.getId()).get(0);
+        return RetentionPolicyResponse.builder()
+                .rawRetentionDays(user.getRawRetentionDays())
+                .effectiveRetentionDays(effectiveRetentionDays(user))
+                .archiveBefore(archiveCutoff(user))
+                .archivedMonths(((Number) counts[0]).longValue())
+                .archivedReadings(((Number) counts[1]).longValue())
+                .build();
+    }
+
+    public RetentionPolicyResponse updatePolicy(User user, RetentionPolicyRequest request) {
+        user.setRawRetentionDays(request.getRawRetentionDays());
+        userRepository.save(user);
+        return getPolicy(user);
+    }
+
+    /**
+     * Moves the oldest month of hot readings before the cutoff into its segment, merging
+     * with a segment written earlier. Returns the number of readings moved, 0 when done.
+     */
+    public int archiveOldestMonth(UUID userId, LocalDateTime cutoff) {
+        LocalDateTime oldest = glucoseReadingRepository.findOldestTakenAtBefore(userId, cutoff);
+        if (oldest == null) {
+            return 0;
+        }
+        YearMonth month = YearMonth.from(oldest);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        List<GlucoseReading> hot = glucoseReadingRepository.findByUserIdInMonth(userId, from,
+                month.plusMonths(1).atDay(1).atStartOfDay());
+
+        GlucoseArchive archive = archiveRepository.findByUserIdAndMonthStart(userId, month.atDay(1))
+                .orElseGet(() -> GlucoseArchive.builder().userId(userId).monthStart(month.atDay(1)).build());
+        List<GlucoseReading> readings = archive.getData() == null
+                ? new ArrayList<>() : new ArrayList<>(GlucoseArchiveCodec.decode(archive.getData()));
+        readings.addAll(hot);
+        writeSegment(archive, readings);
+
+        // No change events: the readings still exist, only their storage tier changed
+        glucoseReadingRepository.deleteAllInBatch(hot);
+        return hot.size();
+    }
+
+    /** Archived readings taken in [from, to], newest first; null bounds are open. */
+    @Transactional(readOnly = true)
+    public List<GlucoseReading> findArchived(UUID userId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : BEGINNING;
+        LocalDateTime end = to != null ? to : END_OF_TIME;
+        List<GlucoseReading> readings = new ArrayList<>();
+        for (GlucoseArchive archive : archiveRepository.findOverlapping(userId, start, end)) {
+            for (GlucoseReading reading : GlucoseArchiveCodec.decode(archive.getData())) {
+                if (!reading.getTakenAt().isBefore(start) && !reading.getTakenAt().isAfter(end)) {
+                    readings.add(reading);
+                }
+            }
+        }
+        readings.sort(Comparator.comparing(GlucoseReading::getTakenAt).reversed());
+        return readings;
+    }
+
+    /**
+     * Aggregates of archived readings taken in [from, to]. Days wholly inside the range
+     * come from the hot rollups; only the partial days at its edges are decompressed.
+     */
+    @Transactional(readOnly = true)
+    public ArchivedStats summarize(UUID userId, LocalDateTime from, LocalDateTime to) {
+        List<GlucoseArchive> archives = archiveRepository.findOverlapping(userId, from, to);
+        if (archives.isEmpty()) {
+            return ArchivedStats.EMPTY;
+        }
+
+        LocalDate firstWholeDay = from.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? from.toLocalDate() : from.toLocalDate().plusDays(1);
+        // A day is whole when the range reaches its last instant; BETWEEN is inclusive of to
+        LocalDate lastWholeDay = to.toLocalDate().minusDays(1);
+        ArchivedStats stats = ArchivedStats.EMPTY;
+        if (!firstWholeDay.isAfter(lastWholeDay)) {
+            for (GlucoseDailyRollup day : rollupRepository.findByUserIdAndDayBetween(userId, firstWholeDay, lastWholeDay)) {
+                stats = stats.plus(day);
+            }
+        }
+
+        List<GlucoseReading> edges = new ArrayList<>();
+        for (GlucoseArchive archive : archives) {
+            if (!isEdgeMonth(archive.getMonthStart(), firstWholeDay, lastWholeDay)) {
+                continue;
+            }
+            for (GlucoseReading reading : GlucoseArchiveCodec.decode(archive.getData())) {
+                LocalDate day = reading.getTakenAt().toLocalDate();
+                boolean whole = !day.isBefore(firstWholeDay) && !day.isAfter(lastWholeDay);
+                if (!whole && !reading.getTakenAt().isBefore(from) && !reading.getTakenAt().isAfter(to)) {
+                    edges.add(reading);
+                }
+            }
+        }
+        for (GlucoseDailyRollup day : rollup(userId, edges)) {
+            stats = stats.plus(day);
+        }
+        return stats;
+    }
+
+    /**
+     * Removes archived readings taken in [from, to] from the first overlapping segment at
+     * or after the given month. Returns the removed readings and the month to continue
+     * from, or null when no segment is left to visit.
+     */
+    public ArchivedRemoval deleteArchived(UUID userId, LocalDate month, LocalDateTime from, LocalDateTime to) {
+        List<GlucoseArchive> next = archiveRepository.findOverlappingFrom(userId, month, from, to, PageRequest.of(0, 1));
+        if (next.isEmpty()) {
+            return null;
+        }
+        GlucoseArchive archive = next.get(0);
+        List<GlucoseReading> kept = new ArrayList<>();
+        List<GlucoseReading> removed = new ArrayList<>();
+        for (GlucoseReading reading : GlucoseArchiveCodec.decode(archive.getData())) {
+            boolean inRange = !reading.getTakenAt().isBefore(from) && !reading.getTakenAt().isAfter(to);
+            (inRange ? removed : kept).add(reading);
+        }
+        if (!removed.isEmpty()) {
+            writeSegment(archive, kept);
+        }
+        return new ArchivedRemoval(removed, archive.getMonthStart().plusMonths(1));
+    }
+
+    public record ArchivedRemoval(List<GlucoseReading> removed, LocalDate nextMonth) {
+    }
+
+    /** Merges two newest-first lists of readings into one. */
+    public static List<GlucoseReading> mergeNewestFirst(List<GlucoseReading> hot, List<GlucoseReading> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<GlucoseReading> merged = new ArrayList<>(hot.size() + archived.size());
+        int h = 0;
+        int a = 0;
+        while (h < hot.size() || a < archived.size()) {
+            if (a == archived.size()
+                    || (h < hot.size() && !hot.get(h).getTakenAt().isBefore(archived.get(a).getTakenAt()))) {
+                merged.add(hot.get(h++));
+            } else {
+                merged.add(archived.get(a++));
+            }
+        }
+        return merged;
+    }
+
+    private void writeSegment(GlucoseArchive archive, List<GlucoseReading> readings) {
+        LocalDate monthStart = archive.getMonthStart();
+        LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
+        rollupRepository.deleteByUserIdAndDayBetween(archive.getUserId(), monthStart, monthEnd);
+        if (readings.isEmpty()) {
+            if (archive.getId() != null) {
+                archiveRepository.delete(archive);
+            }
+            return;
+        }
+
+        readings.sort(Comparator.comparing(GlucoseReading::getTakenAt));
+        archive.setFirstTakenAt(readings.get(0).getTakenAt());
+        archive.setLastTakenAt(readings.get(readings.size() - 1).getTakenAt());
+        archive.setReadingCount(readings.size());
+        archive.setData(GlucoseArchiveCodec.encode(readings));
+        archiveRepository.save(archive);
+        rollupRepository.saveAll(rollup(archive.getUserId(), readings));
+    }
+
+    private static List<GlucoseDailyRollup> rollup(UUID userId, List<GlucoseReading> readings) {
+        Map<LocalDate, List<GlucoseReading>> byDay = readings.stream()
+                .collect(Collectors.groupingBy(reading -> reading.getTakenAt().toLocalDate(), TreeMap::new,
+                        Collectors.toList()));
+        List<GlucoseDailyRollup> rollups = new ArrayList<>(byDay.size());
+        byDay.forEach((day, dayReadings) -> {
+            GlucoseDailyRollup rollup = GlucoseDailyRollup.builder()
+                    .userId(userId)
+                    .day(day)
+                    .sumValue(BigDecimal.ZERO)
+                    .build();
+            for (GlucoseReading reading : dayReadings) {
+                BigDecimal value = reading.getReadingValue();
+                rollup.setReadingCount(rollup.getReadingCount() + 1);
+                rollup.setSumValue(rollup.getSumValue().add(value));
+                rollup.setMinValue(rollup.getMinValue() == null || value.compareTo(rollup.getMinValue()) < 0
+                        ? value : rollup.getMinValue());
+                rollup.setMaxValue(rollup.getMaxValue() == null || value.compareTo(rollup.getMaxValue()) > 0
+                        ? value : rollup.getMaxValue());
+                rollup.setInRangeCount(rollup.getInRangeCount() + (reading.isInNormalRange() ? 1 : 0));
+                rollup.setHighCount(rollup.getHighCount() + (reading.isHigh() ? 1 : 0));
+                rollup.setLowCount(rollup.getLowCount() + (reading.isLow() ? 1 : 0));
+                rollup.setCriticallyHighCount(rollup.getCriticallyHighCount() + (reading.isCriticallyHigh() ? 1 : 0));
+                rollup.setCriticallyLowCount(rollup.getCriticallyLowCount() + (reading.isCriticallyLow() ? 1 : 0));
+            }
+            rollups.add(rollup);
+        });
+        return rollups;
+    }
+
+    private static boolean isEdgeMonth(LocalDate monthStart, LocalDate firstWholeDay, LocalDate lastWholeDay) {
+        LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
+        // A month needs decoding unless every day it has in the range is a whole day
+        return monthStart.isBefore(firstWholeDay) || monthEnd.isAfter(lastWholeDay)
+                || firstWholeDay.isAfter(lastWholeDay);
+    }
+}
@@ -0,0 +1,154 @@
+package com.glucocloud.api.search;
+
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.dto.MedicationResponse;
+import com.glucocloud.api.dto.SearchResponse;
+import com.glucocloud.api.event.AccountErasedEvent;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded search backend for databases without full-text indexes (H2). Each user's
+ * text is indexed in memory on first search, kept in sync from committed change events
+ * and dropped after sitting idle.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "glucocloud.search.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemorySearchBackend implements SearchBackend {
+
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+    private final GlucoseReadingRepository glucoseReadingRepository;
+
+    @Value("${glucocloud.search.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<UUID, CachedIndex> indexes = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchResponse.Hit> search(UUID userId, List<String> tokens, SearchCursor after, int limit) {
+        CachedIndex cached = indexes.computeIfAbsent(userId, this::load);
+        synchronized (cached) {
+            cached.lastAccess = System.nanoTime();
+            return cached.index.search(tokens, after, limit);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMealChanged(EntityChangedEvent<MealResponse> event) {
+        MealResponse meal = event.getAfter();
+        apply(event, meal == null ? null : mealDoc(meal.getId(), meal.getDescription(), meal.getNotes(),
+                meal.getConsumedAt()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMedicationChanged(EntityChangedEvent<MedicationResponse> event) {
+        MedicationResponse medication = event.getAfter();
+        apply(event, medication == null ? null : medicationDoc(medication.getId(), medication.getName(),
+                medication.getNotes(), medication.getSideEffects(), medication.getTakenAt()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReadingChanged(EntityChangedEvent<GlucoseReadingResponse> event) {
+        GlucoseReadingResponse reading = event.getAfter();
+        apply(event, reading == null ? null : readingDoc(reading.getId(), reading.getReadingValue(),
+                reading.getNote(), reading.getTakenAt()));
+    }
+
+    @EventListener
+    public void onAccountErased(AccountErasedEvent event) {
+        indexes.remove(event.userId());
+    }
+
+    @Scheduled(fixedDelayString = "${glucocloud.search.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - idleMinutes * 60_000_000_000L;
+        indexes.values().removeIf(cached -> cached.lastAccess - cutoff < 0);
+    }
+
+    private void apply(EntityChangedEvent<?> event, UserTextIndex.Doc doc) {
+        // computeIfPresent waits for a concurrent load so the change is not lost
+        indexes.computeIfPresent(event.getUserId(), (userId, cached) -> {
+            synchronized (cached) {
+                if (doc == null) {
+                    cached.index.remove(event.getEntityType(), event.getEntityId());
+                } else {
+                    cached.index.put(doc);
+                }
+            }
+            return cached;
+        });
+    }
+
+    private CachedIndex load(UUID userId) {
+        UserTextIndex index = new UserTextIndex();
+        for (MealText meal : mealRepository.findTextsByUserId(userId)) {
+            index.put(mealDoc(meal.getId(), meal.getDescription(), meal.getNotes(), meal.getConsumedAt()));
+        }
+        for (MedicationText medication : medicationRepository.findTextsByUserId(userId)) {
+            index.put(medicationDoc(medication.getId(), medication.getName(), medication.getNotes(),
+                    medication.getSideEffects(), medication.getTakenAt()));
+        }
+        for (GlucoseNote reading : glucoseReadingRepository.findNotesByUserId(userId)) {
+            index.put(readingDoc(reading.getId(), reading.getReadingValue(), reading.getNote(), reading.getTakenAt()));
+        }
+        return new CachedIndex(index);
+    }
+
+    private static UserTextIndex.Doc mealDoc(UUID id, String description, String notes, LocalDateTime consumedAt) {
+        List<UserTextIndex.Field> fields = new ArrayList<>(2);
+        addField(fields, "description", description);
+        addField(fields, "notes", notes);
+        return new UserTextIndex.Doc(EntityChangedEvent.EntityType.MEAL, id, consumedAt, description, fields);
+    }
+
+    private static UserTextIndex.Doc medicationDoc(UUID id, String name, String notes, String sideEffects,
+                                                   LocalDateTime takenAt) {
+        List<UserTextIndex.Field> fields = new ArrayList<>(3);
+        addField(fields, "name", name);
+        addField(fields, "notes", notes);
+        addField(fields, "sideEffects", sideEffects);
+        return new UserTextIndex.Doc(EntityChangedEvent.EntityType.MEDICATION, id, takenAt, name, fields);
+    }
+
+    private static UserTextIndex.Doc readingDoc(UUID id, BigDecimal value, String note, LocalDateTime takenAt) {
+        List<UserTextIndex.Field> fields = new ArrayList<>(1);
+        addField(fields, "note", note);
+        return new UserTextIndex.Doc(EntityChangedEvent.EntityType.GLUCOSE_READING, id, takenAt,
+                SearchText.readingTitle(value), fields);
+    }
+
+    private static void addField(List<UserTextIndex.Field> fields, String name, String text) {
+        if (text != null && !text.isBlank()) {
+            fields.add(new UserTextIndex.Field(name, text));
+        }
+    }
+
+    private static final class CachedIndex {
+        private final UserTextIndex index;
+        private volatile long lastAccess = System.nanoTime();
+
+        private CachedIndex(UserTextIndex index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.glucocloud.api.search;
+
+import com.glucocloud.api.dto.SearchResponse;
+import com.glucocloud.api.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL full-text search backend. Each table has a GIN expression index on the
+ * same tsvector the query matches against, so a search reads only the posting lists
+ * of its tokens whatever the size of the history. Prefix tokens become {@code token:*}
+ * lexemes; only the returned page is highlighted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "glucocloud.search.backend", havingValue = "postgres")
+public class PostgresSearchBackend implements SearchBackend {
+
+    private static final String MEAL_VECTOR =
+            "to_tsvector('simple', coalesce(description, '') || ' ' || coalesce(notes, ''))";
+    private static final String MEDICATION_VECTOR =
+            "to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(notes, '') || ' ' || coalesce(side_effects, ''))";
+    private static final String READING_VECTOR = "to_tsvector('simple', coalesce(note, ''))";
+
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT to_tsquery('simple', :query) AS query) " +
+            "SELECT * FROM (" +
+            "  SELECT 'MEAL' AS type, id, consumed_at AS occurred_at, CAST(NULL AS numeric) AS reading_value, " +
+            "         description AS text1, notes AS text2, CAST(NULL AS varchar) AS text3, " +
+            "         ts_rank(" + MEAL_VECTOR + ", q.query) AS score " +
+            "  FROM meals, q WHERE user_id = :userId AND " + MEAL_VECTOR + " @@ q.query " +
+            "  UNION ALL " +
+            "  SELECT 'MEDICATION', id, taken_at, NULL, name, notes, side_effects, " +
+            "         ts_rank(" + MEDICATION_VECTOR + ", q.query) " +
+            "  FROM medications, q WHERE user_id = :userId AND " + MEDICATION_VECTOR + " @@ q.query " +
+            "  UNION ALL " +
+            "  SELECT 'GLUCOSE_READING', id, taken_at, reading_value, note, NULL, NULL, " +
+            "         ts_rank(" + READING_VECTOR + ", q.query) " +
+            "  FROM glucose_readings, q WHERE user_id = :userId AND " + READING_VECTOR + " @@ q.query" +
+            ") hit " +
+            "WHERE CAST(:afterScore AS real) IS NULL OR (score, occurred_at, type COLLATE \"C\", id) " +
+            "      < (CAST(:afterScore AS real), CAST(:afterTime AS timestamp), CAST(:afterType AS text) COLLATE \"C\", CAST(:afterId AS uuid)) " +
+            "ORDER BY score DESC, occurred_at DESC, type COLLATE \"C\" DESC, id DESC " +
+            "LIMIT :limit";
+
+    private static final String[] MEAL_FIELDS = {"description", "notes"};
+    private static final String[] MEDICATION_FIELDS = {"name", "notes", "sideEffects"};
+    private static final String[] READING_FIELDS = {"note"};
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        // Hibernate creates the tables; the expression indexes are beyond its DDL
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS idx_meals_search ON meals USING GIN (" + MEAL_VECTOR + ")");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS idx_medications_search ON medications USING GIN (" + MEDICATION_VECTOR + ")");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS idx_glucose_readings_search ON glucose_readings USING GIN (" + READING_VECTOR + ")");
+        log.info("Full-text search indexes are in place");
+    }
+
+    @Override
+    public List<SearchResponse.Hit> search(UUID userId, List<String> tokens, SearchCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & ")))
+                .addValue("userId", userId)
+                .addValue("afterScore", after == null ? null : after.score())
+                .addValue("afterTime", after == null ? null : Timestamp.valueOf(after.occurredAt()))
+                .addValue("afterType", after == null ? null : after.type().name())
+                .addValue("afterId", after == null ? null : after.id())
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> {
+            EntityChangedEvent.EntityType type = EntityChangedEvent.EntityType.valueOf(rs.getString("type"));
+            String[] texts = {rs.getString("text1"), rs.getString("text2"), rs.getString("text3")};
+            String[] names = switch (type) {
+                case MEAL -> MEAL_FIELDS;
+                case MEDICATION -> MEDICATION_FIELDS;
+                case GLUCOSE_READING -> READING_FIELDS;
+            };
+            BigDecimal value = rs.getBigDecimal("reading_value");
+
+            SearchResponse.Hit hit = SearchResponse.Hit.builder()
+                    .type(type)
+                    .id(rs.getObject("id", UUID.class))
+                    .occurredAt(rs.getTimestamp("occurred_at").toLocalDateTime())
+                    .title(value != null ? SearchText.readingTitle(value) : texts[0])
+                    .score(rs.getFloat("score"))
+                    .build();
+
+            // Fall back to the first field when only PostgreSQL's own word splitting matched
+            int field = -1;
+            for (int i = 0; i < names.length; i++) {
+                if (texts[i] == null || texts[i].isBlank()) {
+                    continue;
+                }
+                boolean matched = SearchText.matches(texts[i], tokens);
+                if (field < 0 || matched) {
+                    field = i;
+                }
+                if (matched) {
+                    break;
+                }
+            }
+            if (field >= 0) {
+                hit.setField(names[field]);
+                hit.setSnippet(SearchText.highlight(texts[field], tokens));
+            }
+            return hit;
+        });
+    }
+}
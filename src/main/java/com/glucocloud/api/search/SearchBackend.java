@@ -0,0 +1,16 @@
+package com.glucocloud.api.search;
+
+import com.glucocloud.api.dto.SearchResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Full-text search over a user's meals, medications and glucose notes. Implementations
+ * return hits in {@link SearchCursor#ORDER}, starting strictly after the cursor when one
+ * is given. Snippets are HTML-escaped with the matched words wrapped in {@code <mark>}.
+ */
+public interface SearchBackend {
+
+    List<SearchResponse.Hit> search(UUID userId, List<String> tokens, SearchCursor after, int limit);
+}
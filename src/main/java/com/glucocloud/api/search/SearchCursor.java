@@ -0,0 +1,51 @@
+package com.glucocloud.api.search;
+
+import com.glucocloud.api.dto.SearchResponse;
+import com.glucocloud.api.event.EntityChangedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Keyset position in a result list ordered by score, time, type and id, all
+ * descending. Every backend orders hits this way, so a page continues strictly after
+ * the last hit of the previous one no matter how much history precedes it.
+ */
+public record SearchCursor(double score, LocalDateTime occurredAt, EntityChangedEvent.EntityType type, UUID id) {
+
+    public static final Comparator<SearchResponse.Hit> ORDER = Comparator
+            .comparingDouble(SearchResponse.Hit::getScore)
+            .thenComparing(SearchResponse.Hit::getOccurredAt)
+            .thenComparing(hit -> hit.getType().name())
+            .thenComparing(hit -> hit.getId().toString())
+            .reversed();
+
+    public static SearchCursor of(SearchResponse.Hit hit) {
+        return new SearchCursor(hit.getScore(), hit.getOccurredAt(), hit.getType(), hit.getId());
+    }
+
+    /** Whether the hit sorts strictly after this position. */
+    public boolean precedes(SearchResponse.Hit hit) {
+        SearchResponse.Hit position = SearchResponse.Hit.builder()
+                .score(score).occurredAt(occurredAt).type(type).id(id).build();
+        return ORDER.compare(position, hit) < 0;
+    }
+
+    public String encode() {
+        String raw = score + "|" + occurredAt + "|" + type + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new SearchCursor(Double.parseDouble(parts[0]), LocalDateTime.parse(parts[1]),
+                    EntityChangedEvent.EntityType.valueOf(parts[2]), UUID.fromString(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.glucocloud.api.search;
+
+import com.glucocloud.api.dto.SearchResponse;
+import com.glucocloud.api.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final SearchBackend searchBackend;
+
+    public SearchResponse search(User user, String query, String cursor, int limit) {
+        List<String> tokens = SearchText.queryTokens(query);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // One extra hit tells whether another page follows
+        List<SearchResponse.Hit> hits = searchBackend.search(user.getId(), tokens, after, pageSize + 1);
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            nextCursor = SearchCursor.of(hits.get(pageSize - 1)).encode();
+        }
+
+        return SearchResponse.builder()
+                .query(query)
+                .hits(hits)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
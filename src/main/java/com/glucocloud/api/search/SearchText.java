@@ -0,0 +1,121 @@
+package com.glucocloud.api.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizing and highlighting shared by the search backends. Words are runs of letters
+ * and digits, lower-cased; query tokens match any word they are a prefix of.
+ */
+public final class SearchText {
+
+    static final int MAX_QUERY_TOKENS = 8;
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int SNIPPET_LENGTH = 160;
+    private static final int SNIPPET_LEAD = 40;
+
+    private SearchText() {
+    }
+
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            Matcher matcher = WORD.matcher(text);
+            while (matcher.find()) {
+                words.add(matcher.group().toLowerCase(Locale.ROOT));
+            }
+        }
+        return words;
+    }
+
+    /** Distinct query tokens, at most {@value #MAX_QUERY_TOKENS}. */
+    public static List<String> queryTokens(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(words(query)));
+        return tokens.size() > MAX_QUERY_TOKENS ? tokens.subList(0, MAX_QUERY_TOKENS) : tokens;
+    }
+
+    public static boolean matches(String text, List<String> tokens) {
+        for (String word : words(text)) {
+            for (String token : tokens) {
+                if (word.startsWith(token)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * HTML-escaped excerpt of the text around the first match, with every word a token
+     * is a prefix of wrapped in {@code <mark>}.
+     */
+    public static String highlight(String text, List<String> tokens) {
+        List<int[]> marks = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String word = matcher.group().toLowerCase(Locale.ROOT);
+            for (String token : tokens) {
+                if (word.startsWith(token)) {
+                    marks.add(new int[]{matcher.start(), matcher.end()});
+                    break;
+                }
+            }
+        }
+
+        int start = 0;
+        if (!marks.isEmpty() && marks.get(0)[0] > SNIPPET_LEAD && text.length() > SNIPPET_LENGTH) {
+            start = marks.get(0)[0] - SNIPPET_LEAD;
+            while (start < marks.get(0)[0] && !Character.isWhitespace(text.charAt(start - 1))) {
+                start++;
+            }
+        }
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append('…');
+        }
+        int at = start;
+        for (int[] mark : marks) {
+            if (mark[0] < start) {
+                continue;
+            }
+            if (mark[1] > end) {
+                break;
+            }
+            escape(snippet, text, at, mark[0]);
+            snippet.append("<mark>");
+            escape(snippet, text, mark[0], mark[1]);
+            snippet.append("</mark>");
+            at = mark[1];
+        }
+        escape(snippet, text, at, end);
+        if (end < text.length()) {
+            snippet.append('…');
+        }
+        return snippet.toString();
+    }
+
+    static String readingTitle(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString() + " mg/dL";
+    }
+
+    private static void escape(StringBuilder out, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.glucocloud.api.search;
+
+import com.glucocloud.api.dto.SearchResponse;
+import com.glucocloud.api.event.EntityChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Inverted index over one user's searchable text. Terms live in a sorted map so a
+ * query token expands to the run of terms it prefixes; each posting list maps a
+ * document to its term frequency. Hits must match every token and are scored with
+ * BM25, prefix expansions counting a little less than exact words. Callers synchronize.
+ */
+class UserTextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.8;
+
+    record Field(String name, String text) {
+    }
+
+    static final class Doc {
+        private final EntityChangedEvent.EntityType type;
+        private final UUID id;
+        private final LocalDateTime occurredAt;
+        private final String title;
+        private final List<Field> fields;
+        private final Map<String, Integer> frequencies = new HashMap<>();
+        private int length;
+
+        Doc(EntityChangedEvent.EntityType type, UUID id, LocalDateTime occurredAt, String title, List<Field> fields) {
+            this.type = type;
+            this.id = id;
+            this.occurredAt = occurredAt;
+            this.title = title;
+            this.fields = fields;
+            for (Field field : fields) {
+                for (String word : SearchText.words(field.text())) {
+                    frequencies.merge(word, 1, Integer::sum);
+                    length++;
+                }
+            }
+        }
+    }
+
+    private record Key(EntityChangedEvent.EntityType type, UUID id) {
+    }
+
+    private final Map<Key, Doc> docs = new HashMap<>();
+    private final TreeMap<String, Map<Doc, Integer>> postings = new TreeMap<>();
+    private long totalLength;
+
+    /** Adds the document, replacing any earlier version of it. */
+    void put(Doc doc) {
+        remove(doc.type, doc.id);
+        if (doc.length == 0) {
+            return;
+        }
+        docs.put(new Key(doc.type, doc.id), doc);
+        totalLength += doc.length;
+        doc.frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(doc, frequency));
+    }
+
+    void remove(EntityChangedEvent.EntityType type, UUID id) {
+        Doc doc = docs.remove(new Key(type, id));
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length;
+        for (String term : doc.frequencies.keySet()) {
+            Map<Doc, Integer> posting = postings.get(term);
+            posting.remove(doc);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    int size() {
+        return docs.size();
+    }
+
+    /** The page of hits matching every token that follows the cursor, highlighted. */
+    List<SearchResponse.Hit> search(List<String> tokens, SearchCursor after, int limit) {
+        if (tokens.isEmpty() || docs.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map<Doc, Double>> perToken = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Map<Doc, Double> scores = scoreToken(token);
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+            perToken.add(scores);
+        }
+        perToken.sort(Comparator.comparingInt(Map::size));
+
+        List<SearchResponse.Hit> hits = new ArrayList<>();
+        Map<SearchResponse.Hit, Doc> hitDocs = new IdentityHashMap<>();
+        candidates:
+        for (Map.Entry<Doc, Double> candidate : perToken.get(0).entrySet()) {
+            double score = candidate.getValue();
+            for (int i = 1; i < perToken.size(); i++) {
+                Double tokenScore = perToken.get(i).get(candidate.getKey());
+                if (tokenScore == null) {
+                    continue candidates;
+                }
+                score += tokenScore;
+            }
+            Doc doc = candidate.getKey();
+            SearchResponse.Hit hit = SearchResponse.Hit.builder()
+                    .type(doc.type)
+                    .id(doc.id)
+                    .occurredAt(doc.occurredAt)
+                    .title(doc.title)
+                    .score(score)
+                    .build();
+            if (after == null || after.precedes(hit)) {
+                hits.add(hit);
+                hitDocs.put(hit, doc);
+            }
+        }
+
+        // Only the returned page is sorted fully and highlighted
+        List<SearchResponse.Hit> page = topHits(hits, limit);
+        for (SearchResponse.Hit hit : page) {
+            highlight(hit, hitDocs.get(hit), tokens);
+        }
+        return page;
+    }
+
+    private static List<SearchResponse.Hit> topHits(List<SearchResponse.Hit> hits, int limit) {
+        PriorityQueue<SearchResponse.Hit> top = new PriorityQueue<>(limit + 1, SearchCursor.ORDER.reversed());
+        for (SearchResponse.Hit hit : hits) {
+            top.add(hit);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<SearchResponse.Hit> page = new ArrayList<>(top);
+        page.sort(SearchCursor.ORDER);
+        return page;
+    }
+
+    private Map<Doc, Double> scoreToken(String token) {
+        double averageLength = (double) totalLength / docs.size();
+        Map<Doc, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Doc, Integer>> term : postings.subMap(token, token + Character.MAX_VALUE).entrySet()) {
+            Map<Doc, Integer> posting = term.getValue();
+            double idf = Math.log(1 + (docs.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+            double weight = term.getKey().equals(token) ? 1.0 : PREFIX_WEIGHT;
+            for (Map.Entry<Doc, Integer> entry : posting.entrySet()) {
+                Doc doc = entry.getKey();
+                int tf = entry.getValue();
+                double score = weight * idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * doc.length / averageLength));
+                scores.merge(doc, score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static void highlight(SearchResponse.Hit hit, Doc doc, List<String> tokens) {
+        Field field = doc.fields.get(0);
+        for (Field candidate : doc.fields) {
+            if (SearchText.matches(candidate.text(), tokens)) {
+                field = candidate;
+                break;
+            }
+        }
+        hit.setField(field.name());
+        hit.setSnippet(SearchText.highlight(field.text(), tokens));
+    }
+}
@@ -0,0 +1,231 @@
+package com.glucocloud.api.series;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps chunks in an embedded engine: one {@link SeriesSegmentLog} directory per user
+ * under the configured directory, opened on first use and closed again when more than
+ * max-open-users are open. Nothing here takes part in database transactions, so a
+ * write inside one first appends a removal of the day, synced before the transaction
+ * commits, and appends the chunk itself once it has committed. A crash or rollback in
+ * between leaves the day without a chunk rather than with a wrong one. Sequence numbers
+ * are taken while the caller holds the user's change lock, so a chunk appended late by
+ * an earlier transaction cannot replace a later one.
+ *
+ * <p>fsync: {@code always} syncs every append; {@code interval} syncs the pre-commit
+ * removals at once and everything else every fsync-interval-ms; {@code never} leaves
+ * it to the OS.
+ *
+ * <p>Only the chunks, which are derived from the readings, live here. Readings are still
+ * written to and read from the database through GlucoseReadingRepository, so choosing
+ * {@code glucocloud.series.store=file} does not move reading persistence off the database.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "glucocloud.series.store", havingValue = "file")
+public class FileGlucoseSeriesStore implements GlucoseSeriesStore {
+
+    public enum FsyncPolicy {
+        ALWAYS, INTERVAL, NEVER
+    }
+
+    private final Path directory;
+    private final FsyncPolicy fsync;
+    private final long segmentBytes;
+    private final int maxOpenUsers;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<UUID, SeriesSegmentLog> logs;
+
+    public FileGlucoseSeriesStore(@Value("${glucocloud.series.file.directory:data/series}") String directory,
+                                  @Value("${glucocloud.series.file.fsync:interval}") String fsync,
+                                  @Value("${glucocloud.series.file.segment-bytes:8388608}") long segmentBytes,
+                                  @Value("${glucocloud.series.file.max-open-users:256}") int maxOpenUsers) {
+        this.directory = Path.of(directory);
+        this.fsync = FsyncPolicy.valueOf(fsync.toUpperCase(Locale.ROOT));
+        this.segmentBytes = segmentBytes;
+        this.maxOpenUsers = maxOpenUsers;
+        this.logs = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    @Override
+    public NavigableMap<LocalDate, byte[]> read(UUID userId, LocalDate fromDay, LocalDate toDay) {
+        return withLog(userId, false, userLog -> userLog == null ? new TreeMap<>() : userLog.read(fromDay, toDay));
+    }
+
+    @Override
+    public Set<LocalDate> days(UUID userId, LocalDate fromDay, LocalDate toDay) {
+        return withLog(userId, false, userLog -> userLog == null ? new HashSet<>() : userLog.days(fromDay, toDay));
+    }
+
+    @Override
+    public void write(UUID userId, LocalDate day, byte[] chunk, int count) {
+        long seq = withLog(userId, true, userLog -> {
+            long next = sequence.incrementAndGet();
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                userLog.append(next, day, chunk, count, fsync == FsyncPolicy.ALWAYS);
+                return -1L;
+            }
+            userLog.append(next, day, null, 0, fsync != FsyncPolicy.NEVER);
+            return next;
+        });
+        if (seq < 0 || chunk == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                withLog(userId, true, userLog -> userLog.append(seq, day, chunk, count, fsync == FsyncPolicy.ALWAYS));
+            }
+        });
+    }
+
+    @Override
+    public boolean isEmpty(UUID userId) {
+        return withLog(userId, false, userLog -> userLog == null || userLog.isEmpty());
+    }
+
+    @Override
+    public int delete(UUID userId, int limit) {
+        SeriesSegmentLog userLog;
+        synchronized (logs) {
+            userLog = logs.remove(userId);
+        }
+        Path userDirectory = userDirectory(userId);
+        try {
+            if (userLog == null) {
+                if (!Files.isDirectory(userDirectory)) {
+                    return 0;
+                }
+                userLog = SeriesSegmentLog.open(userDirectory, segmentBytes);
+            }
+            synchronized (userLog) {
+                int days = userLog.days(LocalDate.MIN, LocalDate.MAX).size();
+                userLog.delete();
+                return days;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${glucocloud.series.file.fsync-interval-ms:1000}")
+    public void syncDirty() {
+        if (fsync != FsyncPolicy.INTERVAL) {
+            return;
+        }
+        List<SeriesSegmentLog> open;
+        synchronized (logs) {
+            open = new ArrayList<>(logs.values());
+        }
+        for (SeriesSegmentLog userLog : open) {
+            synchronized (userLog) {
+                try {
+                    if (!userLog.isClosed() && userLog.isDirty()) {
+                        userLog.force();
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not sync series segments: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (logs) {
+            for (SeriesSegmentLog userLog : logs.values()) {
+                synchronized (userLog) {
+                    closeQuietly(userLog);
+                }
+            }
+            logs.clear();
+        }
+    }
+
+    private interface LogAction<T> {
+        T apply(SeriesSegmentLog userLog) throws IOException;
+    }
+
+    // Runs the action on the user's open log, or on null when the user has none and create is false
+    private <T> T withLog(UUID userId, boolean create, LogAction<T> action) {
+        try {
+            while (true) {
+                SeriesSegmentLog userLog = open(userId, create);
+                if (userLog == null) {
+                    return action.apply(null);
+                }
+                synchronized (userLog) {
+                    if (!userLog.isClosed()) {
+                        return action.apply(userLog);
+                    }
+                }
+                // Evicted between open and use
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SeriesSegmentLog open(UUID userId, boolean create) throws IOException {
+        SeriesSegmentLog evicted = null;
+        SeriesSegmentLog userLog;
+        synchronized (logs) {
+            userLog = logs.get(userId);
+            if (userLog == null) {
+                Path userDirectory = userDirectory(userId);
+                if (!create && !Files.isDirectory(userDirectory)) {
+                    return null;
+                }
+                userLog = SeriesSegmentLog.open(userDirectory, segmentBytes);
+                if (userLog.truncatedBytes() > 0) {
+                    log.warn("Recovered series segments of user {}: dropped {} bytes of torn writes",
+                            userId, userLog.truncatedBytes());
+                }
+                long maxSequence = userLog.maxSequence();
+                sequence.accumulateAndGet(maxSequence, Math::max);
+                logs.put(userId, userLog);
+                if (logs.size() > maxOpenUsers) {
+                    Iterator<SeriesSegmentLog> eldest = logs.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        if (evicted != null) {
+            synchronized (evicted) {
+                if (evicted.isDirty()) {
+                    evicted.force();
+                }
+                closeQuietly(evicted);
+            }
+        }
+        return userLog;
+    }
+
+    private Path userDirectory(UUID userId) {
+        return directory.resolve(userId.toString());
+    }
+
+    private static void closeQuietly(SeriesSegmentLog segmentLog) {
+        try {
+            segmentLog.close();
+        } catch (IOException e) {
+            log.warn("Could not close series segments: {}", e.getMessage());
+        }
+    }
+}
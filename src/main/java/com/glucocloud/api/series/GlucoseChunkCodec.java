@@ -0,0 +1,173 @@
+package com.glucocloud.api.series;
+
+import com.glucocloud.api.analytics.GlucoseSeries;
+
+import java.util.Arrays;
+
+/**
+ * Compact encoding of one chunk of a glucose series, after the Gorilla time-series
+ * format but aligned to bytes: timestamps are whole seconds stored as the first value,
+ * the first delta and then delta-of-deltas, values are fixed-point deltas, and every
+ * number is a zigzag varint. Regular sensor data (a reading every five minutes, values
+ * moving a few mg/dL) takes about two bytes a reading.
+ *
+ * <pre>
+ * byte    format (1)
+ * varint  count
+ * byte    scale: 0 = hundredths of mg/dL, 1 = whole mg/dL
+ * varlong first timestamp, zigzag varlong first delta, zigzag varlong delta-of-deltas...
+ * zigzag varint first value, zigzag varint value deltas...
+ * </pre>
+ */
+public final class GlucoseChunkCodec {
+
+    private static final int FORMAT = 1;
+    private static final int SCALE_HUNDREDTHS = 0;
+    private static final int SCALE_WHOLE = 1;
+
+    private GlucoseChunkCodec() {
+    }
+
+    /** Encodes the first {@code count} points; values are rounded to hundredths. */
+    public static byte[] encode(long[] timestamps, double[] values, int count) {
+        int[] fixed = new int[count];
+        boolean whole = true;
+        for (int i = 0; i < count; i++) {
+            fixed[i] = Math.toIntExact(Math.round(values[i] * 100));
+            whole &= fixed[i] % 100 == 0;
+        }
+
+        Writer out = new Writer(8 + count * 3);
+        out.writeByte(FORMAT);
+        out.writeUnsigned(count);
+        out.writeByte(whole ? SCALE_WHOLE : SCALE_HUNDREDTHS);
+        if (count == 0) {
+            return out.toByteArray();
+        }
+
+        out.writeUnsigned(timestamps[0]);
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            out.writeSigned(i == 1 ? delta : delta - previousDelta);
+            previousDelta = delta;
+        }
+
+        int divisor = whole ? 100 : 1;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int value = fixed[i] / divisor;
+            out.writeSigned(value - previous);
+            previous = value;
+        }
+        return out.toByteArray();
+    }
+
+    public static int count(byte[] chunk) {
+        Reader in = new Reader(chunk);
+        return (int) in.readUnsigned();
+    }
+
+    /** Appends every point of the chunk to the series; returns the number appended. */
+    public static int decode(byte[] chunk, GlucoseSeries into) {
+        return decode(chunk, Long.MIN_VALUE, Long.MAX_VALUE, into);
+    }
+
+    /** Appends the points within [fromSecond, toSecond]; returns the number appended. */
+    public static int decode(byte[] chunk, long fromSecond, long toSecond, GlucoseSeries into) {
+        Reader in = new Reader(chunk);
+        int count = (int) in.readUnsigned();
+        if (count == 0) {
+            return 0;
+        }
+        boolean whole = in.readByte() == SCALE_WHOLE;
+
+        // Timestamps precede the values, so decode them into a scratch array first
+        long[] timestamps = new long[count];
+        timestamps[0] = in.readUnsigned();
+        long delta = 0;
+        for (int i = 1; i < count; i++) {
+            delta = i == 1 ? in.readSigned() : delta + in.readSigned();
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+
+        int added = 0;
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value += in.readSigned();
+            if (timestamps[i] >= fromSecond && timestamps[i] <= toSecond) {
+                // Hundredths are divided rather than multiplied so 123.45 decodes to the double 123.45
+                into.add(timestamps[i], whole ? value : value / 100.0);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int length;
+
+        Writer(int capacity) {
+            buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeByte(int b) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        void writeUnsigned(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeSigned(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+            if (buffer.length == 0 || buffer[0] != FORMAT) {
+                throw new IllegalArgumentException("Unsupported glucose chunk format");
+            }
+            position = 1;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        long readUnsigned() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        long readSigned() {
+            long raw = readUnsigned();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.glucocloud.api.series;
+
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.GlucoseArchiveRepository;
+import com.glucocloud.api.repository.GlucosePoint;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.retention.GlucoseArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Maintains one encoded chunk per user-day of glucose readings and serves series reads
+ * from them. A transaction that changes readings rebuilds the chunks of the days it
+ * touched just before it commits, while it still holds the per-user lock the sync feed
+ * takes for every change, so a chunk never disagrees with the committed rows. Days that
+ * have no chunk yet (history from before chunks, until the backfill job reaches it) are
+ * read from the rows and the archive as before.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class GlucoseChunkService {
+
+    private final GlucoseSeriesStore seriesStore;
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final GlucoseArchiveRepository glucoseArchiveRepository;
+    private final GlucoseArchiveService glucoseArchiveService;
+
+    @EventListener
+    public void onReadingChanged(EntityChangedEvent<GlucoseReadingResponse> event) {
+        Set<DayKey> days = pendingDays();
+        if (event.getBefore() != null) {
+            days.add(new DayKey(event.getUserId(), event.getBefore().getTakenAt().toLocalDate()));
+        }
+        if (event.getAfter() != null) {
+            days.add(new DayKey(event.getUserId(), event.getAfter().getTakenAt().toLocalDate()));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            days.forEach(key -> rebuildDay(key.userId(), key.day()));
+        }
+    }
+
+    /** Re-encodes one day from the rows and the archive; returns false if it has no readings. */
+    public boolean rebuildDay(UUID userId, LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        List<GlucosePoint> hot = glucoseReadingRepository.findPointsByUserIdInRange(userId, start, day.plusDays(1).atStartOfDay());
+        List<GlucoseReading> archived = glucoseArchiveService.findArchived(userId, start, day.atTime(LocalTime.MAX));
+
+        int count = hot.size() + archived.size();
+        if (count == 0) {
+            seriesStore.write(userId, day, null, 0);
+            return false;
+        }
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        int i = 0;
+        int h = 0;
+        // Both oldest first: the archive list is newest first, so walk it backwards
+        for (int a = archived.size() - 1; h < hot.size() || a >= 0; i++) {
+            boolean takeHot = a < 0 || (h < hot.size()
+                    && hot.get(h).getTakenAt().isBefore(archived.get(a).getTakenAt()));
+            LocalDateTime takenAt = takeHot ? hot.get(h).getTakenAt() : archived.get(a).getTakenAt();
+            values[i] = (takeHot ? hot.get(h++).getReadingValue() : archived.get(a--).getReadingValue()).doubleValue();
+            timestamps[i] = GlucoseSeries.toEpochSecond(takenAt);
+        }
+        seriesStore.write(userId, day, GlucoseChunkCodec.encode(timestamps, values, count), count);
+        return true;
+    }
+
+    /** Builds the chunks of the days of [fromDay, toDay] that have none; returns the number built. */
+    public int buildMissing(UUID userId, LocalDate fromDay, LocalDate toDay) {
+        Set<LocalDate> existing = seriesStore.days(userId, fromDay, toDay);
+        int built = 0;
+        for (LocalDate day = fromDay; !day.isAfter(toDay); day = day.plusDays(1)) {
+            if (!existing.contains(day) && rebuildDay(userId, day)) {
+                built++;
+            }
+        }
+        return built;
+    }
+
+    public record ReadingDays(LocalDate first, LocalDate last) {
+    }
+
+    /** Days of the user's oldest and newest readings, hot or archived; null if there are none. */
+    @Transactional(readOnly = true)
+    public ReadingDays readingDays(UUID userId) {
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (Object[] bounds : Arrays.asList(glucoseReadingRepository.findTakenAtBounds(userId).get(0),
+                glucoseArchiveRepository.findTakenAtBounds(userId).get(0))) {
+            if (bounds[0] != null) {
+                first = first == null || ((LocalDateTime) bounds[0]).isBefore(first) ? (LocalDateTime) bounds[0] : first;
+                last = last == null || ((LocalDateTime) bounds[1]).isAfter(last) ? (LocalDateTime) bounds[1] : last;
+            }
+        }
+        return first == null ? null : new ReadingDays(first.toLocalDate(), last.toLocalDate());
+    }
+
+    public boolean hasChunk(UUID userId, LocalDate day) {
+        return !seriesStore.days(userId, day, day).isEmpty();
+    }
+
+    /**
+     * The user's readings taken in [from, to], oldest first, hot and archived. Chunks of
+     * the days wholly inside the range are decoded straight into the series; chunks keep
+     * whole seconds only, so the partial days at its edges are read from the rows.
+     */
+    @Transactional(readOnly = true)
+    public GlucoseSeries readSeries(User user, LocalDateTime from, LocalDateTime to) {
+        GlucoseSeries series = new GlucoseSeries();
+        if (from.isAfter(to)) {
+            return series;
+        }
+        LocalDate toDay = to.toLocalDate();
+        LocalDate firstWhole = from.toLocalTime().equals(LocalTime.MIDNIGHT) ? from.toLocalDate() : from.toLocalDate().plusDays(1);
+        LocalDate lastWhole = to.toLocalTime().equals(LocalTime.MAX) ? toDay : toDay.minusDays(1);
+        NavigableMap<LocalDate, byte[]> chunks = firstWhole.isAfter(lastWhole)
+                ? Collections.emptyNavigableMap() : seriesStore.read(user.getId(), firstWhole, lastWhole);
+
+        LocalDate day = from.toLocalDate();
+        while (!day.isAfter(toDay)) {
+            byte[] chunk = chunks.get(day);
+            if (chunk != null) {
+                GlucoseChunkCodec.decode(chunk, series);
+                day = day.plusDays(1);
+                continue;
+            }
+            // A run of days without chunks, read from the rows in one pass
+            LocalDate next = chunks.higherKey(day);
+            LocalDate runEnd = next == null ? toDay : next.minusDays(1);
+            LocalDateTime runFrom = day.atStartOfDay().isAfter(from) ? day.atStartOfDay() : from;
+            LocalDateTime runTo = runEnd.atTime(LocalTime.MAX).isBefore(to) ? runEnd.atTime(LocalTime.MAX) : to;
+            appendRows(user, runFrom, runTo, series);
+            day = runEnd.plusDays(1);
+        }
+        return series;
+    }
+
+    private void appendRows(User user, LocalDateTime from, LocalDateTime to, GlucoseSeries series) {
+        // Archived readings are interleaved by time; oldest at the tail of the deque
+        Deque<GlucoseReading> archived = new ArrayDeque<>(glucoseArchiveService.findArchived(user.getId(), from, to));
+        try (Stream<GlucosePoint> stream = glucoseReadingRepository.streamPointsByUserAndDateRange(user, from, to)) {
+            stream.forEach(point -> {
+                while (!archived.isEmpty() && !archived.peekLast().getTakenAt().isAfter(point.getTakenAt())) {
+                    GlucoseReading older = archived.pollLast();
+                    series.add(older.getTakenAt(), older.getReadingValue().doubleValue());
+                }
+                series.add(point.getTakenAt(), point.getReadingValue().doubleValue());
+            });
+        }
+        while (!archived.isEmpty()) {
+            GlucoseReading older = archived.pollLast();
+            series.add(older.getTakenAt(), older.getReadingValue().doubleValue());
+        }
+    }
+
+    // The days changed in the current transaction, rebuilt once each just before it commits
+    @SuppressWarnings("unchecked")
+    private Set<DayKey> pendingDays() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new LinkedHashSet<>();
+        }
+        Set<DayKey> days = (Set<DayKey>) TransactionSynchronizationManager.getResource(this);
+        if (days != null) {
+            return days;
+        }
+        Set<DayKey> pending = new LinkedHashSet<>();
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(GlucoseChunkService.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(GlucoseChunkService.this, pending);
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                pending.forEach(key -> rebuildDay(key.userId(), key.day()));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(GlucoseChunkService.this);
+            }
+        });
+        return pending;
+    }
+
+    private record DayKey(UUID userId, LocalDate day) {
+    }
+}
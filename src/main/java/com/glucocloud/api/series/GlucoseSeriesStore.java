@@ -0,0 +1,30 @@
+package com.glucocloud.api.series;
+
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Where encoded user-day chunks are kept. Chunks are opaque {@link GlucoseChunkCodec}
+ * bytes. A write made inside a transaction is seen by readers no later than its commit
+ * and never outlives a rollback as the day's current chunk, although the day may then
+ * read as having none; callers rebuild such days from the rows, which stay in the
+ * database whichever store is used.
+ */
+public interface GlucoseSeriesStore {
+
+    /** The user's chunks of [fromDay, toDay], by day. */
+    NavigableMap<LocalDate, byte[]> read(UUID userId, LocalDate fromDay, LocalDate toDay);
+
+    /** The days of [fromDay, toDay] that have a chunk. */
+    Set<LocalDate> days(UUID userId, LocalDate fromDay, LocalDate toDay);
+
+    /** Stores the day's chunk, replacing any previous one; a null chunk removes it. */
+    void write(UUID userId, LocalDate day, byte[] chunk, int count);
+
+    boolean isEmpty(UUID userId);
+
+    /** Removes up to about limit of the user's chunks; returns the number removed. */
+    int delete(UUID userId, int limit);
+}
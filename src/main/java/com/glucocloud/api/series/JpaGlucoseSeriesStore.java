@@ -0,0 +1,75 @@
+package com.glucocloud.api.series;
+
+import com.glucocloud.api.entity.GlucoseChunk;
+import com.glucocloud.api.repository.GlucoseChunkRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/** Keeps chunks in the glucose_chunks table, one row per user-day. */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@ConditionalOnProperty(name = "glucocloud.series.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaGlucoseSeriesStore implements GlucoseSeriesStore {
+
+    private final GlucoseChunkRepository chunkRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public NavigableMap<LocalDate, byte[]> read(UUID userId, LocalDate fromDay, LocalDate toDay) {
+        NavigableMap<LocalDate, byte[]> chunks = new TreeMap<>();
+        for (GlucoseChunk chunk : chunkRepository.findByUserIdAndDayBetweenOrderByDay(userId, fromDay, toDay)) {
+            chunks.put(chunk.getDay(), chunk.getData());
+        }
+        return chunks;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<LocalDate> days(UUID userId, LocalDate fromDay, LocalDate toDay) {
+        return new HashSet<>(chunkRepository.findDays(userId, fromDay, toDay));
+    }
+
+    @Override
+    public void write(UUID userId, LocalDate day, byte[] chunk, int count) {
+        GlucoseChunk row = chunkRepository.findByUserIdAndDay(userId, day).orElse(null);
+        if (chunk == null) {
+            if (row != null) {
+                chunkRepository.delete(row);
+            }
+            return;
+        }
+        if (row == null) {
+            row = GlucoseChunk.builder().userId(userId).day(day).build();
+        }
+        row.setReadingCount(count);
+        row.setData(chunk);
+        chunkRepository.save(row);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty(UUID userId) {
+        return chunkRepository.findIdsByUserId(userId, PageRequest.of(0, 1)).isEmpty();
+    }
+
+    @Override
+    public int delete(UUID userId, int limit) {
+        List<UUID> ids = chunkRepository.findIdsByUserId(userId, PageRequest.of(0, limit));
+        if (!ids.isEmpty()) {
+            chunkRepository.deleteAllByIdInBatch(ids);
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,323 @@
+package com.glucocloud.api.series;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * One user's day chunks as an append-only log of numbered segment files. Every write
+ * appends a record; the record with the highest sequence number for a day wins, so a
+ * late append carrying an older sequence never overrides a newer one. Records are read
+ * through a read-only mapping of their segment. Opening a log scans its segments, checks
+ * every record's checksum and truncates a segment at the first record that fails (a
+ * write torn by a crash). Superseded records are dropped by rewriting the live ones into
+ * a new segment once they outweigh them. Not thread-safe; callers synchronize.
+ *
+ * <pre>
+ * record   payload length (4), CRC32 of payload (4), payload
+ * payload  sequence (8), epoch day (8), reading count (4, -1 = removed), chunk bytes
+ * </pre>
+ */
+public final class SeriesSegmentLog implements Closeable {
+
+    static final String SUFFIX = ".seg";
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_PAYLOAD_BYTES = 20;
+    private static final int REMOVED = -1;
+    private static final long MIN_COMPACT_BYTES = 64 * 1024;
+
+    /** The newest record of a day. */
+    private record Entry(long sequence, Segment segment, long offset, int length, int count) {
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final TreeMap<Long, Entry> index = new TreeMap<>();
+    private long totalBytes;
+    private long liveBytes;
+    private long maxSequence;
+    private long truncatedBytes;
+    private boolean dirty;
+    private boolean closed;
+
+    private SeriesSegmentLog(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static SeriesSegmentLog open(Path directory, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        SeriesSegmentLog log = new SeriesSegmentLog(directory, segmentBytes);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int number = Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+            log.segments.put(number, new Segment(number, file));
+        }
+        try {
+            for (Segment segment : log.segments.values()) {
+                log.recover(segment);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    public long maxSequence() {
+        return maxSequence;
+    }
+
+    /** Bytes cut off the segments by recovery when the log was opened. */
+    public long truncatedBytes() {
+        return truncatedBytes;
+    }
+
+    public boolean isEmpty() {
+        ensureOpen();
+        return index.values().stream().allMatch(entry -> entry.count() == REMOVED);
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /** Appends a day's chunk, or its removal when chunk is null; returns false if a newer record exists. */
+    public boolean append(long sequence, LocalDate day, byte[] chunk, int count, boolean force) throws IOException {
+        ensureOpen();
+        Entry current = index.get(day.toEpochDay());
+        if (current != null && current.sequence() > sequence) {
+            return false;
+        }
+        byte[] data = chunk != null ? chunk : new byte[0];
+        ByteBuffer record = record(sequence, day.toEpochDay(), chunk != null ? count : REMOVED, data);
+        Segment segment = activeSegment(record.remaining());
+        totalBytes += record.remaining();
+        long offset = segment.append(record);
+        put(day.toEpochDay(), new Entry(sequence, segment, offset, data.length, chunk != null ? count : REMOVED));
+        if (force) {
+            segment.channel.force(false);
+        } else {
+            dirty = true;
+        }
+        compactIfWasteful();
+        return true;
+    }
+
+    /** The chunks of [fromDay, toDay], by day. */
+    public NavigableMap<LocalDate, byte[]> read(LocalDate fromDay, LocalDate toDay) throws IOException {
+        ensureOpen();
+        NavigableMap<LocalDate, byte[]> chunks = new TreeMap<>();
+        for (Map.Entry<Long, Entry> found : index.subMap(fromDay.toEpochDay(), true, toDay.toEpochDay(), true).entrySet()) {
+            Entry entry = found.getValue();
+            if (entry.count() != REMOVED) {
+                chunks.put(LocalDate.ofEpochDay(found.getKey()), entry.segment().read(entry.offset(), entry.length()));
+            }
+        }
+        return chunks;
+    }
+
+    public Set<LocalDate> days(LocalDate fromDay, LocalDate toDay) {
+        ensureOpen();
+        Set<LocalDate> days = new HashSet<>();
+        index.subMap(fromDay.toEpochDay(), true, toDay.toEpochDay(), true).forEach((day, entry) -> {
+            if (entry.count() != REMOVED) {
+                days.add(LocalDate.ofEpochDay(day));
+            }
+        });
+        return days;
+    }
+
+    public void force() throws IOException {
+        ensureOpen();
+        if (!segments.isEmpty()) {
+            segments.lastEntry().getValue().channel.force(false);
+        }
+        dirty = false;
+    }
+
+    /** Closes the log and deletes its files. */
+    public void delete() throws IOException {
+        close();
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : listing.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    // Rewrites the newest record of every day into a new segment, then drops the old ones
+    private void compactIfWasteful() throws IOException {
+        if (totalBytes < MIN_COMPACT_BYTES || totalBytes < 2 * liveBytes) {
+            return;
+        }
+        List<Segment> old = new ArrayList<>(segments.values());
+        Segment target = newSegment();
+        for (Map.Entry<Long, Entry> found : new ArrayList<>(index.entrySet())) {
+            Entry entry = found.getValue();
+            byte[] data = entry.segment().read(entry.offset(), entry.length());
+            long offset = target.append(record(entry.sequence(), found.getKey(), entry.count(), data));
+            found.setValue(new Entry(entry.sequence(), target, offset, entry.length(), entry.count()));
+        }
+        // The copy is durable before the originals go; a crash in between leaves duplicates that recovery resolves
+        target.channel.force(false);
+        for (Segment segment : old) {
+            segment.channel.close();
+            Files.deleteIfExists(segment.file);
+            segments.remove(segment.number);
+        }
+        totalBytes = target.size;
+        liveBytes = target.size;
+        dirty = false;
+    }
+
+    private void recover(Segment segment) throws IOException {
+        long size = segment.channel.size();
+        ByteBuffer buffer = segment.map(size);
+        long position = 0;
+        while (position + HEADER_BYTES + FIXED_PAYLOAD_BYTES <= size) {
+            int length = buffer.getInt((int) position);
+            if (length < FIXED_PAYLOAD_BYTES || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            int checksum = buffer.getInt((int) position + 4);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice((int) position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            int payload = (int) position + HEADER_BYTES;
+            long sequence = buffer.getLong(payload);
+            long epochDay = buffer.getLong(payload + 8);
+            int count = buffer.getInt(payload + 16);
+            Entry current = index.get(epochDay);
+            if (current == null || current.sequence() <= sequence) {
+                put(epochDay, new Entry(sequence, segment, position, length - FIXED_PAYLOAD_BYTES, count));
+            }
+            totalBytes += HEADER_BYTES + length;
+            maxSequence = Math.max(maxSequence, sequence);
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            truncatedBytes += size - position;
+            segment.channel.truncate(position);
+            segment.channel.force(false);
+        }
+        segment.size = position;
+    }
+
+    private void put(long epochDay, Entry entry) {
+        Entry previous = index.put(epochDay, entry);
+        if (previous != null) {
+            liveBytes -= HEADER_BYTES + FIXED_PAYLOAD_BYTES + previous.length();
+        }
+        liveBytes += HEADER_BYTES + FIXED_PAYLOAD_BYTES + entry.length();
+        maxSequence = Math.max(maxSequence, entry.sequence());
+    }
+
+    private Segment activeSegment(int recordBytes) throws IOException {
+        Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (last != null && (last.size == 0 || last.size + recordBytes <= segmentBytes)) {
+            return last;
+        }
+        if (last != null && dirty) {
+            last.channel.force(false);
+        }
+        return newSegment();
+    }
+
+    private Segment newSegment() throws IOException {
+        int number = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Segment segment = new Segment(number, directory.resolve(String.format("%08d%s", number, SUFFIX)));
+        segments.put(number, segment);
+        return segment;
+    }
+
+    private ByteBuffer record(long sequence, long epochDay, int count, byte[] data) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + FIXED_PAYLOAD_BYTES + data.length);
+        record.putInt(FIXED_PAYLOAD_BYTES + data.length).putInt(0)
+                .putLong(sequence).putLong(epochDay).putInt(count).put(data);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, FIXED_PAYLOAD_BYTES + data.length);
+        record.putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Series segment log is closed");
+        }
+    }
+
+    private static final class Segment {
+
+        private final int number;
+        private final Path file;
+        private final FileChannel channel;
+        private MappedByteBuffer mapped;
+        private long size;
+
+        Segment(int number, Path file) throws IOException {
+            this.number = number;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        long append(ByteBuffer record) throws IOException {
+            long offset = size;
+            int bytes = record.remaining();
+            while (record.hasRemaining()) {
+                channel.write(record, offset + bytes - record.remaining());
+            }
+            size += bytes;
+            return offset;
+        }
+
+        byte[] read(long offset, int length) throws IOException {
+            ByteBuffer buffer = map(offset + HEADER_BYTES + FIXED_PAYLOAD_BYTES + length);
+            byte[] data = new byte[length];
+            buffer.get((int) (offset + HEADER_BYTES + FIXED_PAYLOAD_BYTES), data);
+            return data;
+        }
+
+        // The active segment grows; it is remapped when a read reaches past the mapping
+        ByteBuffer map(long through) throws IOException {
+            if (mapped == null || mapped.capacity() < through) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.max(through, size));
+            }
+            return mapped;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.glucocloud.api.service;
+
+import com.glucocloud.api.analytics.AgpDayDigest;
+import com.glucocloud.api.analytics.AgpHistogram;
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.dto.AgpResponse;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.series.GlucoseChunkService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AgpService {
+
+    private static final double[] QUANTILES = {0.05, 0.25, 0.50, 0.75, 0.95};
+    private static final int MAX_CACHED_DAYS = 20_000;
+    private static final int MIN_DAYS_FOR_AGP = 14;
+
+    private final GlucoseChunkService glucoseChunkService;
+
+    // Per user-day digests; a cached CGM day costs a few KB
+    private final Map<DayKey, AgpDayDigest> dayCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<DayKey, AgpDayDigest> eldest) {
+                    return size() > MAX_CACHED_DAYS;
+                }
+            });
+
+    public AgpResponse getAmbulatoryGlucoseProfile(User user, LocalDate fromDay, LocalDate toDay) {
+        // Default to the standard 14-day AGP window ending today
+        if (fromDay == null || toDay == null) {
+            toDay = LocalDate.now();
+            fromDay = toDay.minusDays(MIN_DAYS_FOR_AGP - 1);
+        }
+        if (toDay.isBefore(fromDay)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        AgpHistogram histogram = new AgpHistogram();
+        int days = (int) ChronoUnit.DAYS.between(fromDay, toDay) + 1;
+        int daysWithData = 0;
+
+        // Merge cached days and load the missing ones in contiguous runs
+        LocalDate runStart = null;
+        for (LocalDate day = fromDay; !day.isAfter(toDay); day = day.plusDays(1)) {
+            AgpDayDigest cached = dayCache.get(new DayKey(user.getId(), day));
+            if (cached == null) {
+                if (runStart == null) {
+                    runStart = day;
+                }
+                continue;
+            }
+            if (runStart != null) {
+                daysWithData += loadDays(user, runStart, day.minusDays(1), histogram);
+                runStart = null;
+            }
+            if (cached.readingCount() > 0) {
+                histogram.merge(cached);
+                daysWithData++;
+            }
+        }
+        if (runStart != null) {
+            daysWithData += loadDays(user, runStart, toDay, histogram);
+        }
+
+        List<AgpResponse.Slot> profile = new ArrayList<>(AgpHistogram.SLOTS);
+        for (int slot = 0; slot < AgpHistogram.SLOTS; slot++) {
+            double[] p = histogram.percentiles(slot, QUANTILES);
+            AgpResponse.Slot.SlotBuilder builder = AgpResponse.Slot.builder()
+                    .time(LocalTime.MIDNIGHT.plusMinutes((long) slot * AgpHistogram.SLOT_MINUTES).toString())
+                    .readings(histogram.slotCount(slot));
+            if (p != null) {
+                builder.p5(p[0]).p25(p[1]).p50(p[2]).p75(p[3]).p95(p[4]);
+            }
+            profile.add(builder.build());
+        }
+
+        return AgpResponse.builder()
+                .fromDate(fromDay)
+                .toDate(toDay)
+                .days(days)
+                .daysWithData(daysWithData)
+                .totalReadings(histogram.totalCount())
+                .sufficientData(daysWithData >= MIN_DAYS_FOR_AGP)
+                .slotMinutes(AgpHistogram.SLOT_MINUTES)
+                .profile(profile)
+                .build();
+    }
+
+    public void invalidateDay(UUID userId, LocalDate day) {
+        dayCache.remove(new DayKey(userId, day));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReadingChanged(EntityChangedEvent<GlucoseReadingResponse> event) {
+        if (event.getBefore() != null) {
+            invalidateDay(event.getUserId(), event.getBefore().getTakenAt().toLocalDate());
+        }
+        if (event.getAfter() != null) {
+            invalidateDay(event.getUserId(), event.getAfter().getTakenAt().toLocalDate());
+        }
+    }
+
+    // Reads the series of [fromDay, toDay] once, caching one digest per day
+    private int loadDays(User user, LocalDate fromDay, LocalDate toDay, AgpHistogram histogram) {
+        GlucoseSeries series = glucoseChunkService.readSeries(user, fromDay.atStartOfDay(), toDay.atTime(LocalTime.MAX));
+
+        Map<LocalDate, AgpDayDigest.Builder> builders = new HashMap<>();
+        for (int i = 0; i < series.size(); i++) {
+            LocalDateTime takenAt = GlucoseSeries.fromEpochSecond(series.timestampAt(i));
+            LocalTime time = takenAt.toLocalTime();
+            double value = series.valueAt(i);
+            builders.computeIfAbsent(takenAt.toLocalDate(), d -> AgpDayDigest.builder()).add(time, value);
+            histogram.add(time, value);
+        }
+
+        for (LocalDate day = fromDay; !day.isAfter(toDay); day = day.plusDays(1)) {
+            AgpDayDigest.Builder builder = builders.get(day);
+            dayCache.put(new DayKey(user.getId(), day), builder != null ? builder.build() : AgpDayDigest.EMPTY);
+        }
+
+        return builders.size();
+    }
+
+    private record DayKey(UUID userId, LocalDate day) {
+    }
+}
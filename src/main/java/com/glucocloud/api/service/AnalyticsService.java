@@ -1,5 +1,9 @@
 package com.glucocloud.api.service;
 
+import com.glucocloud.api.adherence.AdherenceService;
+import com.glucocloud.api.analytics.DoseResponseSweep;
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.clustering.MealClusterService;
 import com.glucocloud.api.dto.*;
 import com.glucocloud.api.entity.*;
 import com.glucocloud.api.repository.*;
@@ -13,6 +17,7 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +28,9 @@ public class AnalyticsService {
     private final MealRepository mealRepository;
     private final MedicationRepository medicationRepository;
     private final GlucoseReadingService glucoseReadingService;
+    private final OnBoardService onBoardService;
+    private final AdherenceService adherenceService;
+    private final MealClusterService mealClusterService;
 
     public List<MealGlucoseCorrelation> analyzeMealGlucoseCorrelations(User user, LocalDateTime startDate, LocalDateTime endDate) {
         // Default to last 14 days if no dates provided
@@ -35,11 +43,16 @@ public class AnalyticsService {
         List<GlucoseReading> glucoseReadings = glucoseReadingRepository
                 .findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, startDate, endDate);
 
+        // Insulin on board at every meal, evaluated in one pass over the (ascending) meal times
+        long[] mealTimes = meals.stream().mapToLong(meal -> GlucoseSeries.toEpochSecond(meal.getConsumedAt())).toArray();
+        double[] insulinOnBoard = onBoardService.loadInputs(user, startDate, endDate).bolusInsulin().onBoard(mealTimes);
+
         List<MealGlucoseCorrelation> correlations = new ArrayList<>();
 
-        for (Meal meal : meals) {
-            MealGlucoseCorrelation correlation = analyzeIndividualMealImpact(meal, glucoseReadings);
+        for (int i = 0; i < meals.size(); i++) {
+            MealGlucoseCorrelation correlation = analyzeIndividualMealImpact(meals.get(i), glucoseReadings);
             if (correlation != null) {
+                correlation.setInsulinOnBoard(Math.round(insulinOnBoard[i] * 100.0) / 100.0);
                 correlations.add(correlation);
             }
         }
@@ -49,6 +62,88 @@ public class AnalyticsService {
                 .collect(Collectors.toList());
     }
 
+    public MealImpactProfileResponse generateMealImpactProfiles(User user, LocalDateTime startDate, LocalDateTime endDate,
+                                                                int minMeals) {
+        // Default to last 90 days if no dates provided
+        if (startDate == null || endDate == null) {
+            endDate = LocalDateTime.now();
+            startDate = endDate.minusDays(90);
+        }
+
+        List<MealGlucoseCorrelation> correlations = analyzeMealGlucoseCorrelations(user, startDate, endDate);
+        Map<UUID, UUID> clusters = mealClusterService.clustersOf(user.getId(),
+                correlations.stream().map(MealGlucoseCorrelation::getMealId).collect(Collectors.toList()));
+
+        Map<UUID, List<MealGlucoseCorrelation>> byCluster = correlations.stream()
+                .collect(Collectors.groupingBy(c -> clusters.get(c.getMealId()), LinkedHashMap::new, Collectors.toList()));
+
+        List<MealImpactProfileResponse.Cluster> profiles = new ArrayList<>();
+        for (Map.Entry<UUID, List<MealGlucoseCorrelation>> entry : byCluster.entrySet()) {
+            List<MealGlucoseCorrelation> meals = entry.getValue();
+            if (meals.size() < minMeals) {
+                continue;
+            }
+            profiles.add(buildMealCluster(entry.getKey(), meals));
+        }
+        profiles.sort(Comparator.comparingInt(MealImpactProfileResponse.Cluster::getMeals).reversed());
+
+        return MealImpactProfileResponse.builder()
+                .fromDate(startDate)
+                .toDate(endDate)
+                .totalMeals(correlations.size())
+                .clusters(profiles)
+                .build();
+    }
+
+    private MealImpactProfileResponse.Cluster buildMealCluster(UUID clusterId, List<MealGlucoseCorrelation> meals) {
+        Map<String, Long> descriptionCounts = meals.stream()
+                .collect(Collectors.groupingBy(m -> m.getMealDescription().trim(), Collectors.counting()));
+        List<String> descriptions = descriptionCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .limit(5)
+                .collect(Collectors.toList());
+
+        List<MealGlucoseCorrelation> withData = meals.stream()
+                .filter(m -> m.getGlucoseRise() != null)
+                .collect(Collectors.toList());
+
+        MealImpactProfileResponse.Cluster.ClusterBuilder builder = MealImpactProfileResponse.Cluster.builder()
+                .clusterId(clusterId)
+                .label(descriptions.get(0))
+                .descriptions(descriptions)
+                .meals(meals.size())
+                .mealsWithData(withData.size());
+
+        OptionalDouble averageCarbs = meals.stream()
+                .filter(m -> m.getCarbsGrams() != null)
+                .mapToInt(MealGlucoseCorrelation::getCarbsGrams)
+                .average();
+        if (averageCarbs.isPresent()) {
+            builder.averageCarbs(Math.round(averageCarbs.getAsDouble() * 10.0) / 10.0);
+        }
+
+        if (withData.isEmpty()) {
+            return builder.impact("INSUFFICIENT_DATA").build();
+        }
+
+        double averageRise = withData.stream().mapToDouble(m -> m.getGlucoseRise().doubleValue()).average().orElse(0);
+        double maxRise = withData.stream().mapToDouble(m -> m.getGlucoseRise().doubleValue()).max().orElse(0);
+        double averageMinutesToPeak = withData.stream().mapToInt(MealGlucoseCorrelation::getMinutesToPeak).average().orElse(0);
+        OptionalDouble averageRatio = withData.stream()
+                .filter(m -> m.getCarbsGrams() != null && m.getCarbsGrams() > 0)
+                .mapToDouble(MealGlucoseCorrelation::getCarbToGlucoseRatio)
+                .average();
+
+        return builder
+                .averageRise(Math.round(averageRise * 100.0) / 100.0)
+                .maxRise(Math.round(maxRise * 100.0) / 100.0)
+                .averageMinutesToPeak(Math.round(averageMinutesToPeak * 10.0) / 10.0)
+                .averageCarbToGlucoseRatio(averageRatio.isPresent() ? Math.round(averageRatio.getAsDouble() * 100.0) / 100.0 : null)
+                .impact(determineGlucoseImpact(BigDecimal.valueOf(averageRise), null))
+                .build();
+    }
+
     private MealGlucoseCorrelation analyzeIndividualMealImpact(Meal meal, List<GlucoseReading> allReadings) {
         // Find glucose readings before and after the meal
         GlucoseReading preReading = findNearestGlucoseReading(meal.getConsumedAt(), allReadings, true, 120); // 2 hours before
@@ -133,6 +228,56 @@ public class AnalyticsService {
         }
     }
 
+    public GlucosePatternResponse analyzeGlucosePatterns(User user, LocalDateTime startDate, LocalDateTime endDate,
+                                                         boolean splitByReadingType) {
+        // Default to last 30 days if no dates provided
+        if (startDate == null || endDate == null) {
+            endDate = LocalDateTime.now();
+            startDate = endDate.minusDays(30);
+        }
+
+        // One grouped aggregate in the database, regardless of range length
+        List<GlucosePatternCell> rows = splitByReadingType
+                ? glucoseReadingRepository.findPatternCellsByReadingTypeAndUserAndDateRange(user, startDate, endDate)
+                : glucoseReadingRepository.findPatternCellsByUserAndDateRange(user, startDate, endDate);
+
+        List<GlucosePatternResponse.Cell> cells = new ArrayList<>(rows.size());
+        long totalReadings = 0;
+
+        for (GlucosePatternCell row : rows) {
+            long readings = row.getReadingCount();
+            totalReadings += readings;
+            long inRange = row.getInRangeCount();
+
+            cells.add(GlucosePatternResponse.Cell.builder()
+                    .dayOfWeek(row.getSampleDay().getDayOfWeek())
+                    .hour(row.getHour())
+                    .readingType(row.getReadingType())
+                    .readings(readings)
+                    .averageReading(row.getAverage() != null
+                            ? BigDecimal.valueOf(row.getAverage()).setScale(2, RoundingMode.HALF_UP) : null)
+                    .veryLow(row.getVeryLowCount())
+                    .low(row.getLowCount())
+                    .inRange(inRange)
+                    .high(row.getHighCount())
+                    .veryHigh(row.getVeryHighCount())
+                    .timeInRangePercentage(Math.round((double) inRange / readings * 100.0 * 100.0) / 100.0)
+                    .build());
+        }
+
+        cells.sort(Comparator.comparing(GlucosePatternResponse.Cell::getDayOfWeek)
+                .thenComparingInt(GlucosePatternResponse.Cell::getHour)
+                .thenComparing(cell -> cell.getReadingType() != null ? cell.getReadingType().ordinal() : -1));
+
+        return GlucosePatternResponse.builder()
+                .fromDate(startDate)
+                .toDate(endDate)
+                .splitByReadingType(splitByReadingType)
+                .totalReadings(totalReadings)
+                .cells(cells)
+                .build();
+    }
+
     public MealSummaryResponse generateMealSummary(User user, LocalDateTime startDate, LocalDateTime endDate) {
         // Default to last 30 days if no dates provided
         if (startDate == null || endDate == null) {
@@ -225,12 +370,20 @@ public class AnalyticsService {
 
         List<Medication> medications = medicationRepository.findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, startDate, endDate);
 
+        // Adherence against the user's regimens when they have any
+        AdherenceResponse.Counts adherence = adherenceService
+                .getAdherence(user, startDate.toLocalDate(), endDate.toLocalDate())
+                .getOverall();
+        boolean hasSchedule = adherence.getAdherencePercentage() != null;
+
         if (medications.isEmpty()) {
             return MedicationSummaryResponse.builder()
                     .totalMedications(0)
                     .fromDate(startDate)
                     .toDate(endDate)
-                    .adherenceEstimate("INSUFFICIENT_DATA")
+                    .adherenceEstimate(hasSchedule ? adherenceRating(adherence.getAdherencePercentage()) : "INSUFFICIENT_DATA")
+                    .adherencePercentage(adherence.getAdherencePercentage())
+                    .missedDosesEstimate(adherence.getMissed())
                     .build();
         }
 
@@ -253,7 +406,9 @@ public class AnalyticsService {
         // Calculate adherence estimate
         long daysBetween = ChronoUnit.DAYS.between(startDate, endDate);
         double medicationsPerDay = daysBetween > 0 ? (double) totalMedications / daysBetween : 0;
-        String adherenceEstimate = estimateAdherence(medicationsPerDay, medications);
+        String adherenceEstimate = hasSchedule
+                ? adherenceRating(adherence.getAdherencePercentage())
+                : estimateAdherence(medicationsPerDay, medications);
 
         // Get unique medication names
         List<String> uniqueNames = medications.stream()
@@ -286,10 +441,207 @@ public class AnalyticsService {
                 .fromDate(startDate)
                 .toDate(endDate)
                 .mostCommonMedicationType(mostCommonType)
-                .missedDosesEstimate(0) // Would require more complex logic
+                .adherencePercentage(adherence.getAdherencePercentage())
+                .missedDosesEstimate(adherence.getMissed())
+                .build();
+    }
+
+    public MedicationGlucoseResponse analyzeMedicationGlucoseResponse(User user, LocalDateTime startDate,
+                                                                      LocalDateTime endDate, boolean includeDoses) {
+        // Default to last 30 days if no dates provided
+        if (startDate == null || endDate == null) {
+            endDate = LocalDateTime.now();
+            startDate = endDate.minusDays(30);
+        }
+
+        List<Medication> medications = new ArrayList<>(
+                medicationRepository.findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, startDate, endDate));
+        Collections.reverse(medications);
+
+        int n = medications.size();
+        long[] doseTimes = new long[n];
+        int[] windows = new int[n];
+        int maxWindow = 0;
+        for (int i = 0; i < n; i++) {
+            Medication medication = medications.get(i);
+            doseTimes[i] = GlucoseSeries.toEpochSecond(medication.getTakenAt());
+            windows[i] = responseWindowMinutes(medication.getMedicationType());
+            maxWindow = Math.max(maxWindow, windows[i]);
+        }
+
+        // One ascending pass over the readings covering every dose window
+        DoseResponseSweep sweep = new DoseResponseSweep(doseTimes, windows);
+        if (n > 0) {
+            LocalDateTime readingsFrom = startDate.minusMinutes(DoseResponseSweep.BASELINE_BEFORE_MINUTES);
+            LocalDateTime readingsTo = endDate.plusMinutes(maxWindow);
+            try (Stream<GlucosePoint> points = glucoseReadingRepository.streamPointsByUserAndDateRange(user, readingsFrom, readingsTo)) {
+                points.forEach(point -> sweep.accept(GlucoseSeries.toEpochSecond(point.getTakenAt()),
+                        point.getReadingValue().doubleValue()));
+            }
+        }
+
+        Map<String, EffectAccumulator> byMedication = new LinkedHashMap<>();
+        List<MedicationGlucoseResponse.DoseOutcome> doses = includeDoses ? new ArrayList<>() : null;
+        int dosesWithData = 0;
+        int totalHypoEvents = 0;
+
+        for (int i = 0; i < n; i++) {
+            Medication medication = medications.get(i);
+            int window = windows[i];
+            String key = medication.getName().trim().toLowerCase() + "|" + medication.getMedicationType();
+            EffectAccumulator accumulator = byMedication.computeIfAbsent(key,
+                    k -> new EffectAccumulator(medication.getName().trim(), medication.getMedicationType(), window));
+            accumulator.doses++;
+            if (medication.getEffectivenessRating() != null) {
+                accumulator.ratingSum += medication.getEffectivenessRating();
+                accumulator.ratings++;
+            }
+
+            DoseResponseSweep.Outcome outcome = sweep.outcome(i);
+            if (outcome == null) {
+                continue;
+            }
+
+            dosesWithData++;
+            totalHypoEvents += outcome.hypoEvents();
+            accumulator.add(outcome, medication.isInsulin() ? OnBoardService.parseUnits(medication.getDosage()) : null);
+
+            if (doses != null) {
+                doses.add(MedicationGlucoseResponse.DoseOutcome.builder()
+                        .medicationId(medication.getId())
+                        .name(medication.getName())
+                        .medicationType(medication.getMedicationType())
+                        .takenAt(medication.getTakenAt())
+                        .baseline(outcome.baseline())
+                        .nadir(outcome.nadir())
+                        .drop(Math.round(outcome.drop() * 100.0) / 100.0)
+                        .minutesToNadir(outcome.minutesToNadir())
+                        .endValue(outcome.endValue())
+                        .readings(outcome.readings())
+                        .hypoEvents(outcome.hypoEvents())
+                        .build());
+            }
+        }
+
+        List<MedicationGlucoseResponse.MedicationEffect> effects = byMedication.values().stream()
+                .map(EffectAccumulator::toEffect)
+                .sorted(Comparator.comparingInt(MedicationGlucoseResponse.MedicationEffect::getDoses).reversed())
+                .collect(Collectors.toList());
+
+        return MedicationGlucoseResponse.builder()
+                .fromDate(startDate)
+                .toDate(endDate)
+                .totalDoses(n)
+                .dosesWithGlucoseData(dosesWithData)
+                .totalHypoEvents(totalHypoEvents)
+                .medications(effects)
+                .doses(doses)
                 .build();
     }
 
+    // How long after a dose its glucose effect is followed
+    private int responseWindowMinutes(Medication.MedicationType type) {
+        if (type == null) {
+            return 360;
+        }
+        return switch (type) {
+            case INSULIN_RAPID -> 240;
+            case INSULIN_SHORT -> 360;
+            case INSULIN_INTERMEDIATE, SULFONYLUREA -> 480;
+            case INSULIN_LONG -> 720;
+            default -> 360;
+        };
+    }
+
+    private static final class EffectAccumulator {
+        private final String name;
+        private final Medication.MedicationType type;
+        private final int windowMinutes;
+        private int doses;
+        private int dosesWithData;
+        private double baselineSum;
+        private double nadirSum;
+        private double dropSum;
+        private double minutesToNadirSum;
+        private double dropPerUnitSum;
+        private int dosesWithUnits;
+        private int hypoEvents;
+        private int dosesFollowedByHypo;
+        private double ratingSum;
+        private int ratings;
+
+        private EffectAccumulator(String name, Medication.MedicationType type, int windowMinutes) {
+            this.name = name;
+            this.type = type;
+            this.windowMinutes = windowMinutes;
+        }
+
+        private void add(DoseResponseSweep.Outcome outcome, Double units) {
+            dosesWithData++;
+            baselineSum += outcome.baseline();
+            nadirSum += outcome.nadir();
+            dropSum += outcome.drop();
+            minutesToNadirSum += outcome.minutesToNadir();
+            hypoEvents += outcome.hypoEvents();
+            if (outcome.hypoEvents() > 0) {
+                dosesFollowedByHypo++;
+            }
+            if (units != null && units > 0) {
+                dropPerUnitSum += outcome.drop() / units;
+                dosesWithUnits++;
+            }
+        }
+
+        private MedicationGlucoseResponse.MedicationEffect toEffect() {
+            MedicationGlucoseResponse.MedicationEffect.MedicationEffectBuilder builder =
+                    MedicationGlucoseResponse.MedicationEffect.builder()
+                            .name(name)
+                            .medicationType(type)
+                            .windowMinutes(windowMinutes)
+                            .doses(doses)
+                            .dosesWithData(dosesWithData)
+                            .hypoEvents(hypoEvents)
+                            .dosesFollowedByHypo(dosesFollowedByHypo)
+                            .averageEffectivenessRating(ratings > 0 ? Math.round(ratingSum / ratings * 100.0) / 100.0 : null);
+
+            if (dosesWithData == 0) {
+                return builder.effectiveness("INSUFFICIENT_DATA").build();
+            }
+
+            double averageDrop = dropSum / dosesWithData;
+            String effectiveness;
+            if (dosesWithData < 3) {
+                effectiveness = "INSUFFICIENT_DATA";
+            } else if (averageDrop >= 30) {
+                effectiveness = "STRONG";
+            } else if (averageDrop >= 10) {
+                effectiveness = "MODERATE";
+            } else {
+                effectiveness = "MINIMAL";
+            }
+
+            return builder
+                    .averageBaseline(Math.round(baselineSum / dosesWithData * 100.0) / 100.0)
+                    .averageNadir(Math.round(nadirSum / dosesWithData * 100.0) / 100.0)
+                    .averageDrop(Math.round(averageDrop * 100.0) / 100.0)
+                    .averageMinutesToNadir(Math.round(minutesToNadirSum / dosesWithData * 10.0) / 10.0)
+                    .dropPerUnit(dosesWithUnits > 0 ? Math.round(dropPerUnitSum / dosesWithUnits * 100.0) / 100.0 : null)
+                    .hypoRatePercentage(Math.round((double) dosesFollowedByHypo / dosesWithData * 100.0 * 100.0) / 100.0)
+                    .effectiveness(effectiveness)
+                    .build();
+        }
+    }
+
+    private String adherenceRating(double adherencePercentage) {
+        if (adherencePercentage >= 90.0) {
+            return "EXCELLENT";
+        } else if (adherencePercentage >= 75.0) {
+            return "GOOD";
+        } else {
+            return "POOR";
+        }
+    }
+
     private String estimateAdherence(double medicationsPerDay, List<Medication> medications) {
         if (medications.size() < 7) {
             return "INSUFFICIENT_DATA";
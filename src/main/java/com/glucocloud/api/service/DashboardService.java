@@ -271,7 +271,9 @@ public class DashboardService {
         long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate);
         LocalDateTime previousStart = startDate.minusDays(daysBetween);
 
-        GlucoseSummaryResponse previousSummary = glucoseReadingService.getGlucoseSummary(user, previousStart, startDate);
+        // Single projection scan instead of re-running the full summary query set; startDate belongs to the current period
+        GlucoseSummaryResponse previousSummary = glucoseReadingService.getGlucoseSummaries(user,
+                List.of(new GlucoseSummaryBatchRequest.Window(previousStart, startDate)), true).get(0);
 
         metrics.put("currentPeriodDays", daysBetween);
         metrics.put("currentReadingsCount", currentSummary.getTotalReadings());
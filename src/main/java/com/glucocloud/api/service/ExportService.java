@@ -2,6 +2,7 @@ package com.glucocloud.api.service;
 
 import com.glucocloud.api.entity.*;
 import com.glucocloud.api.repository.*;
+import com.glucocloud.api.retention.GlucoseArchiveService;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
@@ -22,6 +23,7 @@ import java.util.List;
 public class ExportService {
 
     private final GlucoseReadingRepository glucoseReadingRepository;
+    private final GlucoseArchiveService glucoseArchiveService;
     private final MealRepository mealRepository;
     private final MedicationRepository medicationRepository;
     private final DashboardService dashboardService;
@@ -31,11 +33,14 @@ public class ExportService {
     public byte[] exportGlucoseReadingsToCSV(User user, LocalDateTime startDate, LocalDateTime endDate) throws IOException {
         List<GlucoseReading> readings;
 
-        if (startDate != null && endDate != null) {
+        boolean bounded = startDate != null && endDate != null;
+        if (bounded) {
             readings = glucoseReadingRepository.findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, startDate, endDate);
         } else {
             readings = glucoseReadingRepository.findByUserOrderByTakenAtDesc(user);
         }
+        readings = GlucoseArchiveService.mergeNewestFirst(readings,
+                glucoseArchiveService.findArchived(user.getId(), bounded ? startDate : null, bounded ? endDate : null));
 
         ByteArrayOutputStream out = new ByteArrayOutputStream();
 
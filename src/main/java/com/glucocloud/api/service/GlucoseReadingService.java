@@ -1,21 +1,29 @@
 package com.glucocloud.api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.analytics.GlucoseWindowAccumulator;
+import com.glucocloud.api.analytics.Lttb;
 import com.glucocloud.api.dto.GlucoseReadingRequest;
 import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.GlucoseSeriesResponse;
+import com.glucocloud.api.dto.GlucoseSummaryBatchRequest;
 import com.glucocloud.api.dto.GlucoseSummaryResponse;
 import com.glucocloud.api.entity.GlucoseReading;
 import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
 import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.retention.GlucoseArchiveService;
+import com.glucocloud.api.series.GlucoseChunkService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,7 +31,16 @@ import java.util.stream.Collectors;
 @Transactional
 public class GlucoseReadingService {
 
+    private static final int MAX_SERIES_POINTS = 5000;
+    private static final int MAX_SUMMARY_WINDOWS = 366;
+    private static final List<String> PATCHABLE = List.of("readingValue", "takenAt", "readingType", "note", "source");
+
     private final GlucoseReadingRepository glucoseReadingRepository;
+    private final GlucoseArchiveService glucoseArchiveService;
+    private final GlucoseChunkService glucoseChunkService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MergePatch mergePatch;
+    private final PatchStatement patchStatement;
 
     public GlucoseReadingResponse createReading(User user, GlucoseReadingRequest request) {
         GlucoseReading reading = GlucoseReading.builder()
@@ -32,27 +49,75 @@ public class GlucoseReadingService {
                 .takenAt(request.getTakenAt())
                 .readingType(request.getReadingType())
                 .note(request.getNote())
+                .source(request.getSource())
                 .build();
 
         GlucoseReading savedReading = glucoseReadingRepository.save(reading);
-        return GlucoseReadingResponse.fromEntity(savedReading);
+        GlucoseReadingResponse response = GlucoseReadingResponse.fromEntity(savedReading);
+        eventPublisher.publishEvent(EntityChangedEvent.created(user.getId(), EntityChangedEvent.EntityType.GLUCOSE_READING,
+                savedReading.getId(), GlucoseReadingResponse.class, response));
+        return response;
+    }
+
+    // One transaction for the whole batch
+    public List<GlucoseReadingResponse> createReadings(User user, List<GlucoseReadingRequest> requests) {
+        List<GlucoseReadingResponse> responses = new ArrayList<>(requests.size());
+        for (GlucoseReadingRequest request : requests) {
+            responses.add(createReading(user, request));
+        }
+        return responses;
     }
 
     @Transactional(readOnly = true)
     public List<GlucoseReadingResponse> getUserReadings(User user, LocalDateTime startDate, LocalDateTime endDate) {
         List<GlucoseReading> readings;
 
-        if (startDate != null && endDate != null) {
+        boolean bounded = startDate != null && endDate != null;
+        if (bounded) {
             readings = glucoseReadingRepository.findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, startDate, endDate);
         } else {
             readings = glucoseReadingRepository.findByUserOrderByTakenAtDesc(user);
         }
+        readings = GlucoseArchiveService.mergeNewestFirst(readings,
+                glucoseArchiveService.findArchived(user.getId(), bounded ? startDate : null, bounded ? endDate : null));
 
         return readings.stream()
                 .map(GlucoseReadingResponse::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public GlucoseSeriesResponse getReadingSeries(User user, LocalDateTime startDate, LocalDateTime endDate, int points) {
+        // Default to last 30 days if no dates provided
+        if (startDate == null || endDate == null) {
+            endDate = LocalDateTime.now();
+            startDate = endDate.minusDays(30);
+        }
+        if (points < 3 || points > MAX_SERIES_POINTS) {
+            throw new IllegalArgumentException("points must be between 3 and " + MAX_SERIES_POINTS);
+        }
+
+        GlucoseSeries series = glucoseChunkService.readSeries(user, startDate, endDate);
+        int[] selected = Lttb.downsample(series.timestamps(), series.values(), series.size(), points);
+        long base = GlucoseSeries.toEpochSecond(startDate);
+        long[] t = new long[selected.length];
+        double[] v = new double[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            t[i] = series.timestampAt(selected[i]) - base;
+            v[i] = series.valueAt(selected[i]);
+        }
+
+        return GlucoseSeriesResponse.builder()
+                .from(startDate)
+                .to(endDate)
+                .sourcePoints(series.size())
+                .points(selected.length)
+                .downsampled(selected.length < series.size())
+                .t(t)
+                .v(v)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public Optional<GlucoseReadingResponse> getReadingById(User user, UUID readingId) {
         return glucoseReadingRepository.findByIdAndUser(readingId, user)
@@ -62,14 +127,43 @@ public class GlucoseReadingService {
     public GlucoseReadingResponse updateReading(User user, UUID readingId, GlucoseReadingRequest request) {
         GlucoseReading reading = glucoseReadingRepository.findByIdAndUser(readingId, user)
                 .orElseThrow(() -> new RuntimeException("Glucose reading not found"));
+        return update(user, reading, request);
+    }
+
+    /**
+     * Applies a JSON merge patch as one UPDATE of the supplied columns, guarded by the
+     * version and skipped when nothing changes; expectedVersion (from If-Match) may be null.
+     */
+    public GlucoseReadingResponse patchReading(User user, UUID readingId, JsonNode patch, Long expectedVersion) {
+        Map<String, Object> values = mergePatch.read(new GlucoseReadingRequest(), patch, PATCHABLE);
+        PatchStatement.Result<GlucoseReading> result = patchStatement.update(GlucoseReading.class, readingId, user.getId(),
+                values, expectedVersion, "Glucose reading");
+
+        GlucoseReadingResponse before = GlucoseReadingResponse.fromEntity(result.before());
+        GlucoseReadingResponse response = GlucoseReadingResponse.fromEntity(result.after());
+        if (!Objects.equals(before.getVersion(), response.getVersion())) {
+            eventPublisher.publishEvent(EntityChangedEvent.updated(user.getId(), EntityChangedEvent.EntityType.GLUCOSE_READING,
+                    readingId, GlucoseReadingResponse.class, before, response));
+        }
+        return response;
+    }
 
+    private GlucoseReadingResponse update(User user, GlucoseReading reading, GlucoseReadingRequest request) {
+        GlucoseReadingResponse before = GlucoseReadingResponse.fromEntity(reading);
         reading.setReadingValue(request.getReadingValue());
         reading.setTakenAt(request.getTakenAt());
         reading.setReadingType(request.getReadingType());
         reading.setNote(request.getNote());
+        reading.setSource(request.getSource());
 
-        GlucoseReading savedReading = glucoseReadingRepository.save(reading);
-        return GlucoseReadingResponse.fromEntity(savedReading);
+        // Flushed here so the response carries the new version
+        GlucoseReading savedReading = glucoseReadingRepository.saveAndFlush(reading);
+        GlucoseReadingResponse response = GlucoseReadingResponse.fromEntity(savedReading);
+        if (!Objects.equals(before.getVersion(), response.getVersion())) {
+            eventPublisher.publishEvent(EntityChangedEvent.updated(user.getId(), EntityChangedEvent.EntityType.GLUCOSE_READING,
+                    reading.getId(), GlucoseReadingResponse.class, before, response));
+        }
+        return response;
     }
 
     public void deleteReading(User user, UUID readingId) {
@@ -77,6 +171,8 @@ public class GlucoseReadingService {
                 .orElseThrow(() -> new RuntimeException("Glucose reading not found"));
 
         glucoseReadingRepository.delete(reading);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(user.getId(), EntityChangedEvent.EntityType.GLUCOSE_READING,
+                readingId, GlucoseReadingResponse.class, GlucoseReadingResponse.fromEntity(reading)));
     }
 
     @Transactional(readOnly = true)
@@ -87,7 +183,9 @@ public class GlucoseReadingService {
             startDate = endDate.minusDays(30);
         }
 
-        long totalReadings = glucoseReadingRepository.countByUserAndDateRange(user, startDate, endDate);
+        long hotReadings = glucoseReadingRepository.countByUserAndDateRange(user, startDate, endDate);
+        GlucoseArchiveService.ArchivedStats archived = glucoseArchiveService.summarize(user.getId(), startDate, endDate);
+        long totalReadings = hotReadings + archived.count();
 
         if (totalReadings == 0) {
             return GlucoseSummaryResponse.builder()
@@ -100,12 +198,19 @@ public class GlucoseReadingService {
         Double avgReading = glucoseReadingRepository.findAverageByUserAndDateRange(user, startDate, endDate);
         Double minReading = glucoseReadingRepository.findMinByUserAndDateRange(user, startDate, endDate);
         Double maxReading = glucoseReadingRepository.findMaxByUserAndDateRange(user, startDate, endDate);
+        if (archived.count() > 0) {
+            avgReading = ((avgReading != null ? avgReading * hotReadings : 0) + archived.sum().doubleValue()) / totalReadings;
+            minReading = minReading != null ? Math.min(minReading, archived.min().doubleValue()) : archived.min().doubleValue();
+            maxReading = maxReading != null ? Math.max(maxReading, archived.max().doubleValue()) : archived.max().doubleValue();
+        }
 
-        long inRange = glucoseReadingRepository.countInRangeByUserAndDateRange(user, startDate, endDate);
-        long high = glucoseReadingRepository.countHighByUserAndDateRange(user, startDate, endDate);
-        long low = glucoseReadingRepository.countLowByUserAndDateRange(user, startDate, endDate);
-        long criticallyHigh = glucoseReadingRepository.countCriticallyHighByUserAndDateRange(user, startDate, endDate);
-        long criticallyLow = glucoseReadingRepository.countCriticallyLowByUserAndDateRange(user, startDate, endDate);
+        long inRange = glucoseReadingRepository.countInRangeByUserAndDateRange(user, startDate, endDate) + archived.inRange();
+        long high = glucoseReadingRepository.countHighByUserAndDateRange(user, startDate, endDate) + archived.high();
+        long low = glucoseReadingRepository.countLowByUserAndDateRange(user, startDate, endDate) + archived.low();
+        long criticallyHigh = glucoseReadingRepository.countCriticallyHighByUserAndDateRange(user, startDate, endDate)
+                + archived.criticallyHigh();
+        long criticallyLow = glucoseReadingRepository.countCriticallyLowByUserAndDateRange(user, startDate, endDate)
+                + archived.criticallyLow();
 
         double timeInRangePercentage = (double) inRange / totalReadings * 100;
         double timeHighPercentage = (double) high / totalReadings * 100;
@@ -124,11 +229,7 @@ public class GlucoseReadingService {
 
         if (recentAvg != null && previousAvg != null) {
             trendChange = BigDecimal.valueOf(recentAvg - previousAvg).setScale(2, RoundingMode.HALF_UP);
-            if (trendChange.compareTo(BigDecimal.valueOf(10)) > 0) {
-                trend = "WORSENING";
-            } else if (trendChange.compareTo(BigDecimal.valueOf(-10)) < 0) {
-                trend = "IMPROVING";
-            }
+            trend = trendOf(trendChange);
         }
 
         return GlucoseSummaryResponse.builder()
@@ -150,4 +251,134 @@ public class GlucoseReadingService {
                 .trendChange(trendChange)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Transactional(readOnly = true)
+    public List<GlucoseSummaryResponse> getGlucoseSummaries(User user, GlucoseSummaryBatchRequest request) {
+        List<GlucoseWindowAccumulator> accumulators = request.getWindows() != null
+                ? accumulators(request.getWindows(), false)
+                : new ArrayList<>();
+
+        if (request.getPeriod() != null) {
+            // Consecutive periods share their bounds, so each leaves its end to the next
+            accumulators.addAll(accumulators(periodicWindows(request.getPeriod(),
+                    request.getEnd() != null ? request.getEnd() : LocalDateTime.now()), true));
+        }
+        if (accumulators.isEmpty()) {
+            throw new IllegalArgumentException("Provide either windows or a period");
+        }
+        if (accumulators.size() > MAX_SUMMARY_WINDOWS) {
+            throw new IllegalArgumentException("At most " + MAX_SUMMARY_WINDOWS + " windows can be requested at once");
+        }
+
+        return summarize(user, accumulators);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GlucoseSummaryResponse> getGlucoseSummaries(User user, List<GlucoseSummaryBatchRequest.Window> windows) {
+        return getGlucoseSummaries(user, windows, false);
+    }
+
+    /**
+     * Summarises every window from one ordered scan over the union of their ranges,
+     * including archived months.
+     * Windows are activated as the scan reaches their start and retired once it passes
+     * their end, so the cost is one pass over the readings plus the window overlap.
+     * Trends compare each window with the one before it in the request. With endExclusive
+     * a reading taken exactly at a window's end is left to the window starting there.
+     */
+    @Transactional(readOnly = true)
+    public List<GlucoseSummaryResponse> getGlucoseSummaries(User user, List<GlucoseSummaryBatchRequest.Window> windows,
+                                                            boolean endExclusive) {
+        return summarize(user, accumulators(windows, endExclusive));
+    }
+
+    private List<GlucoseWindowAccumulator> accumulators(List<GlucoseSummaryBatchRequest.Window> windows, boolean endExclusive) {
+        List<GlucoseWindowAccumulator> accumulators = new ArrayList<>(windows.size());
+        for (GlucoseSummaryBatchRequest.Window window : windows) {
+            if (window.getTo().isBefore(window.getFrom())) {
+                throw new IllegalArgumentException("Window 'from' must not be after 'to'");
+            }
+            accumulators.add(new GlucoseWindowAccumulator(window.getFrom(), window.getTo(), endExclusive));
+        }
+        return accumulators;
+    }
+
+    private List<GlucoseSummaryResponse> summarize(User user, List<GlucoseWindowAccumulator> accumulators) {
+        List<GlucoseWindowAccumulator> byStart = new ArrayList<>(accumulators);
+        byStart.sort(Comparator.comparing(GlucoseWindowAccumulator::getFrom));
+        LocalDateTime unionStart = byStart.get(0).getFrom();
+        LocalDateTime unionEnd = accumulators.stream()
+                .map(GlucoseWindowAccumulator::getTo)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+
+        // Hot rows and archived months alike, oldest first, to the second
+        GlucoseSeries series = glucoseChunkService.readSeries(user, unionStart, unionEnd);
+        List<GlucoseWindowAccumulator> active = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < series.size(); i++) {
+            long takenAt = series.timestampAt(i);
+            while (next < byStart.size() && GlucoseSeries.toEpochSecond(byStart.get(next).getFrom()) <= takenAt) {
+                active.add(byStart.get(next++));
+            }
+            active.removeIf(window -> !window.includesEnd(takenAt));
+
+            double value = series.valueAt(i);
+            for (GlucoseWindowAccumulator window : active) {
+                window.add(value);
+            }
+        }
+
+        List<GlucoseSummaryResponse> summaries = new ArrayList<>(accumulators.size());
+        GlucoseWindowAccumulator previous = null;
+        for (GlucoseWindowAccumulator window : accumulators) {
+            GlucoseSummaryResponse summary = window.toSummary();
+            if (previous != null && previous.getAverage() != null && window.getAverage() != null) {
+                BigDecimal trendChange = BigDecimal.valueOf(window.getAverage() - previous.getAverage())
+                        .setScale(2, RoundingMode.HALF_UP);
+                summary.setTrendChange(trendChange);
+                summary.setTrend(trendOf(trendChange));
+            }
+            summaries.add(summary);
+            previous = window;
+        }
+
+        return summaries;
+    }
+
+    private List<GlucoseSummaryBatchRequest.Window> periodicWindows(String period, LocalDateTime end) {
+        String[] parts = period.trim().toLowerCase().split("\\s+");
+        int count = Integer.parseInt(parts[0]);
+        if (count < 1 || count > MAX_SUMMARY_WINDOWS) {
+            throw new IllegalArgumentException("Period count must be between 1 and " + MAX_SUMMARY_WINDOWS);
+        }
+
+        List<GlucoseSummaryBatchRequest.Window> windows = new ArrayList<>(count);
+        LocalDateTime windowEnd = end;
+        for (int i = 0; i < count; i++) {
+            LocalDateTime windowStart;
+            if (parts[1].startsWith("day")) {
+                windowStart = windowEnd.minusDays(1);
+            } else if (parts[1].startsWith("week")) {
+                windowStart = windowEnd.minusWeeks(1);
+            } else {
+                windowStart = windowEnd.minusMonths(1);
+            }
+            windows.add(new GlucoseSummaryBatchRequest.Window(windowStart, windowEnd));
+            windowEnd = windowStart;
+        }
+
+        // Oldest first so each trend compares against the preceding period
+        Collections.reverse(windows);
+        return windows;
+    }
+
+    private String trendOf(BigDecimal trendChange) {
+        if (trendChange.compareTo(BigDecimal.valueOf(10)) > 0) {
+            return "WORSENING";
+        } else if (trendChange.compareTo(BigDecimal.valueOf(-10)) < 0) {
+            return "IMPROVING";
+        }
+        return "STABLE";
+    }
+}
@@ -1,17 +1,30 @@
 package com.glucocloud.api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.glucocloud.api.dto.FoodResponse;
 import com.glucocloud.api.dto.MealRequest;
 import com.glucocloud.api.dto.MealResponse;
 import com.glucocloud.api.entity.Meal;
 import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.food.FoodDatabase;
 import com.glucocloud.api.repository.MealRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -20,9 +33,19 @@ import java.util.stream.Collectors;
 @Transactional
 public class MealService {
 
+    private static final List<String> PATCHABLE = List.of("description", "carbsGrams", "calories", "proteinGrams",
+            "fatGrams", "mealType", "consumedAt", "photoUrl", "notes");
+    private static final List<String> MACROS = List.of("carbsGrams", "calories", "proteinGrams", "fatGrams");
+
     private final MealRepository mealRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FoodDatabase foodDatabase;
+    private final MergePatch mergePatch;
+    private final PatchStatement patchStatement;
+    private final Validator validator;
 
     public MealResponse createMeal(User user, MealRequest request) {
+        applyFood(request);
         Meal meal = Meal.builder()
                 .user(user)
                 .description(request.getDescription())
@@ -37,7 +60,10 @@ public class MealService {
                 .build();
 
         Meal savedMeal = mealRepository.save(meal);
-        return MealResponse.fromEntity(savedMeal);
+        MealResponse response = MealResponse.fromEntity(savedMeal);
+        eventPublisher.publishEvent(EntityChangedEvent.created(user.getId(), EntityChangedEvent.EntityType.MEAL,
+                savedMeal.getId(), MealResponse.class, response));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -64,7 +90,43 @@ public class MealService {
     public MealResponse updateMeal(User user, UUID mealId, MealRequest request) {
         Meal meal = mealRepository.findByIdAndUser(mealId, user)
                 .orElseThrow(() -> new RuntimeException("Meal not found"));
+        return update(user, meal, request);
+    }
+
+    /**
+     * Applies a JSON merge patch as one UPDATE of the supplied columns, guarded by the
+     * version and skipped when nothing changes; expectedVersion (from If-Match) may be null.
+     */
+    public MealResponse patchMeal(User user, UUID mealId, JsonNode patch, Long expectedVersion) {
+        MealRequest request = new MealRequest();
+        Map<String, Object> values = mergePatch.read(request, patch, PATCHABLE);
+        // A chosen food fills the macros the patch does not set
+        if (fillFromFood(request)) {
+            BeanWrapper filled = PropertyAccessorFactory.forBeanPropertyAccess(request);
+            Map<String, Object> macros = new LinkedHashMap<>();
+            for (String macro : MACROS) {
+                if (values.get(macro) == null && filled.getPropertyValue(macro) != null) {
+                    macros.put(macro, filled.getPropertyValue(macro));
+                }
+            }
+            mergePatch.validate(request, macros);
+            values.putAll(macros);
+        }
+        PatchStatement.Result<Meal> result = patchStatement.update(Meal.class, mealId, user.getId(),
+                values, expectedVersion, "Meal");
+
+        MealResponse before = MealResponse.fromEntity(result.before());
+        MealResponse response = MealResponse.fromEntity(result.after());
+        if (!Objects.equals(before.getVersion(), response.getVersion())) {
+            eventPublisher.publishEvent(EntityChangedEvent.updated(user.getId(), EntityChangedEvent.EntityType.MEAL,
+                    mealId, MealResponse.class, before, response));
+        }
+        return response;
+    }
 
+    private MealResponse update(User user, Meal meal, MealRequest request) {
+        applyFood(request);
+        MealResponse before = MealResponse.fromEntity(meal);
         meal.setDescription(request.getDescription());
         meal.setCarbsGrams(request.getCarbsGrams());
         meal.setCalories(request.getCalories());
@@ -75,8 +137,14 @@ public class MealService {
         meal.setPhotoUrl(request.getPhotoUrl());
         meal.setNotes(request.getNotes());
 
-        Meal savedMeal = mealRepository.save(meal);
-        return MealResponse.fromEntity(savedMeal);
+        // Flushed here so the response carries the new version
+        Meal savedMeal = mealRepository.saveAndFlush(meal);
+        MealResponse response = MealResponse.fromEntity(savedMeal);
+        if (!Objects.equals(before.getVersion(), response.getVersion())) {
+            eventPublisher.publishEvent(EntityChangedEvent.updated(user.getId(), EntityChangedEvent.EntityType.MEAL,
+                    meal.getId(), MealResponse.class, before, response));
+        }
+        return response;
     }
 
     public void deleteMeal(User user, UUID mealId) {
@@ -84,10 +152,55 @@ public class MealService {
                 .orElseThrow(() -> new RuntimeException("Meal not found"));
 
         mealRepository.delete(meal);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(user.getId(), EntityChangedEvent.EntityType.MEAL,
+                mealId, MealResponse.class, MealResponse.fromEntity(meal)));
     }
 
     @Transactional(readOnly = true)
     public List<Meal> getMealsForCorrelationAnalysis(User user, LocalDateTime startDate, LocalDateTime endDate) {
         return mealRepository.findMealsForCorrelationAnalysis(user, startDate, endDate);
     }
-}
\ No newline at end of file
+
+    // Validates macros filled in from a chosen food as if the client had sent them
+    private void applyFood(MealRequest request) {
+        if (!fillFromFood(request)) {
+            return;
+        }
+
+        Set<ConstraintViolation<MealRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    // Fills macros the request leaves blank from the chosen food, scaled to the portion (default 100 g)
+    private boolean fillFromFood(MealRequest request) {
+        if (request.getFoodId() == null) {
+            return false;
+        }
+        FoodResponse food = foodDatabase.findFood(request.getFoodId())
+                .orElseThrow(() -> new RuntimeException("Food not found"));
+        double scale = (request.getPortionGrams() != null ? request.getPortionGrams() : 100) / 100.0;
+
+        if (request.getCarbsGrams() == null) {
+            request.setCarbsGrams(scaled(food.getCarbsGrams(), scale));
+        }
+        if (request.getCalories() == null) {
+            request.setCalories(scaled(food.getCalories(), scale));
+        }
+        if (request.getProteinGrams() == null) {
+            request.setProteinGrams(scaled(food.getProteinGrams(), scale));
+        }
+        if (request.getFatGrams() == null) {
+            request.setFatGrams(scaled(food.getFatGrams(), scale));
+        }
+        return true;
+    }
+
+    private static Integer scaled(Float per100Grams, double scale) {
+        return per100Grams == null ? null : (int) Math.round(per100Grams * scale);
+    }
+}
@@ -0,0 +1,96 @@
+package com.glucocloud.api.service;
+
+import com.glucocloud.api.adherence.AdherenceService;
+import com.glucocloud.api.dto.RegimenRequest;
+import com.glucocloud.api.dto.RegimenResponse;
+import com.glucocloud.api.entity.MedicationRegimen;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.MedicationRegimenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class MedicationRegimenService {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final MedicationRegimenRepository regimenRepository;
+    private final AdherenceService adherenceService;
+
+    public RegimenResponse createRegimen(User user, RegimenRequest request) {
+        MedicationRegimen regimen = MedicationRegimen.builder()
+                .user(user)
+                .build();
+        apply(regimen, request);
+
+        MedicationRegimen savedRegimen = regimenRepository.save(regimen);
+        adherenceService.rebuild(savedRegimen);
+        return RegimenResponse.fromEntity(savedRegimen);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RegimenResponse> getUserRegimens(User user) {
+        return regimenRepository.findByUserOrderByNameAsc(user).stream()
+                .map(RegimenResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RegimenResponse> getRegimenById(User user, UUID regimenId) {
+        return regimenRepository.findByIdAndUser(regimenId, user)
+                .map(RegimenResponse::fromEntity);
+    }
+
+    public RegimenResponse updateRegimen(User user, UUID regimenId, RegimenRequest request) {
+        MedicationRegimen regimen = regimenRepository.findByIdAndUser(regimenId, user)
+                .orElseThrow(() -> new RuntimeException("Regimen not found"));
+        apply(regimen, request);
+
+        MedicationRegimen savedRegimen = regimenRepository.save(regimen);
+        adherenceService.rebuild(savedRegimen);
+        return RegimenResponse.fromEntity(savedRegimen);
+    }
+
+    public void deleteRegimen(User user, UUID regimenId) {
+        MedicationRegimen regimen = regimenRepository.findByIdAndUser(regimenId, user)
+                .orElseThrow(() -> new RuntimeException("Regimen not found"));
+
+        adherenceService.deleteRows(regimen);
+        regimenRepository.delete(regimen);
+    }
+
+    private void apply(MedicationRegimen regimen, RegimenRequest request) {
+        LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+        if (request.getEndDate() != null && request.getEndDate().isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+
+        regimen.setName(request.getName().trim());
+        regimen.setDosage(request.getDosage());
+        regimen.setMedicationType(request.getMedicationType());
+        regimen.setTimesOfDay(request.getTimesOfDay().stream()
+                .map(time -> time.withSecond(0).withNano(0))
+                .collect(Collectors.toCollection(TreeSet::new)).stream()
+                .map(TIME_FORMAT::format)
+                .collect(Collectors.joining(",")));
+        regimen.setDaysOfWeek(request.getDaysOfWeek() == null || request.getDaysOfWeek().isEmpty() ? null
+                : new TreeSet<>(request.getDaysOfWeek()).stream()
+                        .map(DayOfWeek::name)
+                        .collect(Collectors.joining(",")));
+        regimen.setStartDate(startDate);
+        regimen.setEndDate(request.getEndDate());
+        regimen.setToleranceMinutes(request.getToleranceMinutes() != null ? request.getToleranceMinutes() : 60);
+    }
+}
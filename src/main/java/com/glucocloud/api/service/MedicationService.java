@@ -1,16 +1,21 @@
 package com.glucocloud.api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.glucocloud.api.dto.MedicationRequest;
 import com.glucocloud.api.dto.MedicationResponse;
 import com.glucocloud.api.entity.Medication;
 import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
 import com.glucocloud.api.repository.MedicationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -20,7 +25,13 @@ import java.util.stream.Collectors;
 @Transactional
 public class MedicationService {
 
+    private static final List<String> PATCHABLE = List.of("name", "dosage", "medicationType", "takenAt", "notes",
+            "effectivenessRating", "sideEffects");
+
     private final MedicationRepository medicationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MergePatch mergePatch;
+    private final PatchStatement patchStatement;
 
     public MedicationResponse createMedication(User user, MedicationRequest request) {
         Medication medication = Medication.builder()
@@ -35,7 +46,10 @@ public class MedicationService {
                 .build();
 
         Medication savedMedication = medicationRepository.save(medication);
-        return MedicationResponse.fromEntity(savedMedication);
+        MedicationResponse response = MedicationResponse.fromEntity(savedMedication);
+        eventPublisher.publishEvent(EntityChangedEvent.created(user.getId(), EntityChangedEvent.EntityType.MEDICATION,
+                savedMedication.getId(), MedicationResponse.class, response));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -62,7 +76,29 @@ public class MedicationService {
     public MedicationResponse updateMedication(User user, UUID medicationId, MedicationRequest request) {
         Medication medication = medicationRepository.findByIdAndUser(medicationId, user)
                 .orElseThrow(() -> new RuntimeException("Medication not found"));
+        return update(user, medication, request);
+    }
+
+    /**
+     * Applies a JSON merge patch as one UPDATE of the supplied columns, guarded by the
+     * version and skipped when nothing changes; expectedVersion (from If-Match) may be null.
+     */
+    public MedicationResponse patchMedication(User user, UUID medicationId, JsonNode patch, Long expectedVersion) {
+        Map<String, Object> values = mergePatch.read(new MedicationRequest(), patch, PATCHABLE);
+        PatchStatement.Result<Medication> result = patchStatement.update(Medication.class, medicationId, user.getId(),
+                values, expectedVersion, "Medication");
+
+        MedicationResponse before = MedicationResponse.fromEntity(result.before());
+        MedicationResponse response = MedicationResponse.fromEntity(result.after());
+        if (!Objects.equals(before.getVersion(), response.getVersion())) {
+            eventPublisher.publishEvent(EntityChangedEvent.updated(user.getId(), EntityChangedEvent.EntityType.MEDICATION,
+                    medicationId, MedicationResponse.class, before, response));
+        }
+        return response;
+    }
 
+    private MedicationResponse update(User user, Medication medication, MedicationRequest request) {
+        MedicationResponse before = MedicationResponse.fromEntity(medication);
         medication.setName(request.getName());
         medication.setDosage(request.getDosage());
         medication.setMedicationType(request.getMedicationType());
@@ -71,8 +107,14 @@ public class MedicationService {
         medication.setEffectivenessRating(request.getEffectivenessRating());
         medication.setSideEffects(request.getSideEffects());
 
-        Medication savedMedication = medicationRepository.save(medication);
-        return MedicationResponse.fromEntity(savedMedication);
+        // Flushed here so the response carries the new version
+        Medication savedMedication = medicationRepository.saveAndFlush(medication);
+        MedicationResponse response = MedicationResponse.fromEntity(savedMedication);
+        if (!Objects.equals(before.getVersion(), response.getVersion())) {
+            eventPublisher.publishEvent(EntityChangedEvent.updated(user.getId(), EntityChangedEvent.EntityType.MEDICATION,
+                    medication.getId(), MedicationResponse.class, before, response));
+        }
+        return response;
     }
 
     public void deleteMedication(User user, UUID medicationId) {
@@ -80,10 +122,7 @@ public class MedicationService {
                 .orElseThrow(() -> new RuntimeException("Medication not found"));
 
         medicationRepository.delete(medication);
-    }
-
-    @Transactional(readOnly = true)
-    public List<String> getUserMedicationNames(User user) {
-        return medicationRepository.findDistinctMedicationNamesByUser(user);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(user.getId(), EntityChangedEvent.EntityType.MEDICATION,
+                medicationId, MedicationResponse.class, MedicationResponse.fromEntity(medication)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.glucocloud.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a JSON merge patch (RFC 7396) without the stored values: members present in the
+ * patch are the new values, explicit nulls clear them and absent members are left alone.
+ * Each supplied value is validated against the same constraints as a full PUT body.
+ */
+@Component
+@RequiredArgsConstructor
+public class MergePatch {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Reads the patch onto the blank request and returns the supplied values of the given
+     * properties, in that order.
+     */
+    public <T> Map<String, Object> read(T blank, JsonNode patch, List<String> properties) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object");
+        }
+        try {
+            objectMapper.readerForUpdating(blank).readValue(patch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getMessage(), e);
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        BeanWrapper request = PropertyAccessorFactory.forBeanPropertyAccess(blank);
+        for (String property : properties) {
+            if (patch.has(property)) {
+                values.put(property, request.getPropertyValue(property));
+            }
+        }
+        validate(blank, values);
+        return values;
+    }
+
+    /** Validates the values as properties of the request type. */
+    @SuppressWarnings("unchecked")
+    public <T> void validate(T request, Map<String, Object> values) {
+        Class<T> type = (Class<T>) request.getClass();
+        List<String> messages = new ArrayList<>();
+        values.forEach((property, value) -> {
+            for (ConstraintViolation<T> violation : validator.validateValue(type, property, value)) {
+                messages.add(violation.getMessage());
+            }
+        });
+        if (!messages.isEmpty()) {
+            throw new IllegalArgumentException(messages.stream().sorted().collect(Collectors.joining("; ")));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.glucocloud.api.service;
+
+import com.glucocloud.api.analytics.ActivityCurve;
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.analytics.OnBoardCalculator;
+import com.glucocloud.api.dto.OnBoardResponse;
+import com.glucocloud.api.dto.OnBoardSeriesResponse;
+import com.glucocloud.api.entity.Meal;
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.MealRepository;
+import com.glucocloud.api.repository.MedicationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OnBoardService {
+
+    private static final int MAX_POINTS = 5000;
+    private static final Pattern DOSE_AMOUNT = Pattern.compile("(\\d+(?:\\.\\d+)?)");
+
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+
+    public OnBoardResponse getOnBoard(User user, LocalDateTime at) {
+        if (at == null) {
+            at = LocalDateTime.now();
+        }
+
+        Inputs inputs = loadInputs(user, at, at);
+        long epochSecond = GlucoseSeries.toEpochSecond(at);
+        return OnBoardResponse.builder()
+                .at(at)
+                .bolusInsulinOnBoard(round(inputs.bolusInsulin().onBoard(epochSecond)))
+                .basalInsulinOnBoard(round(inputs.basalInsulin().onBoard(epochSecond)))
+                .carbsOnBoard(round(inputs.carbs().onBoard(epochSecond)))
+                .build();
+    }
+
+    public OnBoardSeriesResponse getOnBoardSeries(User user, LocalDateTime from, LocalDateTime to, int stepMinutes) {
+        // Default to the last 24 hours
+        if (from == null || to == null) {
+            to = LocalDateTime.now();
+            from = to.minusHours(24);
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (stepMinutes < 1) {
+            throw new IllegalArgumentException("Step must be at least 1 minute");
+        }
+
+        int points = (int) (ChronoUnit.MINUTES.between(from, to) / stepMinutes) + 1;
+        if (points > MAX_POINTS) {
+            throw new IllegalArgumentException("Range too large for a " + stepMinutes + " minute step (max " + MAX_POINTS + " points)");
+        }
+
+        Inputs inputs = loadInputs(user, from, to);
+        long start = GlucoseSeries.toEpochSecond(from);
+        int stepSeconds = stepMinutes * 60;
+
+        long[] t = new long[points];
+        for (int i = 0; i < points; i++) {
+            t[i] = (long) i * stepSeconds;
+        }
+
+        return OnBoardSeriesResponse.builder()
+                .from(from)
+                .to(to)
+                .stepMinutes(stepMinutes)
+                .points(points)
+                .t(t)
+                .bolusInsulin(round(inputs.bolusInsulin().onBoard(start, stepSeconds, points)))
+                .basalInsulin(round(inputs.basalInsulin().onBoard(start, stepSeconds, points)))
+                .carbs(round(inputs.carbs().onBoard(start, stepSeconds, points)))
+                .build();
+    }
+
+    /**
+     * Loads every insulin dose and meal that can still be on board somewhere in
+     * [from, to], grouped by activity curve.
+     */
+    public Inputs loadInputs(User user, LocalDateTime from, LocalDateTime to) {
+        OnBoardCalculator.Builder bolus = OnBoardCalculator.builder();
+        OnBoardCalculator.Builder basal = OnBoardCalculator.builder();
+        OnBoardCalculator.Builder carbs = OnBoardCalculator.builder();
+
+        LocalDateTime insulinFrom = from.minusMinutes(ActivityCurve.MAX_DURATION_MINUTES);
+        for (Medication medication : medicationRepository.findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, insulinFrom, to)) {
+            ActivityCurve curve = ActivityCurve.forMedication(medication.getMedicationType());
+            Double units = parseUnits(medication.getDosage());
+            if (curve == null || units == null || units <= 0) {
+                continue;
+            }
+            boolean isBolus = curve == ActivityCurve.INSULIN_RAPID || curve == ActivityCurve.INSULIN_SHORT;
+            (isBolus ? bolus : basal).add(GlucoseSeries.toEpochSecond(medication.getTakenAt()), units, curve);
+        }
+
+        LocalDateTime mealsFrom = from.minusMinutes(ActivityCurve.CARBS_SLOW.durationMinutes());
+        for (Meal meal : mealRepository.findByUserAndConsumedAtBetweenOrderByConsumedAtDesc(user, mealsFrom, to)) {
+            if (meal.getCarbsGrams() == null || meal.getCarbsGrams() <= 0) {
+                continue;
+            }
+            carbs.add(GlucoseSeries.toEpochSecond(meal.getConsumedAt()), meal.getCarbsGrams(),
+                    ActivityCurve.forMeal(meal.getMealType(), meal.getFatGrams()));
+        }
+
+        return new Inputs(bolus.build(), basal.build(), carbs.build());
+    }
+
+    /** Units from a free-text dosage such as "4 units" or "2.5u"; null if no number is present. */
+    public static Double parseUnits(String dosage) {
+        if (dosage == null) {
+            return null;
+        }
+        Matcher matcher = DOSE_AMOUNT.matcher(dosage);
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : null;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static double[] round(double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = round(values[i]);
+        }
+        return values;
+    }
+
+    public record Inputs(OnBoardCalculator bolusInsulin, OnBoardCalculator basalInsulin, OnBoardCalculator carbs) {
+    }
+}
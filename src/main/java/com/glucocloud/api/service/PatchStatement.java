@@ -0,0 +1,144 @@
+package com.glucocloud.api.service;
+
+import jakarta.persistence.Table;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes the supplied columns of one of a user's rows in a single UPDATE, guarded by the
+ * user and the expected version and skipped when no value changes; the version is bumped
+ * in the same statement. The row is returned as it was before and after, which the change
+ * events need. On PostgreSQL the row is locked, read and updated by one statement;
+ * elsewhere it is read FOR UPDATE first.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatchStatement {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public record Result<T>(T before, T after) {
+    }
+
+    /**
+     * Sets the values (by entity property name) on the row; label names the entity in the
+     * not-found and version-conflict messages.
+     */
+    public <T> Result<T> update(Class<T> entityType, UUID id, UUID userId, Map<String, Object> values,
+                                Long expectedVersion, String label) {
+        String table = entityType.getAnnotation(Table.class).name();
+        boolean touched = BeanUtils.getPropertyDescriptor(entityType, "updatedAt") != null;
+        LocalDateTime now = LocalDateTime.now();
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("userId", userId)
+                .addValue("now", now);
+        List<String> assignments = new ArrayList<>();
+        List<String> changes = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            String column = column(entry.getKey());
+            String param = "p" + assignments.size();
+            params.addValue(param, entry.getValue() instanceof Enum<?> value ? value.name() : entry.getValue());
+            assignments.add(column + " = :" + param);
+            changes.add("old." + column + " IS DISTINCT FROM :" + param);
+        }
+        if (touched) {
+            assignments.add("updated_at = :now");
+        }
+        assignments.add("version = " + table + ".version + 1");
+
+        BeanPropertyRowMapper<T> mapper = BeanPropertyRowMapper.newInstance(entityType);
+        T before;
+        boolean changed;
+        if (isPostgres()) {
+            String sql = "WITH old AS (SELECT * FROM " + table + " WHERE id = :id AND user_id = :userId FOR UPDATE), " +
+                    "patched AS (UPDATE " + table + " SET " + String.join(", ", assignments) + " FROM old " +
+                    "WHERE " + table + ".id = old.id" + (expectedVersion != null ? " AND old.version = :version" : "") +
+                    (changes.isEmpty() ? " AND false" : " AND (" + String.join(" OR ", changes) + ")") +
+                    " RETURNING " + table + ".id) " +
+                    "SELECT old.*, (SELECT count(*) FROM patched) AS patched FROM old";
+            params.addValue("version", expectedVersion);
+            List<Object[]> rows = jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                    new Object[]{mapper.mapRow(rs, rowNum), rs.getLong("patched") > 0});
+            if (rows.isEmpty()) {
+                throw new RuntimeException(label + " not found");
+            }
+            before = entityType.cast(rows.get(0)[0]);
+            changed = (Boolean) rows.get(0)[1];
+            checkVersion(before, expectedVersion, label);
+        } else {
+            List<T> rows = jdbcTemplate.query("SELECT * FROM " + table + " WHERE id = :id AND user_id = :userId FOR UPDATE",
+                    params, mapper);
+            if (rows.isEmpty()) {
+                throw new RuntimeException(label + " not found");
+            }
+            before = rows.get(0);
+            checkVersion(before, expectedVersion, label);
+            BeanWrapper current = PropertyAccessorFactory.forBeanPropertyAccess(before);
+            changed = values.entrySet().stream()
+                    .anyMatch(entry -> !same(current.getPropertyValue(entry.getKey()), entry.getValue()));
+            if (changed) {
+                jdbcTemplate.update("UPDATE " + table + " SET " + String.join(", ", assignments) +
+                        " WHERE id = :id AND user_id = :userId", params);
+            }
+        }
+
+        if (!changed) {
+            return new Result<>(before, before);
+        }
+        T after = BeanUtils.instantiateClass(entityType);
+        BeanUtils.copyProperties(before, after);
+        BeanWrapper patched = PropertyAccessorFactory.forBeanPropertyAccess(after);
+        values.forEach(patched::setPropertyValue);
+        if (touched) {
+            patched.setPropertyValue("updatedAt", now);
+        }
+        patched.setPropertyValue("version", (Long) patched.getPropertyValue("version") + 1);
+        return new Result<>(before, after);
+    }
+
+    private void checkVersion(Object row, Long expectedVersion, String label) {
+        Object version = PropertyAccessorFactory.forBeanPropertyAccess(row).getPropertyValue("version");
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            throw new OptimisticLockingFailureException(label + " has changed; current version is " + version);
+        }
+    }
+
+    private static boolean same(Object current, Object value) {
+        if (current instanceof BigDecimal a && value instanceof BigDecimal b) {
+            return a.compareTo(b) == 0;
+        }
+        return Objects.equals(current, value);
+    }
+
+    private static String column(String property) {
+        return property.replaceAll("([A-Z])", "_$1").toLowerCase();
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isWrapperFor(PGConnection.class));
+        }
+        return postgres;
+    }
+}
@@ -28,6 +28,7 @@ public class UserService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
                 .password(user.getPasswordHash())
+                .disabled(Boolean.FALSE.equals(user.getIsActive()))
                 .authorities(new ArrayList<>())
                 .build();
     }
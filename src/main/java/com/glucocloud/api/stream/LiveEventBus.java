@@ -0,0 +1,158 @@
+package com.glucocloud.api.stream;
+
+import com.glucocloud.api.event.AccountErasedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process publish/subscribe bus for live per-user events delivered over SSE.
+ * Each subscriber has a bounded buffer; when a slow client falls behind the oldest
+ * events are dropped. Buffers are drained by a small shared pool, so an idle
+ * connection holds no thread, only its async servlet request.
+ */
+@Component
+@Slf4j
+public class LiveEventBus {
+
+    private static final int BUFFER_CAPACITY = 256;
+    private static final long HEARTBEAT_SECONDS = 25;
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService senders = Executors.newFixedThreadPool(2,
+            runnable -> daemon(runnable, "live-events-" + threadCounter.incrementAndGet()));
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            runnable -> daemon(runnable, "live-events-heartbeat"));
+
+    public LiveEventBus() {
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void subscribe(UUID userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+    }
+
+    public void publish(UUID userId, String eventName, Object data) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(SseEmitter.event().name(eventName).data(data));
+        }
+    }
+
+    public int subscriberCount(UUID userId) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers != null ? userSubscribers.size() : 0;
+    }
+
+    // Closes the streams of an erased account
+    @EventListener
+    public void onAccountErased(AccountErasedEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.remove(event.userId());
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void sendHeartbeats() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private class Subscriber {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private long dropped;
+
+        Subscriber(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            synchronized (buffer) {
+                if (buffer.size() == BUFFER_CAPACITY) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(event);
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    SseEmitter.SseEventBuilder event;
+                    synchronized (buffer) {
+                        event = buffer.pollFirst();
+                        if (event == null) {
+                            draining.set(false);
+                            return;
+                        }
+                    }
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter callbacks remove the subscriber
+                log.debug("Dropping live event subscriber for user {} ({} events dropped): {}",
+                        userId, dropped, e.getMessage());
+                draining.set(false);
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.glucocloud.api.stream;
+
+import com.glucocloud.api.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Forwards committed entity changes to open SSE sessions; alerts come from GlucoseAlertEngine
+@Component
+@RequiredArgsConstructor
+public class LiveEventRelay {
+
+    private final LiveEventBus liveEventBus;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent<?> event) {
+        if (liveEventBus.subscriberCount(event.getUserId()) == 0) {
+            return;
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("change", event.getChangeType());
+        data.put("id", event.getEntityId());
+        data.put("data", event.getAfter());
+        data.put("occurredAt", event.getOccurredAt());
+        liveEventBus.publish(event.getUserId(), eventName(event.getEntityType()), data);
+    }
+
+    private String eventName(EntityChangedEvent.EntityType entityType) {
+        return switch (entityType) {
+            case GLUCOSE_READING -> "reading";
+            case MEAL -> "meal";
+            case MEDICATION -> "medication";
+        };
+    }
+}
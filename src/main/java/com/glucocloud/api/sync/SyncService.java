@@ -0,0 +1,390 @@
+package com.glucocloud.api.sync;
+
+import com.glucocloud.api.dto.*;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.SyncChange;
+import com.glucocloud.api.entity.SyncCounter;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangeBatch;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.*;
+import com.glucocloud.api.service.GlucoseReadingService;
+import com.glucocloud.api.service.MealService;
+import com.glucocloud.api.service.MedicationService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Per-user change feed for offline clients. Every create, update and delete bumps the
+ * user's sequence inside the write transaction and stamps the record's single feed row
+ * with it, so a sync reads only the rows past the client's token through the
+ * (user_id, seq) index: its cost follows what changed, not the size of the history.
+ * Deletes leave tombstones, which are pruned after a retention period. Records from
+ * before the feed existed are numbered by a background job queued with the user's first
+ * change.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SyncService {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final String INSERT_CHANGE = "INSERT INTO sync_changes " +
+            "(entity_id, user_id, entity_type, seq, deleted, changed_at) VALUES (?, ?, ?, ?, false, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final SyncCounterRepository syncCounterRepository;
+    private final SyncChangeRepository syncChangeRepository;
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+    private final BackgroundJobRepository jobRepository;
+    private final GlucoseReadingService glucoseReadingService;
+    private final MealService mealService;
+    private final MedicationService medicationService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+
+    @Value("${glucocloud.sync.tombstone-retention-days:90}")
+    private int tombstoneRetentionDays;
+
+    // Runs inside the write transaction, so sequence numbers are handed out in commit order
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent<?> event) {
+        if (event.getEntityId() == null || event.isBatched()) {
+            return;
+        }
+        SyncCounter counter = lockCounter(event.getUserId());
+        counter.setLastSeq(counter.getLastSeq() + 1);
+
+        SyncChange change = syncChangeRepository.findById(event.getEntityId())
+                .orElseGet(() -> SyncChange.builder()
+                        .entityId(event.getEntityId())
+                        .userId(event.getUserId())
+                        .entityType(event.getEntityType())
+                        .build());
+        change.setSeq(counter.getLastSeq());
+        change.setDeleted(event.getChangeType() == EntityChangedEvent.ChangeType.DELETED);
+        change.setChangedAt(LocalDateTime.now());
+        syncChangeRepository.save(change);
+    }
+
+    // Records created in bulk have no feed rows yet: one counter bump numbers them all
+    @EventListener
+    public void onEntityChangeBatch(EntityChangeBatch batch) {
+        List<EntityChangedEvent<?>> changes = batch.changes().stream()
+                .filter(change -> change.getEntityId() != null)
+                .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+        SyncCounter counter = lockCounter(batch.userId());
+        long first = counter.getLastSeq() + 1;
+        counter.setLastSeq(counter.getLastSeq() + changes.size());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> offsets = IntStream.range(0, changes.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, offsets, BATCH_SIZE, (statement, offset) -> {
+            EntityChangedEvent<?> change = changes.get(offset);
+            statement.setObject(1, change.getEntityId());
+            statement.setObject(2, batch.userId());
+            statement.setString(3, change.getEntityType().name());
+            statement.setLong(4, first + offset);
+            statement.setTimestamp(5, now);
+        });
+    }
+
+    public SyncResponse getChanges(User user, String since, int limit) {
+        SyncToken token = SyncToken.decode(since);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (!syncCounterRepository.existsById(user.getId())) {
+            lockCounter(user.getId());
+        }
+
+        List<SyncChange> rows = syncChangeRepository.findByUserIdAndSeqGreaterThanOrderBySeqAsc(
+                user.getId(), token.seq(), PageRequest.of(0, pageSize + 1));
+        // Read after the rows: a prune committed in between is then seen here rather than missed
+        SyncCounter counter = syncCounterRepository.findById(user.getId()).orElseThrow();
+        long prunedSeq = token.seq() == 0 ? counter.getPrunedSeq() : token.prunedSeq();
+        if (token.seq() > counter.getLastSeq()
+                || (token.seq() < counter.getPrunedSeq() && prunedSeq < counter.getPrunedSeq())) {
+            return SyncResponse.builder()
+                    .changes(List.of())
+                    .nextToken(SyncToken.START.encode())
+                    .resetRequired(true)
+                    .build();
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        long lastSeq = rows.isEmpty() ? token.seq() : rows.get(rows.size() - 1).getSeq();
+        return SyncResponse.builder()
+                .changes(toChanges(rows))
+                .nextToken(new SyncToken(lastSeq, prunedSeq).encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Applies offline edits one by one, each in its own transaction so one bad edit does
+     * not undo the others. An edit whose base sequence is older than the record's current
+     * one conflicts and is returned with the server's version instead of being applied.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncUploadResponse upload(User user, SyncUploadRequest request) {
+        List<SyncUploadResponse.Result> results = new ArrayList<>(request.getMutations().size());
+        for (SyncUploadRequest.Mutation mutation : request.getMutations()) {
+            results.add(apply(user, mutation));
+        }
+        return SyncUploadResponse.builder()
+                .results(results)
+                .build();
+    }
+
+    @Scheduled(cron = "${glucocloud.sync.prune-cron:0 30 3 * * *}")
+    public void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        int pruned = 0;
+        for (Object[] row : syncChangeRepository.findPrunableTombstones(cutoff)) {
+            UUID userId = (UUID) row[0];
+            long seq = ((Number) row[1]).longValue();
+            syncCounterRepository.advancePrunedSeq(userId, seq);
+            pruned += syncChangeRepository.deleteTombstones(userId, seq);
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} sync tombstones older than {} days", pruned, tombstoneRetentionDays);
+        }
+    }
+
+    private SyncUploadResponse.Result apply(User user, SyncUploadRequest.Mutation mutation) {
+        String problem = validate(mutation);
+        if (problem != null) {
+            return result(mutation, mutation.getId(), SyncUploadResponse.Status.INVALID).message(problem).build();
+        }
+        try {
+            return transactionTemplate.execute(status -> applyLocked(user, mutation));
+        } catch (RuntimeException e) {
+            return result(mutation, mutation.getId(), SyncUploadResponse.Status.INVALID).message(e.getMessage()).build();
+        }
+    }
+
+    private SyncUploadResponse.Result applyLocked(User user, SyncUploadRequest.Mutation mutation) {
+        // Holding the counter lock, no other change for this user can commit before this one
+        lockCounter(user.getId());
+        UUID id = mutation.getId();
+        boolean delete = mutation.getOp() == SyncUploadRequest.Operation.DELETE;
+
+        if (id != null) {
+            SyncChange current = syncChangeRepository.findById(id)
+                    .filter(change -> change.getUserId().equals(user.getId())
+                            && change.getEntityType() == mutation.getType())
+                    .orElse(null);
+            if (current == null) {
+                return result(mutation, id, SyncUploadResponse.Status.NOT_FOUND).build();
+            }
+            if (mutation.getBaseSeq() != null && current.getSeq() > mutation.getBaseSeq()) {
+                return result(mutation, id, SyncUploadResponse.Status.CONFLICT)
+                        .seq(current.getSeq())
+                        .server(toChanges(List.of(current)).stream().findFirst().orElse(null))
+                        .build();
+            }
+            if (current.isDeleted()) {
+                // Deleting twice is harmless; editing a deleted record is not possible
+                return result(mutation, id, delete ? SyncUploadResponse.Status.APPLIED : SyncUploadResponse.Status.NOT_FOUND)
+                        .seq(current.getSeq())
+                        .build();
+            }
+            if (!exists(user, mutation.getType(), id)) {
+                return result(mutation, id, SyncUploadResponse.Status.NOT_FOUND).build();
+            }
+        }
+
+        if (delete) {
+            switch (mutation.getType()) {
+                case GLUCOSE_READING -> glucoseReadingService.deleteReading(user, id);
+                case MEAL -> mealService.deleteMeal(user, id);
+                case MEDICATION -> medicationService.deleteMedication(user, id);
+            }
+        } else {
+            id = switch (mutation.getType()) {
+                case GLUCOSE_READING -> id == null
+                        ? glucoseReadingService.createReading(user, mutation.getReading()).getId()
+                        : glucoseReadingService.updateReading(user, id, mutation.getReading()).getId();
+                case MEAL -> id == null
+                        ? mealService.createMeal(user, mutation.getMeal()).getId()
+                        : mealService.updateMeal(user, id, mutation.getMeal()).getId();
+                case MEDICATION -> id == null
+                        ? medicationService.createMedication(user, mutation.getMedication()).getId()
+                        : medicationService.updateMedication(user, id, mutation.getMedication()).getId();
+            };
+        }
+
+        return result(mutation, id, SyncUploadResponse.Status.APPLIED)
+                .seq(syncChangeRepository.findById(id).map(SyncChange::getSeq).orElse(null))
+                .build();
+    }
+
+    private boolean exists(User user, EntityChangedEvent.EntityType type, UUID id) {
+        return switch (type) {
+            case GLUCOSE_READING -> glucoseReadingRepository.findByIdAndUser(id, user).isPresent();
+            case MEAL -> mealRepository.findByIdAndUser(id, user).isPresent();
+            case MEDICATION -> medicationRepository.findByIdAndUser(id, user).isPresent();
+        };
+    }
+
+    private String validate(SyncUploadRequest.Mutation mutation) {
+        if (mutation.getType() == null || mutation.getOp() == null) {
+            return "Mutation type and op are required";
+        }
+        if (mutation.getOp() == SyncUploadRequest.Operation.DELETE) {
+            return mutation.getId() == null ? "Delete requires an id" : null;
+        }
+        Object payload = switch (mutation.getType()) {
+            case GLUCOSE_READING -> mutation.getReading();
+            case MEAL -> mutation.getMeal();
+            case MEDICATION -> mutation.getMedication();
+        };
+        if (payload == null) {
+            return "Upsert of " + mutation.getType() + " requires its payload";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(payload);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static SyncUploadResponse.Result.ResultBuilder result(SyncUploadRequest.Mutation mutation, UUID id,
+                                                                  SyncUploadResponse.Status status) {
+        return SyncUploadResponse.Result.builder()
+                .clientRef(mutation.getClientRef())
+                .type(mutation.getType())
+                .id(id)
+                .status(status);
+    }
+
+    private List<SyncResponse.Change> toChanges(List<SyncChange> rows) {
+        Map<EntityChangedEvent.EntityType, List<UUID>> live = rows.stream()
+                .filter(row -> !row.isDeleted())
+                .collect(Collectors.groupingBy(SyncChange::getEntityType,
+                        Collectors.mapping(SyncChange::getEntityId, Collectors.toList())));
+
+        Map<UUID, GlucoseReadingResponse> readings = load(live.get(EntityChangedEvent.EntityType.GLUCOSE_READING),
+                ids -> glucoseReadingRepository.findAllById(ids).stream().map(GlucoseReadingResponse::fromEntity),
+                GlucoseReadingResponse::getId);
+        Map<UUID, MealResponse> meals = load(live.get(EntityChangedEvent.EntityType.MEAL),
+                ids -> mealRepository.findAllById(ids).stream().map(MealResponse::fromEntity),
+                MealResponse::getId);
+        Map<UUID, MedicationResponse> medications = load(live.get(EntityChangedEvent.EntityType.MEDICATION),
+                ids -> medicationRepository.findAllById(ids).stream().map(MedicationResponse::fromEntity),
+                MedicationResponse::getId);
+
+        List<SyncResponse.Change> changes = new ArrayList<>(rows.size());
+        for (SyncChange row : rows) {
+            SyncResponse.Change change = SyncResponse.Change.builder()
+                    .seq(row.getSeq())
+                    .type(row.getEntityType())
+                    .id(row.getEntityId())
+                    .deleted(row.isDeleted())
+                    .build();
+            if (!row.isDeleted()) {
+                switch (row.getEntityType()) {
+                    case GLUCOSE_READING -> change.setReading(readings.get(row.getEntityId()));
+                    case MEAL -> change.setMeal(meals.get(row.getEntityId()));
+                    case MEDICATION -> change.setMedication(medications.get(row.getEntityId()));
+                }
+                // Deleted since the page was read; its tombstone follows with a later sequence
+                if (change.getReading() == null && change.getMeal() == null && change.getMedication() == null) {
+                    continue;
+                }
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private static <T> Map<UUID, T> load(List<UUID> ids, Function<List<UUID>, Stream<T>> finder,
+                                         Function<T, UUID> idOf) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+        return finder.apply(ids).collect(Collectors.toMap(idOf, Function.identity()));
+    }
+
+    /** Blocks changes of the user, which all take this lock, until the transaction ends. */
+    public void lockUser(UUID userId) {
+        lockCounter(userId);
+    }
+
+    /**
+     * Gives up to limit of the user's records that have no feed row yet the next sequence
+     * numbers, readings first, then meals and medications; returns how many it numbered.
+     */
+    public int backfill(UUID userId, int limit) {
+        SyncCounter counter = syncCounterRepository.findForUpdate(userId).orElse(null);
+        if (counter == null) {
+            return 0;
+        }
+        int added = syncChangeRepository.backfillReadings(userId, counter.getLastSeq(), limit);
+        if (added == 0) {
+            added = syncChangeRepository.backfillMeals(userId, counter.getLastSeq(), limit);
+        }
+        if (added == 0) {
+            added = syncChangeRepository.backfillMedications(userId, counter.getLastSeq(), limit);
+        }
+        counter.setLastSeq(counter.getLastSeq() + added);
+        return added;
+    }
+
+    private SyncCounter lockCounter(UUID userId) {
+        return syncCounterRepository.findForUpdate(userId).orElseGet(() -> createCounter(userId));
+    }
+
+    // A first change finds no row to lock. The row is inserted in a transaction of its own, where a
+    // concurrent first change loses on the primary key, and then locked like any other.
+    private SyncCounter createCounter(UUID userId) {
+        TransactionTemplate separate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            separate.executeWithoutResult(status -> {
+                syncCounterRepository.insert(userId);
+                jobRepository.save(BackgroundJob.builder()
+                        .userId(userId)
+                        .type(BackgroundJob.JobType.SYNC_BACKFILL)
+                        .status(BackgroundJob.Status.PENDING)
+                        .build());
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Sync counter of user {} was created concurrently", userId);
+        }
+        return syncCounterRepository.findForUpdate(userId).orElseThrow();
+    }
+}
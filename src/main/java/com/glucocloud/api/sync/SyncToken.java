@@ -0,0 +1,31 @@
+package com.glucocloud.api.sync;
+
+/**
+ * Position in a user's change feed: the last sequence the client has seen, and the
+ * prune horizon its copy is consistent with. A client that started from scratch never
+ * needed the tombstones pruned before it started, so only a prune after that forces a
+ * reset.
+ */
+public record SyncToken(long seq, long prunedSeq) {
+
+    public static final SyncToken START = new SyncToken(0, 0);
+
+    public String encode() {
+        return seq + "." + prunedSeq;
+    }
+
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank() || token.trim().equals("0")) {
+            return START;
+        }
+        try {
+            String[] parts = token.trim().split("\\.");
+            SyncToken decoded = new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            if (parts.length == 2 && decoded.seq >= 0 && decoded.prunedSeq >= 0) {
+                return decoded;
+            }
+        } catch (RuntimeException ignored) {
+        }
+        throw new IllegalArgumentException("Invalid sync token");
+    }
+}
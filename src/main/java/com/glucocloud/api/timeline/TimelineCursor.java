@@ -0,0 +1,42 @@
+package com.glucocloud.api.timeline;
+
+import com.glucocloud.api.dto.TimelineResponse;
+import com.glucocloud.api.event.EntityChangedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Keyset position in the timeline, which runs newest first by time, then type, then id.
+ * Ids compare as their hex strings, the unsigned byte order the databases use for UUIDs.
+ */
+public record TimelineCursor(LocalDateTime occurredAt, EntityChangedEvent.EntityType type, UUID id) {
+
+    public static final Comparator<TimelineResponse.Event> ORDER = Comparator
+            .comparing(TimelineResponse.Event::getOccurredAt)
+            .thenComparing(event -> event.getType().name())
+            .thenComparing(event -> event.getId().toString())
+            .reversed();
+
+    public static TimelineCursor of(TimelineResponse.Event event) {
+        return new TimelineCursor(event.getOccurredAt(), event.getType(), event.getId());
+    }
+
+    public String encode() {
+        String raw = occurredAt + "|" + type + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TimelineCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new TimelineCursor(LocalDateTime.parse(parts[0]), EntityChangedEvent.EntityType.valueOf(parts[1]),
+                    UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid timeline cursor");
+        }
+    }
+}
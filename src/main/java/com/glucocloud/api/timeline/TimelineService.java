@@ -0,0 +1,114 @@
+package com.glucocloud.api.timeline;
+
+import com.glucocloud.api.dto.TimelineResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.MealRepository;
+import com.glucocloud.api.repository.MedicationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Readings, meals and medications merged into one newest-first stream. Each source is
+ * read with an index-backed keyset query bounded to one page plus one row, and the
+ * three sorted pages are merged k-way; a page never touches more than 3 * (limit + 1)
+ * rows however long the history is.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TimelineService {
+
+    private static final int MAX_LIMIT = 200;
+
+    // Sentinels that turn the per-source keyset predicate into "at or before" / "strictly before"
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private final GlucoseReadingRepository glucoseReadingRepository;
+    private final MealRepository mealRepository;
+    private final MedicationRepository medicationRepository;
+
+    public TimelineResponse getTimeline(User user, String before, int limit) {
+        TimelineCursor cursor = before == null || before.isBlank() ? null : TimelineCursor.decode(before);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+
+        List<List<TimelineResponse.Event>> sources = List.of(
+                glucoseReadingRepository.findPageBefore(user.getId(), time(cursor), idBound(cursor,
+                                EntityChangedEvent.EntityType.GLUCOSE_READING), fetch).stream()
+                        .map(TimelineResponse.Event::fromReading)
+                        .collect(Collectors.toList()),
+                mealRepository.findPageBefore(user.getId(), time(cursor), idBound(cursor,
+                                EntityChangedEvent.EntityType.MEAL), fetch).stream()
+                        .map(TimelineResponse.Event::fromMeal)
+                        .collect(Collectors.toList()),
+                medicationRepository.findPageBefore(user.getId(), time(cursor), idBound(cursor,
+                                EntityChangedEvent.EntityType.MEDICATION), fetch).stream()
+                        .map(TimelineResponse.Event::fromMedication)
+                        .collect(Collectors.toList()));
+
+        List<TimelineResponse.Event> events = merge(sources, pageSize + 1);
+        String nextCursor = null;
+        if (events.size() > pageSize) {
+            events = events.subList(0, pageSize);
+            nextCursor = TimelineCursor.of(events.get(pageSize - 1)).encode();
+        }
+
+        return TimelineResponse.builder()
+                .events(events)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /** Merges lists already sorted in {@link TimelineCursor#ORDER}, keeping at most limit events. */
+    static List<TimelineResponse.Event> merge(List<List<TimelineResponse.Event>> sources, int limit) {
+        // Heads are {source, position}; the queue always yields the newest remaining head
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) ->
+                TimelineCursor.ORDER.compare(sources.get(a[0]).get(a[1]), sources.get(b[0]).get(b[1])));
+        for (int s = 0; s < sources.size(); s++) {
+            if (!sources.get(s).isEmpty()) {
+                heads.add(new int[]{s, 0});
+            }
+        }
+
+        List<TimelineResponse.Event> merged = new ArrayList<>(limit);
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<TimelineResponse.Event> source = sources.get(head[0]);
+            merged.add(source.get(head[1]));
+            if (head[1] + 1 < source.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    private static LocalDateTime time(TimelineCursor cursor) {
+        return cursor == null ? END_OF_TIME : cursor.occurredAt();
+    }
+
+    // At the cursor's instant, types named before the cursor's type still follow it (the order is descending)
+    private static UUID idBound(TimelineCursor cursor, EntityChangedEvent.EntityType type) {
+        if (cursor == null) {
+            return MAX_ID;
+        }
+        int order = type.name().compareTo(cursor.type().name());
+        if (order == 0) {
+            return cursor.id();
+        }
+        return order < 0 ? MAX_ID : MIN_ID;
+    }
+}
@@ -0,0 +1,50 @@
+package com.glucocloud.api.adherence;
+
+import org.junit.jupiter.api.Test;
+
+import static com.glucocloud.api.adherence.AdherenceMatcher.SlotStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdherenceMatcherTest {
+
+    private static final long HOUR = 3600;
+
+    @Test
+    void testTakenLateMissedAndExtra() {
+        // Slots at 08:00 and 20:00 on two days
+        long[] slots = {8 * HOUR, 20 * HOUR, 32 * HOUR, 44 * HOUR};
+        long[] doses = {
+                8 * HOUR + 1200,   // 20 min after 08:00 -> taken
+                8 * HOUR + 1800,   // second dose for the same slot -> extra
+                22 * HOUR,         // 2h after 20:00 -> late
+                38 * HOUR          // 6h after 08:00, 6h before 20:00 -> extra
+        };
+
+        AdherenceMatcher.Result result = AdherenceMatcher.match(slots, doses, 60, 240);
+
+        assertArrayEquals(new AdherenceMatcher.SlotStatus[]{TAKEN, LATE, MISSED, MISSED}, result.slotStatus());
+        assertArrayEquals(new int[]{0, -1, 1, -1}, result.doseSlot());
+    }
+
+    @Test
+    void testDoseGoesToNearestSlotInWindow() {
+        // 08:00 and 12:00; a dose at 11:30 is late for 08:00 but on time for 12:00
+        long[] slots = {8 * HOUR, 12 * HOUR};
+        long[] doses = {11 * HOUR + 1800};
+
+        AdherenceMatcher.Result result = AdherenceMatcher.match(slots, doses, 60, 240);
+
+        assertArrayEquals(new AdherenceMatcher.SlotStatus[]{MISSED, TAKEN}, result.slotStatus());
+    }
+
+    @Test
+    void testCloserDoseReplacesEarlierMatch() {
+        long[] slots = {8 * HOUR};
+        long[] doses = {7 * HOUR + 600, 8 * HOUR + 60};
+
+        AdherenceMatcher.Result result = AdherenceMatcher.match(slots, doses, 60, 240);
+
+        assertEquals(TAKEN, result.slotStatus()[0]);
+        assertArrayEquals(new int[]{-1, 0}, result.doseSlot());
+    }
+}
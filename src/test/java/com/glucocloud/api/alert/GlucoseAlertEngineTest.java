@@ -0,0 +1,111 @@
+package com.glucocloud.api.alert;
+
+import com.glucocloud.api.dto.GlucoseAlertResponse;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.entity.GlucoseAlert;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.outbox.OutboxDispatcher;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.GlucoseReadingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.outbox.poll-interval-ms=3600000"})
+class GlucoseAlertEngineTest {
+
+    @Autowired
+    private GlucoseAlertEngine alertEngine;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void alertsAreStoredOnceWhenTheOutboxIsDelivered() {
+        User user = createUser();
+        LocalDateTime start = LocalDateTime.now().minusMinutes(10);
+        glucoseReadingService.createReading(user, reading(150, start));
+        glucoseReadingService.createReading(user, reading(120, start.plusMinutes(5)));
+        glucoseReadingService.createReading(user, reading(45, start.plusMinutes(10)));
+
+        assertTrue(alertEngine.getRecentAlerts(user, 10).isEmpty());
+
+        dispatcher.dispatch();
+        List<GlucoseAlertResponse> alerts = alertEngine.getRecentAlerts(user, 10);
+        Set<GlucoseAlert.AlertType> types = alerts.stream()
+                .map(GlucoseAlertResponse::getAlertType)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(GlucoseAlert.AlertType.RAPID_FALL, GlucoseAlert.AlertType.CRITICAL_LOW), types);
+        assertEquals(2, alerts.size());
+
+        dispatcher.dispatch();
+        assertEquals(2, alertEngine.getRecentAlerts(user, 10).size());
+    }
+
+    @Test
+    void importedHistoryRaisesNoAlerts() {
+        User user = createUser();
+        LocalDateTime now = LocalDateTime.now();
+        glucoseReadingService.createReading(user, reading(110, now.minusMinutes(5)));
+        dispatcher.dispatch();
+
+        // A hypo-heavy day of history, older than the newest reading
+        glucoseReadingService.createReadings(user, day(now.minusDays(1)));
+        dispatcher.dispatch();
+        assertTrue(alertEngine.getRecentAlerts(user, 10).isEmpty());
+
+        // The same for a user whose history is their first data
+        User imported = createUser();
+        glucoseReadingService.createReadings(imported, day(now.minusDays(2)));
+        dispatcher.dispatch();
+        assertTrue(alertEngine.getRecentAlerts(imported, 10).isEmpty());
+
+        // Live readings after the import are still evaluated
+        glucoseReadingService.createReading(imported, reading(45, now));
+        dispatcher.dispatch();
+        assertEquals(List.of(GlucoseAlert.AlertType.CRITICAL_LOW), alertEngine.getRecentAlerts(imported, 10).stream()
+                .map(GlucoseAlertResponse::getAlertType)
+                .toList());
+    }
+
+    private User createUser() {
+        return userRepository.save(User.builder()
+                .email("alerts-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+
+    // A day of five-minute readings swinging between 40 and 300 mg/dL
+    private static List<GlucoseReadingRequest> day(LocalDateTime start) {
+        List<GlucoseReadingRequest> readings = new ArrayList<>();
+        for (int i = 0; i < 288; i++) {
+            readings.add(reading(i % 12 < 8 ? 40 : 300, start.plusMinutes(5L * i)));
+        }
+        return readings;
+    }
+
+    private static GlucoseReadingRequest reading(int value, LocalDateTime takenAt) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setReadingValue(BigDecimal.valueOf(value));
+        request.setTakenAt(takenAt);
+        return request;
+    }
+}
@@ -0,0 +1,46 @@
+package com.glucocloud.api.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserGlucoseStateTest {
+
+    @Test
+    void testAddAndRemoveKeepTotalsInSync() {
+        UserGlucoseState state = new UserGlucoseState();
+        LocalDate today = LocalDate.now();
+
+        state.add(today, 100);
+        state.add(today, 260);
+        state.add(today.minusDays(3), 50);
+        state.remove(today, 100);
+
+        double[] totals = state.totals(7);
+        assertEquals(2, totals[0]);
+        assertEquals(310, totals[1], 1e-9);
+        assertEquals(0, totals[2]);
+        assertEquals(1, totals[3]);
+        assertEquals(1, totals[4]);
+        assertEquals(1, totals[5]);
+        assertEquals(1, totals[6]);
+
+        assertEquals(1, state.totals(1)[0]);
+        assertEquals(1, state.totals(3, 1)[0]);
+    }
+
+    @Test
+    void testDaysOutsideWindowAreIgnored() {
+        UserGlucoseState state = new UserGlucoseState();
+        LocalDate today = LocalDate.now();
+
+        state.add(today.minusDays(UserGlucoseState.DAYS), 120);
+        state.add(today.plusDays(1), 120);
+        state.seedDay(today.minusDays(UserGlucoseState.DAYS - 1), 4, 480, 4, 0, 0, 0, 0);
+
+        assertEquals(4, state.totals(UserGlucoseState.DAYS)[0]);
+        assertEquals(0, state.totals(UserGlucoseState.DAYS - 1)[0]);
+    }
+}
@@ -0,0 +1,60 @@
+package com.glucocloud.api.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgpHistogramTest {
+
+    @Test
+    void testPercentilesFromBins() {
+        AgpHistogram histogram = new AgpHistogram();
+        LocalTime time = LocalTime.of(8, 2);
+
+        // Values 100..199 in the 08:00 slot
+        for (int value = 100; value < 200; value++) {
+            histogram.add(time, value);
+        }
+
+        int slot = AgpHistogram.slotOf(time);
+        double[] p = histogram.percentiles(slot, 0.05, 0.5, 0.95);
+
+        assertEquals(100, histogram.slotCount(slot));
+        assertEquals(105, p[0], AgpHistogram.BIN_WIDTH);
+        assertEquals(150, p[1], AgpHistogram.BIN_WIDTH);
+        assertEquals(195, p[2], AgpHistogram.BIN_WIDTH);
+        assertNull(histogram.percentiles(slot + 1, 0.5));
+    }
+
+    @Test
+    void testDayDigestsMergeLikeDirectAdds() {
+        AgpHistogram direct = new AgpHistogram();
+        AgpHistogram merged = new AgpHistogram();
+        AgpDayDigest.Builder day1 = AgpDayDigest.builder();
+        AgpDayDigest.Builder day2 = AgpDayDigest.builder();
+
+        for (int i = 0; i < 500; i++) {
+            LocalTime time = LocalTime.MIDNIGHT.plusMinutes(i * 7L);
+            double value = 60 + (i * 37) % 250;
+            direct.add(time, value);
+            (i % 2 == 0 ? day1 : day2).add(time, value);
+        }
+
+        merged.merge(day1.build());
+        merged.merge(day2.build());
+
+        assertEquals(direct.totalCount(), merged.totalCount());
+        for (int slot = 0; slot < AgpHistogram.SLOTS; slot++) {
+            assertArrayEquals(direct.percentiles(slot, 0.25, 0.75), merged.percentiles(slot, 0.25, 0.75));
+        }
+    }
+
+    @Test
+    void testValuesAreClampedToBinRange() {
+        assertEquals(0, AgpHistogram.binOf(5));
+        assertEquals(AgpHistogram.BINS - 1, AgpHistogram.binOf(999.99));
+        assertEquals(AgpHistogram.SLOTS - 1, AgpHistogram.slotOf(LocalTime.of(23, 59)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.glucocloud.api.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoseResponseSweepTest {
+
+    @Test
+    void testTrajectoryAfterDose() {
+        // Dose at t=3600 with a 4h window; glucose falls to 62, recovers, dips again
+        DoseResponseSweep sweep = new DoseResponseSweep(new long[]{3600}, new int[]{240});
+        double[] values = {180, 175, 160, 120, 68, 62, 75, 66, 90, 55, 110};
+        for (int i = 0; i < values.length; i++) {
+            sweep.accept(3000 + i * 1800L, values[i]);
+        }
+
+        DoseResponseSweep.Outcome outcome = sweep.outcome(0);
+        assertNotNull(outcome);
+        assertEquals(180, outcome.baseline());
+        assertEquals(62, outcome.nadir());
+        assertEquals(118, outcome.drop());
+        assertEquals((3000 + 5 * 1800 - 3600) / 60, outcome.minutesToNadir());
+        assertEquals(2, outcome.hypoEvents());
+        // Readings from the dose up to 4h after it; the 55 at 4.5h is outside the window
+        assertEquals(8, outcome.readings());
+    }
+
+    @Test
+    void testOverlappingDosesWithDifferentWindows() {
+        DoseResponseSweep sweep = new DoseResponseSweep(new long[]{0, 600, 1200}, new int[]{720, 60, 240});
+        for (long t = -300; t <= 12 * 3600; t += 300) {
+            sweep.accept(t, 200 - t / 300.0);
+        }
+
+        assertEquals(201, sweep.outcome(0).baseline());
+        assertEquals(200 - 720 / 5.0, sweep.outcome(0).nadir(), 1e-9);
+        assertEquals(200 - 60 / 5.0 - 2, sweep.outcome(1).nadir(), 1e-9);
+        assertEquals(240, sweep.outcome(2).minutesToNadir());
+    }
+
+    @Test
+    void testDoseWithoutNearbyBaselineHasNoOutcome() {
+        DoseResponseSweep sweep = new DoseResponseSweep(new long[]{0, 100_000}, new int[]{240, 240});
+        sweep.accept(-7200, 150);
+        sweep.accept(3600, 120);
+
+        assertNull(sweep.outcome(0));
+        assertNull(sweep.outcome(1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DoseResponseSweep(new long[]{10, 5}, new int[]{60, 60}));
+    }
+}
@@ -0,0 +1,45 @@
+package com.glucocloud.api.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LttbTest {
+
+    @Test
+    void testDownsampleKeepsEndpointsAndExtremes() {
+        int length = 10_000;
+        long[] t = new long[length];
+        double[] v = new double[length];
+        for (int i = 0; i < length; i++) {
+            t[i] = i * 300L;
+            v[i] = 120 + 20 * Math.sin(i / 50.0);
+        }
+        v[4321] = 390; // spike
+        v[7777] = 42;  // low
+
+        int[] selected = Lttb.downsample(t, v, length, 200);
+
+        assertEquals(200, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(length - 1, selected[selected.length - 1]);
+        for (int i = 1; i < selected.length; i++) {
+            assertTrue(selected[i] > selected[i - 1]);
+        }
+
+        boolean keptSpike = false;
+        boolean keptLow = false;
+        for (int index : selected) {
+            keptSpike |= index == 4321;
+            keptLow |= index == 7777;
+        }
+        assertTrue(keptSpike);
+        assertTrue(keptLow);
+    }
+
+    @Test
+    void testShortSeriesIsReturnedUnchanged() {
+        int[] selected = Lttb.downsample(new long[]{1, 2, 3}, new double[]{100, 110, 120}, 3, 500);
+        assertArrayEquals(new int[]{0, 1, 2}, selected);
+    }
+}
@@ -0,0 +1,73 @@
+package com.glucocloud.api.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OnBoardCalculatorTest {
+
+    @Test
+    void testCurvesDecayFromFullToEmpty() {
+        for (ActivityCurve curve : ActivityCurve.values()) {
+            assertEquals(1.0, curve.remaining(0), 1e-6, curve.name());
+            assertEquals(0.0, curve.remaining(curve.durationMinutes()), 1e-6, curve.name());
+
+            double previous = 1.0;
+            for (int minute = 1; minute <= curve.durationMinutes(); minute++) {
+                double remaining = curve.remaining(minute);
+                assertTrue(remaining <= previous + 1e-6, curve.name() + " must not increase at " + minute);
+                previous = remaining;
+            }
+        }
+
+        // Rapid insulin is roughly half gone a little after two hours
+        assertEquals(0.5, ActivityCurve.INSULIN_RAPID.remaining(130), 0.1);
+        assertEquals(0.5, ActivityCurve.CARBS_MEDIUM.remaining(90), 1e-6);
+    }
+
+    @Test
+    void testSlidingWindowMatchesDirectSum() {
+        Random random = new Random(11);
+        ActivityCurve[] curves = ActivityCurve.values();
+        int doses = 300;
+        long[] times = new long[doses];
+        double[] amounts = new double[doses];
+        ActivityCurve[] doseCurves = new ActivityCurve[doses];
+
+        OnBoardCalculator.Builder builder = OnBoardCalculator.builder();
+        for (int i = 0; i < doses; i++) {
+            times[i] = random.nextInt(7 * 86400);
+            amounts[i] = 1 + random.nextInt(20);
+            doseCurves[i] = curves[random.nextInt(curves.length)];
+            builder.add(times[i], amounts[i], doseCurves[i]);
+        }
+        OnBoardCalculator calculator = builder.build();
+
+        int steps = 7 * 288;
+        double[] series = calculator.onBoard(0, 300, steps);
+
+        for (int step = 0; step < steps; step++) {
+            long at = step * 300L;
+            double expected = 0;
+            for (int i = 0; i < doses; i++) {
+                if (times[i] <= at) {
+                    expected += amounts[i] * doseCurves[i].remaining((at - times[i]) / 60.0);
+                }
+            }
+            assertEquals(expected, series[step], 1e-6, "at step " + step);
+        }
+    }
+
+    @Test
+    void testFutureDosesAreNotOnBoard() {
+        OnBoardCalculator calculator = OnBoardCalculator.builder()
+                .add(3600, 5, ActivityCurve.INSULIN_RAPID)
+                .build();
+
+        assertEquals(0.0, calculator.onBoard(0));
+        assertEquals(5.0, calculator.onBoard(3600), 1e-9);
+        assertEquals(0.0, calculator.onBoard(3600 + ActivityCurve.INSULIN_RAPID.durationSeconds()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.glucocloud.api.autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private static final long DAY = 86_400;
+
+    @Test
+    void testMatchesAnyWordPrefix() {
+        PrefixIndex<String> index = new PrefixIndex<>(30 * DAY);
+        index.add("Pepperoni pizza", 0, "a");
+        index.add("Pasta  with marinara", 0, "b");
+        index.add("Apple", 0, "c");
+
+        assertEquals(List.of("Pasta  with marinara", "Pepperoni pizza"), texts(index.suggest("p", 10)));
+        assertEquals(List.of("Pepperoni pizza"), texts(index.suggest("PIZ", 10)));
+        assertEquals(List.of("Pasta  with marinara"), texts(index.suggest("with mar", 10)));
+        assertTrue(index.suggest("x", 10).isEmpty());
+        assertEquals(3, index.suggest("", 10).size());
+    }
+
+    @Test
+    void testTermsAddedBetweenLookupsAreMergedIn() {
+        PrefixIndex<String> index = new PrefixIndex<>(30 * DAY);
+        for (int i = 0; i < 200; i++) {
+            index.add("Meal " + (199 - i), 0, "load");
+        }
+        // Meal 1, 10-19 and 100-199
+        assertEquals(111, index.suggest("meal 1", 200).size());
+        assertEquals(List.of("Meal 42"), texts(index.suggest("42", 10)));
+
+        index.add("Oatmeal", 0, "live");
+        index.add("Almond milk", 0, "live");
+        assertEquals(List.of("Almond milk"), texts(index.suggest("milk", 10)));
+        assertEquals(List.of("Oatmeal"), texts(index.suggest("oat", 10)));
+        assertEquals(List.of("Meal 150"), texts(index.suggest("meal 150", 10)));
+        assertEquals(202, index.suggest("", 500).size());
+    }
+
+    @Test
+    void testRanksByFrequencyAndRecency() {
+        PrefixIndex<String> index = new PrefixIndex<>(30 * DAY);
+        long now = 1_000 * DAY;
+
+        // Three old uses lose to two recent ones once they are two half-lives older
+        for (int i = 0; i < 3; i++) {
+            index.add("Metformin", now - 90 * DAY + i, "500mg");
+        }
+        index.add("Metoprolol", now - DAY, "25mg");
+        index.add("Metoprolol", now, "50mg");
+        index.add("Methotrexate", now - 200 * DAY, "10mg");
+
+        List<PrefixIndex.Entry<String>> ranked = index.suggest("met", 2);
+        assertEquals(List.of("Metoprolol", "Metformin"), texts(ranked));
+        assertEquals(2, ranked.get(0).uses());
+        assertEquals("50mg", ranked.get(0).details());
+    }
+
+    @Test
+    void testRankingIgnoresInsertionOrderAndKeepsLatestDetails() {
+        PrefixIndex<String> forward = new PrefixIndex<>(30 * DAY);
+        PrefixIndex<String> backward = new PrefixIndex<>(30 * DAY);
+        for (int i = 0; i < 20; i++) {
+            forward.add(" oatmeal ", i * DAY, "v" + i);
+            backward.add("Oatmeal", (19 - i) * DAY, "v" + (19 - i));
+        }
+
+        PrefixIndex.Entry<String> a = forward.suggest("oat", 1).get(0);
+        PrefixIndex.Entry<String> b = backward.suggest("oat", 1).get(0);
+        assertEquals(a.score(), b.score(), 1e-9);
+        assertEquals("v19", a.details());
+        assertEquals("v19", b.details());
+        assertEquals(1, forward.size());
+    }
+
+    private static List<String> texts(List<? extends PrefixIndex.Entry<?>> entries) {
+        return entries.stream().map(PrefixIndex.Entry::text).toList();
+    }
+}
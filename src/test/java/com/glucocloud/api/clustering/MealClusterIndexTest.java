@@ -0,0 +1,43 @@
+package com.glucocloud.api.clustering;
+
+import com.glucocloud.api.analytics.MinHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealClusterIndexTest {
+
+    private final MealClusterIndex index = new MealClusterIndex(new MinHash(16, 2, 42L), 0.5);
+
+    @Test
+    void testSimilarDescriptionsShareCluster() {
+        UUID pizza = add("Pepperoni pizza");
+        UUID slices = add("Pizza, pepperoni slices");
+        UUID samePizza = add("pepperoni PIZZA");
+        UUID salad = add("Chicken salad");
+        UUID curry = add("Chicken curry");
+
+        assertEquals(pizza, index.clusterOf(slices));
+        assertEquals(pizza, index.clusterOf(samePizza));
+        assertEquals(salad, index.clusterOf(salad));
+        assertEquals(curry, index.clusterOf(curry));
+        assertNull(index.clusterOf(UUID.randomUUID()));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testTokensIgnoreStopWordsAndPlurals() {
+        assertEquals(Set.of("egg", "toast"), MinHash.tokens("Eggs and toast"));
+        assertEquals(1.0, MinHash.jaccard(MinHash.tokens("eggs with toast"), MinHash.tokens("Toast, egg")));
+        assertTrue(MinHash.tokens("  ").isEmpty());
+    }
+
+    private UUID add(String description) {
+        UUID id = UUID.randomUUID();
+        index.add(id, description);
+        return id;
+    }
+}
@@ -0,0 +1,173 @@
+package com.glucocloud.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.GlucoseSeriesResponse;
+import com.glucocloud.api.dto.MedicationRequest;
+import com.glucocloud.api.dto.MedicationResponse;
+import com.glucocloud.api.entity.Medication;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.security.JwtUtils;
+import com.glucocloud.api.service.GlucoseReadingService;
+import com.glucocloud.api.service.MedicationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class PatchEndpointsTest {
+
+    @Autowired
+    private GlucoseController glucoseController;
+
+    @Autowired
+    private MedicationController medicationController;
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private MedicationService medicationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private String auth;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .email("patch-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        auth = "Bearer " + jwtUtils.generateJwtToken(user.getEmail(), user.getId());
+    }
+
+    @Test
+    void readingPatchMovesTheStoredPoint() throws Exception {
+        LocalDateTime takenAt = LocalDateTime.of(2026, 5, 1, 8, 0);
+        GlucoseReadingResponse reading = glucoseReadingService.createReading(user, reading(120, takenAt, "fasting"));
+
+        ResponseEntity<?> response = glucoseController.patchReading(reading.getId(),
+                json("{\"readingValue\": 130, \"takenAt\": \"2026-05-01T09:00:00\"}"),
+                EntityTags.of(reading.getVersion()), auth);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(EntityTags.of(reading.getVersion() + 1), response.getHeaders().getETag());
+        GlucoseReadingResponse patched = (GlucoseReadingResponse) response.getBody();
+        assertEquals(0, BigDecimal.valueOf(130).compareTo(patched.getReadingValue()));
+        assertEquals(takenAt.plusHours(1), patched.getTakenAt());
+        assertEquals("fasting", patched.getNote());
+
+        GlucoseReadingResponse stored = glucoseReadingService.getReadingById(user, reading.getId()).orElseThrow();
+        assertEquals(patched.getVersion(), stored.getVersion());
+        assertEquals(takenAt.plusHours(1), stored.getTakenAt());
+
+        // The change event carries the old image, so the chunk store drops the old point
+        GlucoseSeriesResponse series = glucoseReadingService.getReadingSeries(user, takenAt.minusHours(1), takenAt.plusHours(2), 100);
+        assertEquals(1, series.getSourcePoints());
+        assertEquals(130.0, series.getV()[0]);
+        assertEquals(2 * 3600, series.getT()[0]);
+    }
+
+    @Test
+    void medicationPatchChangesOnlySuppliedFields() throws Exception {
+        MedicationResponse medication = medicationService.createMedication(user, medication("Metformin", "500 mg"));
+
+        ResponseEntity<?> response = medicationController.patchMedication(medication.getId(),
+                json("{\"dosage\": \"1000 mg\", \"notes\": null}"), null, auth);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        MedicationResponse patched = (MedicationResponse) response.getBody();
+        assertEquals("1000 mg", patched.getDosage());
+        assertNull(patched.getNotes());
+        assertEquals("Metformin", patched.getName());
+        assertEquals(medication.getTakenAt(), patched.getTakenAt());
+        assertEquals(medication.getVersion() + 1, patched.getVersion());
+        assertEquals("1000 mg", medicationService.getMedicationById(user, medication.getId()).orElseThrow().getDosage());
+    }
+
+    @Test
+    void staleIfMatchIsPreconditionFailed() throws Exception {
+        GlucoseReadingResponse reading = glucoseReadingService.createReading(user,
+                reading(110, LocalDateTime.of(2026, 5, 2, 8, 0), null));
+        MedicationResponse medication = medicationService.createMedication(user, medication("Insulin", "4 units"));
+        String staleReading = EntityTags.of(reading.getVersion());
+        String staleMedication = EntityTags.of(medication.getVersion());
+        glucoseController.patchReading(reading.getId(), json("{\"readingValue\": 115}"), staleReading, auth);
+        medicationController.patchMedication(medication.getId(), json("{\"dosage\": \"6 units\"}"), staleMedication, auth);
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, glucoseController.patchReading(reading.getId(),
+                json("{\"readingValue\": 140}"), staleReading, auth).getStatusCode());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, medicationController.patchMedication(medication.getId(),
+                json("{\"dosage\": \"8 units\"}"), staleMedication, auth).getStatusCode());
+        assertEquals(0, BigDecimal.valueOf(115).compareTo(
+                glucoseReadingService.getReadingById(user, reading.getId()).orElseThrow().getReadingValue()));
+        assertEquals("6 units", medicationService.getMedicationById(user, medication.getId()).orElseThrow().getDosage());
+    }
+
+    @Test
+    void invalidOrUnknownPatches() throws Exception {
+        GlucoseReadingResponse reading = glucoseReadingService.createReading(user,
+                reading(100, LocalDateTime.of(2026, 5, 3, 8, 0), null));
+
+        assertEquals(HttpStatus.NOT_FOUND, glucoseController.patchReading(UUID.randomUUID(),
+                json("{\"readingValue\": 140}"), null, auth).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, glucoseController.patchReading(reading.getId(),
+                json("{\"readingValue\": 5000}"), null, auth).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, glucoseController.patchReading(reading.getId(),
+                json("{\"takenAt\": null}"), null, auth).getStatusCode());
+
+        User other = userRepository.save(User.builder()
+                .email("patch-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        String otherAuth = "Bearer " + jwtUtils.generateJwtToken(other.getEmail(), other.getId());
+        assertEquals(HttpStatus.NOT_FOUND, glucoseController.patchReading(reading.getId(),
+                json("{\"readingValue\": 140}"), null, otherAuth).getStatusCode());
+        assertEquals(reading.getVersion(), glucoseReadingService.getReadingById(user, reading.getId()).orElseThrow().getVersion());
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+
+    private static GlucoseReadingRequest reading(int value, LocalDateTime takenAt, String note) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setReadingValue(BigDecimal.valueOf(value));
+        request.setTakenAt(takenAt);
+        request.setNote(note);
+        return request;
+    }
+
+    private static MedicationRequest medication(String name, String dosage) {
+        MedicationRequest request = new MedicationRequest();
+        request.setName(name);
+        request.setDosage(dosage);
+        request.setMedicationType(Medication.MedicationType.values()[0]);
+        request.setTakenAt(LocalDateTime.of(2026, 5, 1, 7, 30));
+        request.setNotes("with breakfast");
+        return request;
+    }
+}
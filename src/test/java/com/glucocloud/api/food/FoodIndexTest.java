@@ -0,0 +1,83 @@
+package com.glucocloud.api.food;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testConvertsCsvAndSearchesByWordPrefixes() throws IOException {
+        Path csv = dir.resolve("foods.csv");
+        Files.writeString(csv, String.join("\n",
+                "id,name,carbs_g,energy_kcal,protein_g,fat_g",
+                "300,\"Pizza, pepperoni, regular crust\",30.5,298,12.6,12.1",
+                "100,\"Apple, raw\",13.8,52,0.3,0.2",
+                "200,Pizza,33,266,11,10",
+                "400,\"Cheese \"\"pizza\"\" blend\",,350,,",
+                "500,Crème brûlée,22,330,4.7,25"));
+        Path file = dir.resolve("foods.idx");
+
+        assertEquals(5, FoodIndexWriter.convert(csv, file));
+        FoodIndex index = FoodIndex.open(file);
+
+        assertEquals(List.of(200, 300, 400), ids(index.search("piz", 10)));
+        assertEquals(List.of(300), ids(index.search("pepp pizza", 10)));
+        assertEquals(List.of(300), ids(index.search("PIZZA, Pepperoni", 10)));
+        assertEquals(List.of(500), ids(index.search("brû", 10)));
+        assertTrue(index.search("zza", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+
+        FoodIndex.Food apple = index.find(100);
+        assertEquals("Apple, raw", apple.name());
+        assertEquals(13.8f, apple.carbs());
+        assertEquals("Cheese \"pizza\" blend", index.find(400).name());
+        assertNull(index.find(400).carbs());
+        assertNull(index.find(150));
+    }
+
+    @Test
+    void testLargeIndexFindsEveryFood() throws IOException {
+        String[] words = {"chicken", "rice", "brown", "white", "bean", "black", "soup", "bread", "whole", "wheat"};
+        Random random = new Random(7);
+        List<FoodIndexWriter.Food> foods = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            foods.add(new FoodIndexWriter.Food(i * 3 + 1, name, i % 100, i % 500, 1, 2));
+        }
+        Path file = dir.resolve("large.idx");
+        FoodIndexWriter.write(foods, file);
+        FoodIndex index = FoodIndex.open(file);
+
+        assertEquals(50_000, index.size());
+        for (int i = 0; i < 50_000; i += 997) {
+            FoodIndex.Food food = index.find(i * 3 + 1);
+            assertEquals((float) (i % 100), food.carbs());
+            assertEquals(List.of(food.id()), ids(index.search(food.name(), 5)));
+            assertTrue(ids(index.search(String.valueOf(i), 50)).contains(food.id()));
+        }
+        assertNull(index.find(2));
+    }
+
+    @Test
+    void testRejectsForeignFiles() throws IOException {
+        Path file = dir.resolve("bogus.idx");
+        Files.write(file, new byte[128]);
+        assertThrows(IllegalArgumentException.class, () -> FoodIndex.open(file));
+    }
+
+    private static List<Integer> ids(List<FoodIndex.Food> foods) {
+        return foods.stream().map(FoodIndex.Food::id).toList();
+    }
+}
@@ -0,0 +1,123 @@
+package com.glucocloud.api.importer;
+
+import com.glucocloud.api.entity.GlucoseReading;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlucoseCsvCursorTest {
+
+    private static final String DEXCOM = """
+            Index,Timestamp (YYYY-MM-DDThh:mm:ss),Event Type,Glucose Value (mg/dL),Transmitter ID
+            1,,Device,,
+            2,2026-03-01T08:00:00,EGV,110,8G1234
+            3,2026-03-01T08:05:00,EGV,High,8G1234
+            4,2026-03-01T08:10:00,Calibration,120,8G1234
+            5,2026-03-01T08:15:00,EGV,118,
+            6,not a time,EGV,101,8G1234
+            7,2026-03-01T08:25:00,EGV,"125",8G1234
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadsFilteredRowsAndCountsInvalidOnes() throws IOException {
+        Path file = write(DEXCOM);
+        try (GlucoseCsvCursor cursor = GlucoseCsvCursor.open(file, dexcom(), "dexcom")) {
+            GlucoseCsvCursor.Chunk chunk = cursor.read(100);
+            assertTrue(cursor.isDone());
+            assertEquals(2, chunk.invalid());
+            List<GlucoseReading> readings = chunk.readings();
+            assertEquals(3, readings.size());
+            assertEquals(LocalDateTime.of(2026, 3, 1, 8, 0), readings.get(0).getTakenAt());
+            assertEquals(new BigDecimal("110.00"), readings.get(0).getReadingValue());
+            assertEquals("8G1234", readings.get(0).getSource());
+            assertEquals(GlucoseReading.ReadingType.RANDOM, readings.get(0).getReadingType());
+            // No transmitter id: the profile's default source
+            assertEquals("import:dexcom", readings.get(1).getSource());
+        }
+    }
+
+    @Test
+    void testReopenContinuesAtThePosition() throws IOException {
+        Path file = write(DEXCOM);
+        List<GlucoseReading> all = new ArrayList<>();
+        GlucoseCsvCursor.Columns columns;
+        long position;
+        long recordNumber;
+        try (GlucoseCsvCursor cursor = GlucoseCsvCursor.open(file, dexcom(), "dexcom")) {
+            all.addAll(cursor.read(3).readings());
+            columns = cursor.columns();
+            position = cursor.position();
+            recordNumber = cursor.recordNumber();
+        }
+        try (GlucoseCsvCursor cursor = GlucoseCsvCursor.reopen(file, dexcom(), "dexcom", columns, position, recordNumber)) {
+            while (!cursor.isDone()) {
+                all.addAll(cursor.read(1).readings());
+            }
+        }
+        assertEquals(List.of(110, 118, 125), all.stream().map(reading -> reading.getReadingValue().intValue()).toList());
+    }
+
+    @Test
+    void testLibreExportWithTitleLineByteOrderMarkAndMmol() throws IOException {
+        Path file = write("\uFEFFGlucose Data,Generated on,03-02-2026 10:00 UTC\n"
+                + "Device,Serial Number,Device Timestamp,Record Type,Historic Glucose mmol/L,Scan Glucose mmol/L\n"
+                + "FreeStyle LibreLink,ABC-123,01-03-2026 07:45,0,6.1,\n"
+                + "FreeStyle LibreLink,ABC-123,01-03-2026 07:52,1,,6.4\n"
+                + "FreeStyle LibreLink,ABC-123,01-03-2026 08:00,6,,\n");
+        GlucoseImportProperties.Profile profile = new GlucoseImportProperties.Profile();
+        profile.setSkipRecords(1);
+        profile.setTimestampColumn("Device Timestamp");
+        profile.setTimestampFormat("dd-MM-yyyy HH:mm");
+        profile.setValueColumns(List.of("Historic Glucose mmol/L", "Scan Glucose mmol/L"));
+        profile.setUnit(GlucoseImportProperties.Unit.MMOL_L);
+        profile.setFilterColumn("Record Type");
+        profile.setFilterValues(List.of("0", "1"));
+        profile.setSourceColumn("Serial Number");
+
+        try (GlucoseCsvCursor cursor = GlucoseCsvCursor.open(file, profile, "libre-mmol")) {
+            GlucoseCsvCursor.Chunk chunk = cursor.read(10);
+            assertEquals(0, chunk.invalid());
+            assertEquals(2, chunk.readings().size());
+            assertEquals(LocalDateTime.of(2026, 3, 1, 7, 45), chunk.readings().get(0).getTakenAt());
+            assertEquals(new BigDecimal("109.91"), chunk.readings().get(0).getReadingValue());
+            assertEquals(new BigDecimal("115.32"), chunk.readings().get(1).getReadingValue());
+            assertEquals("ABC-123", chunk.readings().get(1).getSource());
+        }
+    }
+
+    @Test
+    void testMissingColumnIsRejected() throws IOException {
+        Path file = write("Time,Value\n2026-03-01T08:00:00,100\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> GlucoseCsvCursor.open(file, dexcom(), "dexcom"));
+        assertTrue(e.getMessage().endsWith("not found in the CSV header"));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("upload.csv"), content, StandardCharsets.UTF_8);
+    }
+
+    private static GlucoseImportProperties.Profile dexcom() {
+        GlucoseImportProperties.Profile profile = new GlucoseImportProperties.Profile();
+        profile.setTimestampColumn("Timestamp (YYYY-MM-DDThh:mm:ss)");
+        profile.setValueColumns(List.of("Glucose Value (mg/dL)"));
+        profile.setFilterColumn("Event Type");
+        profile.setFilterValues(List.of("EGV"));
+        profile.setSourceColumn("Transmitter ID");
+        profile.setReadingType(GlucoseReading.ReadingType.RANDOM);
+        return profile;
+    }
+}
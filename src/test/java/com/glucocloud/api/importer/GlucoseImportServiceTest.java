@@ -0,0 +1,164 @@
+package com.glucocloud.api.importer;
+
+import com.glucocloud.api.dto.JobResponse;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.job.JobInstance;
+import com.glucocloud.api.job.JobRunner;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.jobs.poll-interval-ms=3600000",
+        "glucocloud.jobs.chunk-pause-ms=0", "glucocloud.import.batch-size=2",
+        "glucocloud.import.directory=target/test-imports"})
+class GlucoseImportServiceTest {
+
+    private static final String EXPORT = """
+            Date,Time,Glucose (mg/dL),Reading Type,Status,In Range,Note,Created At
+            2026-03-01,07:30,95.00,FASTING,Normal,Yes,,2026-03-01 07:31:00
+            2026-03-01,09:15,162.50,AFTER_MEAL,Normal,Yes,Pancakes,2026-03-01 09:16:00
+            2026-03-01,12:00,abc,RANDOM,Normal,Yes,,2026-03-01 12:01:00
+            2026-03-01,22:45,128.00,,Normal,Yes,,2026-03-01 22:46:00
+            2026-03-02,07:30,101.00,FASTING,Normal,Yes,,2026-03-02 07:31:00
+            """;
+
+    @Autowired
+    private GlucoseImportService importService;
+
+    @Autowired
+    private GlucoseImportProperties properties;
+
+    @Autowired
+    private JobRunner jobRunner;
+
+    @Autowired
+    private JobInstance jobInstance;
+
+    @Autowired
+    private BackgroundJobRepository jobRepository;
+
+    @Autowired
+    private GlucoseReadingRepository readingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void importRunsInStepsAndSkipsWhatIsAlreadyStored() throws Exception {
+        User user = newUser();
+
+        BackgroundJob first = runToCompletion(importService.importGlucose(user, "glucocloud", csv(EXPORT)));
+        assertEquals(BackgroundJob.Status.COMPLETED, first.getStatus());
+        assertEquals(4, first.getProcessed());
+        assertEquals(1, first.getSkipped());
+        assertEquals("100%", first.getPhase());
+
+        List<GlucoseReading> readings = readingRepository.findByUserOrderByTakenAtDesc(user);
+        assertEquals(4, readings.size());
+        GlucoseReading afterMeal = readings.stream()
+                .filter(reading -> reading.getTakenAt().equals(LocalDateTime.of(2026, 3, 1, 9, 15)))
+                .findFirst().orElseThrow();
+        assertEquals(GlucoseReading.ReadingType.AFTER_MEAL, afterMeal.getReadingType());
+        assertEquals("Pancakes", afterMeal.getNote());
+        assertEquals("import:glucocloud", afterMeal.getSource());
+
+        // The same export again imports nothing
+        BackgroundJob second = runToCompletion(importService.importGlucose(user, "glucocloud", csv(EXPORT)));
+        assertEquals(BackgroundJob.Status.COMPLETED, second.getStatus());
+        assertEquals(0, second.getProcessed());
+        assertEquals(5, second.getSkipped());
+        assertEquals(4, readingRepository.findByUserOrderByTakenAtDesc(user).size());
+
+        // The file is deleted just after the job is marked completed
+        awaitNoSpooledFiles();
+    }
+
+    @Test
+    void importIsOnlyRunByTheInstanceHoldingTheFile() throws Exception {
+        User user = newUser();
+        JobResponse response = importService.importGlucose(user, "glucocloud", csv(EXPORT));
+        BackgroundJob job = jobRepository.findById(response.getId()).orElseThrow();
+        assertEquals(jobInstance.id(), job.getPinnedTo());
+
+        job.setPinnedTo("another-instance");
+        jobRepository.save(job);
+        jobRunner.poll();
+        Thread.sleep(100);
+        assertEquals(BackgroundJob.Status.PENDING, jobRepository.findById(job.getId()).orElseThrow().getStatus());
+
+        job.setPinnedTo(jobInstance.id());
+        jobRepository.save(job);
+        assertEquals(4, runToCompletion(response).getProcessed());
+        awaitNoSpooledFiles();
+    }
+
+    @Test
+    void uploadIsRejectedUpFrontWhenItDoesNotMatchTheProfile() throws IOException {
+        User user = newUser();
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importGlucose(user, "no-such-vendor", csv(EXPORT)));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importGlucose(user, "dexcom", csv(EXPORT)));
+        try (var files = Files.list(Path.of(properties.getDirectory()))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private BackgroundJob runToCompletion(JobResponse response) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            jobRunner.poll();
+            BackgroundJob job = jobRepository.findById(response.getId()).orElseThrow();
+            if (job.getStatus() == BackgroundJob.Status.COMPLETED || job.getStatus() == BackgroundJob.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Job " + response.getId() + " did not finish");
+    }
+
+    private void awaitNoSpooledFiles() throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try (var files = Files.list(Path.of(properties.getDirectory()))) {
+                if (files.findAny().isEmpty()) {
+                    return;
+                }
+            }
+            if (System.currentTimeMillis() > deadline) {
+                fail("Spooled import files were not deleted");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private User newUser() {
+        return userRepository.save(User.builder()
+                .email("import-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,147 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.SyncResponse;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.series.GlucoseChunkService;
+import com.glucocloud.api.sync.SyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.outbox.poll-interval-ms=3600000"})
+class GlucoseReadingBatchWriterTest {
+
+    private static final int READINGS = 1000;
+
+    @Autowired
+    private GlucoseReadingBatchWriter batchWriter;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private GlucoseChunkService chunkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void importStatementsDoNotGrowWithTheReadings() {
+        User user = userRepository.save(User.builder()
+                .email("batch-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        LocalDateTime start = LocalDateTime.of(2025, 9, 1, 0, 0);
+        List<GlucoseReading> readings = new ArrayList<>(READINGS);
+        for (int i = 0; i < READINGS; i++) {
+            readings.add(GlucoseReading.builder()
+                    .id(UUID.randomUUID())
+                    .user(user)
+                    .readingValue(BigDecimal.valueOf(90 + i % 60))
+                    .takenAt(start.plusMinutes(5L * i))
+                    .readingType(GlucoseReading.ReadingType.RANDOM)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+
+        StatementCounter.start();
+        Integer inserted = transactionTemplate.execute(status -> batchWriter.insertNew(readings));
+        int statements = StatementCounter.stop();
+
+        assertEquals(READINGS, inserted);
+        // Lookups, the inserts of the readings, feed and outbox, and a chunk rebuild per day (four days)
+        assertTrue(statements < 60, "Import of " + READINGS + " readings ran " + statements + " statements");
+
+        SyncResponse feed = syncService.getChanges(user, null, READINGS);
+        assertEquals(READINGS, feed.getChanges().size());
+        assertEquals(List.of(1L, (long) READINGS), List.of(feed.getChanges().get(0).getSeq(),
+                feed.getChanges().get(READINGS - 1).getSeq()));
+        assertTrue(chunkService.hasChunk(user.getId(), start.toLocalDate().plusDays(3)));
+    }
+
+    // Counts the statements run on the test thread while started
+    static class StatementCounter {
+
+        private static final AtomicInteger count = new AtomicInteger();
+        private static volatile Thread counting;
+
+        static void start() {
+            count.set(0);
+            counting = Thread.currentThread();
+        }
+
+        static int stop() {
+            counting = null;
+            return count.get();
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> T wrap(T target, Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (target instanceof Statement && method.getName().startsWith("execute")
+                        && Thread.currentThread() == counting) {
+                    count.incrementAndGet();
+                }
+                if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                    return wrap(connection, Connection.class);
+                }
+                if (result instanceof CallableStatement statement && method.getReturnType() == CallableStatement.class) {
+                    return wrap(statement, CallableStatement.class);
+                }
+                if (result instanceof PreparedStatement statement && method.getReturnType() == PreparedStatement.class) {
+                    return wrap(statement, PreparedStatement.class);
+                }
+                if (result instanceof Statement statement && method.getReturnType() == Statement.class) {
+                    return wrap(statement, Statement.class);
+                }
+                return result;
+            });
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementCounter.wrap(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.GlucoseBatchResponse;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.GlucoseReadingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class GlucoseReadingDeduplicatorTest {
+
+    @Autowired
+    private GlucoseIngest glucoseIngest;
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().minusHours(6).truncatedTo(ChronoUnit.MINUTES);
+
+    @Test
+    void retriedAndOverlappingUploadsAreStoredOnce() {
+        User user = newUser();
+        GlucoseBatchResponse first = glucoseIngest.ingest(user, readings("cgm-1", 0, 24));
+        assertEquals(24, first.getAccepted());
+        assertEquals(0, first.getDuplicates());
+
+        // A retry of the same upload, then a backfill overlapping its last 12 readings
+        assertEquals(24, glucoseIngest.ingest(user, readings("cgm-1", 0, 24)).getDuplicates());
+        GlucoseBatchResponse overlap = glucoseIngest.ingest(user, readings("cgm-1", 12, 36));
+        assertEquals(12, overlap.getAccepted());
+        assertEquals(12, overlap.getDuplicates());
+
+        assertEquals(36, glucoseReadingService.getUserReadings(user, null, null).size());
+        assertEquals(36, glucoseReadingService.getGlucoseSummary(user, start.minusDays(1), start.plusDays(1)).getTotalReadings());
+    }
+
+    @Test
+    void keysAreScopedBySourceAndUnkeyedReadingsAreKept() {
+        User user = newUser();
+        List<GlucoseReadingRequest> upload = readings("cgm-1", 0, 6);
+        upload.addAll(readings("cgm-2", 0, 6));
+        upload.addAll(readings("cgm-2", 0, 6));
+        upload.addAll(readings(null, 0, 6));
+        upload.addAll(readings(null, 0, 6));
+
+        GlucoseBatchResponse response = glucoseIngest.ingest(user, upload);
+        assertEquals(24, response.getAccepted());
+        assertEquals(6, response.getDuplicates());
+        assertEquals("cgm-1", response.getReadings().get(0).getSource());
+    }
+
+    @Test
+    void readingsOutsideTheFilterWindowAreCheckedInTheDatabase() {
+        User user = newUser();
+        LocalDateTime old = start.minusDays(60);
+        List<GlucoseReadingRequest> upload = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            upload.add(reading("cgm-1", old.plusMinutes(5L * i), 100 + i));
+        }
+        glucoseIngest.ingest(user, upload);
+
+        GlucoseBatchResponse retry = glucoseIngest.ingest(user, upload);
+        assertEquals(0, retry.getAccepted());
+        assertEquals(4, retry.getDuplicates());
+    }
+
+    private User newUser() {
+        return userRepository.save(User.builder()
+                .email("dedup-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+
+    private List<GlucoseReadingRequest> readings(String source, int from, int to) {
+        List<GlucoseReadingRequest> readings = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            readings.add(reading(source, start.plusMinutes(5L * i), 90 + i));
+        }
+        return readings;
+    }
+
+    private static GlucoseReadingRequest reading(String source, LocalDateTime takenAt, int value) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setReadingValue(BigDecimal.valueOf(value));
+        request.setTakenAt(takenAt);
+        request.setReadingType(GlucoseReading.ReadingType.RANDOM);
+        request.setSource(source);
+        return request;
+    }
+}
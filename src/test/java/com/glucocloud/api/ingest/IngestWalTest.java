@@ -0,0 +1,125 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.entity.GlucoseReading;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestWalTest {
+
+    private static final int SEGMENT_BYTES = 1 << 16;
+    private static final UUID USER = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReopenReplaysFromCheckpoint() throws IOException {
+        List<GlucoseReading> first = readings(3, 100);
+        List<GlucoseReading> second = readings(2, 150);
+        List<GlucoseReading> third = readings(1, 200);
+        try (IngestWal wal = IngestWal.open(directory, SEGMENT_BYTES)) {
+            IngestWal.Position afterFirst = wal.append(USER, first, true);
+            wal.append(USER, second, true);
+            wal.append(USER, third, true);
+            wal.checkpoint(afterFirst);
+        }
+
+        try (IngestWal wal = IngestWal.open(directory, SEGMENT_BYTES)) {
+            List<IngestWal.Upload> uploads = wal.read(wal.checkpoint(), 1000);
+            assertEquals(2, uploads.size());
+            assertEquals(USER, uploads.get(0).userId());
+            GlucoseReading replayed = uploads.get(0).readings().get(1);
+            assertEquals(second.get(1).getId(), replayed.getId());
+            assertEquals(second.get(1).getTakenAt(), replayed.getTakenAt());
+            assertEquals(0, second.get(1).getReadingValue().compareTo(replayed.getReadingValue()));
+            assertEquals(GlucoseReading.ReadingType.RANDOM, replayed.getReadingType());
+            assertEquals("note 1", replayed.getNote());
+            assertEquals(wal.end(), uploads.get(1).next());
+
+            // Stops once enough readings were read
+            assertEquals(1, wal.read(wal.checkpoint(), 1).size());
+        }
+    }
+
+    @Test
+    void testTornRecordIsDroppedAndOverwritten() throws IOException {
+        IngestWal.Position afterFirst;
+        try (IngestWal wal = IngestWal.open(directory, SEGMENT_BYTES)) {
+            afterFirst = wal.append(USER, readings(2, 100), true);
+            wal.append(USER, readings(2, 120), true);
+        }
+        // Damage the payload of the second record
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), afterFirst.offset() + 20);
+        }
+
+        List<GlucoseReading> replacement = readings(1, 300);
+        try (IngestWal wal = IngestWal.open(directory, SEGMENT_BYTES)) {
+            assertEquals(afterFirst, wal.end());
+            assertEquals(1, wal.read(wal.checkpoint(), 1000).size());
+            wal.append(USER, replacement, true);
+        }
+        try (IngestWal wal = IngestWal.open(directory, SEGMENT_BYTES)) {
+            List<IngestWal.Upload> uploads = wal.read(wal.checkpoint(), 1000);
+            assertEquals(2, uploads.size());
+            assertEquals(replacement.get(0).getId(), uploads.get(1).readings().get(0).getId());
+        }
+    }
+
+    @Test
+    void testSegmentsRollAndFlushedOnesAreDeleted() throws IOException {
+        try (IngestWal wal = IngestWal.open(directory, 4096)) {
+            for (int i = 0; i < 20; i++) {
+                wal.append(USER, readings(10, 100 + i), false);
+            }
+            assertTrue(wal.segmentCount() > 1);
+
+            List<IngestWal.Upload> uploads = wal.read(wal.checkpoint(), Integer.MAX_VALUE);
+            assertEquals(20, uploads.size());
+            assertEquals(200, uploads.stream().mapToInt(upload -> upload.readings().size()).sum());
+            wal.checkpoint(uploads.get(uploads.size() - 1).next());
+            assertEquals(1, wal.segmentCount());
+            assertTrue(wal.read(wal.checkpoint(), 1000).isEmpty());
+        }
+        assertEquals(1, segments().size());
+        try (IngestWal wal = IngestWal.open(directory, 4096)) {
+            assertEquals(wal.checkpoint(), wal.end());
+        }
+    }
+
+    private List<GlucoseReading> readings(int count, int value) {
+        List<GlucoseReading> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            readings.add(GlucoseReading.builder()
+                    .id(UUID.randomUUID())
+                    .readingValue(BigDecimal.valueOf(value + i).add(new BigDecimal("0.25")))
+                    .takenAt(LocalDateTime.of(2025, 5, 1, 8, 0).plusMinutes(5L * i))
+                    .readingType(GlucoseReading.ReadingType.RANDOM)
+                    .note(i == 1 ? "note 1" : null)
+                    .createdAt(LocalDateTime.of(2025, 5, 1, 9, 0))
+                    .build());
+        }
+        return readings;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(path -> path.toString().endsWith(IngestWal.SUFFIX)).sorted().toList();
+        }
+    }
+}
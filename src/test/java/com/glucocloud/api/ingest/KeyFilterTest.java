@@ -0,0 +1,35 @@
+package com.glucocloud.api.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyFilterTest {
+
+    @Test
+    void testAddedKeysAreAlwaysFound() {
+        KeyFilter filter = new KeyFilter(5000, 0.01);
+        for (int i = 0; i < 5000; i++) {
+            filter.add("cgm-1\n2025-01-01T00:00:" + i);
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(filter.mightContain("cgm-1\n2025-01-01T00:00:" + i));
+        }
+        assertTrue(filter.isFull());
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        KeyFilter filter = new KeyFilter(5000, 0.01);
+        for (int i = 0; i < 5000; i++) {
+            filter.add("cgm-1\n" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("cgm-2\n" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,92 @@
+package com.glucocloud.api.ingest;
+
+import com.glucocloud.api.dto.GlucoseBatchResponse;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.series.GlucoseChunkService;
+import com.glucocloud.api.service.GlucoseReadingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.ingest.mode=wal",
+        "glucocloud.ingest.wal.directory=target/ingest-test", "glucocloud.ingest.wal.fsync=never",
+        "glucocloud.ingest.wal.flush-interval-ms=3600000"})
+class WalGlucoseIngestTest {
+
+    @Autowired
+    private GlucoseIngest glucoseIngest;
+
+    @Autowired
+    private GlucoseReadingBatchWriter batchWriter;
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private GlucoseChunkService chunkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void uploadsAreSavedByTheFlushExactlyOnce() {
+        WalGlucoseIngest ingest = assertInstanceOf(WalGlucoseIngest.class, glucoseIngest);
+        User user = userRepository.save(User.builder()
+                .email("ingest-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        LocalDateTime start = LocalDateTime.of(2025, 6, 3, 0, 0);
+        List<GlucoseReadingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            GlucoseReadingRequest request = new GlucoseReadingRequest();
+            request.setReadingValue(BigDecimal.valueOf(100 + i));
+            request.setTakenAt(start.plusMinutes(5L * i));
+            request.setReadingType(GlucoseReading.ReadingType.RANDOM);
+            requests.add(request);
+        }
+
+        GlucoseBatchResponse response = ingest.ingest(user, requests);
+        assertTrue(response.isQueued());
+        assertEquals(12, response.getAccepted());
+        assertTrue(glucoseReadingService.getUserReadings(user, null, null).isEmpty());
+
+        assertEquals(12, ingest.flush());
+        List<GlucoseReadingResponse> saved = glucoseReadingService.getUserReadings(user, null, null);
+        assertEquals(12, saved.size());
+        assertTrue(saved.stream().anyMatch(reading -> reading.getId().equals(response.getReadings().get(0).getId())));
+        assertTrue(chunkService.hasChunk(user.getId(), start.toLocalDate()));
+        assertEquals(0, ingest.flush());
+
+        // Replaying readings that already reached the database inserts nothing
+        List<GlucoseReading> replay = response.getReadings().stream()
+                .map(reading -> GlucoseReading.builder()
+                        .id(reading.getId())
+                        .user(user)
+                        .readingValue(reading.getReadingValue())
+                        .takenAt(reading.getTakenAt())
+                        .createdAt(reading.getCreatedAt())
+                        .build())
+                .toList();
+        Integer replayed = transactionTemplate.execute(status -> batchWriter.insertNew(replay));
+        assertEquals(0, replayed);
+        assertEquals(12, glucoseReadingService.getUserReadings(user, null, null).size());
+    }
+}
@@ -0,0 +1,107 @@
+package com.glucocloud.api.job;
+
+import com.glucocloud.api.dto.JobResponse;
+import com.glucocloud.api.dto.MealRequest;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import com.glucocloud.api.repository.MealRepository;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.MealService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.jobs.poll-interval-ms=3600000",
+        "glucocloud.jobs.chunk-size=2", "glucocloud.jobs.chunk-pause-ms=0"})
+class JobRunnerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 4, 1, 0, 0);
+
+    @Autowired
+    private JobRunner jobRunner;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BackgroundJobRepository jobRepository;
+
+    @Test
+    void rangeDeleteRemovesOnlyTheRangeInChunks() throws InterruptedException {
+        User user = newUser();
+        for (int hour = 0; hour < 5; hour++) {
+            mealService.createMeal(user, meal("Inside " + hour, DAY.plusHours(hour)));
+        }
+        mealService.createMeal(user, meal("Outside", DAY.plusDays(1)));
+
+        JobResponse job = jobService.deleteRange(user, EntityChangedEvent.EntityType.MEAL, DAY, DAY.plusHours(23));
+        BackgroundJob finished = runToCompletion(job.getId());
+
+        assertEquals(BackgroundJob.Status.COMPLETED, finished.getStatus());
+        assertEquals(5, finished.getProcessed());
+        assertEquals(1, mealRepository.findIdsByUserId(user.getId(), PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    void accountErasureRemovesTheUserAndRefusesSecondRequest() throws InterruptedException {
+        User user = newUser();
+        for (int hour = 0; hour < 3; hour++) {
+            mealService.createMeal(user, meal("Meal " + hour, DAY.plusHours(hour)));
+        }
+
+        JobResponse job = jobService.eraseAccount(user);
+        assertFalse(userRepository.findById(user.getId()).orElseThrow().getIsActive());
+        assertThrows(RuntimeException.class, () -> jobService.eraseAccount(user));
+
+        BackgroundJob finished = runToCompletion(job.getId());
+        assertEquals(BackgroundJob.Status.COMPLETED, finished.getStatus());
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+        assertTrue(mealRepository.findIdsByUserId(user.getId(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private BackgroundJob runToCompletion(UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            jobRunner.poll();
+            BackgroundJob job = jobRepository.findById(id).orElseThrow();
+            if (job.getStatus() == BackgroundJob.Status.COMPLETED || job.getStatus() == BackgroundJob.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Job " + id + " did not finish");
+    }
+
+    private User newUser() {
+        return userRepository.save(User.builder()
+                .email("jobs-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+
+    private static MealRequest meal(String description, LocalDateTime consumedAt) {
+        MealRequest request = new MealRequest();
+        request.setDescription(description);
+        request.setConsumedAt(consumedAt);
+        return request;
+    }
+}
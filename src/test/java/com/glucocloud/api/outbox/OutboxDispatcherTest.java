@@ -0,0 +1,106 @@
+package com.glucocloud.api.outbox;
+
+import com.glucocloud.api.dto.MealRequest;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.MealService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.outbox.poll-interval-ms=3600000"})
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private FlakyConsumer consumer;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void failedBatchIsDeliveredAgainInCommitOrder() {
+        User user = userRepository.save(User.builder()
+                .email("outbox-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        MealResponse first = mealService.createMeal(user, meal("Porridge"));
+        mealService.updateMeal(user, first.getId(), meal("Porridge with honey"));
+        mealService.deleteMeal(user, first.getId());
+
+        consumer.failNext = true;
+        dispatcher.dispatch();
+        assertTrue(consumer.received(first.getId()).isEmpty());
+
+        dispatcher.dispatch();
+        List<EntityChangedEvent<?>> events = consumer.received(first.getId());
+        assertEquals(3, events.size());
+        assertEquals(EntityChangedEvent.ChangeType.CREATED, events.get(0).getChangeType());
+        assertEquals(EntityChangedEvent.ChangeType.UPDATED, events.get(1).getChangeType());
+        assertEquals(EntityChangedEvent.ChangeType.DELETED, events.get(2).getChangeType());
+
+        MealResponse after = (MealResponse) events.get(1).getAfter();
+        assertEquals("Porridge with honey", after.getDescription());
+        assertEquals(LocalDateTime.of(2026, 3, 1, 8, 0), after.getConsumedAt());
+        assertNull(events.get(2).getAfter());
+
+        dispatcher.dispatch();
+        assertEquals(3, consumer.received(first.getId()).size());
+    }
+
+    private static MealRequest meal(String description) {
+        MealRequest request = new MealRequest();
+        request.setDescription(description);
+        request.setConsumedAt(LocalDateTime.of(2026, 3, 1, 8, 0));
+        return request;
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        FlakyConsumer flakyConsumer() {
+            return new FlakyConsumer();
+        }
+    }
+
+    static class FlakyConsumer implements OutboxConsumer {
+        private final List<EntityChangedEvent<?>> handled = new ArrayList<>();
+        private volatile boolean failNext;
+
+        @Override
+        public String name() {
+            return "test-flaky";
+        }
+
+        @Override
+        public synchronized void handle(long after, List<EntityChangedEvent<?>> events) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("Simulated failure");
+            }
+            handled.addAll(events);
+        }
+
+        synchronized List<EntityChangedEvent<?>> received(UUID entityId) {
+            return handled.stream().filter(event -> entityId.equals(event.getEntityId())).toList();
+        }
+    }
+}
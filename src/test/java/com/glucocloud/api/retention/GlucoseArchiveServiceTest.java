@@ -0,0 +1,147 @@
+package com.glucocloud.api.retention;
+
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.dto.GlucoseSummaryBatchRequest;
+import com.glucocloud.api.dto.GlucoseSummaryResponse;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.GlucoseReadingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class GlucoseArchiveServiceTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.of(2023, 1, 30, 0, 0);
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2023, 3, 1, 0, 0);
+
+    @Autowired
+    private GlucoseArchiveService archiveService;
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private GlucoseReadingRepository glucoseReadingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createReadings() {
+        user = userRepository.save(User.builder()
+                .email("archive-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        // Every 5 hours from late January into February, plus a few after the cutoff
+        for (int i = 0; i < 120; i++) {
+            reading(OLD.plusHours(5L * i).plusNanos(123_456_000L), 50 + (i * 37) % 260, i % 5 == 0 ? "note " + i : null);
+        }
+        for (int i = 0; i < 3; i++) {
+            reading(CUTOFF.plusDays(10 + i), 110 + i, null);
+        }
+    }
+
+    @Test
+    void summaryWindowsReachIntoArchivedMonths() {
+        List<GlucoseSummaryBatchRequest.Window> windows = List.of(
+                window(OLD, CUTOFF),
+                window(OLD.plusDays(10), CUTOFF.plusDays(20)),
+                window(CUTOFF, CUTOFF.plusDays(20)));
+        List<GlucoseSummaryResponse> before = glucoseReadingService.getGlucoseSummaries(user, windows);
+        assertEquals(120, before.get(0).getTotalReadings());
+
+        while (archiveService.archiveOldestMonth(user.getId(), CUTOFF) > 0) {
+            // archive everything before the cutoff
+        }
+        assertFalse(glucoseReadingRepository.existsByUserIdAndTakenAtBefore(user.getId(), CUTOFF));
+
+        List<GlucoseSummaryResponse> after = glucoseReadingService.getGlucoseSummaries(user, windows);
+        assertEquals(before, after);
+        assertEquals(3, after.get(2).getTotalReadings());
+    }
+
+    @Test
+    void archivedMonthsStayVisibleToReads() {
+        LocalDateTime from = OLD.plusHours(5);
+        LocalDateTime to = CUTOFF.plusDays(20).plusHours(3);
+        List<GlucoseReadingResponse> before = glucoseReadingService.getUserReadings(user, from, to);
+        GlucoseSummaryResponse summaryBefore = glucoseReadingService.getGlucoseSummary(user, from, to);
+        int seriesBefore = glucoseReadingService.getReadingSeries(user, from, to, 1000).getSourcePoints();
+
+        int moved = 0;
+        for (int n; (n = archiveService.archiveOldestMonth(user.getId(), CUTOFF)) > 0; ) {
+            moved += n;
+        }
+        assertEquals(120, moved);
+        assertFalse(glucoseReadingRepository.existsByUserIdAndTakenAtBefore(user.getId(), CUTOFF));
+
+        assertEquals(before, glucoseReadingService.getUserReadings(user, from, to));
+        assertEquals(123, glucoseReadingService.getUserReadings(user, null, null).size());
+        assertEquals(summaryBefore, glucoseReadingService.getGlucoseSummary(user, from, to));
+        assertEquals(seriesBefore, glucoseReadingService.getReadingSeries(user, from, to, 1000).getSourcePoints());
+    }
+
+    @Test
+    void lateReadingIsMergedIntoExistingSegment() {
+        archiveService.archiveOldestMonth(user.getId(), CUTOFF);
+        reading(OLD.plusHours(1), 99, "late upload");
+        while (archiveService.archiveOldestMonth(user.getId(), CUTOFF) > 0) {
+            // drain
+        }
+
+        List<GlucoseReading> archived = archiveService.findArchived(user.getId(), OLD, OLD.plusDays(1));
+        assertTrue(archived.stream().anyMatch(r -> "late upload".equals(r.getNote())));
+        assertEquals(121, archiveService.getPolicy(user).getArchivedReadings());
+    }
+
+    @Test
+    void deleteArchivedRemovesOnlyTheRange() {
+        while (archiveService.archiveOldestMonth(user.getId(), CUTOFF) > 0) {
+            // drain
+        }
+        LocalDateTime from = OLD.plusDays(3);
+        LocalDateTime to = OLD.plusDays(10);
+        int expected = archiveService.findArchived(user.getId(), from, to).size();
+
+        int removed = 0;
+        for (GlucoseArchiveService.ArchivedRemoval removal = archiveService.deleteArchived(user.getId(),
+                OLD.toLocalDate().withDayOfMonth(1), from, to); removal != null;
+             removal = archiveService.deleteArchived(user.getId(), removal.nextMonth(), from, to)) {
+            removed += removal.removed().size();
+        }
+
+        assertEquals(expected, removed);
+        assertTrue(archiveService.findArchived(user.getId(), from, to).isEmpty());
+        assertEquals(120 - expected, archiveService.findArchived(user.getId(), null, null).size());
+    }
+
+    private void reading(LocalDateTime takenAt, int value, String note) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setReadingValue(BigDecimal.valueOf(value));
+        request.setTakenAt(takenAt);
+        request.setReadingType(GlucoseReading.ReadingType.RANDOM);
+        request.setNote(note);
+        glucoseReadingService.createReading(user, request);
+    }
+
+    private static GlucoseSummaryBatchRequest.Window window(LocalDateTime from, LocalDateTime to) {
+        return new GlucoseSummaryBatchRequest.Window(from, to);
+    }
+}
@@ -0,0 +1,105 @@
+package com.glucocloud.api.search;
+
+import com.glucocloud.api.dto.SearchResponse;
+import com.glucocloud.api.event.EntityChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserTextIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private final UserTextIndex index = new UserTextIndex();
+
+    @Test
+    void testMatchesEveryTokenByPrefixAndHighlights() {
+        UUID pizza = put(EntityChangedEvent.EntityType.MEAL, 0, "Pepperoni pizza", "Felt sluggish <after>");
+        put(EntityChangedEvent.EntityType.MEAL, 1, "Pizza margherita", null);
+        UUID metformin = put(EntityChangedEvent.EntityType.MEDICATION, 2, "Metformin", "Nausea after pizza");
+
+        assertEquals(Set.of(pizza, metformin), ids(index.search(SearchText.queryTokens("pizz AFTER"), null, 10)));
+
+        SearchResponse.Hit hit = index.search(SearchText.queryTokens("slug"), null, 10).get(0);
+        assertEquals(pizza, hit.getId());
+        assertEquals("notes", hit.getField());
+        assertEquals("Felt <mark>sluggish</mark> &lt;after&gt;", hit.getSnippet());
+        assertTrue(index.search(SearchText.queryTokens("pizza salad"), null, 10).isEmpty());
+    }
+
+    @Test
+    void testRanksExactAndRareWordsHigher() {
+        put(EntityChangedEvent.EntityType.GLUCOSE_READING, 0, "walked after dinner", null);
+        UUID walk = put(EntityChangedEvent.EntityType.GLUCOSE_READING, 1, "walk", null);
+        put(EntityChangedEvent.EntityType.GLUCOSE_READING, 2, "walking the dog with a long leash today", null);
+
+        List<SearchResponse.Hit> hits = index.search(SearchText.queryTokens("walk"), null, 10);
+        assertEquals(walk, hits.get(0).getId());
+        assertEquals(3, hits.size());
+    }
+
+    @Test
+    void testCursorPagesVisitEveryHitOnce() {
+        Set<UUID> expected = new HashSet<>();
+        for (int i = 0; i < 95; i++) {
+            // Identical texts tie on score, so time, type and id decide the order
+            expected.add(put(EntityChangedEvent.EntityType.values()[i % 3], i % 40, "insulin pump site change", null));
+        }
+
+        Set<UUID> seen = new HashSet<>();
+        SearchCursor cursor = null;
+        List<SearchResponse.Hit> page;
+        do {
+            page = index.search(List.of("pump"), cursor, 10);
+            for (SearchResponse.Hit hit : page) {
+                assertTrue(seen.add(hit.getId()));
+                if (cursor != null) {
+                    assertTrue(cursor.precedes(hit));
+                }
+            }
+            if (!page.isEmpty()) {
+                cursor = SearchCursor.decode(SearchCursor.of(page.get(page.size() - 1)).encode());
+            }
+        } while (page.size() == 10);
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void testUpdatesAndRemovesDocuments() {
+        UUID id = put(EntityChangedEvent.EntityType.MEAL, 0, "Oatmeal", null);
+        index.put(doc(EntityChangedEvent.EntityType.MEAL, id, 0, "Granola", null));
+
+        assertTrue(index.search(List.of("oat"), null, 10).isEmpty());
+        assertEquals(1, index.search(List.of("gran"), null, 10).size());
+
+        index.remove(EntityChangedEvent.EntityType.MEAL, id);
+        assertTrue(index.search(List.of("gran"), null, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private UUID put(EntityChangedEvent.EntityType type, int minutes, String text, String notes) {
+        UUID id = UUID.randomUUID();
+        index.put(doc(type, id, minutes, text, notes));
+        return id;
+    }
+
+    private static UserTextIndex.Doc doc(EntityChangedEvent.EntityType type, UUID id, int minutes, String text,
+                                         String notes) {
+        List<UserTextIndex.Field> fields = new ArrayList<>();
+        fields.add(new UserTextIndex.Field("text", text));
+        if (notes != null) {
+            fields.add(new UserTextIndex.Field("notes", notes));
+        }
+        return new UserTextIndex.Doc(type, id, START.plusMinutes(minutes), text, fields);
+    }
+
+    private static Set<UUID> ids(List<SearchResponse.Hit> hits) {
+        Set<UUID> ids = new HashSet<>();
+        hits.forEach(hit -> ids.add(hit.getId()));
+        return ids;
+    }
+}
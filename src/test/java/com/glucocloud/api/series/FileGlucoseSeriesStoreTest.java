@@ -0,0 +1,53 @@
+package com.glucocloud.api.series;
+
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.GlucoseReadingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.series.store=file",
+        "glucocloud.series.file.directory=target/series-test", "glucocloud.series.file.fsync=never"})
+class FileGlucoseSeriesStoreTest extends GlucoseSeriesStoreContract {
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private GlucoseChunkService chunkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void readingsAreServedFromSegmentFiles() {
+        assertInstanceOf(FileGlucoseSeriesStore.class, store);
+        User user = userRepository.save(User.builder()
+                .email("segments-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        LocalDateTime day = LocalDateTime.of(2025, 4, 2, 0, 0);
+        for (int i = 0; i < 48; i++) {
+            GlucoseReadingRequest request = new GlucoseReadingRequest();
+            request.setReadingValue(BigDecimal.valueOf(90 + i));
+            request.setTakenAt(day.plusMinutes(30L * i));
+            request.setReadingType(GlucoseReading.ReadingType.RANDOM);
+            glucoseReadingService.createReading(user, request);
+        }
+
+        assertEquals(1, store.days(user.getId(), day.toLocalDate(), day.toLocalDate()).size());
+        assertEquals(48, chunkService.readSeries(user, day, day.plusDays(1).minusNanos(1)).size());
+        assertEquals(48, glucoseReadingService.getReadingSeries(user, day.minusDays(1), day.plusDays(2), 100).getSourcePoints());
+    }
+}
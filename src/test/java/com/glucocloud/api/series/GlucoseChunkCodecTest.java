@@ -0,0 +1,90 @@
+package com.glucocloud.api.series;
+
+import com.glucocloud.api.analytics.GlucoseSeries;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlucoseChunkCodecTest {
+
+    private static final long DAY_START = 1_700_000_000L;
+
+    @Test
+    void testRandomSeriesRoundTrip() {
+        Random random = new Random(46);
+        for (int run = 0; run < 2000; run++) {
+            int count = random.nextInt(run % 10 == 0 ? 3 : 700);
+            long[] t = new long[count];
+            double[] v = new double[count];
+            boolean whole = random.nextBoolean();
+            long time = DAY_START + random.nextInt(86_400);
+            for (int i = 0; i < count; i++) {
+                // Mostly sensor cadence, with jitter, gaps, duplicates and the odd step backwards
+                switch (random.nextInt(6)) {
+                    case 0 -> time += random.nextInt(20_000);
+                    case 1 -> time -= random.nextInt(600);
+                    case 2 -> time += 0;
+                    default -> time += 300 + random.nextInt(5) - 2;
+                }
+                t[i] = time;
+                int hundredths = 2_000 + random.nextInt(58_000);
+                v[i] = BigDecimal.valueOf(whole ? hundredths / 100 * 100 : hundredths, 2).doubleValue();
+            }
+
+            byte[] chunk = GlucoseChunkCodec.encode(t, v, count);
+            GlucoseSeries decoded = new GlucoseSeries(1);
+            assertEquals(count, GlucoseChunkCodec.decode(chunk, decoded));
+            assertEquals(count, GlucoseChunkCodec.count(chunk));
+            for (int i = 0; i < count; i++) {
+                assertEquals(t[i], decoded.timestampAt(i), "run " + run + " timestamp " + i);
+                assertEquals(v[i], decoded.valueAt(i), "run " + run + " value " + i);
+            }
+        }
+    }
+
+    @Test
+    void testDecodeFiltersToRangeAndAppends() {
+        long[] t = {DAY_START, DAY_START + 300, DAY_START + 600, DAY_START + 900};
+        double[] v = {101.5, 99.25, 140, 180.75};
+        byte[] chunk = GlucoseChunkCodec.encode(t, v, t.length);
+
+        GlucoseSeries series = new GlucoseSeries();
+        series.add(DAY_START - 60, 90);
+        assertEquals(2, GlucoseChunkCodec.decode(chunk, DAY_START + 300, DAY_START + 600, series));
+
+        assertEquals(3, series.size());
+        assertEquals(DAY_START + 300, series.timestampAt(1));
+        assertEquals(99.25, series.valueAt(1));
+        assertEquals(140, series.valueAt(2));
+    }
+
+    @Test
+    void testSensorDayIsAtLeastTenTimesSmallerThanRows() {
+        // A CGM day: 288 readings five minutes apart, whole mg/dL, drifting a few units
+        Random random = new Random(7);
+        long[] t = new long[288];
+        double[] v = new double[288];
+        double value = 120;
+        for (int i = 0; i < t.length; i++) {
+            t[i] = DAY_START + i * 300L + (random.nextInt(10) == 0 ? 1 : 0);
+            value = Math.max(40, Math.min(400, value + random.nextInt(9) - 4));
+            v[i] = Math.round(value);
+        }
+
+        byte[] chunk = GlucoseChunkCodec.encode(t, v, t.length);
+
+        // A glucose_readings row is over 100 bytes before indexes
+        assertTrue(chunk.length * 10 < t.length * 100, "chunk of " + chunk.length + " bytes");
+        assertTrue(chunk.length < t.length * 3);
+    }
+
+    @Test
+    void testEmptyChunk() {
+        byte[] chunk = GlucoseChunkCodec.encode(new long[0], new double[0], 0);
+        assertEquals(0, GlucoseChunkCodec.decode(chunk, new GlucoseSeries()));
+        assertThrows(IllegalArgumentException.class, () -> GlucoseChunkCodec.decode(new byte[]{9}, new GlucoseSeries()));
+    }
+}
@@ -0,0 +1,178 @@
+package com.glucocloud.api.series;
+
+import com.glucocloud.api.analytics.GlucoseSeries;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.dto.GlucoseReadingResponse;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.ingest.GlucoseReadingBatchWriter;
+import com.glucocloud.api.job.GlucoseChunkBuildJob;
+import com.glucocloud.api.repository.GlucoseChunkRepository;
+import com.glucocloud.api.repository.GlucoseReadingRepository;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.GlucoseReadingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class GlucoseChunkServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Autowired
+    private GlucoseChunkService chunkService;
+
+    @Autowired
+    private GlucoseSeriesStore seriesStore;
+
+    @Autowired
+    private GlucoseChunkBuildJob chunkBuildJob;
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private GlucoseReadingRepository glucoseReadingRepository;
+
+    @Autowired
+    private GlucoseChunkRepository chunkRepository;
+
+    @Autowired
+    private GlucoseReadingBatchWriter batchWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private final List<GlucoseReadingResponse> readings = new ArrayList<>();
+
+    @BeforeEach
+    void createReadings() {
+        user = userRepository.save(User.builder()
+                .email("chunks-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        // Three days of sensor readings, 20 minutes apart
+        for (int i = 0; i < 216; i++) {
+            readings.add(reading(DAY.plusMinutes(20L * i).plusNanos(250_000_000L), 80 + (i * 7) % 150 + (i % 4) * 0.25));
+        }
+    }
+
+    @Test
+    void chunksFollowEveryChange() {
+        assertEquals(3, seriesStore.read(user.getId(), DAY.toLocalDate(), DAY.toLocalDate().plusDays(2)).size());
+        assertSeriesMatchesRows(DAY.plusHours(5), DAY.plusDays(2).plusHours(7));
+
+        // Move a reading to a day of its own, then empty the last day
+        GlucoseReadingResponse moved = readings.get(0);
+        GlucoseReadingRequest request = GlucoseReadingRequest.fromEntity(glucoseReadingRepository.findById(moved.getId()).orElseThrow());
+        request.setTakenAt(DAY.minusDays(2));
+        glucoseReadingService.updateReading(user, moved.getId(), request);
+        for (GlucoseReadingResponse reading : readings.subList(144, 216)) {
+            glucoseReadingService.deleteReading(user, reading.getId());
+        }
+
+        assertTrue(chunkService.hasChunk(user.getId(), DAY.toLocalDate().minusDays(2)));
+        assertFalse(chunkService.hasChunk(user.getId(), DAY.toLocalDate().plusDays(2)));
+        assertEquals(71, chunkRepository.findByUserIdAndDay(user.getId(), DAY.toLocalDate()).orElseThrow().getReadingCount());
+        assertSeriesMatchesRows(DAY.minusDays(3), DAY.plusDays(3));
+    }
+
+    @Test
+    void daysWithoutChunksAreReadFromRowsAndBackfilled() {
+        LocalDate first = DAY.toLocalDate();
+        chunkRepository.deleteAll(chunkRepository.findByUserIdAndDayBetweenOrderByDay(user.getId(), first, first.plusDays(1)));
+        assertSeriesMatchesRows(DAY, DAY.plusDays(3));
+        assertFalse(chunkService.hasChunk(user.getId(), first));
+
+        BackgroundJob job = BackgroundJob.builder().userId(user.getId()).type(BackgroundJob.JobType.GLUCOSE_CHUNK_BUILD).build();
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> chunkBuildJob.step(job)))) {
+            // one month of days per step
+        }
+
+        assertEquals(2, job.getProcessed());
+        assertEquals(3, seriesStore.days(user.getId(), first, first.plusDays(2)).size());
+        assertSeriesMatchesRows(DAY, DAY.plusDays(3));
+    }
+
+    @Test
+    void chunksAreSmallerAndFasterToReadThanTheRows() {
+        // Thirty days of five-minute sensor readings
+        LocalDateTime start = DAY.plusMonths(1);
+        List<GlucoseReading> month = new ArrayList<>();
+        for (int i = 0; i < 30 * 288; i++) {
+            month.add(GlucoseReading.builder()
+                    .id(UUID.randomUUID())
+                    .user(user)
+                    .readingValue(BigDecimal.valueOf(80 + (i * 7) % 150 + (i % 4) * 0.25))
+                    .takenAt(start.plusMinutes(5L * i).plusSeconds(i % 3))
+                    .readingType(GlucoseReading.ReadingType.RANDOM)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        transactionTemplate.execute(status -> batchWriter.insertNew(month));
+        LocalDateTime end = start.plusDays(30).minusNanos(1);
+
+        // A row's fixed-width columns alone (two ids, two timestamps, version and value) take 64 bytes
+        long chunkBytes = seriesStore.read(user.getId(), start.toLocalDate(), end.toLocalDate()).values().stream()
+                .mapToLong(chunk -> chunk.length)
+                .sum();
+        assertTrue(chunkBytes * 10 < 64L * month.size(), "Chunks take " + chunkBytes + " bytes for " + month.size() + " readings");
+
+        long chunkNanos = fastestRead(start, end);
+        assertSeriesMatchesRows(start, end);
+        chunkRepository.deleteAll(chunkRepository.findByUserIdAndDayBetweenOrderByDay(user.getId(), start.toLocalDate(), end.toLocalDate()));
+        long rowNanos = fastestRead(start, end);
+        assertTrue(chunkNanos * 10 < rowNanos, "Chunk read took " + chunkNanos / 1000 + " us, row scan " + rowNanos / 1000 + " us");
+    }
+
+    // Best of several runs, after a warm-up
+    private long fastestRead(LocalDateTime from, LocalDateTime to) {
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < 15; run++) {
+            long started = System.nanoTime();
+            assertEquals(30 * 288, chunkService.readSeries(user, from, to).size());
+            if (run >= 5) {
+                fastest = Math.min(fastest, System.nanoTime() - started);
+            }
+        }
+        return fastest;
+    }
+
+    private void assertSeriesMatchesRows(LocalDateTime from, LocalDateTime to) {
+        GlucoseSeries series = chunkService.readSeries(user, from, to);
+        List<GlucoseReading> rows = glucoseReadingRepository.findByUserAndTakenAtBetweenOrderByTakenAtDesc(user, from, to);
+        assertEquals(rows.size(), series.size());
+        for (int i = 0; i < rows.size(); i++) {
+            GlucoseReading row = rows.get(rows.size() - 1 - i);
+            assertEquals(GlucoseSeries.toEpochSecond(row.getTakenAt()), series.timestampAt(i));
+            assertEquals(row.getReadingValue().doubleValue(), series.valueAt(i));
+        }
+    }
+
+    private GlucoseReadingResponse reading(LocalDateTime takenAt, double value) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setReadingValue(BigDecimal.valueOf(value));
+        request.setTakenAt(takenAt);
+        request.setReadingType(GlucoseReading.ReadingType.RANDOM);
+        return glucoseReadingService.createReading(user, request);
+    }
+}
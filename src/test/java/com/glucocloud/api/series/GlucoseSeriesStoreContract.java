@@ -0,0 +1,105 @@
+package com.glucocloud.api.series;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Behaviour every {@link GlucoseSeriesStore} must have; run once per implementation. */
+abstract class GlucoseSeriesStoreContract {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    protected GlucoseSeriesStore store;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void committedWritesAreRead() {
+        inTransaction(() -> {
+            store.write(userId, DAY, chunk(1), 1);
+            store.write(userId, DAY.plusDays(1), chunk(2), 2);
+            store.write(userId, DAY.plusDays(5), chunk(3), 3);
+        });
+
+        Map<LocalDate, byte[]> chunks = store.read(userId, DAY, DAY.plusDays(1));
+        assertEquals(2, chunks.size());
+        assertArrayEquals(chunk(1), chunks.get(DAY));
+        assertArrayEquals(chunk(2), chunks.get(DAY.plusDays(1)));
+        assertEquals(Set.of(DAY.plusDays(1), DAY.plusDays(5)), store.days(userId, DAY.plusDays(1), DAY.plusDays(30)));
+        assertTrue(store.read(UUID.randomUUID(), DAY, DAY).isEmpty());
+    }
+
+    @Test
+    void writesReplaceAndRemove() {
+        inTransaction(() -> store.write(userId, DAY, chunk(1), 1));
+        inTransaction(() -> store.write(userId, DAY, chunk(4), 4));
+        assertArrayEquals(chunk(4), store.read(userId, DAY, DAY).get(DAY));
+
+        inTransaction(() -> store.write(userId, DAY, null, 0));
+        assertTrue(store.read(userId, DAY, DAY).isEmpty());
+        assertTrue(store.days(userId, DAY, DAY).isEmpty());
+        assertTrue(store.isEmpty(userId));
+    }
+
+    @Test
+    void rolledBackWriteIsNeverTheCurrentChunk() {
+        inTransaction(() -> store.write(userId, DAY, chunk(1), 1));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            store.write(userId, DAY, chunk(2), 2);
+            status.setRollbackOnly();
+        });
+
+        byte[] current = store.read(userId, DAY, DAY).get(DAY);
+        if (current != null) {
+            assertArrayEquals(chunk(1), current);
+        }
+    }
+
+    @Test
+    void deleteRemovesEverythingOfTheUser() {
+        UUID other = UUID.randomUUID();
+        inTransaction(() -> {
+            for (int i = 0; i < 3; i++) {
+                store.write(userId, DAY.plusDays(i), chunk(i + 1), i + 1);
+            }
+            store.write(other, DAY, chunk(9), 9);
+        });
+        assertFalse(store.isEmpty(userId));
+
+        int removed = 0;
+        for (int n; (n = store.delete(userId, 2)) > 0; ) {
+            removed += n;
+        }
+
+        assertEquals(3, removed);
+        assertTrue(store.isEmpty(userId));
+        assertTrue(store.read(userId, DAY, DAY.plusDays(3)).isEmpty());
+        assertArrayEquals(chunk(9), store.read(other, DAY, DAY).get(DAY));
+    }
+
+    private void inTransaction(Runnable work) {
+        transactionTemplate.executeWithoutResult(status -> work.run());
+    }
+
+    private static byte[] chunk(int readings) {
+        long[] t = new long[readings];
+        double[] v = new double[readings];
+        for (int i = 0; i < readings; i++) {
+            t[i] = 1_741_600_000L + i * 300L;
+            v[i] = 100 + readings + i;
+        }
+        return GlucoseChunkCodec.encode(t, v, readings);
+    }
+}
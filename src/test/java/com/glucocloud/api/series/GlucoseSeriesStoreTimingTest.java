@@ -0,0 +1,111 @@
+package com.glucocloud.api.series;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ingest and range-scan timings of the two stores over the same year of day chunks: the
+ * configured JPA store against a file store opened beside it.
+ */
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class GlucoseSeriesStoreTimingTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAYS = 365;
+    private static final Path DIRECTORY = Path.of("target/series-timing");
+
+    @Autowired
+    private GlucoseSeriesStore jpaStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private FileGlucoseSeriesStore fileStore;
+    private byte[][] chunks;
+
+    @BeforeEach
+    void openFileStore() throws IOException {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+        fileStore = new FileGlucoseSeriesStore(DIRECTORY.toString(), "interval", 8 << 20, 16);
+        // A day of five-minute sensor readings per chunk
+        chunks = new byte[DAYS][];
+        for (int day = 0; day < DAYS; day++) {
+            long[] t = new long[288];
+            double[] v = new double[288];
+            long start = FIRST_DAY.plusDays(day).toEpochDay() * 86_400;
+            for (int i = 0; i < 288; i++) {
+                t[i] = start + i * 300L + i % 3;
+                v[i] = 110 + 40 * Math.sin((day * 288 + i) / 30.0) + (i % 4) * 0.25;
+            }
+            chunks[day] = GlucoseChunkCodec.encode(t, v, 288);
+        }
+    }
+
+    @AfterEach
+    void closeFileStore() throws IOException {
+        fileStore.close();
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+    }
+
+    @Test
+    void storesAreTimedOnTheSameYearOfChunks() {
+        assertInstanceOf(JpaGlucoseSeriesStore.class, jpaStore);
+
+        UUID jpaUser = UUID.randomUUID();
+        UUID fileUser = UUID.randomUUID();
+        long jpaIngest = ingest(jpaStore, jpaUser);
+        long fileIngest = ingest(fileStore, fileUser);
+        long jpaYear = fastestScan(jpaStore, jpaUser, DAYS);
+        long fileYear = fastestScan(fileStore, fileUser, DAYS);
+        long jpaMonth = fastestScan(jpaStore, jpaUser, 30);
+        long fileMonth = fastestScan(fileStore, fileUser, 30);
+        assertFaster("ingest", fileIngest, jpaIngest);
+        assertFaster("year scan", fileYear, jpaYear);
+        assertFaster("month scan", fileMonth, jpaMonth);
+    }
+
+    // The file store skips the ORM and database round trips, so it should win clearly
+    private static void assertFaster(String what, long fileNanos, long jpaNanos) {
+        assertTrue(fileNanos * 2 < jpaNanos,
+                what + ": file store " + fileNanos / 1000 + " us, JPA store " + jpaNanos / 1000 + " us");
+    }
+
+    // Best of several scans of the last days of the year, after a warm-up
+    private long fastestScan(GlucoseSeriesStore store, UUID userId, int days) {
+        LocalDate last = FIRST_DAY.plusDays(DAYS - 1);
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < 20; run++) {
+            long started = System.nanoTime();
+            assertEquals(days, store.read(userId, last.minusDays(days - 1), last).size());
+            if (run >= 5) {
+                fastest = Math.min(fastest, System.nanoTime() - started);
+            }
+        }
+        return fastest;
+    }
+
+    // One transaction per day, as chunks are written when a day's readings change
+    private long ingest(GlucoseSeriesStore store, UUID userId) {
+        long started = System.nanoTime();
+        for (int day = 0; day < DAYS; day++) {
+            int index = day;
+            transactionTemplate.executeWithoutResult(status ->
+                    store.write(userId, FIRST_DAY.plusDays(index), chunks[index], 288));
+        }
+        return System.nanoTime() - started;
+    }
+}
@@ -0,0 +1,9 @@
+package com.glucocloud.api.series;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class JpaGlucoseSeriesStoreTest extends GlucoseSeriesStoreContract {
+}
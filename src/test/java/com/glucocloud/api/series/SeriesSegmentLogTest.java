@@ -0,0 +1,119 @@
+package com.glucocloud.api.series;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeriesSegmentLogTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReopenKeepsNewestRecordPerDay() throws IOException {
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 1 << 20)) {
+            log.append(1, DAY, bytes(1, 10), 10, false);
+            log.append(3, DAY, bytes(3, 10), 10, false);
+            assertFalse(log.append(2, DAY, bytes(2, 10), 10, false));
+            log.append(4, DAY.plusDays(1), bytes(4, 5), 5, true);
+            log.append(5, DAY.plusDays(1), null, 0, true);
+        }
+
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 1 << 20)) {
+            assertEquals(5, log.maxSequence());
+            assertEquals(0, log.truncatedBytes());
+            assertArrayEquals(bytes(3, 10), log.read(DAY, DAY.plusDays(1)).get(DAY));
+            assertEquals(1, log.read(DAY, DAY.plusDays(1)).size());
+        }
+    }
+
+    @Test
+    void testTornTailIsTruncatedOnOpen() throws IOException {
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 1 << 20)) {
+            log.append(1, DAY, bytes(1, 40), 40, true);
+            log.append(2, DAY.plusDays(1), bytes(2, 40), 40, true);
+        }
+        Path segment = segments().get(0);
+        long size = Files.size(segment);
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 7);
+        }
+
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 1 << 20)) {
+            assertTrue(log.truncatedBytes() > 0);
+            assertEquals(1, log.read(DAY, DAY.plusDays(1)).size());
+            // Appends continue after the last good record
+            log.append(3, DAY.plusDays(1), bytes(3, 8), 8, true);
+        }
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 1 << 20)) {
+            assertEquals(0, log.truncatedBytes());
+            assertArrayEquals(bytes(3, 8), log.read(DAY, DAY.plusDays(1)).get(DAY.plusDays(1)));
+        }
+    }
+
+    @Test
+    void testCorruptRecordFailsItsChecksum() throws IOException {
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 1 << 20)) {
+            log.append(1, DAY, bytes(1, 40), 40, true);
+            log.append(2, DAY, bytes(2, 40), 40, true);
+        }
+        Path segment = segments().get(0);
+        byte[] data = Files.readAllBytes(segment);
+        data[data.length - 3] ^= 0x5A;
+        Files.write(segment, data);
+
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 1 << 20)) {
+            assertTrue(log.truncatedBytes() > 0);
+            assertArrayEquals(bytes(1, 40), log.read(DAY, DAY).get(DAY));
+        }
+    }
+
+    @Test
+    void testSegmentsRollAndCompact() throws IOException {
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 16 * 1024)) {
+            // Rewrite ten days over and over: superseded records soon outweigh the live ones
+            for (int round = 1; round <= 60; round++) {
+                for (int day = 0; day < 10; day++) {
+                    log.append(round * 100L + day, DAY.plusDays(day), bytes(round, 300), 300, false);
+                }
+            }
+            assertEquals(10, log.days(DAY, DAY.plusDays(30)).size());
+        }
+        long total = 0;
+        for (Path segment : segments()) {
+            total += Files.size(segment);
+        }
+        assertTrue(total < 60 * 10 * 300 / 4, "segments hold " + total + " bytes");
+
+        try (SeriesSegmentLog log = SeriesSegmentLog.open(directory, 16 * 1024)) {
+            for (int day = 0; day < 10; day++) {
+                assertArrayEquals(bytes(60, 300), log.read(DAY.plusDays(day), DAY.plusDays(day)).get(DAY.plusDays(day)));
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(int seed, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (seed * 31 + i);
+        }
+        return data;
+    }
+}
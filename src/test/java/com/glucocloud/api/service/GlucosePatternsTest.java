@@ -0,0 +1,103 @@
+package com.glucocloud.api.service;
+
+import com.glucocloud.api.dto.GlucosePatternResponse;
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.entity.GlucoseReading;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class GlucosePatternsTest {
+
+    // A Sunday
+    private static final LocalDateTime SUNDAY = LocalDateTime.of(2026, 1, 4, 0, 0);
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .email("patterns-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        glucoseReadingService.createReadings(user, List.of(
+                reading(SUNDAY.plusHours(8), 100, GlucoseReading.ReadingType.FASTING),
+                reading(SUNDAY.plusWeeks(1).plusHours(8).plusMinutes(30), 50, GlucoseReading.ReadingType.BEFORE_MEAL),
+                reading(SUNDAY.plusDays(1).plusHours(8), 200, GlucoseReading.ReadingType.FASTING),
+                reading(SUNDAY.plusDays(6).plusHours(23), 300, GlucoseReading.ReadingType.BEDTIME)));
+    }
+
+    @Test
+    void readingsAreGroupedByWeekdayAndHour() {
+        GlucosePatternResponse patterns = analyticsService.analyzeGlucosePatterns(user,
+                SUNDAY, SUNDAY.plusWeeks(2), false);
+
+        assertEquals(4, patterns.getTotalReadings());
+        List<GlucosePatternResponse.Cell> cells = patterns.getCells();
+        assertEquals(3, cells.size());
+
+        // Cells run Monday first
+        GlucosePatternResponse.Cell monday = cells.get(0);
+        assertEquals(DayOfWeek.MONDAY, monday.getDayOfWeek());
+        assertEquals(8, monday.getHour());
+        assertEquals(1, monday.getHigh());
+
+        GlucosePatternResponse.Cell saturday = cells.get(1);
+        assertEquals(DayOfWeek.SATURDAY, saturday.getDayOfWeek());
+        assertEquals(23, saturday.getHour());
+        assertEquals(1, saturday.getVeryHigh());
+
+        GlucosePatternResponse.Cell sunday = cells.get(2);
+        assertEquals(DayOfWeek.SUNDAY, sunday.getDayOfWeek());
+        assertEquals(8, sunday.getHour());
+        assertEquals(2, sunday.getReadings());
+        assertEquals(new BigDecimal("75.00"), sunday.getAverageReading());
+        assertEquals(1, sunday.getVeryLow());
+        assertEquals(1, sunday.getInRange());
+        assertEquals(50.0, sunday.getTimeInRangePercentage());
+    }
+
+    @Test
+    void cellsCanBeSplitByReadingType() {
+        GlucosePatternResponse patterns = analyticsService.analyzeGlucosePatterns(user,
+                SUNDAY, SUNDAY.plusWeeks(2), true);
+
+        assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY, DayOfWeek.SUNDAY),
+                patterns.getCells().stream().map(GlucosePatternResponse.Cell::getDayOfWeek).toList());
+        assertEquals(List.of(GlucoseReading.ReadingType.FASTING, GlucoseReading.ReadingType.BEDTIME,
+                        GlucoseReading.ReadingType.FASTING, GlucoseReading.ReadingType.BEFORE_MEAL),
+                patterns.getCells().stream().map(GlucosePatternResponse.Cell::getReadingType).toList());
+        assertTrue(patterns.getCells().stream().allMatch(cell -> cell.getReadings() == 1));
+    }
+
+    private static GlucoseReadingRequest reading(LocalDateTime takenAt, int value, GlucoseReading.ReadingType type) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setTakenAt(takenAt);
+        request.setReadingValue(BigDecimal.valueOf(value));
+        request.setReadingType(type);
+        return request;
+    }
+}
@@ -0,0 +1,166 @@
+package com.glucocloud.api.service;
+
+import com.glucocloud.api.dto.GlucoseReadingRequest;
+import com.glucocloud.api.dto.GlucoseSummaryBatchRequest;
+import com.glucocloud.api.dto.GlucoseSummaryResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class GlucoseSummariesTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 5, 0, 0);
+
+    @Autowired
+    private GlucoseReadingService glucoseReadingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .email("summaries-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+
+    @Test
+    void overlappingWindowsEachCountEveryReadingInside() {
+        // Day 0: 100, 120; day 1: 200; day 2: 50
+        addReadings(reading(START.plusHours(8), 100), reading(START.plusHours(20), 120),
+                reading(START.plusDays(1).plusHours(8), 200), reading(START.plusDays(2).plusHours(8), 50));
+
+        List<GlucoseSummaryResponse> summaries = glucoseReadingService.getGlucoseSummaries(user, List.of(
+                window(START, START.plusDays(2)),
+                window(START.plusDays(1), START.plusDays(3))));
+
+        GlucoseSummaryResponse wide = summaries.get(0);
+        assertEquals(3, wide.getTotalReadings());
+        assertEquals(new BigDecimal("140.00"), wide.getAverageReading());
+        assertEquals(2, wide.getReadingsInRange());
+        assertEquals(1, wide.getReadingsHigh());
+
+        GlucoseSummaryResponse late = summaries.get(1);
+        assertEquals(2, late.getTotalReadings());
+        assertEquals(new BigDecimal("50.00"), late.getMinReading());
+        assertEquals(1, late.getCriticallyLowReadings());
+    }
+
+    @Test
+    void windowsOutOfOrderAreAnsweredInRequestOrderWithTrendsAgainstTheOneBefore() {
+        addReadings(reading(START.plusHours(8), 100), reading(START.plusDays(1).plusHours(8), 130),
+                reading(START.plusDays(2).plusHours(8), 125));
+
+        List<GlucoseSummaryResponse> summaries = glucoseReadingService.getGlucoseSummaries(user, List.of(
+                window(START.plusDays(1), START.plusDays(1).plusHours(23)),
+                window(START, START.plusHours(23)),
+                window(START.plusDays(2), START.plusDays(2).plusHours(23)),
+                window(START.plusDays(5), START.plusDays(6))));
+
+        assertEquals(List.of(START.plusDays(1), START, START.plusDays(2), START.plusDays(5)),
+                summaries.stream().map(GlucoseSummaryResponse::getFromDate).toList());
+        assertEquals(new BigDecimal("130.00"), summaries.get(0).getAverageReading());
+        assertNull(summaries.get(0).getTrend());
+
+        // 100 after 130
+        assertEquals(new BigDecimal("-30.00"), summaries.get(1).getTrendChange());
+        assertEquals("IMPROVING", summaries.get(1).getTrend());
+        // 125 after 100
+        assertEquals(new BigDecimal("25.00"), summaries.get(2).getTrendChange());
+        assertEquals("WORSENING", summaries.get(2).getTrend());
+        // An empty window has no trend
+        assertEquals(0, summaries.get(3).getTotalReadings());
+        assertNull(summaries.get(3).getTrendChange());
+    }
+
+    @Test
+    void periodSpecBuildsConsecutiveWindowsOldestFirst() {
+        LocalDateTime end = START.plusWeeks(12);
+        List<GlucoseReadingRequest> readings = new ArrayList<>();
+        for (int week = 0; week < 12; week++) {
+            // Mid-week, clear of the shared window bounds
+            readings.add(reading(START.plusWeeks(week).plusDays(3), 100 + week));
+        }
+        addReadings(readings.toArray(GlucoseReadingRequest[]::new));
+
+        GlucoseSummaryBatchRequest request = new GlucoseSummaryBatchRequest();
+        request.setPeriod("12 weeks");
+        request.setEnd(end);
+        List<GlucoseSummaryResponse> summaries = glucoseReadingService.getGlucoseSummaries(user, request);
+
+        assertEquals(12, summaries.size());
+        assertEquals(START, summaries.get(0).getFromDate());
+        assertEquals(end, summaries.get(11).getToDate());
+        for (int week = 0; week < 12; week++) {
+            GlucoseSummaryResponse summary = summaries.get(week);
+            assertEquals(summary.getFromDate().plusWeeks(1), summary.getToDate());
+            assertEquals(1, summary.getTotalReadings());
+            assertEquals(new BigDecimal(100 + week + ".00"), summary.getAverageReading());
+            if (week > 0) {
+                assertEquals(new BigDecimal("1.00"), summary.getTrendChange());
+                assertEquals("STABLE", summary.getTrend());
+            }
+        }
+    }
+
+    @Test
+    void readingOnAPeriodBoundaryIsCountedInTheLaterPeriodOnly() {
+        // Midnight readings on the bounds between the three daily periods, and one at the very end
+        addReadings(reading(START.plusHours(12), 100), reading(START.plusDays(1), 150),
+                reading(START.plusDays(2), 200), reading(START.plusDays(3), 250));
+
+        GlucoseSummaryBatchRequest request = new GlucoseSummaryBatchRequest();
+        request.setPeriod("3 days");
+        request.setEnd(START.plusDays(3));
+        List<GlucoseSummaryResponse> summaries = glucoseReadingService.getGlucoseSummaries(user, request);
+
+        assertEquals(List.of(1, 1, 1), summaries.stream().map(GlucoseSummaryResponse::getTotalReadings).toList());
+        assertEquals(new BigDecimal("100.00"), summaries.get(0).getAverageReading());
+        assertEquals(new BigDecimal("150.00"), summaries.get(1).getAverageReading());
+        assertEquals(new BigDecimal("200.00"), summaries.get(2).getAverageReading());
+
+        // Explicit windows keep their inclusive end
+        assertEquals(2, glucoseReadingService.getGlucoseSummaries(user,
+                List.of(window(START, START.plusDays(1)))).get(0).getTotalReadings());
+    }
+
+    @Test
+    void invalidRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> glucoseReadingService.getGlucoseSummaries(user,
+                List.of(window(START.plusDays(1), START))));
+        assertThrows(IllegalArgumentException.class, () -> glucoseReadingService.getGlucoseSummaries(user,
+                new GlucoseSummaryBatchRequest()));
+    }
+
+    private void addReadings(GlucoseReadingRequest... requests) {
+        glucoseReadingService.createReadings(user, List.of(requests));
+    }
+
+    private static GlucoseReadingRequest reading(LocalDateTime takenAt, int value) {
+        GlucoseReadingRequest request = new GlucoseReadingRequest();
+        request.setTakenAt(takenAt);
+        request.setReadingValue(BigDecimal.valueOf(value));
+        return request;
+    }
+
+    private static GlucoseSummaryBatchRequest.Window window(LocalDateTime from, LocalDateTime to) {
+        return new GlucoseSummaryBatchRequest.Window(from, to);
+    }
+}
@@ -0,0 +1,65 @@
+package com.glucocloud.api.service;
+
+import com.glucocloud.api.dto.MealRequest;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test",
+        "glucocloud.food.source=src/test/resources/foods-test.csv", "glucocloud.food.index=target/foods-test.idx"})
+class MealFoodTest {
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .email("food-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+
+    @Test
+    void macrosAreFilledFromTheFoodScaledToThePortion() {
+        MealResponse meal = mealService.createMeal(user, meal(1, 250));
+
+        assertEquals(71, meal.getCarbsGrams());
+        assertEquals(325, meal.getCalories());
+        assertEquals(7, meal.getProteinGrams());
+        assertEquals(1, meal.getFatGrams());
+    }
+
+    @Test
+    void filledMacrosAreHeldToTheRequestLimits() {
+        // 2000 g of sugar is about 1996 g of carbs, past the 1000 g limit
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> mealService.createMeal(user, meal(2, 2000)));
+        assertTrue(e.getMessage().contains("Carbs cannot exceed 1000g"));
+    }
+
+    private static MealRequest meal(int foodId, int portionGrams) {
+        MealRequest request = new MealRequest();
+        request.setDescription("Food meal");
+        request.setFoodId(foodId);
+        request.setPortionGrams(portionGrams);
+        request.setConsumedAt(LocalDateTime.of(2026, 5, 1, 12, 0));
+        return request;
+    }
+}
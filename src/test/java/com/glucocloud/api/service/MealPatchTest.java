@@ -0,0 +1,86 @@
+package com.glucocloud.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glucocloud.api.dto.MealRequest;
+import com.glucocloud.api.dto.MealResponse;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+class MealPatchTest {
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private MealResponse meal;
+
+    @BeforeEach
+    void createMeal() {
+        user = userRepository.save(User.builder()
+                .email("patch-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        MealRequest request = new MealRequest();
+        request.setDescription("Toast");
+        request.setCarbsGrams(30);
+        request.setNotes("with butter");
+        request.setConsumedAt(LocalDateTime.of(2026, 5, 1, 8, 0));
+        meal = mealService.createMeal(user, request);
+    }
+
+    @Test
+    void patchChangesOnlySuppliedFieldsAndBumpsVersion() throws Exception {
+        MealResponse patched = mealService.patchMeal(user, meal.getId(),
+                json("{\"carbsGrams\": 45, \"notes\": null}"), meal.getVersion());
+
+        assertEquals(45, patched.getCarbsGrams());
+        assertNull(patched.getNotes());
+        assertEquals("Toast", patched.getDescription());
+        assertEquals(meal.getConsumedAt(), patched.getConsumedAt());
+        assertEquals(meal.getVersion() + 1, patched.getVersion());
+    }
+
+    @Test
+    void staleVersionIsRejected() throws Exception {
+        mealService.patchMeal(user, meal.getId(), json("{\"carbsGrams\": 40}"), null);
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                mealService.patchMeal(user, meal.getId(), json("{\"carbsGrams\": 50}"), meal.getVersion()));
+        assertEquals(40, mealService.getMealById(user, meal.getId()).orElseThrow().getCarbsGrams());
+    }
+
+    @Test
+    void invalidOrNoOpPatches() throws Exception {
+        assertThrows(IllegalArgumentException.class, () ->
+                mealService.patchMeal(user, meal.getId(), json("{\"description\": null}"), null));
+        assertThrows(IllegalArgumentException.class, () ->
+                mealService.patchMeal(user, meal.getId(), json("[1]"), null));
+
+        MealResponse unchanged = mealService.patchMeal(user, meal.getId(), json("{\"description\": \"Toast\"}"), null);
+        assertEquals(meal.getVersion(), unchanged.getVersion());
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+}
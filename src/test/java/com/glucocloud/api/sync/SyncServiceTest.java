@@ -0,0 +1,225 @@
+package com.glucocloud.api.sync;
+
+import com.glucocloud.api.dto.*;
+import com.glucocloud.api.entity.BackgroundJob;
+import com.glucocloud.api.entity.Meal;
+import com.glucocloud.api.entity.User;
+import com.glucocloud.api.event.EntityChangedEvent;
+import com.glucocloud.api.job.JobRunner;
+import com.glucocloud.api.repository.BackgroundJobRepository;
+import com.glucocloud.api.repository.MealRepository;
+import com.glucocloud.api.repository.UserRepository;
+import com.glucocloud.api.service.MealService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "glucocloud.jobs.poll-interval-ms=3600000",
+        "glucocloud.jobs.chunk-size=2", "glucocloud.jobs.chunk-pause-ms=0"})
+class SyncServiceTest {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private BackgroundJobRepository jobRepository;
+
+    @Autowired
+    private JobRunner jobRunner;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .email("sync-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+
+    @Test
+    void feedHoldsOneRowPerRecordAndTombstonesDeletes() {
+        MealResponse kept = mealService.createMeal(user, meal("Oatmeal"));
+        MealResponse removed = mealService.createMeal(user, meal("Toast"));
+        SyncResponse first = syncService.getChanges(user, null, 500);
+        assertEquals(2, first.getChanges().size());
+        assertFalse(first.isHasMore());
+
+        mealService.updateMeal(user, kept.getId(), meal("Oatmeal with berries"));
+        mealService.updateMeal(user, kept.getId(), meal("Oatmeal with nuts"));
+        mealService.deleteMeal(user, removed.getId());
+
+        SyncResponse delta = syncService.getChanges(user, first.getNextToken(), 500);
+        assertEquals(2, delta.getChanges().size());
+        assertEquals("Oatmeal with nuts", delta.getChanges().get(0).getMeal().getDescription());
+        SyncResponse.Change tombstone = delta.getChanges().get(1);
+        assertEquals(removed.getId(), tombstone.getId());
+        assertTrue(tombstone.isDeleted());
+        assertNull(tombstone.getMeal());
+
+        SyncResponse idle = syncService.getChanges(user, delta.getNextToken(), 500);
+        assertTrue(idle.getChanges().isEmpty());
+        assertEquals(delta.getNextToken(), idle.getNextToken());
+    }
+
+    @Test
+    void pagesFollowTheSequence() {
+        for (int i = 0; i < 5; i++) {
+            mealService.createMeal(user, meal("Meal " + i));
+        }
+        SyncResponse page = syncService.getChanges(user, null, 2);
+        int seen = page.getChanges().size();
+        while (page.isHasMore()) {
+            page = syncService.getChanges(user, page.getNextToken(), 2);
+            seen += page.getChanges().size();
+        }
+        assertEquals(5, seen);
+    }
+
+    @Test
+    void staleEditConflictsWithTheServerVersion() {
+        MealResponse created = mealService.createMeal(user, meal("Rice"));
+        long baseSeq = syncService.getChanges(user, null, 500).getChanges().get(0).getSeq();
+        mealService.updateMeal(user, created.getId(), meal("Rice and beans"));
+
+        SyncUploadResponse response = syncService.upload(user, upload(created.getId(), baseSeq, meal("Fried rice")));
+        SyncUploadResponse.Result result = response.getResults().get(0);
+        assertEquals(SyncUploadResponse.Status.CONFLICT, result.getStatus());
+        assertEquals("Rice and beans", result.getServer().getMeal().getDescription());
+
+        response = syncService.upload(user, upload(created.getId(), result.getSeq(), meal("Fried rice")));
+        assertEquals(SyncUploadResponse.Status.APPLIED, response.getResults().get(0).getStatus());
+        assertTrue(response.getResults().get(0).getSeq() > result.getSeq());
+    }
+
+    @Test
+    void invalidMutationsAreReportedIndividually() {
+        SyncUploadRequest request = upload(null, null, meal("Soup"));
+        SyncUploadRequest.Mutation invalid = new SyncUploadRequest.Mutation();
+        invalid.setType(EntityChangedEvent.EntityType.MEAL);
+        invalid.setOp(SyncUploadRequest.Operation.UPSERT);
+        invalid.setMeal(new MealRequest());
+        request.setMutations(List.of(request.getMutations().get(0), invalid));
+
+        List<SyncUploadResponse.Result> results = syncService.upload(user, request).getResults();
+        assertEquals(SyncUploadResponse.Status.APPLIED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getId());
+        assertEquals(SyncUploadResponse.Status.INVALID, results.get(1).getStatus());
+    }
+
+    @Test
+    void historyFromBeforeTheFeedIsAddedInTheBackground() throws InterruptedException {
+        // Saved straight through the repository, as before the feed existed
+        for (int i = 0; i < 5; i++) {
+            mealRepository.save(Meal.builder().user(user).description("Old " + i)
+                    .consumedAt(LocalDateTime.of(2025, 1, 1 + i, 8, 0)).build());
+        }
+        MealResponse created = mealService.createMeal(user, meal("New"));
+        SyncResponse first = syncService.getChanges(user, null, 500);
+        assertEquals(List.of(created.getId()), first.getChanges().stream().map(SyncResponse.Change::getId).toList());
+
+        BackgroundJob job = jobRepository.findByUserIdOrderByCreatedAtDesc(user.getId(),
+                PageRequest.of(0, 10)).stream()
+                .filter(candidate -> candidate.getType() == BackgroundJob.JobType.SYNC_BACKFILL)
+                .findFirst().orElseThrow();
+        assertEquals(5, runToCompletion(job.getId()).getProcessed());
+
+        SyncResponse delta = syncService.getChanges(user, first.getNextToken(), 500);
+        assertEquals(5, delta.getChanges().size());
+        assertEquals("Old 0", delta.getChanges().get(0).getMeal().getDescription());
+        assertTrue(delta.getChanges().get(0).getSeq() > first.getChanges().get(0).getSeq());
+    }
+
+    @Test
+    void concurrentFirstChangesOfAUserBothSucceed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CyclicBarrier start = new CyclicBarrier(2);
+            Callable<MealResponse> create = () -> {
+                start.await();
+                return mealService.createMeal(user, meal("Concurrent"));
+            };
+            Future<MealResponse> one = executor.submit(create);
+            Future<MealResponse> two = executor.submit(create);
+            one.get(10, TimeUnit.SECONDS);
+            two.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        List<SyncResponse.Change> changes = syncService.getChanges(user, null, 500).getChanges();
+        assertEquals(2, changes.size());
+        assertNotEquals(changes.get(0).getSeq(), changes.get(1).getSeq());
+    }
+
+    @Test
+    void editOfARecordRemovedOutsideTheFeedIsNotFound() {
+        MealResponse created = mealService.createMeal(user, meal("Rice"));
+        mealRepository.deleteById(created.getId());
+
+        SyncUploadResponse response = syncService.upload(user, upload(created.getId(), null, meal("Fried rice")));
+        assertEquals(SyncUploadResponse.Status.NOT_FOUND, response.getResults().get(0).getStatus());
+    }
+
+    @Test
+    void tokensRoundTripAndRejectGarbage() {
+        assertEquals(new SyncToken(42, 7), SyncToken.decode(new SyncToken(42, 7).encode()));
+        assertEquals(SyncToken.START, SyncToken.decode(""));
+        assertEquals(SyncToken.START, SyncToken.decode("0"));
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("5"));
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("-1.0"));
+    }
+
+    private BackgroundJob runToCompletion(UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            jobRunner.poll();
+            BackgroundJob job = jobRepository.findById(id).orElseThrow();
+            if (job.getStatus() == BackgroundJob.Status.COMPLETED || job.getStatus() == BackgroundJob.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Job " + id + " did not finish");
+    }
+
+    private static MealRequest meal(String description) {
+        MealRequest request = new MealRequest();
+        request.setDescription(description);
+        request.setConsumedAt(LocalDateTime.of(2026, 3, 1, 8, 0));
+        return request;
+    }
+
+    private static SyncUploadRequest upload(UUID id, Long baseSeq, MealRequest meal) {
+        SyncUploadRequest.Mutation mutation = new SyncUploadRequest.Mutation();
+        mutation.setClientRef("local-1");
+        mutation.setType(EntityChangedEvent.EntityType.MEAL);
+        mutation.setId(id);
+        mutation.setOp(SyncUploadRequest.Operation.UPSERT);
+        mutation.setBaseSeq(baseSeq);
+        mutation.setMeal(meal);
+        SyncUploadRequest request = new SyncUploadRequest();
+        request.setMutations(List.of(mutation));
+        return request;
+    }
+}
@@ -0,0 +1,73 @@
+package com.glucocloud.api.timeline;
+
+import com.glucocloud.api.dto.TimelineResponse;
+import com.glucocloud.api.event.EntityChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineMergeTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Test
+    void testMergesSortedSourcesNewestFirst() {
+        Random random = new Random(11);
+        List<TimelineResponse.Event> all = new ArrayList<>();
+        List<List<TimelineResponse.Event>> sources = new ArrayList<>();
+        for (EntityChangedEvent.EntityType type : EntityChangedEvent.EntityType.values()) {
+            List<TimelineResponse.Event> source = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                // Coarse times so that events of different types share instants
+                source.add(event(type, random.nextInt(300)));
+            }
+            source.sort(TimelineCursor.ORDER);
+            sources.add(source);
+            all.addAll(source);
+        }
+        all.sort(TimelineCursor.ORDER);
+
+        assertEquals(all.subList(0, 250), TimelineService.merge(sources, 250));
+        assertEquals(all, TimelineService.merge(sources, 10_000));
+        assertTrue(TimelineService.merge(List.of(List.of(), List.of()), 5).isEmpty());
+    }
+
+    @Test
+    void testCursorRoundTripsAndOrdersTiesByTypeThenId() {
+        TimelineResponse.Event reading = event(EntityChangedEvent.EntityType.GLUCOSE_READING, 5);
+        TimelineResponse.Event meal = event(EntityChangedEvent.EntityType.MEAL, 5);
+        TimelineResponse.Event older = event(EntityChangedEvent.EntityType.MEDICATION, 4);
+
+        List<TimelineResponse.Event> events = new ArrayList<>(List.of(older, reading, meal));
+        events.sort(TimelineCursor.ORDER);
+        assertEquals(List.of(meal, reading, older), events);
+
+        TimelineCursor cursor = TimelineCursor.of(meal);
+        assertEquals(cursor, TimelineCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> TimelineCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void testIdsOrderAsUnsignedBytes() {
+        TimelineResponse.Event low = event(EntityChangedEvent.EntityType.MEAL, 0, new UUID(0x7fffffffffffffffL, 0));
+        TimelineResponse.Event high = event(EntityChangedEvent.EntityType.MEAL, 0, new UUID(0x8000000000000000L, 0));
+
+        // UUID.compareTo is signed and would order these the other way round
+        assertTrue(TimelineCursor.ORDER.compare(high, low) < 0);
+    }
+
+    private static TimelineResponse.Event event(EntityChangedEvent.EntityType type, int minutes) {
+        return event(type, minutes, UUID.randomUUID());
+    }
+
+    private static TimelineResponse.Event event(EntityChangedEvent.EntityType type, int minutes, UUID id) {
+        return TimelineResponse.Event.builder()
+                .type(type)
+                .id(id)
+                .occurredAt(START.plusMinutes(minutes))
+                .build();
+    }
+}